@@ -0,0 +1,489 @@
+package org.isageek.smijran.emf.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EEnum;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Generator of typed counterparts of {@link E.Predicates}, {@link E.Functions} and {@link E.Comparators} for
+ * classes of generated model. For every {@link EClass} with instance class, e.g. <code>Order</code>, class
+ * <code>OrderE</code> is generated with static methods per feature, e.g. <code>OrderE.price()</code>,
+ * <code>OrderE.priceEq(double)</code>, <code>OrderE.priceBetween(double, double)</code> and
+ * <code>OrderE.byPrice()</code>, which call generated getters directly instead of reflective
+ * <code>eGet</code>. Primitive features get primitive functional interfaces, ranges have inclusive lower and
+ * exclusive upper bound and comparators order <code>null</code> first, like their reflective counterparts.
+ * Map features get function returning {@link org.eclipse.emf.common.util.EMap} and key predicates, map entry
+ * classes themselves are not generated. Sources have <code>\n</code> line ends and import only used types,
+ * so they do not depend on platform.
+ * <p>
+ * Generator can be run by build, e.g. by <code>exec-maven-plugin</code> in <code>generate-sources</code>
+ * phase, by {@link #main(String[])}.
+ */
+public final class AccessorGenerator
+{
+    private static final Set< String > KEYWORDS = new HashSet<>( Arrays.asList( "abstract", "assert",
+        "boolean", "break", "byte", "case", "catch", "char", "class", "const", "continue", "default", "do",
+        "double", "else", "enum", "extends", "false", "final", "finally", "float", "for", "goto", "if",
+        "implements", "import", "instanceof", "int", "interface", "long", "native", "new", "null", "package",
+        "private", "protected", "public", "return", "short", "static", "strictfp", "super", "switch",
+        "synchronized", "this", "throw", "throws", "transient", "true", "try", "void", "volatile", "while" ) );
+
+    /**
+     * Getters renamed by EMF because they clash with {@link Object} methods.
+     */
+    private static final Set< String > RESERVED_GETTERS = new HashSet<>( Arrays.asList( "getClass" ) );
+
+    private static final Set< String > COMPARABLE = new HashSet<>( Arrays.asList( "java.lang.String",
+        "java.lang.Integer", "java.lang.Long", "java.lang.Short", "java.lang.Byte", "java.lang.Character",
+        "java.lang.Double", "java.lang.Float", "java.lang.Boolean", "java.math.BigDecimal",
+        "java.math.BigInteger", "java.util.Date" ) );
+
+    private static final Map< String, String > BOXES = new LinkedHashMap<>();
+
+    static
+    {
+        BOXES.put( "boolean", "java.lang.Boolean" );
+        BOXES.put( "byte", "java.lang.Byte" );
+        BOXES.put( "char", "java.lang.Character" );
+        BOXES.put( "short", "java.lang.Short" );
+        BOXES.put( "int", "java.lang.Integer" );
+        BOXES.put( "long", "java.lang.Long" );
+        BOXES.put( "float", "java.lang.Float" );
+        BOXES.put( "double", "java.lang.Double" );
+    }
+
+    private final String targetPackage;
+
+    AccessorGenerator( String aTargetPackage )
+    {
+        targetPackage = Preconditions.checkNotNull( aTargetPackage, "Package is missing." );
+    }
+
+    /**
+     * Generates sources of package and writes them under source root.
+     *
+     * @param aArguments
+     *            Qualified name of generated <code>EPackage</code> interface with <code>eINSTANCE</code>
+     *            field, target Java package and source root directory.
+     * @throws Exception
+     *             when package cannot be loaded or sources cannot be written.
+     */
+    public static void main( String[] aArguments ) throws Exception
+    {
+        Preconditions.checkArgument( aArguments.length == 3,
+            "Usage: AccessorGenerator <EPackage interface> <target package> <source root>" );
+        final EPackage ePackage =
+            (EPackage)Class.forName( aArguments[ 0 ] ).getField( "eINSTANCE" ).get( null );
+        new AccessorGenerator( aArguments[ 1 ] ).write( ePackage, Paths.get( aArguments[ 2 ] ) );
+    }
+
+    /**
+     * @return Java package of generated classes.
+     */
+    public String getTargetPackage()
+    {
+        return targetPackage;
+    }
+
+    /**
+     * Generates sources of all classes of package and its subpackages which have instance class.
+     *
+     * @param aPackage
+     *            Package of generated model.
+     * @return Source by qualified name of generated class, in order of classifiers.
+     */
+    public Map< String, String > generate( EPackage aPackage )
+    {
+        Preconditions.checkNotNull( aPackage, "Package is missing." );
+        final Map< String, String > result = new LinkedHashMap<>();
+        collect( aPackage, result );
+        return result;
+    }
+
+    /**
+     * Generates source of one class.
+     *
+     * @param aClass
+     *            Class with instance class.
+     * @return Source of <code>&lt;Class&gt;E</code>.
+     */
+    public String generate( EClass aClass )
+    {
+        Preconditions.checkNotNull( aClass, "Class is missing." );
+        Preconditions.checkArgument( aClass.getInstanceClassName() != null, "Class %s has no instance class.",
+            aClass.getName() );
+        final String type = typeName( aClass.getInstanceClassName() );
+        final Source body = new Source();
+        body.line( "/**" ).line( " * Typed predicates, functions and comparators of {@link " + type + "}." )
+            .line( " * <p>" )
+            .line( " * Generated by {@link " + AccessorGenerator.class.getName() + "}, do not edit." )
+            .line( " */" );
+        body.line( "public final class " + className( aClass ) ).open();
+        body.line( "private " + className( aClass ) + "()" ).open().line( "// Factory class" ).close();
+        for ( EStructuralFeature feature : aClass.getEAllStructuralFeatures() )
+        {
+            feature( body, type, feature );
+        }
+        body.close();
+        final Source source = new Source();
+        if ( !targetPackage.isEmpty() )
+        {
+            source.line( "package " + targetPackage + ";" ).line();
+        }
+        for ( String imported : body.imports )
+        {
+            source.line( "import " + imported + ";" );
+        }
+        if ( !body.imports.isEmpty() )
+        {
+            source.line();
+        }
+        return source.toString() + body.toString();
+    }
+
+    /**
+     * Generates sources of package and writes them under source root, files with the same content are not
+     * rewritten.
+     *
+     * @param aPackage
+     *            Package of generated model.
+     * @param aSourceRoot
+     *            Source root directory.
+     * @return Written files.
+     * @throws IOException
+     *             when file cannot be written.
+     */
+    public List< Path > write( EPackage aPackage, Path aSourceRoot ) throws IOException
+    {
+        Preconditions.checkNotNull( aSourceRoot, "Source root is missing." );
+        final List< Path > result = new ArrayList<>();
+        for ( Map.Entry< String, String > entry : generate( aPackage ).entrySet() )
+        {
+            final Path file = aSourceRoot.resolve( entry.getKey().replace( '.', '/' ) + ".java" );
+            final byte[] content = entry.getValue().getBytes( StandardCharsets.UTF_8 );
+            if ( Files.exists( file ) && Arrays.equals( Files.readAllBytes( file ), content ) )
+            {
+                continue;
+            }
+            Files.createDirectories( file.getParent() );
+            Files.write( file, content );
+            result.add( file );
+        }
+        return result;
+    }
+
+    private void collect( EPackage aPackage, Map< String, String > aResult )
+    {
+        for ( EClassifier classifier : aPackage.getEClassifiers() )
+        {
+            if ( classifier instanceof EClass && classifier.getInstanceClassName() != null
+                && !isMapEntry( classifier ) )
+            {
+                final String name = className( (EClass)classifier );
+                aResult.put( targetPackage.isEmpty() ? name : targetPackage + "." + name,
+                    generate( (EClass)classifier ) );
+            }
+        }
+        aPackage.getESubpackages().forEach( aSubpackage -> collect( aSubpackage, aResult ) );
+    }
+
+    private static void feature( Source aSource, String aType, EStructuralFeature aFeature )
+    {
+        final String name = aFeature.getName();
+        final String method = identifier( name );
+        final String getter = getter( aFeature );
+        final String valueType = valueType( aFeature );
+        final String description = "{@link " + aType + "#" + getter + "()}";
+        if ( isMapEntry( aFeature.getEType() ) )
+        {
+            map( aSource, aType, aFeature );
+            return;
+        }
+        if ( aFeature.isMany() )
+        {
+            final String element = box( valueType );
+            aSource.doc( "@return Function returning " + description + "." )
+                .line( "public static " + aSource.use( "java.util.function.Function" ) + "< " + aType
+                    + ", org.eclipse.emf.common.util.EList< " + element + " > > " + method + "()" )
+                .open().line( "return " + aType + "::" + getter + ";" ).close();
+            aSource.doc( "@return Predicate testing whether " + description + " contains given value." )
+                .line( predicate( aSource, aType, name + "Contains", element + " aValue" ) )
+                .open().line( "return aObject -> aObject." + getter + "().contains( aValue );" ).close();
+            aSource.doc( "@return Predicate testing whether " + description + " is empty." )
+                .line( predicate( aSource, aType, name + "IsEmpty", "" ) ).open()
+                .line( "return aObject -> aObject." + getter + "().isEmpty();" ).close();
+            return;
+        }
+        switch ( valueType )
+        {
+            case "boolean":
+                aSource.doc( "@return Predicate returning " + description + "." )
+                    .line( predicate( aSource, aType, method, "" ) ).open()
+                    .line( "return " + aType + "::" + getter + ";" ).close();
+                break;
+            case "byte":
+            case "char":
+            case "short":
+            case "int":
+                primitive( aSource, aType, aFeature, "int", "ToIntFunction", "Int" );
+                break;
+            case "long":
+                primitive( aSource, aType, aFeature, "long", "ToLongFunction", "Long" );
+                break;
+            case "float":
+            case "double":
+                primitive( aSource, aType, aFeature, "double", "ToDoubleFunction", "Double" );
+                break;
+            default:
+                object( aSource, aType, aFeature, valueType );
+                break;
+        }
+    }
+
+    private static void primitive( Source aSource, String aType, EStructuralFeature aFeature,
+        String aPrimitive, String aFunction, String aSuffix )
+    {
+        final String name = aFeature.getName();
+        final String getter = getter( aFeature );
+        final String description = "{@link " + aType + "#" + getter + "()}";
+        aSource.doc( "@return Function returning " + description + "." )
+            .line( "public static " + aSource.use( "java.util.function." + aFunction ) + "< " + aType + " > "
+                + identifier( name ) + "()" )
+            .open()
+            .line( "return " + aType + "::" + getter + ";" ).close();
+        aSource.doc( "@return Predicate testing whether " + description + " equals to given value." )
+            .line( predicate( aSource, aType, name + "Eq", aPrimitive + " aValue" ) ).open()
+            .line( "return aObject -> aObject." + getter + "() == aValue;" ).close();
+        aSource.doc( "@return Predicate testing whether " + description
+            + " is between lower bound and upper exclusive bound." )
+            .line( predicate( aSource, aType, name + "Between", aPrimitive + " aLowerBound, " + aPrimitive
+                + " aUpperBound" ) )
+            .open().line( "return aObject -> {" ).indent()
+            .line( "final " + aPrimitive + " value = aObject." + getter + "();" )
+            .line( "return aLowerBound <= value && value < aUpperBound;" ).outdent().line( "};" ).close();
+        aSource.doc( "@return Comparator by " + description + "." )
+            .line( "public static " + aSource.use( "java.util.Comparator" ) + "< " + aType + " > by"
+                + capitalize( name ) + "()" )
+            .open().line( "return Comparator.comparing" + aSuffix + "( " + aType + "::" + getter + " );" )
+            .close();
+    }
+
+    private static void object( Source aSource, String aType, EStructuralFeature aFeature, String aValueType )
+    {
+        final String name = aFeature.getName();
+        final String getter = getter( aFeature );
+        final String description = "{@link " + aType + "#" + getter + "()}";
+        final boolean reference = aFeature.getEType() instanceof EClass;
+        aSource.doc( "@return Function returning " + description + "." )
+            .line( "public static " + aSource.use( "java.util.function.Function" ) + "< " + aType + ", "
+                + aValueType + " > " + identifier( name ) + "()" )
+            .open().line( "return " + aType + "::" + getter + ";" ).close();
+        aSource.doc( "@return Predicate testing whether " + description + ( reference ? " is given object."
+            : " equals to given value." ) )
+            .line( predicate( aSource, aType, name + "Eq", aValueType + " aValue" ) ).open()
+            .line( reference ? "return aObject -> aObject." + getter + "() == aValue;"
+                : "return aObject -> " + aSource.use( "java.util.Objects" ) + ".equals( aObject." + getter
+                    + "(), aValue );" )
+            .close();
+        aSource.doc( "@return Predicate testing whether " + description + " is <code>null</code>." )
+            .line( predicate( aSource, aType, name + "IsNull", "" ) ).open()
+            .line( "return aObject -> aObject." + getter + "() == null;" ).close();
+        if ( reference || !( COMPARABLE.contains( aValueType ) || aFeature.getEType() instanceof EEnum ) )
+        {
+            return;
+        }
+        aSource.doc( "@return Predicate testing whether " + description
+            + " is between lower bound and upper exclusive bound, <code>null</code> is not." )
+            .line( predicate( aSource, aType, name + "Between", aValueType + " aLowerBound, " + aValueType
+                + " aUpperBound" ) )
+            .open().line( "return aObject -> {" ).indent()
+            .line( "final " + aValueType + " value = aObject." + getter + "();" )
+            .line( "return value != null && aLowerBound.compareTo( value ) <= 0 && "
+                + "aUpperBound.compareTo( value ) > 0;" )
+            .outdent().line( "};" ).close();
+        aSource.doc( "@return Comparator by " + description + ", <code>null</code> values are the least." )
+            .line( "public static " + aSource.use( "java.util.Comparator" ) + "< " + aType + " > by"
+                + capitalize( name ) + "()" )
+            .open().line( "return Comparator.comparing( " + aType + "::" + getter
+                + ", Comparator.nullsFirst( Comparator.naturalOrder() ) );" )
+            .close();
+    }
+
+    /**
+     * Generates function returning map and predicates of its keys. Generated getter returns
+     * {@link org.eclipse.emf.common.util.EMap}, which is list of entries, not of key or value type.
+     */
+    private static void map( Source aSource, String aType, EStructuralFeature aFeature )
+    {
+        final String name = aFeature.getName();
+        final String getter = getter( aFeature );
+        final String description = "{@link " + aType + "#" + getter + "()}";
+        final EClass entry = (EClass)aFeature.getEType();
+        final String key = box( valueType( entry.getEStructuralFeature( "key" ) ) );
+        final String value = box( valueType( entry.getEStructuralFeature( "value" ) ) );
+        aSource.doc( "@return Function returning " + description + "." )
+            .line( "public static " + aSource.use( "java.util.function.Function" ) + "< " + aType
+                + ", org.eclipse.emf.common.util.EMap< " + key + ", " + value + " > > " + identifier( name )
+                + "()" )
+            .open().line( "return " + aType + "::" + getter + ";" ).close();
+        aSource.doc( "@return Predicate testing whether " + description + " contains given key." )
+            .line( predicate( aSource, aType, name + "ContainsKey", key + " aKey" ) ).open()
+            .line( "return aObject -> aObject." + getter + "().containsKey( aKey );" ).close();
+        aSource.doc( "@return Predicate testing whether " + description + " is empty." )
+            .line( predicate( aSource, aType, name + "IsEmpty", "" ) ).open()
+            .line( "return aObject -> aObject." + getter + "().isEmpty();" ).close();
+    }
+
+    private static String predicate( Source aSource, String aType, String aMethod, String aParameters )
+    {
+        return "public static " + aSource.use( "java.util.function.Predicate" ) + "< " + aType + " > "
+            + aMethod + ( aParameters.isEmpty() ? "()" : "( " + aParameters + " )" );
+    }
+
+    /**
+     * @return <code>true</code> for class of map entries, e.g. <code>EStringToStringMapEntry</code>.
+     */
+    private static boolean isMapEntry( EClassifier aClassifier )
+    {
+        return aClassifier instanceof EClass && ( "java.util.Map$Entry".equals( aClassifier
+            .getInstanceClassName() ) || "java.util.Map.Entry".equals( aClassifier.getInstanceClassName() ) );
+    }
+
+    private static String className( EClass aClass )
+    {
+        return aClass.getName() + "E";
+    }
+
+    /**
+     * @return Name of generated getter, following EMF code generation conventions.
+     */
+    private static String getter( EStructuralFeature aFeature )
+    {
+        final boolean bool = aFeature instanceof EAttribute && !aFeature.isMany()
+            && "boolean".equals( aFeature.getEType().getInstanceClassName() );
+        final String result = ( bool ? "is" : "get" ) + capitalize( aFeature.getName() );
+        return RESERVED_GETTERS.contains( result ) ? result + "_" : result;
+    }
+
+    private static String valueType( EStructuralFeature aFeature )
+    {
+        final EClassifier type = aFeature == null ? null : aFeature.getEType();
+        final String name = type == null ? null : type.getInstanceClassName();
+        return name == null ? "java.lang.Object" : typeName( name );
+    }
+
+    private static String typeName( String aInstanceClassName )
+    {
+        return aInstanceClassName.replace( '$', '.' );
+    }
+
+    private static String box( String aType )
+    {
+        final String result = BOXES.get( aType );
+        return result == null ? aType : result;
+    }
+
+    private static String identifier( String aName )
+    {
+        return KEYWORDS.contains( aName ) ? aName + "_" : aName;
+    }
+
+    private static String capitalize( String aName )
+    {
+        return aName.isEmpty() ? aName : Character.toUpperCase( aName.charAt( 0 ) ) + aName.substring( 1 );
+    }
+
+    /**
+     * Builder of source in format of this library.
+     */
+    private static final class Source
+    {
+        private final StringBuilder text = new StringBuilder();
+
+        /**
+         * Qualified names of types used by source, sorted.
+         */
+        final Set< String > imports = new TreeSet<>();
+
+        private int depth;
+
+        /**
+         * @return Simple name of type, which is imported.
+         */
+        String use( String aQualifiedName )
+        {
+            imports.add( aQualifiedName );
+            return aQualifiedName.substring( aQualifiedName.lastIndexOf( '.' ) + 1 );
+        }
+
+        Source line()
+        {
+            text.append( '\n' );
+            return this;
+        }
+
+        Source line( String aLine )
+        {
+            for ( int i = 0; i < depth; i++ )
+            {
+                text.append( "    " );
+            }
+            text.append( aLine );
+            return line();
+        }
+
+        Source doc( String aReturn )
+        {
+            return line().line( "/**" ).line( " * " + aReturn ).line( " */" );
+        }
+
+        Source open()
+        {
+            line( "{" );
+            return indent();
+        }
+
+        Source close()
+        {
+            outdent();
+            return line( "}" );
+        }
+
+        Source indent()
+        {
+            depth++;
+            return this;
+        }
+
+        Source outdent()
+        {
+            depth--;
+            return this;
+        }
+
+        @Override
+        public String toString()
+        {
+            return text.toString();
+        }
+    }
+}
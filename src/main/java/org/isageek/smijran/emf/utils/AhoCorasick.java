@@ -0,0 +1,162 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Aho-Corasick automaton testing whether text contains any of given patterns in single pass over text.
+ * Transitions of each state are kept in sorted primitive arrays, so matching does not allocate. Instances
+ * are immutable and thread safe.
+ */
+final class AhoCorasick
+{
+    private static final char[] NO_LABELS = new char[ 0 ];
+
+    private static final int[] NO_TARGETS = new int[ 0 ];
+
+    private final boolean ignoreCase;
+
+    private final char[][] labels;
+
+    private final int[][] targets;
+
+    private final int[] failure;
+
+    private final boolean[] output;
+
+    private int states;
+
+    /**
+     * Builds automaton.
+     * 
+     * @param aPatterns
+     *            Patterns, at least one.
+     * @param aIgnoreCase
+     *            Whether matching should ignore case of characters.
+     */
+    AhoCorasick( String[] aPatterns, boolean aIgnoreCase )
+    {
+        Preconditions.checkArgument( aPatterns.length > 0, "Patterns are missing." );
+        ignoreCase = aIgnoreCase;
+        int capacity = 1;
+        for ( final String pattern : aPatterns )
+        {
+            capacity += pattern.length();
+        }
+        labels = new char[ capacity ][];
+        targets = new int[ capacity ][];
+        output = new boolean[ capacity ];
+        failure = new int[ capacity ];
+        labels[ 0 ] = NO_LABELS;
+        targets[ 0 ] = NO_TARGETS;
+        states = 1;
+        for ( final String pattern : aPatterns )
+        {
+            int state = 0;
+            for ( int i = 0; i < pattern.length(); i++ )
+            {
+                final char c = fold( pattern.charAt( i ) );
+                final int next = next( state, c );
+                state = next != 0 ? next : addState( state, c );
+            }
+            output[ state ] = true;
+        }
+        link();
+    }
+
+    /**
+     * Tests whether text contains any pattern.
+     * 
+     * @param aText
+     *            Text.
+     * @return <code>true</code> if any pattern occurs in text.
+     */
+    boolean containsAny( CharSequence aText )
+    {
+        if ( output[ 0 ] )
+        {
+            return true;
+        }
+        int state = 0;
+        for ( int i = 0; i < aText.length(); i++ )
+        {
+            final char c = fold( aText.charAt( i ) );
+            int next;
+            while ( ( next = next( state, c ) ) == 0 && state != 0 )
+            {
+                state = failure[ state ];
+            }
+            state = next;
+            if ( output[ state ] )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private char fold( char aChar )
+    {
+        return ignoreCase ? Character.toLowerCase( Character.toUpperCase( aChar ) ) : aChar;
+    }
+
+    private int next( int aState, char aChar )
+    {
+        final int index = Arrays.binarySearch( labels[ aState ], aChar );
+        return index >= 0 ? targets[ aState ][ index ] : 0;
+    }
+
+    private int addState( int aFrom, char aChar )
+    {
+        final int state = states++;
+        labels[ state ] = NO_LABELS;
+        targets[ state ] = NO_TARGETS;
+        final char[] oldLabels = labels[ aFrom ];
+        final int[] oldTargets = targets[ aFrom ];
+        final int position = -Arrays.binarySearch( oldLabels, aChar ) - 1;
+        final char[] newLabels = new char[ oldLabels.length + 1 ];
+        final int[] newTargets = new int[ oldTargets.length + 1 ];
+        System.arraycopy( oldLabels, 0, newLabels, 0, position );
+        System.arraycopy( oldTargets, 0, newTargets, 0, position );
+        newLabels[ position ] = aChar;
+        newTargets[ position ] = state;
+        System.arraycopy( oldLabels, position, newLabels, position + 1, oldLabels.length - position );
+        System.arraycopy( oldTargets, position, newTargets, position + 1, oldTargets.length - position );
+        labels[ aFrom ] = newLabels;
+        targets[ aFrom ] = newTargets;
+        return state;
+    }
+
+    /**
+     * Computes failure links breadth first and propagates outputs along them.
+     */
+    private void link()
+    {
+        final Deque< Integer > queue = new ArrayDeque<>();
+        for ( final int child : targets[ 0 ] )
+        {
+            failure[ child ] = 0;
+            queue.add( child );
+        }
+        while ( !queue.isEmpty() )
+        {
+            final int state = queue.poll();
+            for ( int i = 0; i < labels[ state ].length; i++ )
+            {
+                final char c = labels[ state ][ i ];
+                final int child = targets[ state ][ i ];
+                int fallback = failure[ state ];
+                while ( fallback != 0 && next( fallback, c ) == 0 )
+                {
+                    fallback = failure[ fallback ];
+                }
+                failure[ child ] = next( fallback, c );
+                output[ child ] |= output[ failure[ child ] ];
+                queue.add( child );
+            }
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package org.isageek.smijran.emf.utils;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+/**
+ * Asynchronous application of blocking {@link Consumer} to every object of stream. Consumers run on virtual
+ * threads when JVM provides them, otherwise on fixed pool of platform threads. At most given number of
+ * consumers run or wait at once, the stream is consumed by dispatcher thread which blocks when limit is
+ * reached. Objects of the same containment tree, or of trees with roots in the same resource, are processed
+ * one after another in stream order, so consumer of object never runs concurrently with consumers of its
+ * container, siblings or contents. Objects of different trees are processed concurrently. Failures of consumer
+ * are recorded and do not stop processing.
+ */
+public final class AsyncBatch
+{
+    private static final Method VIRTUAL = virtualFactory();
+
+    private final ExecutorService executor;
+
+    private final boolean virtual;
+
+    private final Semaphore permits;
+
+    /**
+     * Last scheduled task by resource or root of containment tree.
+     */
+    private final ConcurrentMap< Object, CompletableFuture< Void > > tails = new ConcurrentHashMap<>();
+
+    private final CompletableFuture< AsyncBatch > completion = new CompletableFuture<>();
+
+    /**
+     * Running or waiting tasks, plus one until stream is exhausted.
+     */
+    private final AtomicInteger pending = new AtomicInteger( 1 );
+
+    private final LongAdder submitted = new LongAdder();
+
+    private final LongAdder completed = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder latency = new LongAdder();
+
+    private final LongAccumulator maxLatency = new LongAccumulator( Long::max, 0 );
+
+    private final Map< EObject, Throwable > failures = new ConcurrentHashMap<>();
+
+    private final long start = System.nanoTime();
+
+    private volatile long end;
+
+    AsyncBatch( Stream< ? extends EObject > aStream, Consumer< ? super EObject > aConsumer,
+        int aMaxConcurrency )
+    {
+        Preconditions.checkNotNull( aStream, "Stream is missing." );
+        Preconditions.checkNotNull( aConsumer, "Consumer is missing." );
+        Preconditions.checkArgument( aMaxConcurrency > 0, "Concurrency is not positive." );
+        permits = new Semaphore( aMaxConcurrency );
+        final ExecutorService virtualExecutor = virtualExecutor();
+        virtual = virtualExecutor != null;
+        executor = virtual ? virtualExecutor : Executors.newFixedThreadPool( aMaxConcurrency, aRunnable -> {
+            final Thread thread = new Thread( aRunnable, "emf-async-worker" );
+            thread.setDaemon( true );
+            return thread;
+        } );
+        final Thread dispatcher = new Thread( () -> dispatch( aStream, aConsumer ), "emf-async-dispatcher" );
+        dispatcher.setDaemon( true );
+        dispatcher.start();
+    }
+
+    /**
+     * @return <code>true</code> if consumers run on virtual threads.
+     */
+    public boolean isVirtual()
+    {
+        return virtual;
+    }
+
+    /**
+     * @return Future completed with this batch when all objects are processed.
+     */
+    public CompletableFuture< AsyncBatch > getCompletion()
+    {
+        return completion;
+    }
+
+    /**
+     * Waits until all objects are processed.
+     *
+     * @return This batch.
+     */
+    public AsyncBatch await()
+    {
+        return completion.join();
+    }
+
+    /**
+     * @return <code>true</code> if all objects are processed.
+     */
+    public boolean isDone()
+    {
+        return completion.isDone();
+    }
+
+    /**
+     * @return Number of objects taken from stream.
+     */
+    public long getSubmitted()
+    {
+        return submitted.sum();
+    }
+
+    /**
+     * @return Number of objects processed successfully.
+     */
+    public long getCompleted()
+    {
+        return completed.sum();
+    }
+
+    /**
+     * @return Number of consumer calls which threw exception.
+     */
+    public long getFailed()
+    {
+        return failed.sum();
+    }
+
+    /**
+     * @return Exceptions thrown by consumer by object, the last one for object given repeatedly.
+     */
+    public Map< EObject, Throwable > getFailures()
+    {
+        return Collections.unmodifiableMap( failures );
+    }
+
+    /**
+     * @param aUnit
+     *            Time unit.
+     * @return Average time of one consumer call.
+     */
+    public double getAverageLatency( TimeUnit aUnit )
+    {
+        final long calls = completed.sum() + failed.sum();
+        return calls == 0 ? 0 : (double)aUnit.convert( latency.sum(), TimeUnit.NANOSECONDS ) / calls;
+    }
+
+    /**
+     * @param aUnit
+     *            Time unit.
+     * @return Longest consumer call.
+     */
+    public long getMaxLatency( TimeUnit aUnit )
+    {
+        return aUnit.convert( maxLatency.get(), TimeUnit.NANOSECONDS );
+    }
+
+    /**
+     * @return Processed objects per second since start, until completion.
+     */
+    public double getThroughput()
+    {
+        final long finished = end == 0 ? System.nanoTime() : end;
+        final long elapsed = Math.max( 1, finished - start );
+        return ( completed.sum() + failed.sum() ) * 1e9 / elapsed;
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper( this ).add( "virtual", virtual ).add( "submitted", getSubmitted() )
+            .add( "completed", getCompleted() ).add( "failed", getFailed() ).add( "done", isDone() )
+            .toString();
+    }
+
+    private void dispatch( Stream< ? extends EObject > aStream, Consumer< ? super EObject > aConsumer )
+    {
+        try
+        {
+            aStream.forEach( aObject -> submit( aObject, aConsumer ) );
+        }
+        catch ( RuntimeException | Error e )
+        {
+            completion.completeExceptionally( e );
+        }
+        finally
+        {
+            aStream.close();
+            finished();
+        }
+    }
+
+    private void submit( EObject aObject, Consumer< ? super EObject > aConsumer )
+    {
+        permits.acquireUninterruptibly();
+        pending.incrementAndGet();
+        submitted.increment();
+        final Object key = key( aObject );
+        final Runnable task = () -> run( aObject, aConsumer );
+        final CompletableFuture< Void > next = tails.compute( key, ( aKey, aTail ) -> aTail == null
+            ? CompletableFuture.runAsync( task, executor ) : aTail.thenRunAsync( task, executor ) );
+        next.whenComplete( ( aResult, aFailure ) -> {
+            tails.remove( key, next );
+            permits.release();
+            finished();
+        } );
+    }
+
+    /**
+     * @return Resource of root of containment tree of object or the root outside resource.
+     */
+    private static Object key( EObject aObject )
+    {
+        final EObject root = EcoreUtil.getRootContainer( aObject );
+        return root.eResource() == null ? root : root.eResource();
+    }
+
+    private void run( EObject aObject, Consumer< ? super EObject > aConsumer )
+    {
+        final long begin = System.nanoTime();
+        try
+        {
+            aConsumer.accept( aObject );
+            completed.increment();
+        }
+        catch ( RuntimeException | Error e )
+        {
+            failed.increment();
+            failures.put( aObject, e );
+        }
+        finally
+        {
+            final long time = System.nanoTime() - begin;
+            latency.add( time );
+            maxLatency.accumulate( time );
+        }
+    }
+
+    private void finished()
+    {
+        if ( pending.decrementAndGet() == 0 )
+        {
+            end = System.nanoTime();
+            executor.shutdown();
+            completion.complete( this );
+        }
+    }
+
+    private static ExecutorService virtualExecutor()
+    {
+        if ( VIRTUAL == null )
+        {
+            return null;
+        }
+        try
+        {
+            return (ExecutorService)VIRTUAL.invoke( null );
+        }
+        catch ( ReflectiveOperationException | RuntimeException e )
+        {
+            return null;
+        }
+    }
+
+    /**
+     * @return <code>Executors.newVirtualThreadPerTaskExecutor</code> or <code>null</code> before Java 21.
+     */
+    private static Method virtualFactory()
+    {
+        try
+        {
+            return Executors.class.getMethod( "newVirtualThreadPerTaskExecutor" );
+        }
+        catch ( NoSuchMethodException e )
+        {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.isageek.smijran.emf.utils;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Immutable copy of {@link Notification} about change of {@link EObject} feature.
+ */
+public final class Change
+{
+    private final EObject object;
+
+    private final EStructuralFeature feature;
+
+    private final int eventType;
+
+    private final Object oldValue;
+
+    private final Object newValue;
+
+    private final int position;
+
+    Change( EObject aObject, EStructuralFeature aFeature, int aEventType, Object aOldValue, Object aNewValue,
+        int aPosition )
+    {
+        object = aObject;
+        feature = aFeature;
+        eventType = aEventType;
+        oldValue = aOldValue;
+        newValue = aNewValue;
+        position = aPosition;
+    }
+
+    /**
+     * Copies notification.
+     * 
+     * @param aNotification
+     *            Notification of {@link EObject}.
+     * @return New change.
+     */
+    static Change of( Notification aNotification )
+    {
+        return new Change( (EObject)aNotification.getNotifier(),
+            (EStructuralFeature)aNotification.getFeature(), aNotification.getEventType(),
+            aNotification.getOldValue(), aNotification.getNewValue(), aNotification.getPosition() );
+    }
+
+    /**
+     * Merges two consecutive single value changes of the same feature.
+     * 
+     * @param aNext
+     *            Later change.
+     * @return Change from old value of this change to new value of <code>aNext</code>.
+     */
+    Change merge( Change aNext )
+    {
+        return new Change( object, feature, aNext.eventType, oldValue, aNext.newValue, position );
+    }
+
+    /**
+     * @return <code>true</code> if change can be merged with other changes of the same feature.
+     */
+    boolean isMergeable()
+    {
+        return eventType == Notification.SET || eventType == Notification.UNSET;
+    }
+
+    /**
+     * @return Changed object.
+     */
+    public EObject getObject()
+    {
+        return object;
+    }
+
+    /**
+     * @return Changed feature.
+     */
+    public EStructuralFeature getFeature()
+    {
+        return feature;
+    }
+
+    /**
+     * @return Type of change, one of {@link Notification} event types.
+     */
+    public int getEventType()
+    {
+        return eventType;
+    }
+
+    /**
+     * @return Value before change.
+     */
+    public Object getOldValue()
+    {
+        return oldValue;
+    }
+
+    /**
+     * @return Value after change.
+     */
+    public Object getNewValue()
+    {
+        return newValue;
+    }
+
+    /**
+     * @return Position in many-valued feature or {@link Notification#NO_INDEX}.
+     */
+    public int getPosition()
+    {
+        return position;
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper( this ).add( "object", object )
+            .add( "feature", feature == null ? null : feature.getName() ).add( "eventType", eventType )
+            .add( "oldValue", oldValue ).add( "newValue", newValue ).toString();
+    }
+}
@@ -0,0 +1,598 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Publisher of {@link Change}s of containment tree. Follows contract of Java 9
+ * <code>java.util.concurrent.Flow</code>, whose interfaces are mirrored by {@link Subscriber} and
+ * {@link Subscription}. Items are batches of changes: batch is published when it reaches
+ * {@link #batching(int, long, TimeUnit) batch size} or when window since its first change elapses, but only
+ * when subscriber requested it. Changes waiting for demand are kept in bounded buffer per subscription,
+ * {@link Overflow} decides what happens when buffer is full. All subscribers are signalled from single
+ * publisher thread, model changes are only recorded in thread which made them.
+ */
+public final class ChangePublisher implements AutoCloseable
+{
+    /**
+     * Behaviour of full subscription buffer.
+     */
+    public enum Overflow
+    {
+        /** Oldest buffered change is dropped. */
+        DROP_OLDEST,
+        /** New change is dropped. */
+        DROP_LATEST,
+        /** Subscription is cancelled and subscriber receives {@link IllegalStateException}. */
+        ERROR
+    }
+
+    /**
+     * Receiver of change batches, mirrors <code>java.util.concurrent.Flow.Subscriber</code>.
+     *
+     * @param <T>
+     *            Type of items.
+     */
+    public interface Subscriber< T >
+    {
+        /**
+         * Called once before any other signal.
+         * 
+         * @param aSubscription
+         *            New subscription.
+         */
+        void onSubscribe( Subscription aSubscription );
+
+        /**
+         * Called with next item, at most as many times as requested.
+         * 
+         * @param aItem
+         *            Item.
+         */
+        void onNext( T aItem );
+
+        /**
+         * Called when subscription terminates with error.
+         * 
+         * @param aError
+         *            Error.
+         */
+        void onError( Throwable aError );
+
+        /**
+         * Called when publisher is closed.
+         */
+        void onComplete();
+    }
+
+    /**
+     * Link between publisher and subscriber, mirrors <code>java.util.concurrent.Flow.Subscription</code>.
+     */
+    public interface Subscription
+    {
+        /**
+         * Adds demand for items.
+         * 
+         * @param aCount
+         *            Number of items, positive.
+         */
+        void request( long aCount );
+
+        /**
+         * Stops delivery of items.
+         */
+        void cancel();
+    }
+
+    private final Notifier root;
+
+    private final ScheduledExecutorService executor;
+
+    private final List< ChangeSubscription > subscriptions = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final ContentObserver observer = new ContentObserver()
+    {
+        @Override
+        protected void changed( Notification aNotification )
+        {
+            if ( aNotification.getNotifier() instanceof EObject )
+            {
+                final Change change = Change.of( aNotification );
+                subscriptions.forEach( aSubscription -> aSubscription.offer( change ) );
+            }
+        }
+    };
+
+    private volatile int batchSize = 256;
+
+    private volatile long windowNanos = TimeUnit.MILLISECONDS.toNanos( 50 );
+
+    private volatile int bufferSize = 16384;
+
+    private volatile Overflow overflow = Overflow.DROP_OLDEST;
+
+    private volatile boolean coalescing;
+
+    private volatile boolean closed;
+
+    /**
+     * Creates publisher of changes of given containment tree and starts observing it.
+     * 
+     * @param aRoot
+     *            {@link EObject}, {@link org.eclipse.emf.ecore.resource.Resource} or
+     *            {@link org.eclipse.emf.ecore.resource.ResourceSet}.
+     */
+    ChangePublisher( Notifier aRoot )
+    {
+        root = Preconditions.checkNotNull( aRoot, "Root is missing." );
+        executor = Executors.newSingleThreadScheduledExecutor( aRunnable -> {
+            final Thread thread = new Thread( aRunnable, "emf-change-publisher" );
+            thread.setDaemon( true );
+            return thread;
+        } );
+        observer.attach( aRoot );
+    }
+
+    /**
+     * Configures batching of subsequent subscriptions.
+     * 
+     * @param aBatchSize
+     *            Maximal number of changes in batch.
+     * @param aWindow
+     *            Maximal time batch waits for more changes, <code>0</code> publishes changes as they come.
+     * @param aUnit
+     *            Unit of <code>aWindow</code>.
+     * @return This publisher.
+     */
+    public ChangePublisher batching( int aBatchSize, long aWindow, TimeUnit aUnit )
+    {
+        Preconditions.checkArgument( aBatchSize > 0, "Batch size is not positive." );
+        Preconditions.checkArgument( aWindow >= 0, "Window is negative." );
+        batchSize = aBatchSize;
+        windowNanos = aUnit.toNanos( aWindow );
+        return this;
+    }
+
+    /**
+     * Configures buffer of subsequent subscriptions.
+     * 
+     * @param aBufferSize
+     *            Maximal number of changes waiting for delivery.
+     * @param aOverflow
+     *            Behaviour of full buffer.
+     * @return This publisher.
+     */
+    public ChangePublisher buffer( int aBufferSize, Overflow aOverflow )
+    {
+        Preconditions.checkArgument( aBufferSize > 0, "Buffer size is not positive." );
+        bufferSize = aBufferSize;
+        overflow = Preconditions.checkNotNull( aOverflow, "Overflow is missing." );
+        return this;
+    }
+
+    /**
+     * Configures coalescing of subsequent subscriptions. Coalescing subscription merges buffered
+     * {@link Notification#SET} and {@link Notification#UNSET} changes of the same object feature into one
+     * change from the first old value to the last new value.
+     * 
+     * @param aCoalescing
+     *            Whether changes should be coalesced.
+     * @return This publisher.
+     */
+    public ChangePublisher coalescing( boolean aCoalescing )
+    {
+        coalescing = aCoalescing;
+        return this;
+    }
+
+    /**
+     * Subscribes to all changes.
+     * 
+     * @param aSubscriber
+     *            Subscriber.
+     */
+    public void subscribe( Subscriber< ? super List< Change > > aSubscriber )
+    {
+        subscribe( aSubscriber, aObject -> true );
+    }
+
+    /**
+     * Subscribes to changes of objects matching filter. Filter is evaluated when change is made, in thread
+     * which made it.
+     * 
+     * @param aSubscriber
+     *            Subscriber.
+     * @param aFilter
+     *            Filter of changed objects, e.g. one of {@link E.Predicates}.
+     */
+    public void subscribe( Subscriber< ? super List< Change > > aSubscriber,
+        Predicate< ? super EObject > aFilter )
+    {
+        Preconditions.checkNotNull( aSubscriber, "Subscriber is missing." );
+        Preconditions.checkNotNull( aFilter, "Filter is missing." );
+        Preconditions.checkState( !closed, "Publisher is closed." );
+        final ChangeSubscription subscription = new ChangeSubscription( aSubscriber, aFilter );
+        executor.execute( () -> {
+            aSubscriber.onSubscribe( subscription );
+            if ( closed )
+            {
+                subscription.complete();
+            }
+            else
+            {
+                subscriptions.add( subscription );
+            }
+        } );
+    }
+
+    /**
+     * @return Number of changes dropped due to full buffers.
+     */
+    public long getDropped()
+    {
+        return dropped.get();
+    }
+
+    /**
+     * Stops observing model, delivers changes buffered so far within requested demand and completes
+     * subscriptions.
+     */
+    @Override
+    public void close()
+    {
+        if ( closed )
+        {
+            return;
+        }
+        closed = true;
+        observer.detach( root );
+        executor.execute( () -> {
+            subscriptions.forEach( ChangeSubscription::complete );
+            subscriptions.clear();
+        } );
+        executor.shutdown();
+    }
+
+    /**
+     * Subscription with its buffer. Buffer is guarded by subscription monitor, subscriber is signalled only
+     * from publisher thread.
+     */
+    private final class ChangeSubscription implements Subscription
+    {
+        private final Subscriber< ? super List< Change > > subscriber;
+
+        private final Predicate< ? super EObject > filter;
+
+        private final int maxBatch = batchSize;
+
+        private final long window = windowNanos;
+
+        private final int capacity = bufferSize;
+
+        private final Overflow policy = overflow;
+
+        private final boolean coalesce = coalescing;
+
+        /**
+         * Ring buffer, change with sequence number <code>s</code> is at <code>s & ring.length - 1</code>.
+         * Grows by doubling up to capacity.
+         */
+        private Change[] ring = new Change[ 16 ];
+
+        /**
+         * Sequence number of the oldest buffered change.
+         */
+        private long head;
+
+        /**
+         * Sequence number of the next buffered change.
+         */
+        private long tail;
+
+        /**
+         * Sequence numbers of mergeable changes in buffer by object and feature.
+         */
+        private final Map< Key, Long > positions = new HashMap<>();
+
+        private long firstChangeNanos;
+
+        private long demand;
+
+        private boolean timerScheduled;
+
+        private boolean drainScheduled;
+
+        private boolean cancelled;
+
+        ChangeSubscription( Subscriber< ? super List< Change > > aSubscriber,
+            Predicate< ? super EObject > aFilter )
+        {
+            subscriber = aSubscriber;
+            filter = aFilter;
+        }
+
+        /**
+         * Records change, called in thread which modified model.
+         */
+        void offer( Change aChange )
+        {
+            if ( !filter.test( aChange.getObject() ) )
+            {
+                return;
+            }
+            synchronized ( this )
+            {
+                if ( cancelled )
+                {
+                    return;
+                }
+                if ( coalesce && aChange.isMergeable() )
+                {
+                    final Key key = new Key( aChange.getObject(), aChange.getFeature() );
+                    final Long position = positions.get( key );
+                    if ( position != null )
+                    {
+                        final int slot = slot( position );
+                        ring[ slot ] = ring[ slot ].merge( aChange );
+                        return;
+                    }
+                    if ( !hasRoom() )
+                    {
+                        return;
+                    }
+                    positions.put( key, tail );
+                }
+                else if ( !hasRoom() )
+                {
+                    return;
+                }
+                if ( head == tail )
+                {
+                    firstChangeNanos = System.nanoTime();
+                }
+                add( aChange );
+                schedule( size() >= maxBatch ? 0 : window );
+            }
+        }
+
+        @Override
+        public void request( long aCount )
+        {
+            if ( aCount <= 0 )
+            {
+                cancel();
+                executor.execute( () -> subscriber.onError(
+                    new IllegalArgumentException( "Requested number of items is not positive." ) ) );
+                return;
+            }
+            synchronized ( this )
+            {
+                demand = demand + aCount < 0 ? Long.MAX_VALUE : demand + aCount;
+                schedule( 0 );
+            }
+        }
+
+        @Override
+        public void cancel()
+        {
+            synchronized ( this )
+            {
+                cancelled = true;
+                clear();
+            }
+            subscriptions.remove( this );
+        }
+
+        /**
+         * Publishes remaining changes within demand and completes subscriber. Called in publisher thread.
+         */
+        void complete()
+        {
+            deliver( true );
+            synchronized ( this )
+            {
+                if ( cancelled )
+                {
+                    return;
+                }
+                cancelled = true;
+            }
+            subscriber.onComplete();
+        }
+
+        /**
+         * Checks buffer capacity applying overflow policy. Called with monitor held.
+         */
+        private boolean hasRoom()
+        {
+            if ( size() < capacity )
+            {
+                return true;
+            }
+            dropped.incrementAndGet();
+            switch ( policy )
+            {
+                case DROP_OLDEST:
+                    poll();
+                    return true;
+                case DROP_LATEST:
+                    return false;
+                default:
+                    cancelled = true;
+                    clear();
+                    subscriptions.remove( this );
+                    executor.execute( () -> subscriber.onError(
+                        new IllegalStateException( "Change buffer overflow, subscription cancelled." ) ) );
+                    return false;
+            }
+        }
+
+        /**
+         * Schedules delivery, immediate or after window since the first buffered change, unless such
+         * delivery is already scheduled. Called with monitor held.
+         */
+        private void schedule( long aWindowNanos )
+        {
+            if ( demand == 0 || head == tail || closed )
+            {
+                return;
+            }
+            if ( aWindowNanos == 0 )
+            {
+                if ( !drainScheduled )
+                {
+                    drainScheduled = true;
+                    executor.execute( () -> deliver( false ) );
+                }
+            }
+            else if ( !timerScheduled && !drainScheduled )
+            {
+                timerScheduled = true;
+                final long delay = Math.max( 0, firstChangeNanos + aWindowNanos - System.nanoTime() );
+                executor.schedule( () -> {
+                    synchronized ( this )
+                    {
+                        timerScheduled = false;
+                    }
+                    deliver( false );
+                }, delay, TimeUnit.NANOSECONDS );
+            }
+        }
+
+        /**
+         * Publishes ready batches. Called in publisher thread.
+         */
+        private void deliver( boolean aFlush )
+        {
+            while ( true )
+            {
+                final List< Change > batch;
+                synchronized ( this )
+                {
+                    drainScheduled = false;
+                    if ( cancelled || demand == 0 || head == tail )
+                    {
+                        return;
+                    }
+                    final boolean full = size() >= maxBatch;
+                    if ( !full && !aFlush && System.nanoTime() - firstChangeNanos < window )
+                    {
+                        schedule( window );
+                        return;
+                    }
+                    final int count = Math.min( size(), maxBatch );
+                    batch = new ArrayList<>( count );
+                    for ( int i = 0; i < count; i++ )
+                    {
+                        batch.add( poll() );
+                    }
+                    firstChangeNanos = System.nanoTime();
+                    demand--;
+                }
+                try
+                {
+                    subscriber.onNext( batch );
+                }
+                catch ( final RuntimeException e )
+                {
+                    cancel();
+                    subscriber.onError( e );
+                    return;
+                }
+            }
+        }
+
+        private int size()
+        {
+            return (int)( tail - head );
+        }
+
+        private int slot( long aSequence )
+        {
+            return (int)aSequence & ring.length - 1;
+        }
+
+        private void add( Change aChange )
+        {
+            if ( size() == ring.length )
+            {
+                final Change[] grown = new Change[ ring.length << 1 ];
+                for ( long i = head; i < tail; i++ )
+                {
+                    grown[ (int)i & grown.length - 1 ] = ring[ slot( i ) ];
+                }
+                ring = grown;
+            }
+            ring[ slot( tail++ ) ] = aChange;
+        }
+
+        /**
+         * Removes the oldest buffered change, in constant time.
+         */
+        private Change poll()
+        {
+            final int slot = slot( head );
+            final Change result = ring[ slot ];
+            ring[ slot ] = null;
+            if ( coalesce && result.isMergeable() )
+            {
+                positions.remove( new Key( result.getObject(), result.getFeature() ), head );
+            }
+            head++;
+            return result;
+        }
+
+        private void clear()
+        {
+            ring = new Change[ 16 ];
+            head = tail;
+            positions.clear();
+        }
+    }
+
+    /**
+     * Identity of object feature.
+     */
+    private static final class Key
+    {
+        private final EObject object;
+
+        private final EStructuralFeature feature;
+
+        Key( EObject aObject, EStructuralFeature aFeature )
+        {
+            object = aObject;
+            feature = aFeature;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * System.identityHashCode( object ) + System.identityHashCode( feature );
+        }
+
+        @Override
+        public boolean equals( Object aObject )
+        {
+            return aObject instanceof Key && ( (Key)aObject ).object == object
+                && ( (Key)aObject ).feature == feature;
+        }
+    }
+}
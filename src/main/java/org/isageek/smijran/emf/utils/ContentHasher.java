@@ -0,0 +1,121 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.EObject;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.MapMaker;
+import com.google.common.hash.HashCode;
+
+/**
+ * 128-bit content hashes of {@link EObject}s and their containment subtrees, cached per object. Change of
+ * object invalidates its hash and subtree hashes of object and its containers, so hash of unchanged subtree
+ * is returned in O(1). Hash of subtree is computed from cached hashes of its contents, hashes of many contents
+ * are computed in parallel. Content is hashed as described in {@link Hashes}.
+ * <p>
+ * Model must not be modified while hashes are computed. References are hashed by URI fragment of referenced
+ * object, hashes of objects referencing moved object by its path are not invalidated.
+ */
+public final class ContentHasher implements AutoCloseable
+{
+    private final Notifier root;
+
+    private final ConcurrentMap< EObject, HashCode > objects = new MapMaker().weakKeys().makeMap();
+
+    private final ConcurrentMap< EObject, HashCode > trees = new MapMaker().weakKeys().makeMap();
+
+    private final ContentObserver observer = new ContentObserver()
+    {
+        @Override
+        protected void changed( Notification aNotification )
+        {
+            if ( aNotification.getNotifier() instanceof EObject )
+            {
+                invalidate( (EObject)aNotification.getNotifier() );
+            }
+        }
+    };
+
+    /**
+     * Creates hasher which observes changes of containment tree.
+     *
+     * @param aRoot
+     *            {@link EObject}, {@link org.eclipse.emf.ecore.resource.Resource} or
+     *            {@link org.eclipse.emf.ecore.resource.ResourceSet}.
+     */
+    ContentHasher( Notifier aRoot )
+    {
+        root = Preconditions.checkNotNull( aRoot, "Root is missing." );
+        observer.attach( aRoot );
+    }
+
+    /**
+     * @param aObject
+     *            Object of observed containment tree.
+     * @return 128-bit hash of content of object.
+     */
+    public HashCode hash( EObject aObject )
+    {
+        Preconditions.checkNotNull( aObject, "Object is missing." );
+        HashCode result = objects.get( aObject );
+        if ( result == null )
+        {
+            result = Hashes.object( aObject );
+            objects.put( aObject, result );
+        }
+        return result;
+    }
+
+    /**
+     * @param aObject
+     *            Object of observed containment tree.
+     * @return 128-bit hash of content of object and all its contents.
+     */
+    public HashCode hashTree( EObject aObject )
+    {
+        Preconditions.checkNotNull( aObject, "Object is missing." );
+        HashCode result = trees.get( aObject );
+        if ( result == null )
+        {
+            result = Hashes.tree( hash( aObject ), aObject.eContents(), this::hashTree );
+            trees.put( aObject, result );
+        }
+        return result;
+    }
+
+    /**
+     * Drops all cached hashes.
+     */
+    public void invalidateAll()
+    {
+        objects.clear();
+        trees.clear();
+    }
+
+    /**
+     * Stops observing model and drops all cached hashes.
+     */
+    @Override
+    public void close()
+    {
+        observer.detach( root );
+        invalidateAll();
+    }
+
+    /**
+     * Drops hash of object and subtree hashes of object and its containers. Subtree hash is cached only when
+     * subtree hashes of contents are cached, so walk stops at first container without cached hash.
+     */
+    private void invalidate( EObject aObject )
+    {
+        objects.remove( aObject );
+        EObject object = aObject;
+        while ( object != null && trees.remove( object ) != null )
+        {
+            object = object.eContainer();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+
+/**
+ * {@link EContentAdapter} which passes model changes of whole containment tree to
+ * {@link #changed(Notification)}. Touch, resolve and adapter removal notifications are not passed. Objects
+ * entering and leaving containment tree are passed to {@link #added(EObject)} and {@link #removed(EObject)}
+ * together with their contents; objects moved within tree are passed to {@link #added(EObject)} only.
+ */
+abstract class ContentObserver extends EContentAdapter
+{
+    private Notifier root;
+
+    @Override
+    public void notifyChanged( Notification aNotification )
+    {
+        super.notifyChanged( aNotification );
+        final int type = aNotification.getEventType();
+        if ( aNotification.isTouch() || type == Notification.REMOVING_ADAPTER || type == Notification.RESOLVE )
+        {
+            return;
+        }
+        changed( aNotification );
+        if ( isContainment( aNotification ) )
+        {
+            switch ( type )
+            {
+                case Notification.SET:
+                case Notification.UNSET:
+                    contentRemoved( aNotification.getOldValue() );
+                    contentAdded( aNotification.getNewValue() );
+                    break;
+                case Notification.ADD:
+                    contentAdded( aNotification.getNewValue() );
+                    break;
+                case Notification.ADD_MANY:
+                    ( (Collection< ? >)aNotification.getNewValue() ).forEach( this::contentAdded );
+                    break;
+                case Notification.REMOVE:
+                    contentRemoved( aNotification.getOldValue() );
+                    break;
+                case Notification.REMOVE_MANY:
+                    ( (Collection< ? >)aNotification.getOldValue() ).forEach( this::contentRemoved );
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Handles model change. Called in thread which modified model.
+     * 
+     * @param aNotification
+     *            Change.
+     */
+    protected abstract void changed( Notification aNotification );
+
+    /**
+     * Handles object which entered containment tree. Called in thread which modified model after
+     * {@link #changed(Notification)} of its container.
+     * 
+     * @param aObject
+     *            Added object, its contents are passed separately.
+     */
+    protected void added( EObject aObject )
+    {
+        // Nothing by default
+    }
+
+    /**
+     * Handles object which left containment tree. Called in thread which modified model after
+     * {@link #changed(Notification)} of its former container.
+     * 
+     * @param aObject
+     *            Removed object, its contents are passed separately.
+     */
+    protected void removed( EObject aObject )
+    {
+        // Nothing by default
+    }
+
+    /**
+     * Starts observing containment tree.
+     * 
+     * @param aRoot
+     *            {@link EObject}, {@link Resource} or {@link ResourceSet}.
+     */
+    void attach( Notifier aRoot )
+    {
+        root = aRoot;
+        aRoot.eAdapters().add( this );
+    }
+
+    /**
+     * Stops observing containment tree.
+     * 
+     * @param aRoot
+     *            Root given to {@link #attach(Notifier)}.
+     */
+    void detach( Notifier aRoot )
+    {
+        aRoot.eAdapters().remove( this );
+    }
+
+    /**
+     * Tests whether object belongs to observed containment tree.
+     * 
+     * @param aObject
+     *            Object.
+     * @return <code>true</code> if object is observed root or its content.
+     */
+    boolean isObserved( EObject aObject )
+    {
+        final EObject top = EcoreUtil.getRootContainer( aObject );
+        if ( root instanceof EObject )
+        {
+            return top == root;
+        }
+        final Resource resource = top.eResource();
+        if ( root instanceof Resource )
+        {
+            return resource == root;
+        }
+        return resource != null && resource.getResourceSet() == root;
+    }
+
+    /**
+     * Visits all objects of containment tree.
+     * 
+     * @param aRoot
+     *            {@link EObject}, {@link Resource} or {@link ResourceSet}.
+     * @param aConsumer
+     *            Visitor.
+     */
+    static void forEachObject( Notifier aRoot, Consumer< ? super EObject > aConsumer )
+    {
+        if ( aRoot instanceof EObject )
+        {
+            aConsumer.accept( (EObject)aRoot );
+            ( (EObject)aRoot ).eAllContents().forEachRemaining( aConsumer );
+        }
+        else if ( aRoot instanceof Resource )
+        {
+            ( (Resource)aRoot ).getAllContents().forEachRemaining( aConsumer );
+        }
+        else if ( aRoot instanceof ResourceSet )
+        {
+            for ( final Iterator< Notifier > i = ( (ResourceSet)aRoot ).getAllContents(); i.hasNext(); )
+            {
+                final Notifier notifier = i.next();
+                if ( notifier instanceof EObject )
+                {
+                    aConsumer.accept( (EObject)notifier );
+                }
+            }
+        }
+    }
+
+    private static boolean isContainment( Notification aNotification )
+    {
+        final Object notifier = aNotification.getNotifier();
+        if ( notifier instanceof EObject )
+        {
+            return aNotification.getFeature() instanceof EReference
+                && ( (EReference)aNotification.getFeature() ).isContainment();
+        }
+        if ( notifier instanceof Resource )
+        {
+            return aNotification.getFeatureID( Resource.class ) == Resource.RESOURCE__CONTENTS;
+        }
+        return notifier instanceof ResourceSet
+            && aNotification.getFeatureID( ResourceSet.class ) == ResourceSet.RESOURCE_SET__RESOURCES;
+    }
+
+    private void contentAdded( Object aContent )
+    {
+        if ( aContent instanceof Notifier )
+        {
+            forEachObject( (Notifier)aContent, this::added );
+        }
+    }
+
+    private void contentRemoved( Object aContent )
+    {
+        if ( aContent instanceof EObject && isObserved( (EObject)aContent ) )
+        {
+            return;
+        }
+        if ( aContent instanceof Notifier )
+        {
+            forEachObject( (Notifier)aContent, this::removed );
+        }
+    }
+}
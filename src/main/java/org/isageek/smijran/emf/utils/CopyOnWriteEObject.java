@@ -0,0 +1,141 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.BitSet;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.impl.DynamicEObjectImpl;
+
+/**
+ * Dynamic copy of {@link EObject} which reads single-valued attributes from original object until they are
+ * written. Many-valued attribute is copied on first access, because its list can be modified. References are
+ * not deferred, they are copied by {@link ModelCopier}. Original must not change while it is read through.
+ */
+public final class CopyOnWriteEObject extends DynamicEObjectImpl
+{
+    private EObject original;
+
+    private final BitSet readThrough = new BitSet();
+
+    /**
+     * Creates copy reading attributes from original.
+     *
+     * @param aClass
+     *            Class of original.
+     * @param aOriginal
+     *            Original object.
+     * @param aAttributes
+     *            Copied attributes of class.
+     */
+    CopyOnWriteEObject( EClass aClass, EObject aOriginal, EAttribute[] aAttributes )
+    {
+        super( aClass );
+        for ( EAttribute attribute : aAttributes )
+        {
+            if ( aOriginal.eIsSet( attribute ) )
+            {
+                readThrough.set( aClass.getFeatureID( attribute ) );
+            }
+        }
+        original = readThrough.isEmpty() ? null : aOriginal;
+    }
+
+    /**
+     * @return <code>true</code> if all attributes are copied and original is no longer read.
+     */
+    public boolean isMaterialized()
+    {
+        return original == null;
+    }
+
+    /**
+     * Copies all attributes which are still read from original.
+     */
+    public void materialize()
+    {
+        for ( int id = readThrough.nextSetBit( 0 ); id >= 0; id = readThrough.nextSetBit( id + 1 ) )
+        {
+            materialize( id );
+        }
+    }
+
+    @Override
+    public Object eGet( int aFeatureID, boolean aResolve, boolean aCoreType )
+    {
+        if ( original != null && readThrough.get( aFeatureID ) )
+        {
+            final EStructuralFeature attribute = eClass().getEStructuralFeature( aFeatureID );
+            if ( !attribute.isMany() )
+            {
+                return original.eGet( attribute );
+            }
+            materialize( aFeatureID );
+        }
+        return super.eGet( aFeatureID, aResolve, aCoreType );
+    }
+
+    @Override
+    public void eSet( int aFeatureID, Object aNewValue )
+    {
+        if ( original != null && readThrough.get( aFeatureID ) )
+        {
+            materialize( aFeatureID );
+        }
+        super.eSet( aFeatureID, aNewValue );
+    }
+
+    @Override
+    public void eUnset( int aFeatureID )
+    {
+        if ( original != null && readThrough.get( aFeatureID ) )
+        {
+            materialize( aFeatureID );
+        }
+        super.eUnset( aFeatureID );
+    }
+
+    @Override
+    public boolean eIsSet( int aFeatureID )
+    {
+        if ( original != null && readThrough.get( aFeatureID ) )
+        {
+            return true;
+        }
+        return super.eIsSet( aFeatureID );
+    }
+
+    /**
+     * Copies attribute from original without notification, so that write notifies its real old value.
+     */
+    @SuppressWarnings( "unchecked" )
+    private void materialize( int aFeatureID )
+    {
+        readThrough.clear( aFeatureID );
+        final EStructuralFeature attribute = eClass().getEStructuralFeature( aFeatureID );
+        final Object value = original.eGet( attribute );
+        final boolean deliver = eDeliver();
+        eSetDeliver( false );
+        try
+        {
+            if ( attribute.isMany() )
+            {
+                ( (List< Object >)super.eGet( aFeatureID, true, true ) ).addAll( (List< ? >)value );
+            }
+            else
+            {
+                super.eSet( aFeatureID, value );
+            }
+        }
+        finally
+        {
+            eSetDeliver( deliver );
+        }
+        if ( readThrough.isEmpty() )
+        {
+            original = null;
+        }
+    }
+}
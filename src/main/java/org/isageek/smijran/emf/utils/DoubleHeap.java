@@ -0,0 +1,177 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.Arrays;
+
+/**
+ * Binary heap of double values ordered like {@link Double#compare(double, double)}, with the least or the
+ * greatest value on top. Removal is lazy: removed values are kept in second heap of the same order and both
+ * tops are dropped while they are equal, so top is always present value. Heaps are compacted when removed
+ * values outnumber present ones. Not thread safe for writes, safe for concurrent reads of top.
+ */
+final class DoubleHeap
+{
+    private final int sign;
+
+    private double[] values = new double[ 16 ];
+
+    private int size;
+
+    private double[] removed = new double[ 16 ];
+
+    private int removedSize;
+
+    /**
+     * @param aGreatestFirst
+     *            <code>true</code> for the greatest value on top, <code>false</code> for the least.
+     */
+    DoubleHeap( boolean aGreatestFirst )
+    {
+        sign = aGreatestFirst ? -1 : 1;
+    }
+
+    /**
+     * Adds value.
+     *
+     * @param aValue
+     *            Value.
+     */
+    void add( double aValue )
+    {
+        values = push( values, size++, aValue );
+    }
+
+    /**
+     * Removes one occurrence of value.
+     *
+     * @param aValue
+     *            Value which was added and not removed yet.
+     */
+    void remove( double aValue )
+    {
+        removed = push( removed, removedSize++, aValue );
+        while ( removedSize > 0 && Double.compare( removed[ 0 ], values[ 0 ] ) == 0 )
+        {
+            pop( values, size-- );
+            pop( removed, removedSize-- );
+        }
+        if ( removedSize > size - removedSize )
+        {
+            compact();
+        }
+    }
+
+    /**
+     * @return <code>true</code> if no value is present.
+     */
+    boolean isEmpty()
+    {
+        return size == removedSize;
+    }
+
+    /**
+     * @return The least or the greatest present value, undefined if heap is empty.
+     */
+    double peek()
+    {
+        return values[ 0 ];
+    }
+
+    /**
+     * @return Number of present values.
+     */
+    int size()
+    {
+        return size - removedSize;
+    }
+
+    /**
+     * Drops removed values. Sorted array in order of heap is valid heap.
+     */
+    private void compact()
+    {
+        final double[] present = Arrays.copyOf( values, size );
+        final double[] dropped = Arrays.copyOf( removed, removedSize );
+        Arrays.sort( present );
+        Arrays.sort( dropped );
+        int count = 0;
+        int j = 0;
+        for ( double value : present )
+        {
+            if ( j < dropped.length && Double.compare( dropped[ j ], value ) == 0 )
+            {
+                j++;
+            }
+            else
+            {
+                present[ count++ ] = value;
+            }
+        }
+        if ( sign < 0 )
+        {
+            for ( int i = 0, k = count - 1; i < k; i++, k-- )
+            {
+                final double value = present[ i ];
+                present[ i ] = present[ k ];
+                present[ k ] = value;
+            }
+        }
+        values = Arrays.copyOf( present, Math.max( 16, count * 2 ) );
+        size = count;
+        removedSize = 0;
+    }
+
+    /**
+     * @return Heap with value added after given number of values, grown if needed.
+     */
+    private double[] push( double[] aHeap, int aSize, double aValue )
+    {
+        final double[] heap = aSize == aHeap.length ? Arrays.copyOf( aHeap, aSize * 2 ) : aHeap;
+        int index = aSize;
+        while ( index > 0 )
+        {
+            final int parent = ( index - 1 ) >>> 1;
+            if ( !before( aValue, heap[ parent ] ) )
+            {
+                break;
+            }
+            heap[ index ] = heap[ parent ];
+            index = parent;
+        }
+        heap[ index ] = aValue;
+        return heap;
+    }
+
+    /**
+     * Removes top of heap with given number of values.
+     */
+    private void pop( double[] aHeap, int aSize )
+    {
+        final int size = aSize - 1;
+        final double last = aHeap[ size ];
+        int index = 0;
+        while ( true )
+        {
+            int child = 2 * index + 1;
+            if ( child >= size )
+            {
+                break;
+            }
+            if ( child + 1 < size && before( aHeap[ child + 1 ], aHeap[ child ] ) )
+            {
+                child++;
+            }
+            if ( !before( aHeap[ child ], last ) )
+            {
+                break;
+            }
+            aHeap[ index ] = aHeap[ child ];
+            index = child;
+        }
+        aHeap[ index ] = last;
+    }
+
+    private boolean before( double aLeft, double aRight )
+    {
+        return sign * Double.compare( aLeft, aRight ) < 0;
+    }
+}
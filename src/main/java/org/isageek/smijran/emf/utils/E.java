@@ -2,26 +2,53 @@ package org.isageek.smijran.emf.utils;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoublePredicate;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
 import java.util.function.Predicate;
 import java.util.function.ToDoubleFunction;
 import java.util.function.ToIntFunction;
 import java.util.function.ToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collector;
 import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.common.util.Enumerator;
 import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EEnum;
+import org.eclipse.emf.ecore.EEnumLiteral;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.resource.ResourceSet;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
+import com.google.common.hash.HashCode;
 
 /**
  * Library class containing Java 8 {@link Predicate}s, {@link Function}s, {@link Consumer}s and
@@ -121,13 +148,14 @@ public final class E
          */
         public static Predicate< EObject > valueIsNull( EStructuralFeature aProperty )
         {
+            final FeatureAccessor accessor = new FeatureAccessor( aProperty );
             return new Predicate< EObject >()
             {
 
                 @Override
                 public boolean test( EObject aInput )
                 {
-                    return aInput.eGet( aProperty ) == null;
+                    return accessor.get( aInput ) == null;
                 }
             };
         }
@@ -311,18 +339,39 @@ public final class E
          * @param aValue
          *            Value to be tested against value.
          * @return {@link Predicate} which tests whether wrapper's property value is equal to
-         *         <code>aValue</code> .
+         *         <code>aValue</code> . It is {@link IntAttributePredicate}, see
+         *         {@link #valueEqInt(EStructuralFeature, int)}.
          */
         public static Predicate< EObject > valueEq( EStructuralFeature aProperty, int aValue )
         {
-            return new Predicate< EObject >()
+            return valueEqInt( aProperty, aValue );
+        }
+
+        /**
+         * Tests whether given {@link EObject}s int property value is equal to given value.
+         * 
+         * @param aProperty
+         *            Property.
+         * @param aValue
+         *            Value to be tested against value.
+         * @return {@link IntAttributePredicate} which tests whether wrapper's property value is equal
+         *         to <code>aValue</code> .
+         */
+        public static IntAttributePredicate valueEqInt( EStructuralFeature aProperty, int aValue )
+        {
+            return new IntAttributePredicate()
             {
 
                 @Override
-                public boolean test( EObject aInput )
+                public EStructuralFeature getFeature()
                 {
-                    final int value = (int)aInput.eGet( aProperty );
-                    return value == aValue;
+                    return aProperty;
+                }
+
+                @Override
+                public boolean testInt( int aInput )
+                {
+                    return aInput == aValue;
                 }
             };
         }
@@ -335,18 +384,39 @@ public final class E
          * @param aValue
          *            Value to be tested against value.
          * @return {@link Predicate} which tests whether wrapper's property value is equal to
-         *         <code>aValue</code> .
+         *         <code>aValue</code> . It is {@link LongAttributePredicate}, see
+         *         {@link #valueEqLong(EStructuralFeature, long)}.
          */
         public static Predicate< EObject > valueEq( EStructuralFeature aProperty, long aValue )
         {
-            return new Predicate< EObject >()
+            return valueEqLong( aProperty, aValue );
+        }
+
+        /**
+         * Tests whether given {@link EObject}s long property value is equal to given value.
+         * 
+         * @param aProperty
+         *            Property.
+         * @param aValue
+         *            Value to be tested against value.
+         * @return {@link LongAttributePredicate} which tests whether wrapper's property value is equal
+         *         to <code>aValue</code> .
+         */
+        public static LongAttributePredicate valueEqLong( EStructuralFeature aProperty, long aValue )
+        {
+            return new LongAttributePredicate()
             {
 
                 @Override
-                public boolean test( EObject aInput )
+                public EStructuralFeature getFeature()
                 {
-                    final long value = (long)aInput.eGet( aProperty );
-                    return value == aValue;
+                    return aProperty;
+                }
+
+                @Override
+                public boolean testLong( long aInput )
+                {
+                    return aInput == aValue;
                 }
             };
         }
@@ -359,18 +429,39 @@ public final class E
          * @param aValue
          *            Value to be tested against value.
          * @return {@link Predicate} which tests whether wrapper's property value is equal to
-         *         <code>aValue</code> .
+         *         <code>aValue</code> . It is {@link DoubleAttributePredicate}, see
+         *         {@link #valueEqDouble(EStructuralFeature, double)}.
          */
         public static Predicate< EObject > valueEq( EStructuralFeature aProperty, double aValue )
         {
-            return new Predicate< EObject >()
+            return valueEqDouble( aProperty, aValue );
+        }
+
+        /**
+         * Tests whether given {@link EObject}s double property value is equal to given value.
+         * 
+         * @param aProperty
+         *            Property.
+         * @param aValue
+         *            Value to be tested against value.
+         * @return {@link DoubleAttributePredicate} which tests whether wrapper's property value is equal
+         *         to <code>aValue</code> .
+         */
+        public static DoubleAttributePredicate valueEqDouble( EStructuralFeature aProperty, double aValue )
+        {
+            return new DoubleAttributePredicate()
             {
 
                 @Override
-                public boolean test( EObject aInput )
+                public EStructuralFeature getFeature()
                 {
-                    final double value = (double)aInput.eGet( aProperty );
-                    return value == aValue;
+                    return aProperty;
+                }
+
+                @Override
+                public boolean testDouble( double aInput )
+                {
+                    return aInput == aValue;
                 }
             };
         }
@@ -383,20 +474,12 @@ public final class E
          * @param aValue
          *            Value to be tested against value.
          * @return {@link Predicate} which tests whether wrapper's property value is equal to
-         *         <code>aValue</code> .
+         *         <code>aValue</code> . It is {@link DoubleAttributePredicate}, see
+         *         {@link #valueEqDouble(EStructuralFeature, double)}.
          */
         public static Predicate< EObject > valueEq( EStructuralFeature aProperty, float aValue )
         {
-            return new Predicate< EObject >()
-            {
-
-                @Override
-                public boolean test( EObject aInput )
-                {
-                    final float value = (float)aInput.eGet( aProperty );
-                    return value == aValue;
-                }
-            };
+            return valueEqDouble( aProperty, aValue );
         }
 
         /**
@@ -407,20 +490,12 @@ public final class E
          * @param aValue
          *            Value to be tested against value.
          * @return {@link Predicate} which tests whether wrapper's property value is equal to
-         *         <code>aValue</code> .
+         *         <code>aValue</code> . It is {@link IntAttributePredicate}, see
+         *         {@link #valueEqInt(EStructuralFeature, int)}.
          */
         public static Predicate< EObject > valueEq( EStructuralFeature aProperty, short aValue )
         {
-            return new Predicate< EObject >()
-            {
-
-                @Override
-                public boolean test( EObject aInput )
-                {
-                    final short value = (short)aInput.eGet( aProperty );
-                    return value == aValue;
-                }
-            };
+            return valueEqInt( aProperty, aValue );
         }
 
         /**
@@ -431,20 +506,12 @@ public final class E
          * @param aValue
          *            Value to be tested against value.
          * @return {@link Predicate} which tests whether wrapper's property value is equal to
-         *         <code>aValue</code> .
+         *         <code>aValue</code> . It is {@link IntAttributePredicate}, see
+         *         {@link #valueEqInt(EStructuralFeature, int)}.
          */
         public static Predicate< EObject > valueEq( EStructuralFeature aProperty, char aValue )
         {
-            return new Predicate< EObject >()
-            {
-
-                @Override
-                public boolean test( EObject aInput )
-                {
-                    final char value = (char)aInput.eGet( aProperty );
-                    return value == aValue;
-                }
-            };
+            return valueEqInt( aProperty, aValue );
         }
 
         /**
@@ -459,13 +526,14 @@ public final class E
          */
         public static Predicate< EObject > valueEq( EStructuralFeature aProperty, Object aObject )
         {
+            final FeatureAccessor accessor = new FeatureAccessor( aProperty );
             return new Predicate< EObject >()
             {
 
                 @Override
                 public boolean test( EObject aInput )
                 {
-                    return Objects.equal( aObject, aInput.eGet( aProperty ) );
+                    return Objects.equal( aObject, accessor.get( aInput ) );
                 }
             };
         }
@@ -660,862 +728,3312 @@ public final class E
                 }
             };
         }
-    }
-
-    /**
-     * Internal class contains different {@link Predicate}s for {@link EObject}s.
-     *
-     * @author created: kszalkowski on 20 maj 2015 20:35:51
-     * @author last change: $Author: $ on $Date: $
-     * @version $Revision: $
-     */
-    public final static class Functions
-    {
-        private Functions()
-        {
-            // Factory class
-        }
 
         /**
-         * {@link Function} which extracts {@link CompositePkIf} primary key of {@link EObject}.
+         * Tests whether given {@link EObject}s property value is not equal to given value.
          * 
-         * @return {@link Function} of given spec.
+         * @param aProperty
+         *            Property.
+         * @param aValue
+         *            Value to be tested against value.
+         * @return {@link IntAttributePredicate} which tests whether wrapper's property value is
+         *         not equal to <code>aValue</code> .
          */
-        public static Function< EObject, Object > id()
+        public static IntAttributePredicate valueNe( EStructuralFeature aProperty, int aValue )
         {
-            return new Function< EObject, Object >()
+            return new IntAttributePredicate()
             {
 
                 @Override
-                public Object apply( EObject aObject )
+                public EStructuralFeature getFeature()
                 {
-                    Preconditions.checkArgument( Predicates.hasId().test( aObject ),
-                        "Object class do not have id attribute." );
-                    return aObject.eGet( aObject.eClass().getEIDAttribute() );
+                    return aProperty;
+                }
+
+                @Override
+                public boolean testInt( int aInput )
+                {
+                    return aInput != aValue;
                 }
             };
         }
 
         /**
-         * {@link Function} which extracts {@link CompositePkIf} primary key single value from
-         * {@link EObject}.
+         * Tests whether given {@link EObject}s property value is less than given value.
          * 
-         * @param aPropertyName
-         *            Property name of key.
-         * @param aClazz
-         *            Class for type safe casting.
-         * @return {@link Function} of given spec.
-         * @throws NullPointerException
-         *             When <code>aClazz</code> is missing.
-         * @throws IllegalArgumentException
-         *             If primary key of wrapper is not present or is composite.
+         * @param aProperty
+         *            Property.
+         * @param aValue
+         *            Value to be tested against value.
+         * @return {@link IntAttributePredicate} which tests whether wrapper's property value is
+         *         less than <code>aValue</code> .
          */
-        public static < T >Function< EObject, T > id( Class< T > aClazz )
+        public static IntAttributePredicate valueLt( EStructuralFeature aProperty, int aValue )
         {
-            Preconditions.checkNotNull( aClazz, "Clazz is missing." );
-            return new Function< EObject, T >()
+            return new IntAttributePredicate()
             {
+
                 @Override
-                public T apply( EObject aObject )
+                public EStructuralFeature getFeature()
                 {
-                    Preconditions.checkArgument( Predicates.hasId().test( aObject ),
-                        "Object class do not have id attribute." );
-                    return aClazz.cast( aObject.eGet( aObject.eClass().getEIDAttribute() ) );
+                    return aProperty;
+                }
+
+                @Override
+                public boolean testInt( int aInput )
+                {
+                    return aInput < aValue;
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject}.
+         * Tests whether given {@link EObject}s property value is less than or equal to given value.
          * 
          * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aValue
+         *            Value to be tested against value.
+         * @return {@link IntAttributePredicate} which tests whether wrapper's property value is
+         *         less than or equal to <code>aValue</code> .
          */
-        public static < T >Function< EObject, T > value( String aProperty )
+        public static IntAttributePredicate valueLe( EStructuralFeature aProperty, int aValue )
         {
-            return new Function< EObject, T >()
+            return new IntAttributePredicate()
             {
 
-                @SuppressWarnings( "unchecked" )
                 @Override
-                public T apply( EObject aObject )
+                public EStructuralFeature getFeature()
                 {
-                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
-                    Preconditions.checkState( feature != null, "Missing feature." );
-                    return (T)aObject.eGet( feature );
+                    return aProperty;
+                }
+
+                @Override
+                public boolean testInt( int aInput )
+                {
+                    return aInput <= aValue;
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} and performs typesafe case.
+         * Tests whether given {@link EObject}s property value is greater than given value.
          * 
          * @param aProperty
-         *            Property name.
-         * @param aClass
-         *            {@link Class} to perform safe cast to.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aValue
+         *            Value to be tested against value.
+         * @return {@link IntAttributePredicate} which tests whether wrapper's property value is
+         *         greater than <code>aValue</code> .
          */
-        public static < T >Function< EObject, T > value( String aProperty, Class< T > aClass )
+        public static IntAttributePredicate valueGt( EStructuralFeature aProperty, int aValue )
         {
-            return new Function< EObject, T >()
+            return new IntAttributePredicate()
             {
 
                 @Override
-                public T apply( EObject aObject )
+                public EStructuralFeature getFeature()
                 {
-                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
-                    Preconditions.checkState( feature != null, "Missing feature." );
-                    return aClass.cast( aObject.eGet( feature ) );
+                    return aProperty;
+                }
+
+                @Override
+                public boolean testInt( int aInput )
+                {
+                    return aInput > aValue;
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link BigDecimal}.
+         * Tests whether given {@link EObject}s property value is greater than or equal to given value.
          * 
          * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aValue
+         *            Value to be tested against value.
+         * @return {@link IntAttributePredicate} which tests whether wrapper's property value is
+         *         greater than or equal to <code>aValue</code> .
          */
-        public static Function< EObject, BigDecimal > valBigDecimal( String aProperty )
+        public static IntAttributePredicate valueGe( EStructuralFeature aProperty, int aValue )
         {
-            return new Function< EObject, BigDecimal >()
+            return new IntAttributePredicate()
             {
 
                 @Override
-                public BigDecimal apply( EObject aObject )
+                public EStructuralFeature getFeature()
                 {
-                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
-                    Preconditions.checkState( feature != null, "Missing feature." );
-                    return BigDecimal.class.cast( aObject.eGet( feature ) );
+                    return aProperty;
+                }
+
+                @Override
+                public boolean testInt( int aInput )
+                {
+                    return aInput >= aValue;
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link BigInteger}.
+         * Tests whether given {@link EObject}s property value is between given bounds.
          * 
          * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aLowerBound
+         *            Lower bound to be tested against value.
+         * @param aUpperBound
+         *            Upper exclusive bound to be tested against value.
+         * @return {@link IntAttributePredicate} which tests whether wrapper's property value is between
+         *         <code>aLowerBound</code> and <code>aUpperBound</code>.
          */
-        public static Function< EObject, BigInteger > valBigInteger( String aProperty )
+        public static IntAttributePredicate valueBetween( EStructuralFeature aProperty, int aLowerBound,
+            int aUpperBound )
         {
-            return new Function< EObject, BigInteger >()
+            return new IntAttributePredicate()
             {
 
                 @Override
-                public BigInteger apply( EObject aObject )
+                public EStructuralFeature getFeature()
                 {
-                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
-                    Preconditions.checkState( feature != null, "Missing feature." );
-                    return BigInteger.class.cast( aObject.eGet( feature ) );
+                    return aProperty;
+                }
+
+                @Override
+                public boolean testInt( int aInput )
+                {
+                    return aLowerBound <= aInput && aInput < aUpperBound;
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link BigInteger}.
+         * Tests whether given {@link EObject}s property value is one of given values. Values are kept in
+         * bitset or primitive hash set, so test does not depend on number of values.
          * 
          * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aValues
+         *            Values to be tested against value.
+         * @return {@link IntAttributePredicate} which tests whether wrapper's property value is one of
+         *         <code>aValues</code>.
          */
-        public static Function< EObject, Date > valDate( String aProperty )
+        public static IntAttributePredicate valueIn( EStructuralFeature aProperty, int... aValues )
         {
-            return new Function< EObject, Date >()
+            final IntPredicate set = Membership.ints( aValues );
+            return new IntAttributePredicate()
             {
 
                 @Override
-                public Date apply( EObject aObject )
+                public EStructuralFeature getFeature()
                 {
-                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
-                    Preconditions.checkState( feature != null, "Missing feature." );
-                    return Date.class.cast( aObject.eGet( feature ) );
+                    return aProperty;
+                }
+
+                @Override
+                public boolean testInt( int aInput )
+                {
+                    return set.test( aInput );
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link Integer}.
+         * Tests whether given {@link EObject}s property value is not equal to given value.
          * 
          * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aValue
+         *            Value to be tested against value.
+         * @return {@link LongAttributePredicate} which tests whether wrapper's property value is
+         *         not equal to <code>aValue</code> .
          */
-        public static Function< EObject, Integer > valInteger( String aProperty )
+        public static LongAttributePredicate valueNe( EStructuralFeature aProperty, long aValue )
         {
-            return new Function< EObject, Integer >()
+            return new LongAttributePredicate()
             {
 
                 @Override
-                public Integer apply( EObject aObject )
+                public EStructuralFeature getFeature()
                 {
-                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
-                    Preconditions.checkState( feature != null, "Missing feature." );
-                    return Integer.class.cast( aObject.eGet( feature ) );
+                    return aProperty;
+                }
+
+                @Override
+                public boolean testLong( long aInput )
+                {
+                    return aInput != aValue;
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link Long}.
+         * Tests whether given {@link EObject}s property value is less than given value.
          * 
          * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aValue
+         *            Value to be tested against value.
+         * @return {@link LongAttributePredicate} which tests whether wrapper's property value is
+         *         less than <code>aValue</code> .
          */
-        public static Function< EObject, Long > valLong( String aProperty )
+        public static LongAttributePredicate valueLt( EStructuralFeature aProperty, long aValue )
         {
-            return new Function< EObject, Long >()
+            return new LongAttributePredicate()
             {
 
                 @Override
-                public Long apply( EObject aObject )
+                public EStructuralFeature getFeature()
                 {
-                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
-                    Preconditions.checkState( feature != null, "Missing feature." );
-                    return Long.class.cast( aObject.eGet( feature ) );
+                    return aProperty;
                 }
-            };
-        }
+
+                @Override
+                public boolean testLong( long aInput )
+                {
+                    return aInput < aValue;
+                }
+            };
+        }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link Short}.
+         * Tests whether given {@link EObject}s property value is less than or equal to given value.
          * 
          * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aValue
+         *            Value to be tested against value.
+         * @return {@link LongAttributePredicate} which tests whether wrapper's property value is
+         *         less than or equal to <code>aValue</code> .
          */
-        public static Function< EObject, Short > valShort( String aProperty )
+        public static LongAttributePredicate valueLe( EStructuralFeature aProperty, long aValue )
         {
-            return new Function< EObject, Short >()
+            return new LongAttributePredicate()
             {
 
                 @Override
-                public Short apply( EObject aObject )
+                public EStructuralFeature getFeature()
                 {
-                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
-                    Preconditions.checkState( feature != null, "Missing feature." );
-                    return Short.class.cast( aObject.eGet( feature ) );
+                    return aProperty;
+                }
+
+                @Override
+                public boolean testLong( long aInput )
+                {
+                    return aInput <= aValue;
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link Character}.
+         * Tests whether given {@link EObject}s property value is greater than given value.
          * 
          * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aValue
+         *            Value to be tested against value.
+         * @return {@link LongAttributePredicate} which tests whether wrapper's property value is
+         *         greater than <code>aValue</code> .
          */
-        public static Function< EObject, Character > valCharacter( String aProperty )
+        public static LongAttributePredicate valueGt( EStructuralFeature aProperty, long aValue )
         {
-            return new Function< EObject, Character >()
+            return new LongAttributePredicate()
             {
 
                 @Override
-                public Character apply( EObject aObject )
+                public EStructuralFeature getFeature()
                 {
-                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
-                    Preconditions.checkState( feature != null, "Missing feature." );
-                    return Character.class.cast( aObject.eGet( feature ) );
+                    return aProperty;
+                }
+
+                @Override
+                public boolean testLong( long aInput )
+                {
+                    return aInput > aValue;
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link String}.
+         * Tests whether given {@link EObject}s property value is greater than or equal to given value.
          * 
          * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aValue
+         *            Value to be tested against value.
+         * @return {@link LongAttributePredicate} which tests whether wrapper's property value is
+         *         greater than or equal to <code>aValue</code> .
          */
-        public static Function< EObject, String > valString( String aProperty )
+        public static LongAttributePredicate valueGe( EStructuralFeature aProperty, long aValue )
         {
-            return new Function< EObject, String >()
+            return new LongAttributePredicate()
             {
 
                 @Override
-                public String apply( EObject aObject )
+                public EStructuralFeature getFeature()
                 {
-                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
-                    Preconditions.checkState( feature != null, "Missing feature." );
-                    return String.class.cast( aObject.eGet( feature ) );
+                    return aProperty;
+                }
+
+                @Override
+                public boolean testLong( long aInput )
+                {
+                    return aInput >= aValue;
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link IntStream}.
+         * Tests whether given {@link EObject}s property value is between given bounds.
          * 
          * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aLowerBound
+         *            Lower bound to be tested against value.
+         * @param aUpperBound
+         *            Upper exclusive bound to be tested against value.
+         * @return {@link LongAttributePredicate} which tests whether wrapper's property value is between
+         *         <code>aLowerBound</code> and <code>aUpperBound</code>.
          */
-        public static Function< EObject, IntStream > valIntStream( String aProperty )
+        public static LongAttributePredicate valueBetween( EStructuralFeature aProperty, long aLowerBound,
+            long aUpperBound )
         {
-            return new Function< EObject, IntStream >()
+            return new LongAttributePredicate()
             {
 
                 @Override
-                public IntStream apply( EObject aObject )
+                public EStructuralFeature getFeature()
                 {
-                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
-                    Preconditions.checkState( feature != null, "Missing feature." );
-                    return IntStream.of( Integer.class.cast( aObject.eGet( feature ) ) );
+                    return aProperty;
+                }
+
+                @Override
+                public boolean testLong( long aInput )
+                {
+                    return aLowerBound <= aInput && aInput < aUpperBound;
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link LongStream}.
+         * Tests whether given {@link EObject}s property value is one of given values. Values are kept in
+         * bitset or primitive hash set, so test does not depend on number of values.
          * 
          * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aValues
+         *            Values to be tested against value.
+         * @return {@link LongAttributePredicate} which tests whether wrapper's property value is one of
+         *         <code>aValues</code>.
          */
-        public static Function< EObject, LongStream > valLongStream( String aProperty )
+        public static LongAttributePredicate valueIn( EStructuralFeature aProperty, long... aValues )
         {
-            return new Function< EObject, LongStream >()
+            final LongPredicate set = Membership.longs( aValues );
+            return new LongAttributePredicate()
             {
 
                 @Override
-                public LongStream apply( EObject aObject )
+                public EStructuralFeature getFeature()
                 {
-                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
-                    Preconditions.checkState( feature != null, "Missing feature." );
-                    return LongStream.of( Long.class.cast( aObject.eGet( feature ) ) );
+                    return aProperty;
+                }
+
+                @Override
+                public boolean testLong( long aInput )
+                {
+                    return set.test( aInput );
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link DoubleStream}.
+         * Tests whether given {@link EObject}s property value is not equal to given value.
          * 
          * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aValue
+         *            Value to be tested against value.
+         * @return {@link DoubleAttributePredicate} which tests whether wrapper's property value is
+         *         not equal to <code>aValue</code> .
          */
-        public static Function< EObject, DoubleStream > valDoubleStream( String aProperty )
+        public static DoubleAttributePredicate valueNe( EStructuralFeature aProperty, double aValue )
         {
-            return new Function< EObject, DoubleStream >()
+            return new DoubleAttributePredicate()
             {
 
                 @Override
-                public DoubleStream apply( EObject aObject )
+                public EStructuralFeature getFeature()
                 {
-                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
-                    Preconditions.checkState( feature != null, "Missing feature." );
-                    return DoubleStream.of( Double.class.cast( aObject.eGet( feature ) ) );
+                    return aProperty;
+                }
+
+                @Override
+                public boolean testDouble( double aInput )
+                {
+                    return aInput != aValue;
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link IntStream}.
+         * Tests whether given {@link EObject}s property value is less than given value.
          * 
          * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aValue
+         *            Value to be tested against value.
+         * @return {@link DoubleAttributePredicate} which tests whether wrapper's property value is
+         *         less than <code>aValue</code> .
          */
-        public static ToIntFunction< EObject > valToInt( String aProperty )
+        public static DoubleAttributePredicate valueLt( EStructuralFeature aProperty, double aValue )
         {
-            return new ToIntFunction< EObject >()
+            return new DoubleAttributePredicate()
             {
 
                 @Override
-                public int applyAsInt( EObject aObject )
+                public EStructuralFeature getFeature()
                 {
-                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
-                    Preconditions.checkState( feature != null, "Missing feature." );
-                    return Integer.class.cast( aObject.eGet( feature ) );
+                    return aProperty;
+                }
+
+                @Override
+                public boolean testDouble( double aInput )
+                {
+                    return aInput < aValue;
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link LongStream}.
+         * Tests whether given {@link EObject}s property value is less than or equal to given value.
          * 
          * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aValue
+         *            Value to be tested against value.
+         * @return {@link DoubleAttributePredicate} which tests whether wrapper's property value is
+         *         less than or equal to <code>aValue</code> .
          */
-        public static ToLongFunction< EObject > valToLong( String aProperty )
+        public static DoubleAttributePredicate valueLe( EStructuralFeature aProperty, double aValue )
         {
-            return new ToLongFunction< EObject >()
+            return new DoubleAttributePredicate()
             {
 
                 @Override
-                public long applyAsLong( EObject aObject )
+                public EStructuralFeature getFeature()
                 {
-                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
-                    Preconditions.checkState( feature != null, "Missing feature." );
-                    return Long.class.cast( aObject.eGet( feature ) );
+                    return aProperty;
+                }
+
+                @Override
+                public boolean testDouble( double aInput )
+                {
+                    return aInput <= aValue;
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as double.
+         * Tests whether given {@link EObject}s property value is greater than given value.
          * 
          * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aValue
+         *            Value to be tested against value.
+         * @return {@link DoubleAttributePredicate} which tests whether wrapper's property value is
+         *         greater than <code>aValue</code> .
          */
-        public static ToDoubleFunction< EObject > valToDouble( String aProperty )
+        public static DoubleAttributePredicate valueGt( EStructuralFeature aProperty, double aValue )
         {
-            return new ToDoubleFunction< EObject >()
+            return new DoubleAttributePredicate()
             {
 
                 @Override
-                public double applyAsDouble( EObject aObject )
+                public EStructuralFeature getFeature()
                 {
-                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
-                    Preconditions.checkState( feature != null, "Missing feature." );
-                    return Double.class.cast( aObject.eGet( feature ) );
+                    return aProperty;
+                }
+
+                @Override
+                public boolean testDouble( double aInput )
+                {
+                    return aInput > aValue;
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject}.
+         * Tests whether given {@link EObject}s property value is greater than or equal to given value.
          * 
          * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aValue
+         *            Value to be tested against value.
+         * @return {@link DoubleAttributePredicate} which tests whether wrapper's property value is
+         *         greater than or equal to <code>aValue</code> .
          */
-        public static < T >Function< EObject, T > value( EStructuralFeature aProperty )
+        public static DoubleAttributePredicate valueGe( EStructuralFeature aProperty, double aValue )
         {
-            return new Function< EObject, T >()
+            return new DoubleAttributePredicate()
             {
 
-                @SuppressWarnings( "unchecked" )
                 @Override
-                public T apply( EObject aObject )
+                public EStructuralFeature getFeature()
                 {
-                    return (T)aObject.eGet( aProperty );
+                    return aProperty;
+                }
+
+                @Override
+                public boolean testDouble( double aInput )
+                {
+                    return aInput >= aValue;
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} and performs typesafe case.
+         * Tests whether given {@link EObject}s property value is between given bounds.
          * 
          * @param aProperty
-         *            Property name.
-         * @param aClass
-         *            {@link Class} to perform safe cast to.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aLowerBound
+         *            Lower bound to be tested against value.
+         * @param aUpperBound
+         *            Upper exclusive bound to be tested against value.
+         * @return {@link DoubleAttributePredicate} which tests whether wrapper's property value is between
+         *         <code>aLowerBound</code> and <code>aUpperBound</code>.
          */
-        public static < T >Function< EObject, T > value( EStructuralFeature aProperty, Class< T > aClass )
+        public static DoubleAttributePredicate valueBetween( EStructuralFeature aProperty, double aLowerBound,
+            double aUpperBound )
         {
-            return new Function< EObject, T >()
+            return new DoubleAttributePredicate()
             {
 
                 @Override
-                public T apply( EObject aObject )
+                public EStructuralFeature getFeature()
+                {
+                    return aProperty;
+                }
+
+                @Override
+                public boolean testDouble( double aInput )
                 {
-                    return aClass.cast( aObject.eGet( aProperty ) );
+                    return aLowerBound <= aInput && aInput < aUpperBound;
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link BigDecimal}.
+         * Tests whether given {@link EObject}s property value is one of given values. Values are kept in
+         * primitive hash set, so test does not depend on number of values. Values are compared as with
+         * <code>==</code>, so <code>NaN</code> never matches.
          * 
          * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aValues
+         *            Values to be tested against value.
+         * @return {@link DoubleAttributePredicate} which tests whether wrapper's property value is one of
+         *         <code>aValues</code>.
          */
-        public static Function< EObject, BigDecimal > valBigDecimal( EStructuralFeature aProperty )
+        public static DoubleAttributePredicate valueIn( EStructuralFeature aProperty, double... aValues )
         {
-            return new Function< EObject, BigDecimal >()
+            final DoublePredicate set = Membership.doubles( aValues );
+            return new DoubleAttributePredicate()
             {
 
                 @Override
-                public BigDecimal apply( EObject aObject )
+                public EStructuralFeature getFeature()
+                {
+                    return aProperty;
+                }
+
+                @Override
+                public boolean testDouble( double aInput )
                 {
-                    return BigDecimal.class.cast( aObject.eGet( aProperty ) );
+                    return set.test( aInput );
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link BigInteger}.
+         * Tests whether given {@link EObject}s property value is one of given values. Membership test is
+         * chosen on basis of property type: primitive numeric properties use bitset or primitive hash set,
+         * {@link EEnum} properties use bitset of literal values and other properties use {@link HashSet}.
+         * In all cases test does not depend on number of values.
          * 
          * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aValues
+         *            Values to be tested against value. For {@link EEnum} properties these have to be
+         *            {@link Enumerator}s, e.g. {@link EEnumLiteral}s.
+         * @return {@link Predicate} which tests whether wrapper's property value is one of
+         *         <code>aValues</code>.
+         * @throws ClassCastException
+         *             When values do not match primitive or {@link EEnum} property type.
          */
-        public static Function< EObject, BigInteger > valBigInteger( EStructuralFeature aProperty )
+        public static Predicate< EObject > valueIn( EStructuralFeature aProperty, Collection< ? > aValues )
         {
-            return new Function< EObject, BigInteger >()
+            Preconditions.checkNotNull( aProperty, "Property is missing." );
+            final EClassifier type = aProperty.getEType();
+            if ( type instanceof EEnum )
+            {
+                final IntPredicate literals = Membership.ints(
+                    aValues.stream().mapToInt( aValue -> ( (Enumerator)aValue ).getValue() ).toArray() );
+                return new Predicate< EObject >()
+                {
+
+                    @Override
+                    public boolean test( EObject aInput )
+                    {
+                        final Enumerator value = (Enumerator)aInput.eGet( aProperty );
+                        return value != null && literals.test( value.getValue() );
+                    }
+                };
+            }
+            final Class< ? > clazz = type == null ? null : type.getInstanceClass();
+            if ( clazz == int.class || clazz == short.class || clazz == byte.class || clazz == char.class )
+            {
+                return valueIn( aProperty, aValues.stream().mapToInt( Primitives::toInt ).toArray() );
+            }
+            if ( clazz == long.class )
+            {
+                return valueIn( aProperty, aValues.stream().mapToLong( Primitives::toLong ).toArray() );
+            }
+            if ( clazz == double.class || clazz == float.class )
+            {
+                return valueIn( aProperty, aValues.stream().mapToDouble( Primitives::toDouble ).toArray() );
+            }
+            final Set< Object > values = new HashSet<>( aValues );
+            return new Predicate< EObject >()
             {
 
                 @Override
-                public BigInteger apply( EObject aObject )
+                public boolean test( EObject aInput )
                 {
-                    return BigInteger.class.cast( aObject.eGet( aProperty ) );
+                    return values.contains( aInput.eGet( aProperty ) );
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link BigInteger}.
+         * Tests whether given {@link EObject}s property value is one of given values. Values are kept in
+         * {@link HashSet}, so test does not depend on number of values.
          * 
          * @param aProperty
          *            Property name.
-         * @return {@link Function} behaving as in spec.
+         * @param aValues
+         *            Values to be tested against value.
+         * @return {@link Predicate} which tests whether wrapper's property value is one of
+         *         <code>aValues</code>.
          */
-        public static Function< EObject, Date > valDate( EStructuralFeature aProperty )
+        public static Predicate< EObject > valueIn( String aProperty, Collection< ? > aValues )
         {
-            return new Function< EObject, Date >()
+            final Set< Object > values = new HashSet<>( aValues );
+            return new Predicate< EObject >()
             {
 
                 @Override
-                public Date apply( EObject aObject )
+                public boolean test( EObject aInput )
                 {
-                    return Date.class.cast( aObject.eGet( aProperty ) );
+                    final EStructuralFeature feature = aInput.eClass().getEStructuralFeature( aProperty );
+                    return values.contains( aInput.eGet( feature ) );
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link Integer}.
+         * Tests whether given {@link EObject}s {@link String} property value starts with given prefix.
          * 
          * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aPrefix
+         *            Prefix.
+         * @return {@link Predicate} which tests whether wrapper's property value starts with
+         *         <code>aPrefix</code>. <code>null</code> values never match.
          */
-        public static Function< EObject, Integer > valInteger( EStructuralFeature aProperty )
+        public static Predicate< EObject > valueStartsWith( EStructuralFeature aProperty, String aPrefix )
         {
-            return new Function< EObject, Integer >()
-            {
-
-                @Override
-                public Integer apply( EObject aObject )
-                {
-                    return Integer.class.cast( aObject.eGet( aProperty ) );
-                }
-            };
+            return valueStartsWith( aProperty, aPrefix, false );
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link Long}.
+         * Tests whether given {@link EObject}s {@link String} property value starts with given prefix.
          * 
          * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aPrefix
+         *            Prefix.
+         * @param aIgnoreCase
+         *            Whether case of characters should be ignored.
+         * @return {@link Predicate} which tests whether wrapper's property value starts with
+         *         <code>aPrefix</code>. <code>null</code> values never match.
          */
-        public static Function< EObject, Long > valLong( EStructuralFeature aProperty )
+        public static Predicate< EObject > valueStartsWith( EStructuralFeature aProperty, String aPrefix,
+            boolean aIgnoreCase )
         {
-            return new Function< EObject, Long >()
+            Preconditions.checkNotNull( aPrefix, "Prefix is missing." );
+            return new Predicate< EObject >()
             {
 
                 @Override
-                public Long apply( EObject aObject )
+                public boolean test( EObject aInput )
                 {
-                    return Long.class.cast( aObject.eGet( aProperty ) );
+                    final String value = (String)aInput.eGet( aProperty );
+                    return value != null
+                        && value.regionMatches( aIgnoreCase, 0, aPrefix, 0, aPrefix.length() );
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link Short}.
+         * Tests whether given {@link EObject}s {@link String} property value contains any of given texts.
+         * Multiple texts are matched with Aho-Corasick automaton built once, so each value is scanned only
+         * once regardless of number of texts.
          * 
          * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aTexts
+         *            Searched texts, at least one.
+         * @return {@link Predicate} which tests whether wrapper's property value contains any of
+         *         <code>aTexts</code>. <code>null</code> values never match.
          */
-        public static Function< EObject, Short > valShort( EStructuralFeature aProperty )
+        public static Predicate< EObject > valueContains( EStructuralFeature aProperty, String... aTexts )
         {
-            return new Function< EObject, Short >()
+            Preconditions.checkArgument( aTexts.length > 0, "Texts are missing." );
+            if ( aTexts.length == 1 )
             {
-
-                @Override
-                public Short apply( EObject aObject )
+                final String text = aTexts[ 0 ];
+                return new Predicate< EObject >()
                 {
-                    return Short.class.cast( aObject.eGet( aProperty ) );
-                }
-            };
+
+                    @Override
+                    public boolean test( EObject aInput )
+                    {
+                        final String value = (String)aInput.eGet( aProperty );
+                        return value != null && value.contains( text );
+                    }
+                };
+            }
+            return valueContains( aProperty, new AhoCorasick( aTexts, false ) );
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link Character}.
+         * Tests whether given {@link EObject}s {@link String} property value contains any of given texts
+         * ignoring case of characters. Characters are compared one by one, values are not converted to
+         * lower case.
          * 
          * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         *            Property.
+         * @param aTexts
+         *            Searched texts, at least one.
+         * @return {@link Predicate} which tests whether wrapper's property value contains any of
+         *         <code>aTexts</code>. <code>null</code> values never match.
+         * @see #valueContains(EStructuralFeature, String...)
          */
-        public static Function< EObject, Character > valCharacter( EStructuralFeature aProperty )
+        public static Predicate< EObject > valueContainsIgnoreCase( EStructuralFeature aProperty,
+            String... aTexts )
         {
-            return new Function< EObject, Character >()
+            return valueContains( aProperty, new AhoCorasick( aTexts, true ) );
+        }
+
+        /**
+         * Tests whether given {@link EObject}s {@link String} property value matches given regular
+         * expression.
+         * 
+         * @param aProperty
+         *            Property.
+         * @param aRegex
+         *            Regular expression, compiled once.
+         * @return {@link Predicate} which tests whether whole wrapper's property value matches
+         *         <code>aRegex</code>. <code>null</code> values never match.
+         */
+        public static Predicate< EObject > valueMatches( EStructuralFeature aProperty, String aRegex )
+        {
+            return valueMatches( aProperty, Pattern.compile( aRegex ) );
+        }
+
+        /**
+         * Tests whether given {@link EObject}s {@link String} property value matches given pattern. Each
+         * thread reuses its own {@link Matcher}.
+         * 
+         * @param aProperty
+         *            Property.
+         * @param aPattern
+         *            Pattern.
+         * @return {@link Predicate} which tests whether whole wrapper's property value matches
+         *         <code>aPattern</code>. <code>null</code> values never match.
+         */
+        public static Predicate< EObject > valueMatches( EStructuralFeature aProperty, Pattern aPattern )
+        {
+            Preconditions.checkNotNull( aPattern, "Pattern is missing." );
+            final ThreadLocal< Matcher > matchers = ThreadLocal.withInitial( () -> aPattern.matcher( "" ) );
+            return new Predicate< EObject >()
             {
 
                 @Override
-                public Character apply( EObject aObject )
+                public boolean test( EObject aInput )
+                {
+                    final String value = (String)aInput.eGet( aProperty );
+                    return value != null && matchers.get().reset( value ).matches();
+                }
+            };
+        }
+
+        private static Predicate< EObject > valueContains( EStructuralFeature aProperty, AhoCorasick aTexts )
+        {
+            return new Predicate< EObject >()
+            {
+
+                @Override
+                public boolean test( EObject aInput )
                 {
-                    return Character.class.cast( aObject.eGet( aProperty ) );
+                    final String value = (String)aInput.eGet( aProperty );
+                    return value != null && aTexts.containsAny( value );
                 }
             };
         }
+    }
+
+    /**
+     * Internal class contains different {@link Predicate}s for {@link EObject}s.
+     *
+     * @author created: kszalkowski on 20 maj 2015 20:35:51
+     * @author last change: $Author: $ on $Date: $
+     * @version $Revision: $
+     */
+    public final static class Functions
+    {
+        private Functions()
+        {
+            // Factory class
+        }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link String}.
+         * {@link Function} which extracts {@link CompositePkIf} primary key of {@link EObject}.
          * 
-         * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         * @return {@link Function} of given spec.
          */
-        public static Function< EObject, String > valString( EStructuralFeature aProperty )
+        public static Function< EObject, Object > id()
         {
-            return new Function< EObject, String >()
+            return new Function< EObject, Object >()
             {
 
                 @Override
-                public String apply( EObject aObject )
+                public Object apply( EObject aObject )
                 {
-                    return String.class.cast( aObject.eGet( aProperty ) );
+                    Preconditions.checkArgument( Predicates.hasId().test( aObject ),
+                        "Object class do not have id attribute." );
+                    return aObject.eGet( aObject.eClass().getEIDAttribute() );
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link IntStream}.
+         * {@link Function} which extracts {@link CompositePkIf} primary key single value from
+         * {@link EObject}.
          * 
-         * @param aProperty
-         *            Property name.
-         * @return {@link Function} behaving as in spec.
+         * @param aPropertyName
+         *            Property name of key.
+         * @param aClazz
+         *            Class for type safe casting.
+         * @return {@link Function} of given spec.
+         * @throws NullPointerException
+         *             When <code>aClazz</code> is missing.
+         * @throws IllegalArgumentException
+         *             If primary key of wrapper is not present or is composite.
          */
-        public static Function< EObject, IntStream > valIntStream( EStructuralFeature aProperty )
+        public static < T >Function< EObject, T > id( Class< T > aClazz )
         {
-            return new Function< EObject, IntStream >()
+            Preconditions.checkNotNull( aClazz, "Clazz is missing." );
+            return new Function< EObject, T >()
             {
-
                 @Override
-                public IntStream apply( EObject aObject )
+                public T apply( EObject aObject )
                 {
-                    return IntStream.of( Integer.class.cast( aObject.eGet( aProperty ) ) );
+                    Preconditions.checkArgument( Predicates.hasId().test( aObject ),
+                        "Object class do not have id attribute." );
+                    return aClazz.cast( aObject.eGet( aObject.eClass().getEIDAttribute() ) );
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link LongStream}.
+         * Extracts given property value from {@link EObject}.
          * 
          * @param aProperty
          *            Property name.
          * @return {@link Function} behaving as in spec.
          */
-        public static Function< EObject, LongStream > valLongStream( EStructuralFeature aProperty )
+        public static < T >Function< EObject, T > value( String aProperty )
         {
-            return new Function< EObject, LongStream >()
+            return new Function< EObject, T >()
             {
 
+                @SuppressWarnings( "unchecked" )
                 @Override
-                public LongStream apply( EObject aObject )
+                public T apply( EObject aObject )
                 {
-                    return LongStream.of( Long.class.cast( aObject.eGet( aProperty ) ) );
+                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
+                    Preconditions.checkState( feature != null, "Missing feature." );
+                    return (T)aObject.eGet( feature );
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link DoubleStream}.
+         * Extracts given property value from {@link EObject} and performs typesafe case.
          * 
          * @param aProperty
          *            Property name.
+         * @param aClass
+         *            {@link Class} to perform safe cast to.
          * @return {@link Function} behaving as in spec.
          */
-        public static Function< EObject, DoubleStream > valDoubleStream( EStructuralFeature aProperty )
+        public static < T >Function< EObject, T > value( String aProperty, Class< T > aClass )
         {
-            return new Function< EObject, DoubleStream >()
+            return new Function< EObject, T >()
             {
 
                 @Override
-                public DoubleStream apply( EObject aObject )
+                public T apply( EObject aObject )
                 {
-                    return DoubleStream.of( Double.class.cast( aObject.eGet( aProperty ) ) );
+                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
+                    Preconditions.checkState( feature != null, "Missing feature." );
+                    return aClass.cast( aObject.eGet( feature ) );
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link IntStream}.
+         * Extracts given property value from {@link EObject} as {@link BigDecimal}.
          * 
          * @param aProperty
          *            Property name.
          * @return {@link Function} behaving as in spec.
          */
-        public static ToIntFunction< EObject > valToInt( EStructuralFeature aProperty )
+        public static Function< EObject, BigDecimal > valBigDecimal( String aProperty )
         {
-            return new ToIntFunction< EObject >()
+            return new Function< EObject, BigDecimal >()
             {
 
                 @Override
-                public int applyAsInt( EObject aObject )
+                public BigDecimal apply( EObject aObject )
                 {
-                    return Integer.class.cast( aObject.eGet( aProperty ) );
+                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
+                    Preconditions.checkState( feature != null, "Missing feature." );
+                    return BigDecimal.class.cast( aObject.eGet( feature ) );
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as {@link LongStream}.
+         * Extracts given property value from {@link EObject} as {@link BigInteger}.
          * 
          * @param aProperty
          *            Property name.
          * @return {@link Function} behaving as in spec.
          */
-        public static ToLongFunction< EObject > valToLong( EStructuralFeature aProperty )
+        public static Function< EObject, BigInteger > valBigInteger( String aProperty )
         {
-            return new ToLongFunction< EObject >()
+            return new Function< EObject, BigInteger >()
             {
 
                 @Override
-                public long applyAsLong( EObject aObject )
+                public BigInteger apply( EObject aObject )
                 {
-                    return Long.class.cast( aObject.eGet( aProperty ) );
+                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
+                    Preconditions.checkState( feature != null, "Missing feature." );
+                    return BigInteger.class.cast( aObject.eGet( feature ) );
                 }
             };
         }
 
         /**
-         * Extracts given property value from {@link EObject} as double.
+         * Extracts given property value from {@link EObject} as {@link BigInteger}.
          * 
          * @param aProperty
          *            Property name.
          * @return {@link Function} behaving as in spec.
          */
-        public static ToDoubleFunction< EObject > valToDouble( EStructuralFeature aProperty )
+        public static Function< EObject, Date > valDate( String aProperty )
         {
-            return new ToDoubleFunction< EObject >()
+            return new Function< EObject, Date >()
             {
 
                 @Override
-                public double applyAsDouble( EObject aObject )
+                public Date apply( EObject aObject )
                 {
-                    return Double.class.cast( aObject.eGet( aProperty ) );
+                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
+                    Preconditions.checkState( feature != null, "Missing feature." );
+                    return Date.class.cast( aObject.eGet( feature ) );
                 }
             };
         }
 
         /**
-         * Extracts {@link EClass} from {@link EObject}.
+         * Extracts given property value from {@link EObject} as {@link Integer}.
          * 
+         * @param aProperty
+         *            Property name.
          * @return {@link Function} behaving as in spec.
          */
-        public static Function< EObject, EClass > eClass()
+        public static Function< EObject, Integer > valInteger( String aProperty )
         {
-            return EObject::eClass;
-        }
-    }
+            return new Function< EObject, Integer >()
+            {
 
-    /**
-     * Internal class contains different {@link Consumer}s for {@link EObject}s.
-     *
-     * @author created: kszalkowski on 20 maj 2015 20:35:51
-     * @author last change: $Author: $ on $Date: $
-     * @version $Revision: $
-     */
-    public final static class Consumers
-    {
-        private Consumers()
-        {
-            // Factory class
+                @Override
+                public Integer apply( EObject aObject )
+                {
+                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
+                    Preconditions.checkState( feature != null, "Missing feature." );
+                    return Integer.class.cast( aObject.eGet( feature ) );
+                }
+            };
         }
 
         /**
-         * Creates {@link Consumer} which sets value of given property for {@link EObject}.
+         * Extracts given property value from {@link EObject} as {@link Long}.
          * 
          * @param aProperty
-         *            Property name of property.
-         * @param aValue
-         *            Value to be set. Can be null.
-         * @return {@link Consumer} accoding to given spec.
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
          */
-        public static Consumer< EObject > setValue( String aProperty, Object aValue )
+        public static Function< EObject, Long > valLong( String aProperty )
         {
-            return new Consumer< EObject >()
+            return new Function< EObject, Long >()
             {
 
                 @Override
-                public void accept( EObject aObject )
+                public Long apply( EObject aObject )
                 {
-                    aObject.eSet( aObject.eClass().getEStructuralFeature( aProperty ), aValue );
+                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
+                    Preconditions.checkState( feature != null, "Missing feature." );
+                    return Long.class.cast( aObject.eGet( feature ) );
                 }
             };
         }
 
         /**
-         * Creates {@link Consumer} which sets value of given property for {@link EObject}.
+         * Extracts given property value from {@link EObject} as {@link Short}.
          * 
          * @param aProperty
-         *            Property name of property.
-         * @param aValue
-         *            Value to be set. Can be null.
-         * @return {@link Consumer} accoding to given spec.
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
          */
-        public static Consumer< EObject > setValue( EStructuralFeature aProperty, Object aValue )
+        public static Function< EObject, Short > valShort( String aProperty )
         {
-            return new Consumer< EObject >()
+            return new Function< EObject, Short >()
             {
 
                 @Override
-                public void accept( EObject aObject )
+                public Short apply( EObject aObject )
                 {
-                    aObject.eSet( aProperty, aValue );
+                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
+                    Preconditions.checkState( feature != null, "Missing feature." );
+                    return Short.class.cast( aObject.eGet( feature ) );
                 }
             };
         }
-    }
-
-    /**
-     * Internal class contains different {@link Comparator}s for {@link EObject}s.
-     *
-     * @author created: kszalkowski on 20 maj 2015 20:35:51
-     * @author last change: $Author: $ on $Date: $
-     * @version $Revision: $
-     */
-    public final static class Comparators
-    {
-        private Comparators()
-        {
-            // Factory class
-        }
 
         /**
-         * Comparator base on properties with given name.
+         * Extracts given property value from {@link EObject} as {@link Character}.
          * 
          * @param aProperty
-         *            Name of the property.
-         * @return {@link Comparator} of {@link EObject} which compares on basis of given property.
-         * @throws ClassCastException
-         *             when value returned by given property is not {@link Comparable}
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
          */
-        public static Comparator< EObject > property( String aProperty )
+        public static Function< EObject, Character > valCharacter( String aProperty )
         {
-            return Comparator.comparing( Functions.value( aProperty ) );
+            return new Function< EObject, Character >()
+            {
+
+                @Override
+                public Character apply( EObject aObject )
+                {
+                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
+                    Preconditions.checkState( feature != null, "Missing feature." );
+                    return Character.class.cast( aObject.eGet( feature ) );
+                }
+            };
         }
 
         /**
-         * Comparator base on properties with given name.
+         * Extracts given property value from {@link EObject} as {@link String}.
          * 
          * @param aProperty
-         *            Name of the property.
-         * @param aClass
-         *            Class to perform type safe check.
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
+         */
+        public static Function< EObject, String > valString( String aProperty )
+        {
+            return new Function< EObject, String >()
+            {
+
+                @Override
+                public String apply( EObject aObject )
+                {
+                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
+                    Preconditions.checkState( feature != null, "Missing feature." );
+                    return String.class.cast( aObject.eGet( feature ) );
+                }
+            };
+        }
+
+        /**
+         * Extracts given property value from {@link EObject} as {@link IntStream}.
+         * 
+         * @param aProperty
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
+         */
+        public static Function< EObject, IntStream > valIntStream( String aProperty )
+        {
+            return new Function< EObject, IntStream >()
+            {
+
+                @Override
+                public IntStream apply( EObject aObject )
+                {
+                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
+                    Preconditions.checkState( feature != null, "Missing feature." );
+                    return IntStream.of( Integer.class.cast( aObject.eGet( feature ) ) );
+                }
+            };
+        }
+
+        /**
+         * Extracts given property value from {@link EObject} as {@link LongStream}.
+         * 
+         * @param aProperty
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
+         */
+        public static Function< EObject, LongStream > valLongStream( String aProperty )
+        {
+            return new Function< EObject, LongStream >()
+            {
+
+                @Override
+                public LongStream apply( EObject aObject )
+                {
+                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
+                    Preconditions.checkState( feature != null, "Missing feature." );
+                    return LongStream.of( Long.class.cast( aObject.eGet( feature ) ) );
+                }
+            };
+        }
+
+        /**
+         * Extracts given property value from {@link EObject} as {@link DoubleStream}.
+         * 
+         * @param aProperty
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
+         */
+        public static Function< EObject, DoubleStream > valDoubleStream( String aProperty )
+        {
+            return new Function< EObject, DoubleStream >()
+            {
+
+                @Override
+                public DoubleStream apply( EObject aObject )
+                {
+                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
+                    Preconditions.checkState( feature != null, "Missing feature." );
+                    return DoubleStream.of( Double.class.cast( aObject.eGet( feature ) ) );
+                }
+            };
+        }
+
+        /**
+         * Extracts given property value from {@link EObject} as {@link IntStream}.
+         * 
+         * @param aProperty
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
+         */
+        public static ToIntFunction< EObject > valToInt( String aProperty )
+        {
+            return new ToIntFunction< EObject >()
+            {
+
+                @Override
+                public int applyAsInt( EObject aObject )
+                {
+                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
+                    Preconditions.checkState( feature != null, "Missing feature." );
+                    return Primitives.intValue( aObject, feature );
+                }
+            };
+        }
+
+        /**
+         * Extracts given property value from {@link EObject} as {@link LongStream}.
+         * 
+         * @param aProperty
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
+         */
+        public static ToLongFunction< EObject > valToLong( String aProperty )
+        {
+            return new ToLongFunction< EObject >()
+            {
+
+                @Override
+                public long applyAsLong( EObject aObject )
+                {
+                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
+                    Preconditions.checkState( feature != null, "Missing feature." );
+                    return Primitives.longValue( aObject, feature );
+                }
+            };
+        }
+
+        /**
+         * Extracts given property value from {@link EObject} as double.
+         * 
+         * @param aProperty
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
+         */
+        public static ToDoubleFunction< EObject > valToDouble( String aProperty )
+        {
+            return new ToDoubleFunction< EObject >()
+            {
+
+                @Override
+                public double applyAsDouble( EObject aObject )
+                {
+                    final EStructuralFeature feature = aObject.eClass().getEStructuralFeature( aProperty );
+                    Preconditions.checkState( feature != null, "Missing feature." );
+                    return Primitives.doubleValue( aObject, feature );
+                }
+            };
+        }
+
+        /**
+         * Extracts given property value from {@link EObject}.
+         * 
+         * @param aProperty
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
+         */
+        public static < T >Function< EObject, T > value( EStructuralFeature aProperty )
+        {
+            final FeatureAccessor accessor = new FeatureAccessor( aProperty );
+            return new Function< EObject, T >()
+            {
+
+                @SuppressWarnings( "unchecked" )
+                @Override
+                public T apply( EObject aObject )
+                {
+                    return (T)accessor.get( aObject );
+                }
+            };
+        }
+
+        /**
+         * Extracts given property value from {@link EObject} and performs typesafe case.
+         * 
+         * @param aProperty
+         *            Property name.
+         * @param aClass
+         *            {@link Class} to perform safe cast to.
+         * @return {@link Function} behaving as in spec.
+         */
+        public static < T >Function< EObject, T > value( EStructuralFeature aProperty, Class< T > aClass )
+        {
+            final FeatureAccessor accessor = new FeatureAccessor( aProperty );
+            return new Function< EObject, T >()
+            {
+
+                @Override
+                public T apply( EObject aObject )
+                {
+                    return aClass.cast( accessor.get( aObject ) );
+                }
+            };
+        }
+
+        /**
+         * Extracts given property value from {@link EObject} as {@link BigDecimal}.
+         * 
+         * @param aProperty
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
+         */
+        public static Function< EObject, BigDecimal > valBigDecimal( EStructuralFeature aProperty )
+        {
+            final FeatureAccessor accessor = new FeatureAccessor( aProperty );
+            return new Function< EObject, BigDecimal >()
+            {
+
+                @Override
+                public BigDecimal apply( EObject aObject )
+                {
+                    return BigDecimal.class.cast( accessor.get( aObject ) );
+                }
+            };
+        }
+
+        /**
+         * Extracts given property value from {@link EObject} as {@link BigInteger}.
+         * 
+         * @param aProperty
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
+         */
+        public static Function< EObject, BigInteger > valBigInteger( EStructuralFeature aProperty )
+        {
+            final FeatureAccessor accessor = new FeatureAccessor( aProperty );
+            return new Function< EObject, BigInteger >()
+            {
+
+                @Override
+                public BigInteger apply( EObject aObject )
+                {
+                    return BigInteger.class.cast( accessor.get( aObject ) );
+                }
+            };
+        }
+
+        /**
+         * Extracts given property value from {@link EObject} as {@link BigInteger}.
+         * 
+         * @param aProperty
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
+         */
+        public static Function< EObject, Date > valDate( EStructuralFeature aProperty )
+        {
+            final FeatureAccessor accessor = new FeatureAccessor( aProperty );
+            return new Function< EObject, Date >()
+            {
+
+                @Override
+                public Date apply( EObject aObject )
+                {
+                    return Date.class.cast( accessor.get( aObject ) );
+                }
+            };
+        }
+
+        /**
+         * Extracts given property value from {@link EObject} as {@link Integer}.
+         * 
+         * @param aProperty
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
+         */
+        public static Function< EObject, Integer > valInteger( EStructuralFeature aProperty )
+        {
+            final FeatureAccessor accessor = new FeatureAccessor( aProperty );
+            return new Function< EObject, Integer >()
+            {
+
+                @Override
+                public Integer apply( EObject aObject )
+                {
+                    return Integer.class.cast( accessor.get( aObject ) );
+                }
+            };
+        }
+
+        /**
+         * Extracts given property value from {@link EObject} as {@link Long}.
+         * 
+         * @param aProperty
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
+         */
+        public static Function< EObject, Long > valLong( EStructuralFeature aProperty )
+        {
+            final FeatureAccessor accessor = new FeatureAccessor( aProperty );
+            return new Function< EObject, Long >()
+            {
+
+                @Override
+                public Long apply( EObject aObject )
+                {
+                    return Long.class.cast( accessor.get( aObject ) );
+                }
+            };
+        }
+
+        /**
+         * Extracts given property value from {@link EObject} as {@link Short}.
+         * 
+         * @param aProperty
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
+         */
+        public static Function< EObject, Short > valShort( EStructuralFeature aProperty )
+        {
+            final FeatureAccessor accessor = new FeatureAccessor( aProperty );
+            return new Function< EObject, Short >()
+            {
+
+                @Override
+                public Short apply( EObject aObject )
+                {
+                    return Short.class.cast( accessor.get( aObject ) );
+                }
+            };
+        }
+
+        /**
+         * Extracts given property value from {@link EObject} as {@link Character}.
+         * 
+         * @param aProperty
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
+         */
+        public static Function< EObject, Character > valCharacter( EStructuralFeature aProperty )
+        {
+            final FeatureAccessor accessor = new FeatureAccessor( aProperty );
+            return new Function< EObject, Character >()
+            {
+
+                @Override
+                public Character apply( EObject aObject )
+                {
+                    return Character.class.cast( accessor.get( aObject ) );
+                }
+            };
+        }
+
+        /**
+         * Extracts given property value from {@link EObject} as {@link String}.
+         * 
+         * @param aProperty
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
+         */
+        public static Function< EObject, String > valString( EStructuralFeature aProperty )
+        {
+            final FeatureAccessor accessor = new FeatureAccessor( aProperty );
+            return new Function< EObject, String >()
+            {
+
+                @Override
+                public String apply( EObject aObject )
+                {
+                    return String.class.cast( accessor.get( aObject ) );
+                }
+            };
+        }
+
+        /**
+         * Extracts given property value from {@link EObject} as {@link IntStream}.
+         * 
+         * @param aProperty
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
+         */
+        public static Function< EObject, IntStream > valIntStream( EStructuralFeature aProperty )
+        {
+            return new Function< EObject, IntStream >()
+            {
+
+                @Override
+                public IntStream apply( EObject aObject )
+                {
+                    return IntStream.of( Integer.class.cast( aObject.eGet( aProperty ) ) );
+                }
+            };
+        }
+
+        /**
+         * Extracts given property value from {@link EObject} as {@link LongStream}.
+         * 
+         * @param aProperty
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
+         */
+        public static Function< EObject, LongStream > valLongStream( EStructuralFeature aProperty )
+        {
+            return new Function< EObject, LongStream >()
+            {
+
+                @Override
+                public LongStream apply( EObject aObject )
+                {
+                    return LongStream.of( Long.class.cast( aObject.eGet( aProperty ) ) );
+                }
+            };
+        }
+
+        /**
+         * Extracts given property value from {@link EObject} as {@link DoubleStream}.
+         * 
+         * @param aProperty
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
+         */
+        public static Function< EObject, DoubleStream > valDoubleStream( EStructuralFeature aProperty )
+        {
+            return new Function< EObject, DoubleStream >()
+            {
+
+                @Override
+                public DoubleStream apply( EObject aObject )
+                {
+                    return DoubleStream.of( Double.class.cast( aObject.eGet( aProperty ) ) );
+                }
+            };
+        }
+
+        /**
+         * Pushes given property values from {@link EObject} into int sink, single value or every element of
+         * many-valued property. Replacement of {@link #valIntStream(EStructuralFeature)} which does not
+         * create {@link IntStream} per object, see {@link Streams#mapMultiToInt(Stream, BiConsumer)}.
+         * 
+         * @param aProperty
+         *            Property.
+         * @return {@link BiConsumer} behaving as in spec.
+         */
+        public static BiConsumer< EObject, IntConsumer > valIntSink( EStructuralFeature aProperty )
+        {
+            return new BiConsumer< EObject, IntConsumer >()
+            {
+
+                @Override
+                public void accept( EObject aObject, IntConsumer aSink )
+                {
+                    if ( !aProperty.isMany() )
+                    {
+                        aSink.accept( Primitives.intValue( aObject, aProperty ) );
+                        return;
+                    }
+                    final List< ? > values = (List< ? >)aObject.eGet( aProperty );
+                    for ( int i = 0; i < values.size(); i++ )
+                    {
+                        aSink.accept( Primitives.toInt( values.get( i ) ) );
+                    }
+                }
+            };
+        }
+
+        /**
+         * Pushes given property values from {@link EObject} into long sink, single value or every element of
+         * many-valued property. Replacement of {@link #valLongStream(EStructuralFeature)} which does not
+         * create {@link LongStream} per object, see {@link Streams#mapMultiToLong(Stream, BiConsumer)}.
+         * 
+         * @param aProperty
+         *            Property.
+         * @return {@link BiConsumer} behaving as in spec.
+         */
+        public static BiConsumer< EObject, LongConsumer > valLongSink( EStructuralFeature aProperty )
+        {
+            return new BiConsumer< EObject, LongConsumer >()
+            {
+
+                @Override
+                public void accept( EObject aObject, LongConsumer aSink )
+                {
+                    if ( !aProperty.isMany() )
+                    {
+                        aSink.accept( Primitives.longValue( aObject, aProperty ) );
+                        return;
+                    }
+                    final List< ? > values = (List< ? >)aObject.eGet( aProperty );
+                    for ( int i = 0; i < values.size(); i++ )
+                    {
+                        aSink.accept( Primitives.toLong( values.get( i ) ) );
+                    }
+                }
+            };
+        }
+
+        /**
+         * Pushes given property values from {@link EObject} into double sink, single value or every element
+         * of many-valued property. Replacement of {@link #valDoubleStream(EStructuralFeature)} which does not
+         * create {@link DoubleStream} per object, see {@link Streams#mapMultiToDouble(Stream, BiConsumer)}.
+         * 
+         * @param aProperty
+         *            Property.
+         * @return {@link BiConsumer} behaving as in spec.
+         */
+        public static BiConsumer< EObject, DoubleConsumer > valDoubleSink( EStructuralFeature aProperty )
+        {
+            return new BiConsumer< EObject, DoubleConsumer >()
+            {
+
+                @Override
+                public void accept( EObject aObject, DoubleConsumer aSink )
+                {
+                    if ( !aProperty.isMany() )
+                    {
+                        aSink.accept( Primitives.doubleValue( aObject, aProperty ) );
+                        return;
+                    }
+                    final List< ? > values = (List< ? >)aObject.eGet( aProperty );
+                    for ( int i = 0; i < values.size(); i++ )
+                    {
+                        aSink.accept( Primitives.toDouble( values.get( i ) ) );
+                    }
+                }
+            };
+        }
+
+        /**
+         * Extracts given property value from {@link EObject} as {@link IntStream}.
+         * 
+         * @param aProperty
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
+         */
+        public static ToIntFunction< EObject > valToInt( EStructuralFeature aProperty )
+        {
+            return new ToIntFunction< EObject >()
+            {
+
+                @Override
+                public int applyAsInt( EObject aObject )
+                {
+                    return Primitives.intValue( aObject, aProperty );
+                }
+            };
+        }
+
+        /**
+         * Extracts given property value from {@link EObject} as {@link LongStream}.
+         * 
+         * @param aProperty
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
+         */
+        public static ToLongFunction< EObject > valToLong( EStructuralFeature aProperty )
+        {
+            return new ToLongFunction< EObject >()
+            {
+
+                @Override
+                public long applyAsLong( EObject aObject )
+                {
+                    return Primitives.longValue( aObject, aProperty );
+                }
+            };
+        }
+
+        /**
+         * Extracts given property value from {@link EObject} as double.
+         * 
+         * @param aProperty
+         *            Property name.
+         * @return {@link Function} behaving as in spec.
+         */
+        public static ToDoubleFunction< EObject > valToDouble( EStructuralFeature aProperty )
+        {
+            return new ToDoubleFunction< EObject >()
+            {
+
+                @Override
+                public double applyAsDouble( EObject aObject )
+                {
+                    return Primitives.doubleValue( aObject, aProperty );
+                }
+            };
+        }
+
+        /**
+         * Extracts {@link EClass} from {@link EObject}.
+         * 
+         * @return {@link Function} behaving as in spec.
+         */
+        public static Function< EObject, EClass > eClass()
+        {
+            return EObject::eClass;
+        }
+    }
+
+    /**
+     * Internal class contains different {@link Consumer}s for {@link EObject}s.
+     *
+     * @author created: kszalkowski on 20 maj 2015 20:35:51
+     * @author last change: $Author: $ on $Date: $
+     * @version $Revision: $
+     */
+    public final static class Consumers
+    {
+        private Consumers()
+        {
+            // Factory class
+        }
+
+        /**
+         * Creates {@link Consumer} which sets value of given property for {@link EObject}.
+         * 
+         * @param aProperty
+         *            Property name of property.
+         * @param aValue
+         *            Value to be set. Can be null.
+         * @return {@link Consumer} accoding to given spec.
+         */
+        public static Consumer< EObject > setValue( String aProperty, Object aValue )
+        {
+            return new Consumer< EObject >()
+            {
+
+                @Override
+                public void accept( EObject aObject )
+                {
+                    aObject.eSet( aObject.eClass().getEStructuralFeature( aProperty ), aValue );
+                }
+            };
+        }
+
+        /**
+         * Creates {@link Consumer} which sets value of given property for {@link EObject}.
+         * 
+         * @param aProperty
+         *            Property name of property.
+         * @param aValue
+         *            Value to be set. Can be null.
+         * @return {@link Consumer} accoding to given spec.
+         */
+        public static Consumer< EObject > setValue( EStructuralFeature aProperty, Object aValue )
+        {
+            return new Consumer< EObject >()
+            {
+
+                @Override
+                public void accept( EObject aObject )
+                {
+                    aObject.eSet( aProperty, aValue );
+                }
+            };
+        }
+    }
+
+    /**
+     * Internal class contains different {@link Comparator}s for {@link EObject}s.
+     *
+     * @author created: kszalkowski on 20 maj 2015 20:35:51
+     * @author last change: $Author: $ on $Date: $
+     * @version $Revision: $
+     */
+    public final static class Comparators
+    {
+        private Comparators()
+        {
+            // Factory class
+        }
+
+        /**
+         * Comparator base on properties with given name.
+         * 
+         * @param aProperty
+         *            Name of the property.
+         * @return {@link Comparator} of {@link EObject} which compares on basis of given property.
+         * @throws ClassCastException
+         *             when value returned by given property is not {@link Comparable}
+         */
+        public static Comparator< EObject > property( String aProperty )
+        {
+            return Comparator.comparing( Functions.value( aProperty ) );
+        }
+
+        /**
+         * Comparator base on properties with given name.
+         * 
+         * @param aProperty
+         *            Name of the property.
+         * @param aClass
+         *            Class to perform type safe check.
+         * @return {@link Comparator} of {@link EObject} which compares on basis of given property.
+         * @throws ClassCastException
+         *             when value returned by given property is not {@link Comparable}
+         */
+        public static < T extends Comparable< T >>Comparator< EObject > property( String aProperty,
+            Class< T > aClass )
+        {
+            return Comparator.comparing( Functions.value( aProperty, aClass ) );
+        }
+
+        /**
+         * Comparator base on given property.
+         * 
+         * @param aProperty
+         *            Property.
          * @return {@link Comparator} of {@link EObject} which compares on basis of given property.
+         *         <code>null</code> values are the least ones.
          * @throws ClassCastException
          *             when value returned by given property is not {@link Comparable}
          */
-        public static < T extends Comparable< T >>Comparator< EObject > property( String aProperty,
-            Class< T > aClass )
+        public static Comparator< EObject > property( EStructuralFeature aProperty )
+        {
+            return new Comparator< EObject >()
+            {
+
+                @Override
+                public int compare( EObject aLeft, EObject aRight )
+                {
+                    return compareValues( aLeft.eGet( aProperty ), aRight.eGet( aProperty ) );
+                }
+            };
+        }
+
+        /**
+         * Comparator base on several properties. Properties are compared in given order, next property is
+         * compared only when values of previous ones are equal.
+         * 
+         * @param aProperties
+         *            Properties, at least one.
+         * @return {@link Comparator} of {@link EObject} which compares on basis of given properties.
+         *         <code>null</code> values are the least ones.
+         * @throws ClassCastException
+         *             when value returned by any property is not {@link Comparable}
+         * @see Select#sorted(Collection, EStructuralFeature...)
+         */
+        public static Comparator< EObject > properties( EStructuralFeature... aProperties )
+        {
+            Preconditions.checkArgument( aProperties.length > 0, "Properties are missing." );
+            final EStructuralFeature[] properties = aProperties.clone();
+            return new Comparator< EObject >()
+            {
+
+                @Override
+                public int compare( EObject aLeft, EObject aRight )
+                {
+                    for ( final EStructuralFeature property : properties )
+                    {
+                        final int result = compareValues( aLeft.eGet( property ), aRight.eGet( property ) );
+                        if ( result != 0 )
+                        {
+                            return result;
+                        }
+                    }
+                    return 0;
+                }
+            };
+        }
+
+        /**
+         * Compares property values, <code>null</code> is the least value.
+         */
+        @SuppressWarnings( "unchecked" )
+        static int compareValues( Object aLeft, Object aRight )
+        {
+            if ( aLeft == aRight )
+            {
+                return 0;
+            }
+            if ( aLeft == null )
+            {
+                return -1;
+            }
+            if ( aRight == null )
+            {
+                return 1;
+            }
+            return ( (Comparable< Object >)aLeft ).compareTo( aRight );
+        }
+    }
+
+    /**
+     * Internal class contains batch evaluation of {@link Predicate}s over arrays of {@link EObject}s.
+     * Results are selection bitmaps, bit <code>i</code> of bitmap (<code>bitmap[i >>> 6] & 1L << i</code>)
+     * is set when <code>i</code>-th object is selected. Objects are evaluated in chunks of
+     * {@link #CHUNK_SIZE} objects, so parallel evaluation never shares bitmap words between threads.
+     */
+    public final static class Batch
+    {
+        /**
+         * Number of objects evaluated together.
+         */
+        public static final int CHUNK_SIZE = 1024;
+
+        private Batch()
+        {
+            // Factory class
+        }
+
+        /**
+         * Selects objects matching predicate.
+         * 
+         * @param aObjects
+         *            Objects to be tested.
+         * @param aPredicate
+         *            Predicate.
+         * @return Selection bitmap.
+         */
+        public static long[] select( EObject[] aObjects, Predicate< ? super EObject > aPredicate )
+        {
+            return selectAll( aObjects, false, aPredicate );
+        }
+
+        /**
+         * Selects objects matching all predicates. Each next predicate is evaluated only for objects
+         * selected by previous ones, so most selective predicates should be given first.
+         * 
+         * @param aObjects
+         *            Objects to be tested.
+         * @param aPredicates
+         *            Predicates, at least one.
+         * @return Selection bitmap.
+         */
+        @SafeVarargs
+        public static long[] selectAll( EObject[] aObjects, Predicate< ? super EObject >... aPredicates )
+        {
+            return selectAll( aObjects, false, aPredicates );
+        }
+
+        /**
+         * Selects objects matching any of predicates. Each next predicate is evaluated only for objects not
+         * selected by previous ones.
+         * 
+         * @param aObjects
+         *            Objects to be tested.
+         * @param aPredicates
+         *            Predicates, at least one.
+         * @return Selection bitmap.
+         */
+        @SafeVarargs
+        public static long[] selectAny( EObject[] aObjects, Predicate< ? super EObject >... aPredicates )
+        {
+            return selectAny( aObjects, false, aPredicates );
+        }
+
+        /**
+         * Selects objects matching predicate evaluating chunks in parallel.
+         * 
+         * @param aObjects
+         *            Objects to be tested.
+         * @param aPredicate
+         *            Predicate. Has to be thread safe.
+         * @return Selection bitmap.
+         */
+        public static long[] parallelSelect( EObject[] aObjects, Predicate< ? super EObject > aPredicate )
+        {
+            return selectAll( aObjects, true, aPredicate );
+        }
+
+        /**
+         * Selects objects matching all predicates evaluating chunks in parallel.
+         * 
+         * @param aObjects
+         *            Objects to be tested.
+         * @param aPredicates
+         *            Predicates, at least one. Have to be thread safe.
+         * @return Selection bitmap.
+         * @see #selectAll(EObject[], Predicate...)
+         */
+        @SafeVarargs
+        public static long[] parallelSelectAll( EObject[] aObjects,
+            Predicate< ? super EObject >... aPredicates )
+        {
+            return selectAll( aObjects, true, aPredicates );
+        }
+
+        /**
+         * Selects objects matching any of predicates evaluating chunks in parallel.
+         * 
+         * @param aObjects
+         *            Objects to be tested.
+         * @param aPredicates
+         *            Predicates, at least one. Have to be thread safe.
+         * @return Selection bitmap.
+         * @see #selectAny(EObject[], Predicate...)
+         */
+        @SafeVarargs
+        public static long[] parallelSelectAny( EObject[] aObjects,
+            Predicate< ? super EObject >... aPredicates )
+        {
+            return selectAny( aObjects, true, aPredicates );
+        }
+
+        /**
+         * Intersection of bitmaps.
+         * 
+         * @param aLeft
+         *            Bitmap.
+         * @param aRight
+         *            Bitmap of the same length.
+         * @return New bitmap.
+         */
+        public static long[] and( long[] aLeft, long[] aRight )
+        {
+            Preconditions.checkArgument( aLeft.length == aRight.length, "Bitmaps differ in length." );
+            final long[] result = new long[ aLeft.length ];
+            for ( int i = 0; i < result.length; i++ )
+            {
+                result[ i ] = aLeft[ i ] & aRight[ i ];
+            }
+            return result;
+        }
+
+        /**
+         * Union of bitmaps.
+         * 
+         * @param aLeft
+         *            Bitmap.
+         * @param aRight
+         *            Bitmap of the same length.
+         * @return New bitmap.
+         */
+        public static long[] or( long[] aLeft, long[] aRight )
+        {
+            Preconditions.checkArgument( aLeft.length == aRight.length, "Bitmaps differ in length." );
+            final long[] result = new long[ aLeft.length ];
+            for ( int i = 0; i < result.length; i++ )
+            {
+                result[ i ] = aLeft[ i ] | aRight[ i ];
+            }
+            return result;
+        }
+
+        /**
+         * Difference of bitmaps.
+         * 
+         * @param aLeft
+         *            Bitmap.
+         * @param aRight
+         *            Bitmap of the same length.
+         * @return New bitmap with bits of <code>aLeft</code> which are not set in <code>aRight</code>.
+         */
+        public static long[] andNot( long[] aLeft, long[] aRight )
+        {
+            Preconditions.checkArgument( aLeft.length == aRight.length, "Bitmaps differ in length." );
+            final long[] result = new long[ aLeft.length ];
+            for ( int i = 0; i < result.length; i++ )
+            {
+                result[ i ] = aLeft[ i ] & ~aRight[ i ];
+            }
+            return result;
+        }
+
+        /**
+         * Complement of bitmap.
+         * 
+         * @param aBitmap
+         *            Bitmap.
+         * @param aSize
+         *            Number of objects bitmap was created for.
+         * @return New bitmap.
+         */
+        public static long[] not( long[] aBitmap, int aSize )
+        {
+            Preconditions.checkArgument( aBitmap.length == words( aSize ), "Bitmap does not match size." );
+            final long[] result = new long[ aBitmap.length ];
+            for ( int i = 0; i < result.length; i++ )
+            {
+                result[ i ] = ~aBitmap[ i ];
+            }
+            if ( ( aSize & 63 ) != 0 )
+            {
+                result[ result.length - 1 ] &= ( 1L << aSize ) - 1;
+            }
+            return result;
+        }
+
+        /**
+         * Counts selected objects.
+         * 
+         * @param aBitmap
+         *            Bitmap.
+         * @return Number of set bits.
+         */
+        public static int count( long[] aBitmap )
+        {
+            int count = 0;
+            for ( final long word : aBitmap )
+            {
+                count += Long.bitCount( word );
+            }
+            return count;
+        }
+
+        /**
+         * Converts bitmap to {@link BitSet}.
+         * 
+         * @param aBitmap
+         *            Bitmap.
+         * @return New {@link BitSet}.
+         */
+        public static BitSet toBitSet( long[] aBitmap )
+        {
+            return BitSet.valueOf( aBitmap );
+        }
+
+        /**
+         * Collects selected objects.
+         * 
+         * @param aObjects
+         *            Objects bitmap was created for.
+         * @param aBitmap
+         *            Bitmap.
+         * @return Selected objects in original order.
+         */
+        public static EObject[] toArray( EObject[] aObjects, long[] aBitmap )
+        {
+            final EObject[] result = new EObject[ count( aBitmap ) ];
+            int next = 0;
+            for ( int w = 0; w < aBitmap.length; w++ )
+            {
+                long bits = aBitmap[ w ];
+                while ( bits != 0 )
+                {
+                    result[ next++ ] = aObjects[ ( w << 6 ) + Long.numberOfTrailingZeros( bits ) ];
+                    bits &= bits - 1;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Streams selected objects.
+         * 
+         * @param aObjects
+         *            Objects bitmap was created for.
+         * @param aBitmap
+         *            Bitmap.
+         * @return {@link Stream} of selected objects in original order.
+         */
+        public static Stream< EObject > stream( EObject[] aObjects, long[] aBitmap )
+        {
+            return toBitSet( aBitmap ).stream().mapToObj( i -> aObjects[ i ] );
+        }
+
+        @SafeVarargs
+        private static long[] selectAll( EObject[] aObjects, boolean aParallel,
+            Predicate< ? super EObject >... aPredicates )
+        {
+            Preconditions.checkArgument( aPredicates.length > 0, "Predicates are missing." );
+            final long[] bitmap = new long[ words( aObjects.length ) ];
+            chunks( aObjects.length, aParallel ).forEach( chunk -> {
+                final int from = chunk * CHUNK_SIZE;
+                final int to = Math.min( from + CHUNK_SIZE, aObjects.length );
+                if ( evaluate( aObjects, from, to, aPredicates[ 0 ], bitmap ) == 0 )
+                {
+                    return;
+                }
+                for ( int p = 1; p < aPredicates.length; p++ )
+                {
+                    if ( retain( aObjects, from, to, aPredicates[ p ], bitmap ) == 0 )
+                    {
+                        return;
+                    }
+                }
+            } );
+            return bitmap;
+        }
+
+        @SafeVarargs
+        private static long[] selectAny( EObject[] aObjects, boolean aParallel,
+            Predicate< ? super EObject >... aPredicates )
+        {
+            Preconditions.checkArgument( aPredicates.length > 0, "Predicates are missing." );
+            final long[] bitmap = new long[ words( aObjects.length ) ];
+            chunks( aObjects.length, aParallel ).forEach( chunk -> {
+                final int from = chunk * CHUNK_SIZE;
+                final int to = Math.min( from + CHUNK_SIZE, aObjects.length );
+                int selected = evaluate( aObjects, from, to, aPredicates[ 0 ], bitmap );
+                for ( int p = 1; p < aPredicates.length && selected < to - from; p++ )
+                {
+                    selected += complete( aObjects, from, to, aPredicates[ p ], bitmap );
+                }
+            } );
+            return bitmap;
+        }
+
+        private static IntStream chunks( int aSize, boolean aParallel )
+        {
+            final IntStream chunks = IntStream.range( 0, ( aSize + CHUNK_SIZE - 1 ) / CHUNK_SIZE );
+            return aParallel ? chunks.parallel() : chunks;
+        }
+
+        /**
+         * Sets bits of objects from range matching predicate. Specialized predicates are evaluated in their
+         * own loops over unboxed values.
+         */
+        private static int evaluate( EObject[] aObjects, int aFrom, int aTo,
+            Predicate< ? super EObject > aPredicate, long[] aBitmap )
+        {
+            if ( aPredicate instanceof IntAttributePredicate )
+            {
+                return ( (IntAttributePredicate)aPredicate ).select( aObjects, aFrom, aTo, aBitmap );
+            }
+            if ( aPredicate instanceof LongAttributePredicate )
+            {
+                return ( (LongAttributePredicate)aPredicate ).select( aObjects, aFrom, aTo, aBitmap );
+            }
+            if ( aPredicate instanceof DoubleAttributePredicate )
+            {
+                return ( (DoubleAttributePredicate)aPredicate ).select( aObjects, aFrom, aTo, aBitmap );
+            }
+            int count = 0;
+            for ( int i = aFrom; i < aTo; i++ )
+            {
+                if ( aPredicate.test( aObjects[ i ] ) )
+                {
+                    aBitmap[ i >>> 6 ] |= 1L << i;
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Clears bits of selected objects from range not matching predicate.
+         */
+        private static int retain( EObject[] aObjects, int aFrom, int aTo,
+            Predicate< ? super EObject > aPredicate, long[] aBitmap )
+        {
+            int count = 0;
+            for ( int w = aFrom >>> 6, last = words( aTo ); w < last; w++ )
+            {
+                long word = aBitmap[ w ];
+                long bits = word;
+                while ( bits != 0 )
+                {
+                    final int bit = Long.numberOfTrailingZeros( bits );
+                    bits &= bits - 1;
+                    if ( !aPredicate.test( aObjects[ ( w << 6 ) + bit ] ) )
+                    {
+                        word &= ~( 1L << bit );
+                    }
+                }
+                aBitmap[ w ] = word;
+                count += Long.bitCount( word );
+            }
+            return count;
+        }
+
+        /**
+         * Sets bits of not selected objects from range matching predicate.
+         */
+        private static int complete( EObject[] aObjects, int aFrom, int aTo,
+            Predicate< ? super EObject > aPredicate, long[] aBitmap )
+        {
+            int count = 0;
+            for ( int w = aFrom >>> 6, last = words( aTo ); w < last; w++ )
+            {
+                long bits = ~aBitmap[ w ];
+                if ( w == last - 1 && ( aTo & 63 ) != 0 )
+                {
+                    bits &= ( 1L << aTo ) - 1;
+                }
+                while ( bits != 0 )
+                {
+                    final int bit = Long.numberOfTrailingZeros( bits );
+                    bits &= bits - 1;
+                    if ( aPredicate.test( aObjects[ ( w << 6 ) + bit ] ) )
+                    {
+                        aBitmap[ w ] |= 1L << bit;
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        private static int words( int aSize )
+        {
+            return ( aSize + 63 ) >>> 6;
+        }
+    }
+
+    /**
+     * Internal class contains bounded selections of {@link EObject}s, which do not sort whole input.
+     */
+    public final static class Select
+    {
+        private Select()
+        {
+            // Factory class
+        }
+
+        /**
+         * Selects objects with greatest values of numeric property.
+         * 
+         * @param aStream
+         *            Objects, parallel {@link Stream}s are supported.
+         * @param aProperty
+         *            Numeric property, its values must not be <code>null</code>.
+         * @param aK
+         *            Maximal number of selected objects.
+         * @return At most <code>aK</code> objects ordered from the greatest value.
+         */
+        public static List< EObject > topK( Stream< ? extends EObject > aStream, EStructuralFeature aProperty,
+            int aK )
+        {
+            return aStream.collect( topK( aProperty, aK ) );
+        }
+
+        /**
+         * Selects objects with least values of numeric property.
+         * 
+         * @param aStream
+         *            Objects, parallel {@link Stream}s are supported.
+         * @param aProperty
+         *            Numeric property, its values must not be <code>null</code>.
+         * @param aK
+         *            Maximal number of selected objects.
+         * @return At most <code>aK</code> objects ordered from the least value.
+         */
+        public static List< EObject > bottomK( Stream< ? extends EObject > aStream,
+            EStructuralFeature aProperty, int aK )
+        {
+            return aStream.collect( bottomK( aProperty, aK ) );
+        }
+
+        /**
+         * {@link Collector} selecting objects with greatest values of numeric property. Values are kept with
+         * objects in bounded primitive heap, partial heaps of parallel {@link Stream}s are merged.
+         * 
+         * @param aProperty
+         *            Numeric property, its values must not be <code>null</code>.
+         * @param aK
+         *            Maximal number of selected objects.
+         * @return {@link Collector} of at most <code>aK</code> objects ordered from the greatest value.
+         */
+        public static Collector< EObject, ?, List< EObject > > topK( EStructuralFeature aProperty, int aK )
+        {
+            return heap( sortableKey( aProperty ), aK );
+        }
+
+        /**
+         * {@link Collector} selecting objects with least values of numeric property.
+         * 
+         * @param aProperty
+         *            Numeric property, its values must not be <code>null</code>.
+         * @param aK
+         *            Maximal number of selected objects.
+         * @return {@link Collector} of at most <code>aK</code> objects ordered from the least value.
+         * @see #topK(EStructuralFeature, int)
+         */
+        public static Collector< EObject, ?, List< EObject > > bottomK( EStructuralFeature aProperty, int aK )
+        {
+            final ToLongFunction< EObject > key = sortableKey( aProperty );
+            return heap( aObject -> ~key.applyAsLong( aObject ), aK );
+        }
+
+        /**
+         * Selects greatest objects according to {@link Comparator}.
+         * 
+         * @param aStream
+         *            Objects, parallel {@link Stream}s are supported.
+         * @param aComparator
+         *            {@link Comparator}, e.g. one of {@link Comparators}.
+         * @param aK
+         *            Maximal number of selected objects.
+         * @return At most <code>aK</code> objects ordered from the greatest one.
+         */
+        public static List< EObject > topK( Stream< ? extends EObject > aStream,
+            Comparator< ? super EObject > aComparator, int aK )
+        {
+            return aStream.collect( heap( aComparator, aK, Function.identity() ) );
+        }
+
+        /**
+         * Selects objects with greatest values of properties. Values of properties are extracted once per
+         * object and compared in given order, <code>null</code> values are the least ones.
+         * 
+         * @param aStream
+         *            Objects, parallel {@link Stream}s are supported.
+         * @param aK
+         *            Maximal number of selected objects.
+         * @param aProperties
+         *            Properties with {@link Comparable} values, at least one.
+         * @return At most <code>aK</code> objects ordered from the greatest values.
+         */
+        public static List< EObject > topK( Stream< ? extends EObject > aStream, int aK,
+            EStructuralFeature... aProperties )
+        {
+            Preconditions.checkArgument( aProperties.length > 0, "Properties are missing." );
+            return aStream.map( aObject -> new Row( aObject, aProperties ) )
+                .collect( heap( Comparator.< Row >naturalOrder(), aK, Row::getObject ) );
+        }
+
+        /**
+         * Sorts objects by values of properties. Values of properties are extracted once per object before
+         * sorting and compared in given order, <code>null</code> values are the least ones.
+         * 
+         * @param aObjects
+         *            Objects.
+         * @param aProperties
+         *            Properties with {@link Comparable} values, at least one.
+         * @return New {@link List} of objects ordered from the least values.
+         */
+        public static List< EObject > sorted( Collection< ? extends EObject > aObjects,
+            EStructuralFeature... aProperties )
+        {
+            Preconditions.checkArgument( aProperties.length > 0, "Properties are missing." );
+            final Row[] rows = new Row[ aObjects.size() ];
+            int next = 0;
+            for ( final EObject object : aObjects )
+            {
+                rows[ next++ ] = new Row( object, aProperties );
+            }
+            Arrays.parallelSort( rows );
+            final List< EObject > result = new ArrayList<>( rows.length );
+            for ( final Row row : rows )
+            {
+                result.add( row.getObject() );
+            }
+            return result;
+        }
+
+        private static Collector< EObject, ?, List< EObject > > heap( ToLongFunction< EObject > aKey, int aK )
+        {
+            Preconditions.checkArgument( aK >= 0, "K is negative." );
+            return Collector.of( () -> new LongKeyHeap( aK ),
+                ( aHeap, aObject ) -> aHeap.offer( aKey.applyAsLong( aObject ), aObject ), LongKeyHeap::merge,
+                LongKeyHeap::drain );
+        }
+
+        private static < T, R >Collector< T, ?, List< R > > heap( Comparator< ? super T > aComparator, int aK,
+            Function< T, R > aFinisher )
+        {
+            Preconditions.checkArgument( aK >= 0, "K is negative." );
+            final BiConsumer< PriorityQueue< T >, T > offer = ( aHeap, aElement ) -> {
+                if ( aHeap.size() < aK )
+                {
+                    aHeap.add( aElement );
+                }
+                else if ( aK > 0 && aComparator.compare( aElement, aHeap.peek() ) > 0 )
+                {
+                    aHeap.poll();
+                    aHeap.add( aElement );
+                }
+            };
+            return Collector.of( () -> new PriorityQueue< T >( Math.max( aK, 1 ), aComparator ), offer,
+                ( aLeft, aRight ) -> {
+                    aRight.forEach( aElement -> offer.accept( aLeft, aElement ) );
+                    return aLeft;
+                }, aHeap -> {
+                    final List< R > result = new ArrayList<>( aHeap.size() );
+                    while ( !aHeap.isEmpty() )
+                    {
+                        result.add( aFinisher.apply( aHeap.poll() ) );
+                    }
+                    Collections.reverse( result );
+                    return result;
+                } );
+        }
+
+        /**
+         * Creates key whose natural order of longs is order of property values.
+         */
+        private static ToLongFunction< EObject > sortableKey( EStructuralFeature aProperty )
+        {
+            Preconditions.checkNotNull( aProperty, "Property is missing." );
+            final Class< ? > clazz = aProperty.getEType().getInstanceClass();
+            if ( clazz == double.class || clazz == float.class || clazz == Double.class
+                || clazz == Float.class )
+            {
+                return aObject -> {
+                    final long bits = Double.doubleToLongBits( Primitives.doubleValue( aObject, aProperty ) );
+                    return bits ^ ( bits >> 63 & Long.MAX_VALUE );
+                };
+            }
+            return aObject -> Primitives.longValue( aObject, aProperty );
+        }
+
+        /**
+         * {@link EObject} with property values extracted for comparison.
+         */
+        private static final class Row implements Comparable< Row >
+        {
+            private final EObject object;
+
+            private final Object[] keys;
+
+            Row( EObject aObject, EStructuralFeature[] aProperties )
+            {
+                object = aObject;
+                keys = new Object[ aProperties.length ];
+                for ( int i = 0; i < aProperties.length; i++ )
+                {
+                    keys[ i ] = aObject.eGet( aProperties[ i ] );
+                }
+            }
+
+            EObject getObject()
+            {
+                return object;
+            }
+
+            @Override
+            public int compareTo( Row aOther )
+            {
+                for ( int i = 0; i < keys.length; i++ )
+                {
+                    final int result = Comparators.compareValues( keys[ i ], aOther.keys[ i ] );
+                    if ( result != 0 )
+                    {
+                        return result;
+                    }
+                }
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Internal class contains publishers of {@link EObject} changes.
+     */
+    public final static class Changes
+    {
+        private Changes()
+        {
+            // Factory class
+        }
+
+        /**
+         * Creates publisher of changes of given containment tree. Publisher observes model until it is
+         * closed.
+         * 
+         * @param aRoot
+         *            {@link EObject}, {@link org.eclipse.emf.ecore.resource.Resource} or
+         *            {@link org.eclipse.emf.ecore.resource.ResourceSet}.
+         * @return New {@link ChangePublisher}.
+         */
+        public static ChangePublisher publisher( Notifier aRoot )
+        {
+            return new ChangePublisher( aRoot );
+        }
+    }
+
+    /**
+     * Internal class contains incrementally maintained views of {@link EObject}s.
+     */
+    public final static class Views
+    {
+        private Views()
+        {
+            // Factory class
+        }
+
+        /**
+         * Creates view of objects of containment tree matching predicate. View is maintained until it is
+         * closed.
+         * 
+         * @param aRoot
+         *            {@link EObject}, {@link org.eclipse.emf.ecore.resource.Resource} or
+         *            {@link org.eclipse.emf.ecore.resource.ResourceSet}.
+         * @param aPredicate
+         *            Membership predicate, e.g. one of {@link Predicates}.
+         * @return New {@link LiveView}.
+         */
+        public static LiveView live( Notifier aRoot, Predicate< ? super EObject > aPredicate )
+        {
+            return new LiveView( aRoot, aPredicate );
+        }
+
+        /**
+         * Creates count, sum, minimum and maximum of attribute over all objects of containment tree.
+         * Aggregate is maintained until it is closed.
+         * 
+         * @param aRoot
+         *            {@link EObject}, {@link org.eclipse.emf.ecore.resource.Resource} or
+         *            {@link org.eclipse.emf.ecore.resource.ResourceSet}.
+         * @param aFeature
+         *            Single-valued numeric attribute.
+         * @return New {@link LiveAggregate}.
+         */
+        public static LiveAggregate aggregate( Notifier aRoot, EStructuralFeature aFeature )
+        {
+            return new LiveAggregate( aRoot, aFeature, aObject -> true );
+        }
+
+        /**
+         * Creates count, sum, minimum and maximum of attribute over objects of containment tree matching
+         * filter. Aggregate is maintained until it is closed.
+         * 
+         * @param aRoot
+         *            {@link EObject}, {@link org.eclipse.emf.ecore.resource.Resource} or
+         *            {@link org.eclipse.emf.ecore.resource.ResourceSet}.
+         * @param aFeature
+         *            Single-valued numeric attribute.
+         * @param aFilter
+         *            Filter of aggregated objects, e.g. one of {@link Predicates}.
+         * @return New {@link LiveAggregate}.
+         */
+        public static LiveAggregate aggregate( Notifier aRoot, EStructuralFeature aFeature,
+            Predicate< ? super EObject > aFilter )
+        {
+            return new LiveAggregate( aRoot, aFeature, aFilter );
+        }
+    }
+
+    /**
+     * Internal class contains structural differences of {@link EObject} collections.
+     */
+    public final static class Diff
+    {
+        private Diff()
+        {
+            // Factory class
+        }
+
+        /**
+         * Computes difference of two versions of objects matched by id attribute, see
+         * {@link Functions#id()}.
+         * 
+         * @param aOld
+         *            Old version.
+         * @param aNew
+         *            New version.
+         * @return Difference of versions.
+         * @throws IllegalArgumentException
+         *             When object has no id attribute or id is not unique.
+         */
+        public static ModelDiff compare( Collection< ? extends EObject > aOld,
+            Collection< ? extends EObject > aNew )
+        {
+            return ModelDiff.compute( aOld, aNew, Functions.id() );
+        }
+
+        /**
+         * Computes difference of two versions of objects matched by key.
+         * 
+         * @param aOld
+         *            Old version.
+         * @param aNew
+         *            New version.
+         * @param aKey
+         *            Key of object, unique within version.
+         * @return Difference of versions.
+         * @throws IllegalArgumentException
+         *             When key is not unique.
+         */
+        public static ModelDiff compare( Collection< ? extends EObject > aOld,
+            Collection< ? extends EObject > aNew, Function< ? super EObject, ? > aKey )
+        {
+            return ModelDiff.compute( aOld, aNew, aKey );
+        }
+    }
+
+    /**
+     * Internal class contains content hashes of {@link EObject}s.
+     */
+    public final static class Fingerprints
+    {
+        private Fingerprints()
+        {
+            // Factory class
+        }
+
+        /**
+         * Computes hash of object content: class name and values of features which are not derived,
+         * transient or containment, taken in order of feature names.
+         * 
+         * @param aObject
+         *            Object.
+         * @return 128-bit hash.
+         */
+        public static HashCode hash( EObject aObject )
+        {
+            return Hashes.object( Preconditions.checkNotNull( aObject, "Object is missing." ) );
+        }
+
+        /**
+         * Computes hash of content of object and all its contents, contents are hashed in parallel.
+         * 
+         * @param aObject
+         *            Root of containment subtree.
+         * @return 128-bit hash.
+         */
+        public static HashCode hashTree( EObject aObject )
+        {
+            return Hashes.tree( Preconditions.checkNotNull( aObject, "Object is missing." ) );
+        }
+
+        /**
+         * Creates hasher which caches hashes of objects of containment tree until they change. Hasher
+         * observes model until it is closed.
+         * 
+         * @param aRoot
+         *            {@link EObject}, {@link org.eclipse.emf.ecore.resource.Resource} or
+         *            {@link org.eclipse.emf.ecore.resource.ResourceSet}.
+         * @return New {@link ContentHasher}.
+         */
+        public static ContentHasher hasher( Notifier aRoot )
+        {
+            return new ContentHasher( aRoot );
+        }
+    }
+
+    /**
+     * Internal class contains deep copiers of {@link EObject} subtrees.
+     */
+    public final static class Copies
+    {
+        private Copies()
+        {
+            // Factory class
+        }
+
+        /**
+         * Copies containment subtree in parallel.
+         * 
+         * @param aRoot
+         *            Root of subtree.
+         * @return Copy of root.
+         */
+        public static < T extends EObject >T copy( T aRoot )
+        {
+            return copier().copy( aRoot );
+        }
+
+        /**
+         * Copies containment subtrees in parallel, references between subtrees are copied too.
+         * 
+         * @param aRoots
+         *            Roots of subtrees.
+         * @return Copies of roots in their order.
+         */
+        public static List< EObject > copyAll( Collection< ? extends EObject > aRoots )
+        {
+            return copier().copyAll( aRoots );
+        }
+
+        /**
+         * @return New copier.
+         */
+        public static ModelCopier copier()
+        {
+            return new ModelCopier( false );
+        }
+
+        /**
+         * @return New copier which creates {@link CopyOnWriteEObject}s reading attributes from originals until
+         *         they are written. Objects of classes with instance class are copied eagerly.
+         */
+        public static ModelCopier copyOnWriteCopier()
+        {
+            return new ModelCopier( true );
+        }
+    }
+
+    /**
+     * Internal class contains versioned snapshots of {@link EObject} models.
+     */
+    public final static class Snapshots
+    {
+        private Snapshots()
+        {
+            // Factory class
+        }
+
+        /**
+         * Creates versions of containment tree, which give readers consistent snapshots while model is
+         * modified. Versions are maintained until they are closed.
+         * 
+         * @param aRoot
+         *            {@link EObject}, {@link org.eclipse.emf.ecore.resource.Resource} or
+         *            {@link org.eclipse.emf.ecore.resource.ResourceSet}.
+         * @return New {@link ModelVersions}.
+         */
+        public static ModelVersions versions( Notifier aRoot )
         {
-            return Comparator.comparing( Functions.value( aProperty, aClass ) );
+            return new ModelVersions( aRoot );
+        }
+    }
+
+    /**
+     * Internal class contains locks for parallel modifications of {@link EObject}s.
+     */
+    public final static class Locks
+    {
+        private Locks()
+        {
+            // Factory class
+        }
+
+        /**
+         * Creates striped locks, one lock guards containment tree of root container.
+         * 
+         * @param aStripes
+         *            Number of locks.
+         * @return New {@link ModelLocks}.
+         */
+        public static ModelLocks striped( int aStripes )
+        {
+            return new ModelLocks( aStripes, ModelLocks.Scope.ROOT );
+        }
+
+        /**
+         * Creates striped locks.
+         * 
+         * @param aStripes
+         *            Number of locks.
+         * @param aScope
+         *            Unit guarded by one lock.
+         * @return New {@link ModelLocks}.
+         */
+        public static ModelLocks striped( int aStripes, ModelLocks.Scope aScope )
+        {
+            return new ModelLocks( aStripes, aScope );
+        }
+    }
+
+    /**
+     * Internal class contains deduplication of {@link EObject} attribute values.
+     */
+    public final static class Interning
+    {
+        private static final ValueInterner INTERNER = new ValueInterner();
+
+        private Interning()
+        {
+            // Factory class
+        }
+
+        /**
+         * @return Interner shared by whole application.
+         */
+        public static ValueInterner interner()
+        {
+            return INTERNER;
+        }
+
+        /**
+         * Interns {@link String}, {@link BigDecimal} and {@link Date} attribute values of containment tree in
+         * parallel by shared interner.
+         * 
+         * @param aRoot
+         *            {@link EObject}, {@link org.eclipse.emf.ecore.resource.Resource} or
+         *            {@link org.eclipse.emf.ecore.resource.ResourceSet}.
+         * @return Counts per attribute.
+         */
+        public static InterningReport intern( Notifier aRoot )
+        {
+            return INTERNER.internParallel( aRoot );
+        }
+
+        /**
+         * Installs hook which interns values of resources by shared interner when they are loaded.
+         * 
+         * @param aResourceSet
+         *            Resource set.
+         * @return Installed hook.
+         */
+        public static ValueInterner.LoadHook onLoad( ResourceSet aResourceSet )
+        {
+            return INTERNER.installLoadHook( aResourceSet );
+        }
+    }
+
+    /**
+     * Internal class contains primitive {@link Stream}s fed by sinks.
+     */
+    public final static class Streams
+    {
+        private Streams()
+        {
+            // Factory class
+        }
+
+        /**
+         * Maps every element of stream to zero or more int values pushed by sink, e.g.
+         * {@link Functions#valIntSink(EStructuralFeature)}. Unlike <code>flatMapToInt</code> it does not
+         * create stream per element. Returned stream is parallel if source stream is.
+         * 
+         * @param aStream
+         *            Source stream.
+         * @param aSink
+         *            Pushes values of element into given consumer.
+         * @return {@link IntStream} of pushed values.
+         */
+        public static < T >IntStream mapMultiToInt( Stream< T > aStream,
+            BiConsumer< ? super T, ? super IntConsumer > aSink )
+        {
+            Preconditions.checkNotNull( aSink, "Sink is missing." );
+            return StreamSupport.intStream( new SinkSpliterators.OfInt<>( aStream.spliterator(), aSink ),
+                aStream.isParallel() ).onClose( aStream::close );
+        }
+
+        /**
+         * Maps every element of stream to zero or more long values pushed by sink, e.g.
+         * {@link Functions#valLongSink(EStructuralFeature)}. Unlike <code>flatMapToLong</code> it does not
+         * create stream per element. Returned stream is parallel if source stream is.
+         * 
+         * @param aStream
+         *            Source stream.
+         * @param aSink
+         *            Pushes values of element into given consumer.
+         * @return {@link LongStream} of pushed values.
+         */
+        public static < T >LongStream mapMultiToLong( Stream< T > aStream,
+            BiConsumer< ? super T, ? super LongConsumer > aSink )
+        {
+            Preconditions.checkNotNull( aSink, "Sink is missing." );
+            return StreamSupport.longStream( new SinkSpliterators.OfLong<>( aStream.spliterator(), aSink ),
+                aStream.isParallel() ).onClose( aStream::close );
+        }
+
+        /**
+         * Maps every element of stream to zero or more double values pushed by sink, e.g.
+         * {@link Functions#valDoubleSink(EStructuralFeature)}. Unlike <code>flatMapToDouble</code> it does not
+         * create stream per element. Returned stream is parallel if source stream is.
+         * 
+         * @param aStream
+         *            Source stream.
+         * @param aSink
+         *            Pushes values of element into given consumer.
+         * @return {@link DoubleStream} of pushed values.
+         */
+        public static < T >DoubleStream mapMultiToDouble( Stream< T > aStream,
+            BiConsumer< ? super T, ? super DoubleConsumer > aSink )
+        {
+            Preconditions.checkNotNull( aSink, "Sink is missing." );
+            return StreamSupport.doubleStream( new SinkSpliterators.OfDouble<>( aStream.spliterator(), aSink ),
+                aStream.isParallel() ).onClose( aStream::close );
+        }
+    }
+
+    /**
+     * Internal class contains profiling of {@link Stream} pipeline stages.
+     */
+    public final static class Profiling
+    {
+        private Profiling()
+        {
+            // Factory class
+        }
+
+        /**
+         * Creates profiler, stages of pipeline are wrapped by it, e.g.
+         * <code>stream.filter( p.predicate( "active", Predicates.valueEq( "active", true ) ) )</code>.
+         * 
+         * @return New enabled {@link StageProfiler}.
+         */
+        public static StageProfiler profiler()
+        {
+            return new StageProfiler();
+        }
+    }
+
+    /**
+     * Internal class contains planned queries over {@link EObject}s.
+     */
+    public final static class Query
+    {
+        private static final ModelQuery EMPTY = new ModelQuery( Collections.emptyList() );
+
+        /**
+         * Size of shared result cache.
+         */
+        public static final int CACHE_SIZE = 1024;
+
+        private static final QueryCache CACHE = new QueryCache( CACHE_SIZE, true );
+
+        private Query()
+        {
+            // Factory class
+        }
+
+        /**
+         * Creates query with equality condition, further conditions are added by
+         * {@link ModelQuery#and(EStructuralFeature, Object)}.
+         * 
+         * @param aFeature
+         *            Feature.
+         * @param aValue
+         *            Value, may be <code>null</code>.
+         * @return New {@link ModelQuery}.
+         */
+        public static ModelQuery where( EStructuralFeature aFeature, Object aValue )
+        {
+            return EMPTY.and( aFeature, aValue );
+        }
+
+        /**
+         * Creates query with range condition.
+         * 
+         * @param aFeature
+         *            Feature with {@link Comparable} values.
+         * @param aLower
+         *            Lower bound, inclusive, <code>null</code> for no bound.
+         * @param aUpper
+         *            Upper bound, exclusive, <code>null</code> for no bound.
+         * @return New {@link ModelQuery}.
+         */
+        public static ModelQuery whereBetween( EStructuralFeature aFeature, Comparable< ? > aLower,
+            Comparable< ? > aUpper )
+        {
+            return EMPTY.andBetween( aFeature, aLower, aUpper );
+        }
+
+        /**
+         * Creates index of containment tree by feature value, used by queries over the same root until it is
+         * closed.
+         * 
+         * @param aRoot
+         *            {@link EObject}, {@link org.eclipse.emf.ecore.resource.Resource} or
+         *            {@link org.eclipse.emf.ecore.resource.ResourceSet}.
+         * @param aFeature
+         *            Single-valued feature.
+         * @return New {@link FeatureIndex}.
+         */
+        public static FeatureIndex index( Notifier aRoot, EStructuralFeature aFeature )
+        {
+            return new FeatureIndex( aRoot, aFeature );
+        }
+
+        /**
+         * @return Result cache shared by whole application, holding up to {@value #CACHE_SIZE} results. It can
+         *         not be closed. Every queried tree carries its modification counter until its results are
+         *         evicted and cache is used again, use {@link QueryCache#invalidate(Notifier)} to release tree
+         *         earlier.
+         */
+        public static QueryCache cache()
+        {
+            return CACHE;
+        }
+
+        /**
+         * Creates separate result cache.
+         * 
+         * @param aMaximumSize
+         *            Maximal number of cached results.
+         * @return New {@link QueryCache}.
+         */
+        public static QueryCache cache( long aMaximumSize )
+        {
+            return new QueryCache( aMaximumSize, false );
+        }
+    }
+
+    /**
+     * Internal class contains statistics of attribute values.
+     */
+    public final static class Statistics
+    {
+        private static final int BUCKETS = 16;
+
+        private static final int TOP = 10;
+
+        private Statistics()
+        {
+            // Factory class
+        }
+
+        /**
+         * Collects statistics of all objects of containment tree in parallel, with 16 histogram buckets and
+         * 10 frequent values per attribute.
+         * 
+         * @param aRoot
+         *            {@link EObject}, {@link org.eclipse.emf.ecore.resource.Resource} or
+         *            {@link org.eclipse.emf.ecore.resource.ResourceSet}.
+         * @return Collected {@link ModelStatistics}.
+         */
+        public static ModelStatistics collect( Notifier aRoot )
+        {
+            Preconditions.checkNotNull( aRoot, "Root is missing." );
+            final List< EObject > objects = new ArrayList<>();
+            ContentObserver.forEachObject( aRoot, objects::add );
+            return collect( objects );
+        }
+
+        /**
+         * Collects statistics of objects in parallel, with 16 histogram buckets and 10 frequent values per
+         * attribute.
+         * 
+         * @param aObjects
+         *            Objects.
+         * @return Collected {@link ModelStatistics}.
+         */
+        public static ModelStatistics collect( Collection< ? extends EObject > aObjects )
+        {
+            return aObjects.parallelStream().collect( collector( BUCKETS, TOP ) );
+        }
+
+        /**
+         * {@link Collector} of statistics, usable with parallel streams.
+         * 
+         * @param aBuckets
+         *            Number of histogram buckets.
+         * @param aTop
+         *            Number of frequent values per attribute.
+         * @return {@link Collector} behaving as in spec.
+         */
+        public static Collector< EObject, ?, ModelStatistics > collector( int aBuckets, int aTop )
+        {
+            Preconditions.checkArgument( aBuckets > 0, "Number of buckets must be positive." );
+            Preconditions.checkArgument( aTop > 0, "Number of frequent values must be positive." );
+            return ModelStatistics.collector( aBuckets, aTop );
+        }
+    }
+
+    /**
+     * Internal class contains compact grouping of {@link EObject}s by feature value.
+     */
+    public final static class Group
+    {
+        private Group()
+        {
+            // Factory class
+        }
+
+        /**
+         * {@link Collector} grouping objects by feature value into {@link Grouping}, replacement of
+         * <code>Collectors.groupingBy( Functions.value( ... ) )</code>. All objects must have the feature.
+         * 
+         * @param aFeature
+         *            Single-valued feature.
+         * @return {@link Collector} behaving as in spec.
+         */
+        public static Collector< EObject, ?, Grouping > by( EStructuralFeature aFeature )
+        {
+            Preconditions.checkNotNull( aFeature, "Feature is missing." );
+            return Collector.of( ArrayList< EObject >::new, List::add, ( aLeft, aRight ) -> {
+                aLeft.addAll( aRight );
+                return aLeft;
+            }, aObjects -> new Grouping( aObjects, aFeature ) );
+        }
+
+        /**
+         * Groups objects by feature value. All objects must have the feature.
+         * 
+         * @param aObjects
+         *            Objects.
+         * @param aFeature
+         *            Single-valued feature.
+         * @return New {@link Grouping}, group members are indexed by position in given collection.
+         */
+        public static Grouping by( Collection< ? extends EObject > aObjects, EStructuralFeature aFeature )
+        {
+            Preconditions.checkNotNull( aObjects, "Objects are missing." );
+            return new Grouping( aObjects instanceof List ? (List< ? extends EObject >)aObjects
+                : new ArrayList<>( aObjects ), aFeature );
+        }
+    }
+
+    /**
+     * Internal class contains asynchronous execution of {@link Consumer}s.
+     */
+    public final static class Exec
+    {
+        private Exec()
+        {
+            // Factory class
+        }
+
+        /**
+         * Applies blocking consumer to every object of stream asynchronously, on virtual threads when
+         * available. Objects of the same containment tree or resource are processed one after another in
+         * stream order.
+         * 
+         * @param aStream
+         *            Objects, consumed by dispatcher thread.
+         * @param aConsumer
+         *            Consumer, e.g. call of external service.
+         * @param aMaxConcurrency
+         *            Maximal number of consumer calls running or waiting at once.
+         * @return Running {@link AsyncBatch}.
+         */
+        public static AsyncBatch forEachAsync( Stream< ? extends EObject > aStream,
+            Consumer< ? super EObject > aConsumer, int aMaxConcurrency )
+        {
+            return new AsyncBatch( aStream, aConsumer, aMaxConcurrency );
+        }
+    }
+
+    /**
+     * Internal class contains parallel and incremental validation of {@link EObject}s.
+     */
+    public final static class Validation
+    {
+        private static final ModelValidator EMPTY = new ModelValidator( Collections.emptyList(),
+            Integer.MAX_VALUE );
+
+        private Validation()
+        {
+            // Factory class
+        }
+
+        /**
+         * @return Validator without rules and without limit of violations, rules are added by
+         *         {@link ModelValidator#rule(EClass, String, Predicate)}.
+         */
+        public static ModelValidator validator()
+        {
+            return EMPTY;
+        }
+
+        /**
+         * Creates validation of containment tree which validates again only changed objects. Validation is
+         * maintained until it is closed.
+         * 
+         * @param aRoot
+         *            {@link EObject}, {@link org.eclipse.emf.ecore.resource.Resource} or
+         *            {@link org.eclipse.emf.ecore.resource.ResourceSet}.
+         * @param aValidator
+         *            Validator.
+         * @return New {@link LiveValidation}.
+         */
+        public static LiveValidation live( Notifier aRoot, ModelValidator aValidator )
+        {
+            return new LiveValidation( aRoot, aValidator );
+        }
+    }
+
+    /**
+     * Internal class contains generation of typed accessors of generated models.
+     */
+    public final static class Generation
+    {
+        private Generation()
+        {
+            // Factory class
+        }
+
+        /**
+         * Creates generator of typed counterparts of {@link Predicates}, {@link Functions} and
+         * {@link Comparators} for classes of generated model.
+         * 
+         * @param aTargetPackage
+         *            Java package of generated classes, empty for default package.
+         * @return New {@link AccessorGenerator}.
+         */
+        public static AccessorGenerator accessors( String aTargetPackage )
+        {
+            return new AccessorGenerator( aTargetPackage );
+        }
+    }
+
+    /**
+     * Internal class contains cursor based pagination of {@link EObject}s.
+     */
+    public final static class Pages
+    {
+        private Pages()
+        {
+            // Factory class
+        }
+
+        /**
+         * Creates pager over list of many-valued reference by index.
+         * 
+         * @param aOwner
+         *            Owner of list.
+         * @param aReference
+         *            Many-valued reference, usually containment.
+         * @return New {@link ListPager}.
+         */
+        public static ListPager list( EObject aOwner, EReference aReference )
+        {
+            return new ListPager( aOwner, aReference, null, false );
+        }
+
+        /**
+         * Creates keyset pager over snapshot of objects sorted by values of features.
+         * 
+         * @param aObjects
+         *            Objects.
+         * @param aKeys
+         *            Key features, the last one should be unique.
+         * @return New {@link KeysetPager}.
+         */
+        public static KeysetPager sorted( Collection< ? extends EObject > aObjects,
+            EStructuralFeature... aKeys )
+        {
+            return new KeysetPager( aObjects, aKeys );
         }
     }
 
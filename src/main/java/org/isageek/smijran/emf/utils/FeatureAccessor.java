@@ -0,0 +1,168 @@
+package org.isageek.smijran.emf.utils;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.impl.BasicEObjectImpl;
+
+import com.google.common.collect.MapMaker;
+
+/**
+ * Reader of feature value by feature ID resolved once per {@link EClass}.
+ * {@link EObject#eGet(EStructuralFeature)} derives feature ID of object class on every call, accessor
+ * remembers it for the first seen class, other classes are cached by weak keys, and reads value by
+ * {@link InternalEObject#eGet(int, boolean, boolean)}, which for dynamic objects indexes settings directly.
+ * Implementation classes which override reading by feature, e.g. {@link SnapshotEObject}, and implementation
+ * classes other than the first one seen for their class are read by {@link EObject#eGet(EStructuralFeature)}.
+ * Classes and implementation classes are referenced weakly, so accessor keeps loaded only metamodel of its
+ * feature, not metamodels of subclasses it has read.
+ * Accessor is thread safe.
+ */
+final class FeatureAccessor
+{
+    /**
+     * Whether implementation class reads features only through feature IDs, cached per class so that classes
+     * can be unloaded.
+     */
+    private static final ClassValue< Boolean > INDEXED = new ClassValue< Boolean >()
+    {
+        @Override
+        protected Boolean computeValue( Class< ? > aType )
+        {
+            if ( !BasicEObjectImpl.class.isAssignableFrom( aType ) )
+            {
+                return false;
+            }
+            try
+            {
+                return isInherited( aType.getMethod( "eGet", EStructuralFeature.class ) )
+                    && isInherited( aType.getMethod( "eGet", EStructuralFeature.class, boolean.class ) )
+                    && isInherited( aType.getMethod( "eGet", EStructuralFeature.class, boolean.class,
+                        boolean.class ) );
+            }
+            catch ( NoSuchMethodException e )
+            {
+                return false;
+            }
+        }
+    };
+
+    /**
+     * Feature ID of class for implementation class of its first seen object, both are referenced weakly.
+     */
+    private static final class Slot extends WeakReference< EClass >
+    {
+        final WeakReference< Class< ? > > type;
+
+        final int featureID;
+
+        Slot( EClass aClass, Class< ? > aType, int aFeatureID )
+        {
+            super( aClass );
+            type = new WeakReference<>( aType );
+            featureID = aFeatureID;
+        }
+    }
+
+    private static final Slot EMPTY = new Slot( null, null, -1 );
+
+    private final EStructuralFeature feature;
+
+    /**
+     * Slot of the first seen class, replaced only when its class is unloaded.
+     */
+    private volatile Slot first = EMPTY;
+
+    /**
+     * Slots of other classes, created on first class change.
+     */
+    private volatile ConcurrentMap< EClass, Slot > slots;
+
+    FeatureAccessor( EStructuralFeature aFeature )
+    {
+        feature = aFeature;
+    }
+
+    /**
+     * @return Read feature.
+     */
+    EStructuralFeature getFeature()
+    {
+        return feature;
+    }
+
+    /**
+     * Reads resolved value of feature, like {@link EObject#eGet(EStructuralFeature)}.
+     *
+     * @param aObject
+     *            Object.
+     * @return Value.
+     */
+    Object get( EObject aObject )
+    {
+        final EClass eClass = aObject.eClass();
+        Slot slot = first;
+        if ( slot.get() != eClass )
+        {
+            slot = slot( aObject, eClass, slot );
+        }
+        return slot.featureID < 0 || slot.type.get() != aObject.getClass() ? aObject.eGet( feature )
+            : ( (InternalEObject)aObject ).eGet( slot.featureID, true, true );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "FeatureAccessor[" + feature.getName() + "]";
+    }
+
+    /**
+     * @return Slot of class other than the one of given first slot, created once per class.
+     */
+    private Slot slot( EObject aObject, EClass aClass, Slot aFirst )
+    {
+        if ( aFirst.get() == null )
+        {
+            final Slot result = newSlot( aObject, aClass );
+            first = result;
+            return result;
+        }
+        ConcurrentMap< EClass, Slot > cache = slots;
+        if ( cache == null )
+        {
+            cache = new MapMaker().weakKeys().concurrencyLevel( 1 ).makeMap();
+            slots = cache;
+        }
+        Slot result = cache.get( aClass );
+        if ( result == null )
+        {
+            result = newSlot( aObject, aClass );
+            final Slot previous = cache.putIfAbsent( aClass, result );
+            if ( previous != null )
+            {
+                result = previous;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return Slot with derived feature ID or <code>-1</code> if object must be read by feature.
+     */
+    private Slot newSlot( EObject aObject, EClass aClass )
+    {
+        final Class< ? > type = aObject.getClass();
+        return new Slot( aClass, type,
+            INDEXED.get( type ) ? ( (InternalEObject)aObject ).eDerivedStructuralFeatureID( feature ) : -1 );
+    }
+
+    private static boolean isInherited( Method aMethod )
+    {
+        return aMethod.getDeclaringClass() == BasicEObjectImpl.class;
+    }
+}
@@ -0,0 +1,162 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+/**
+ * Distribution of feature values estimated from random sample of objects. Selectivity of equality is
+ * estimated from value frequencies, selectivity of range from sorted sample; clauses on many-valued features
+ * are tested against every sampled value. Selectivity is never estimated as zero, value missing in sample
+ * counts as half of occurrence.
+ */
+final class FeatureHistogram
+{
+    static final int SAMPLE_SIZE = 256;
+
+    private static final Object NULL = new Object();
+
+    /**
+     * Whether feature is many-valued. Feature itself is not kept, it keys histograms in weak map.
+     */
+    private final boolean many;
+
+    /**
+     * Size of population when sample was taken.
+     */
+    private final int population;
+
+    /**
+     * Sampled values, objects without feature have no value.
+     */
+    private final Object[] values;
+
+    private final int sampled;
+
+    private final Map< Object, Integer > frequencies = new HashMap<>();
+
+    /**
+     * Sorted non-null sampled values, <code>null</code> if values are not {@link Comparable}.
+     */
+    private final Comparable< Object >[] sorted;
+
+    @SuppressWarnings( { "unchecked", "rawtypes" } )
+    FeatureHistogram( List< ? extends EObject > aObjects, EStructuralFeature aFeature )
+    {
+        many = aFeature.isMany();
+        population = aObjects.size();
+        sampled = Math.min( population, SAMPLE_SIZE );
+        final List< Object > sample = new ArrayList<>( sampled );
+        final Random random = ThreadLocalRandom.current();
+        for ( int i = 0; i < sampled; i++ )
+        {
+            final EObject object = aObjects.get( population == sampled ? i : random.nextInt( population ) );
+            if ( object.eClass().getFeatureID( aFeature ) >= 0 )
+            {
+                sample.add( object.eGet( aFeature ) );
+            }
+        }
+        values = sample.toArray();
+        Comparable< Object >[] sorted = null;
+        if ( !aFeature.isMany() )
+        {
+            List< Comparable< Object > > comparables = new ArrayList<>();
+            for ( Object value : sample )
+            {
+                frequencies.merge( value == null ? NULL : value, 1, Integer::sum );
+                if ( comparables != null && value instanceof Comparable )
+                {
+                    comparables.add( (Comparable< Object >)value );
+                }
+                else if ( value != null )
+                {
+                    comparables = null;
+                }
+            }
+            if ( comparables != null )
+            {
+                sorted = comparables.toArray( new Comparable[ comparables.size() ] );
+                Arrays.sort( sorted );
+            }
+        }
+        this.sorted = sorted;
+    }
+
+    /**
+     * @param aSize
+     *            Current size of population.
+     * @return <code>true</code> if size changed by more than quarter since sampling.
+     */
+    boolean isStale( int aSize )
+    {
+        return Math.abs( aSize - population ) > population / 4;
+    }
+
+    /**
+     * Estimates fraction of objects matching clause.
+     *
+     * @param aClause
+     *            Clause on feature of histogram.
+     * @return Selectivity between 0 and 1.
+     */
+    double selectivity( ModelQuery.Clause aClause )
+    {
+        if ( sampled == 0 )
+        {
+            return 1;
+        }
+        double matching;
+        if ( many || ( aClause.getOperator() == ModelQuery.Operator.RANGE && sorted == null ) )
+        {
+            matching = 0;
+            for ( Object value : values )
+            {
+                if ( aClause.matches( value ) )
+                {
+                    matching++;
+                }
+            }
+        }
+        else if ( aClause.getOperator() == ModelQuery.Operator.EQUAL )
+        {
+            final Integer count = frequencies.get( aClause.getValue() == null ? NULL : aClause.getValue() );
+            matching = count == null ? 0 : count;
+        }
+        else
+        {
+            final int from = aClause.getValue() == null ? 0 : lowerBound( aClause.getValue() );
+            final int to = aClause.getUpper() == null ? sorted.length : lowerBound( aClause.getUpper() );
+            matching = Math.max( 0, to - from );
+        }
+        return Math.max( matching, 0.5 ) / sampled;
+    }
+
+    /**
+     * @return Index of first sorted value not less than given one.
+     */
+    private int lowerBound( Object aValue )
+    {
+        int low = 0;
+        int high = sorted.length;
+        while ( low < high )
+        {
+            final int middle = ( low + high ) >>> 1;
+            if ( sorted[ middle ].compareTo( aValue ) < 0 )
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,169 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Hash index of objects of containment tree by value of single-valued feature. Index is maintained
+ * incrementally in thread which modifies model and is used by {@link ModelQuery} plans over the same root
+ * until it is closed. Lookups can be called from any thread.
+ */
+public final class FeatureIndex implements AutoCloseable
+{
+    private static final Object NULL = new Object();
+
+    private final Notifier root;
+
+    private final EStructuralFeature feature;
+
+    private final ConcurrentMap< Object, Set< EObject > > objects = new ConcurrentHashMap<>();
+
+    /**
+     * Indexed key of every indexed object.
+     */
+    private final ConcurrentMap< EObject, Object > keys = new ConcurrentHashMap<>();
+
+    private final ContentObserver observer = new ContentObserver()
+    {
+        @Override
+        protected void changed( Notification aNotification )
+        {
+            if ( aNotification.getFeature() == feature && aNotification.getNotifier() instanceof EObject )
+            {
+                final EObject object = (EObject)aNotification.getNotifier();
+                if ( keys.containsKey( object ) )
+                {
+                    index( object );
+                }
+            }
+        }
+
+        @Override
+        protected void added( EObject aObject )
+        {
+            index( aObject );
+        }
+
+        @Override
+        protected void removed( EObject aObject )
+        {
+            final Object key = keys.remove( aObject );
+            if ( key != null )
+            {
+                unindex( aObject, key );
+            }
+        }
+    };
+
+    /**
+     * Creates index and fills it with current objects of tree.
+     *
+     * @param aRoot
+     *            {@link EObject}, {@link org.eclipse.emf.ecore.resource.Resource} or
+     *            {@link org.eclipse.emf.ecore.resource.ResourceSet}.
+     * @param aFeature
+     *            Single-valued feature.
+     */
+    FeatureIndex( Notifier aRoot, EStructuralFeature aFeature )
+    {
+        root = Preconditions.checkNotNull( aRoot, "Root is missing." );
+        feature = Preconditions.checkNotNull( aFeature, "Feature is missing." );
+        Preconditions.checkArgument( !aFeature.isMany(), "Feature %s is many-valued.", aFeature.getName() );
+        ContentObserver.forEachObject( aRoot, this::index );
+        observer.attach( aRoot );
+        QueryPlanner.register( this );
+    }
+
+    /**
+     * @return Root of indexed tree.
+     */
+    public Notifier getRoot()
+    {
+        return root;
+    }
+
+    /**
+     * @return Indexed feature.
+     */
+    public EStructuralFeature getFeature()
+    {
+        return feature;
+    }
+
+    /**
+     * Finds objects with given value.
+     *
+     * @param aValue
+     *            Value, may be <code>null</code>.
+     * @return Unmodifiable live collection of objects, in no particular order.
+     */
+    public Collection< EObject > lookup( Object aValue )
+    {
+        final Set< EObject > result = objects.get( aValue == null ? NULL : aValue );
+        return result == null ? Collections.emptySet() : Collections.unmodifiableSet( result );
+    }
+
+    /**
+     * @return Number of indexed objects, i.e. objects of tree having feature.
+     */
+    public int size()
+    {
+        return keys.size();
+    }
+
+    /**
+     * @return Number of distinct indexed values.
+     */
+    public int distinctValues()
+    {
+        return objects.size();
+    }
+
+    /**
+     * Stops maintaining index, planners stop using it.
+     */
+    @Override
+    public void close()
+    {
+        QueryPlanner.unregister( this );
+        observer.detach( root );
+    }
+
+    private void index( EObject aObject )
+    {
+        if ( aObject.eClass().getFeatureID( feature ) < 0 )
+        {
+            return;
+        }
+        final Object value = aObject.eGet( feature );
+        final Object key = value == null ? NULL : value;
+        final Object old = keys.put( aObject, key );
+        if ( old != null )
+        {
+            if ( old.equals( key ) )
+            {
+                return;
+            }
+            unindex( aObject, old );
+        }
+        objects.computeIfAbsent( key, aKey -> ConcurrentHashMap.newKeySet() ).add( aObject );
+    }
+
+    private void unindex( EObject aObject, Object aKey )
+    {
+        objects.computeIfPresent( aKey, ( aValue, aObjects ) -> {
+            aObjects.remove( aObject );
+            return aObjects.isEmpty() ? null : aObjects;
+        } );
+    }
+}
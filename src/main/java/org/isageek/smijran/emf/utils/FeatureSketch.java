@@ -0,0 +1,224 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.eclipse.emf.ecore.EAttribute;
+
+/**
+ * Mergeable single-pass summary of values of one attribute: counts, minimum and maximum,
+ * {@link HyperLogLog} distinct count, uniform reservoir sample for equi-depth histogram and
+ * {@link SpaceSaving} frequent values. Memory is bounded regardless of number of values. Sketch is not thread
+ * safe, parallel collection merges sketches of separate threads.
+ */
+final class FeatureSketch
+{
+    static final int RESERVOIR_SIZE = 1024;
+
+    private final EAttribute attribute;
+
+    private final int buckets;
+
+    private final int top;
+
+    private long values;
+
+    private long nulls;
+
+    private Comparable< Object > min;
+
+    private Comparable< Object > max;
+
+    /**
+     * Whether all values seen so far are mutually comparable.
+     */
+    private boolean comparable = true;
+
+    private final HyperLogLog distinct = new HyperLogLog();
+
+    private final SpaceSaving frequent;
+
+    private Object[] reservoir = new Object[ 16 ];
+
+    private int sampled;
+
+    FeatureSketch( EAttribute aAttribute, int aBuckets, int aTop )
+    {
+        attribute = aAttribute;
+        buckets = aBuckets;
+        top = aTop;
+        frequent = new SpaceSaving( aTop * 4 );
+    }
+
+    /**
+     * Adds value of attribute of one object, elements of many-valued attribute are added one by one.
+     *
+     * @param aValue
+     *            Value, <code>null</code> for unset single-valued attribute.
+     */
+    void add( Object aValue )
+    {
+        if ( aValue == null )
+        {
+            nulls++;
+            return;
+        }
+        values++;
+        distinct.add( aValue );
+        frequent.add( aValue );
+        range( aValue );
+        if ( sampled < RESERVOIR_SIZE )
+        {
+            if ( sampled == reservoir.length )
+            {
+                reservoir = Arrays.copyOf( reservoir, sampled << 1 );
+            }
+            reservoir[ sampled++ ] = aValue;
+        }
+        else
+        {
+            final long slot = ThreadLocalRandom.current().nextLong( values );
+            if ( slot < RESERVOIR_SIZE )
+            {
+                reservoir[ (int)slot ] = aValue;
+            }
+        }
+    }
+
+    /**
+     * Counts object with empty many-valued attribute.
+     */
+    void addEmpty()
+    {
+        nulls++;
+    }
+
+    /**
+     * Merges sketch of other part of the same population into this one.
+     *
+     * @param aOther
+     *            Sketch of the same attribute.
+     */
+    void merge( FeatureSketch aOther )
+    {
+        if ( aOther.comparable )
+        {
+            if ( aOther.min != null )
+            {
+                range( aOther.min );
+                range( aOther.max );
+            }
+        }
+        else
+        {
+            comparable = false;
+            min = null;
+            max = null;
+        }
+        distinct.merge( aOther.distinct );
+        frequent.merge( aOther.frequent );
+        mergeSamples( aOther );
+        values += aOther.values;
+        nulls += aOther.nulls;
+    }
+
+    FeatureStatistics toStatistics()
+    {
+        return new FeatureStatistics( attribute, values, nulls, distinct.estimate(), comparable ? min : null,
+            comparable ? max : null, histogram(), frequent.top( top ) );
+    }
+
+    /**
+     * @return Bucket upper bounds at equal quantiles of sorted sample, empty if values are not comparable.
+     */
+    private List< Object > histogram()
+    {
+        if ( !comparable || sampled == 0 )
+        {
+            return Collections.emptyList();
+        }
+        final Object[] sorted = Arrays.copyOf( reservoir, sampled );
+        Arrays.sort( sorted );
+        final int count = Math.min( buckets, sampled );
+        final List< Object > result = new ArrayList<>( count );
+        for ( int i = 1; i <= count; i++ )
+        {
+            result.add( sorted[ (int)( (long)i * sampled / count ) - 1 ] );
+        }
+        return Collections.unmodifiableList( result );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private void range( Object aValue )
+    {
+        if ( !comparable )
+        {
+            return;
+        }
+        if ( !( aValue instanceof Comparable ) )
+        {
+            comparable = false;
+            return;
+        }
+        final Comparable< Object > value = (Comparable< Object >)aValue;
+        try
+        {
+            if ( min == null || value.compareTo( min ) < 0 )
+            {
+                min = value;
+            }
+            if ( max == null || value.compareTo( max ) > 0 )
+            {
+                max = value;
+            }
+        }
+        catch ( ClassCastException e )
+        {
+            comparable = false;
+        }
+    }
+
+    /**
+     * Replaces sample by uniform sample of union, drawn from each sample in proportion to number of values it
+     * represents. Number of drawn values can be lower than capacity of reservoir.
+     */
+    private void mergeSamples( FeatureSketch aOther )
+    {
+        final long total = values + aOther.values;
+        final int size = (int)Math.min( RESERVOIR_SIZE, total );
+        final Object[] left = Arrays.copyOf( reservoir, sampled );
+        final Object[] right = Arrays.copyOf( aOther.reservoir, aOther.sampled );
+        final Object[] result = new Object[ Math.max( size, 16 ) ];
+        final Random random = ThreadLocalRandom.current();
+        int leftSize = left.length;
+        int rightSize = right.length;
+        long leftWeight = values;
+        long rightWeight = aOther.values;
+        int i = 0;
+        for ( ; i < size && leftSize + rightSize > 0; i++ )
+        {
+            final boolean fromLeft = rightSize == 0
+                || leftSize > 0 && random.nextDouble() * ( leftWeight + rightWeight ) < leftWeight;
+            if ( fromLeft )
+            {
+                final int pick = random.nextInt( leftSize );
+                result[ i ] = left[ pick ];
+                left[ pick ] = left[ --leftSize ];
+                leftWeight -= values / Math.max( 1, sampled );
+            }
+            else
+            {
+                final int pick = random.nextInt( rightSize );
+                result[ i ] = right[ pick ];
+                right[ pick ] = right[ --rightSize ];
+                rightWeight -= aOther.values / Math.max( 1, aOther.sampled );
+            }
+        }
+        reservoir = result;
+        sampled = i;
+    }
+}
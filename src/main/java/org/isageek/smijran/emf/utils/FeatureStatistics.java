@@ -0,0 +1,131 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.ecore.EAttribute;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Statistics of values of one attribute within one {@link org.eclipse.emf.ecore.EClass}. Counts, minimum and
+ * maximum are exact; number of distinct values, histogram and frequent values are estimates. Elements of
+ * many-valued attributes are counted as separate values.
+ */
+public final class FeatureStatistics
+{
+    private final EAttribute attribute;
+
+    private final long values;
+
+    private final long nulls;
+
+    private final long distinct;
+
+    private final Object min;
+
+    private final Object max;
+
+    private final List< Object > histogram;
+
+    private final Map< Object, Long > topValues;
+
+    FeatureStatistics( EAttribute aAttribute, long aValues, long aNulls, long aDistinct, Object aMin,
+        Object aMax, List< Object > aHistogram, Map< Object, Long > aTopValues )
+    {
+        attribute = aAttribute;
+        values = aValues;
+        nulls = aNulls;
+        distinct = aDistinct;
+        min = aMin;
+        max = aMax;
+        histogram = aHistogram;
+        topValues = Collections.unmodifiableMap( aTopValues );
+    }
+
+    /**
+     * @return Described attribute.
+     */
+    public EAttribute getAttribute()
+    {
+        return attribute;
+    }
+
+    /**
+     * @return Number of non-null values.
+     */
+    public long getValues()
+    {
+        return values;
+    }
+
+    /**
+     * @return Number of objects with <code>null</code> value or empty many-valued attribute.
+     */
+    public long getNulls()
+    {
+        return nulls;
+    }
+
+    /**
+     * @return Ratio of nulls to all values and nulls.
+     */
+    public double getNullRatio()
+    {
+        return values + nulls == 0 ? 0 : (double)nulls / ( values + nulls );
+    }
+
+    /**
+     * @return Estimated number of distinct non-null values.
+     */
+    public long getDistinct()
+    {
+        return Math.min( distinct, values );
+    }
+
+    /**
+     * @return Least value, <code>null</code> if there are no values or they are not {@link Comparable}.
+     */
+    public Object getMin()
+    {
+        return min;
+    }
+
+    /**
+     * @return Greatest value, <code>null</code> if there are no values or they are not {@link Comparable}.
+     */
+    public Object getMax()
+    {
+        return max;
+    }
+
+    /**
+     * Equi-depth histogram estimated from uniform sample. Bucket <code>i</code> holds values greater than
+     * bound <code>i - 1</code> and not greater than bound <code>i</code>, every bucket holds about the same
+     * number of values.
+     *
+     * @return Upper bounds of buckets in ascending order, empty if values are not {@link Comparable}.
+     */
+    public List< Object > getHistogram()
+    {
+        return histogram;
+    }
+
+    /**
+     * @return Most frequent values with their counts, ordered from most frequent. Counts may be
+     *         overestimated.
+     */
+    public Map< Object, Long > getTopValues()
+    {
+        return topValues;
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper( this ).add( "attribute", attribute.getName() ).add( "values", values )
+            .add( "nulls", nulls ).add( "distinct", getDistinct() ).add( "min", min ).add( "max", max )
+            .add( "histogram", histogram ).add( "topValues", topValues ).toString();
+    }
+}
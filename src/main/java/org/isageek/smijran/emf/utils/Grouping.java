@@ -0,0 +1,410 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+
+import org.eclipse.emf.common.util.Enumerator;
+import org.eclipse.emf.ecore.EEnum;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+/**
+ * Objects grouped by value of single-valued feature. Integral and enum keys are hashed unboxed, enums by
+ * literal value. Groups are numbered in order of first occurrence and their members are kept as object
+ * indexes in one array sorted by group, so no list is created per group. Aggregates are computed directly
+ * from group index of every object. Keys are extracted in parallel for large inputs. Grouping is immutable.
+ */
+public final class Grouping
+{
+    /**
+     * Minimal number of objects grouped and aggregated in parallel.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private static final int CHUNK_SIZE = 1 << 12;
+
+    private static final Object NULL = new Object();
+
+    private final EStructuralFeature feature;
+
+    private final EObject[] objects;
+
+    /**
+     * Whether keys are unboxed longs.
+     */
+    private final boolean primitive;
+
+    private final boolean enumerated;
+
+    /**
+     * Key of every group, enum literal for enumerated keys.
+     */
+    private final Object[] keys;
+
+    private final LongIntHashMap longGroups;
+
+    private final Map< Object, Integer > objectGroups;
+
+    /**
+     * Group of every object.
+     */
+    private final int[] groups;
+
+    /**
+     * Start of members of every group in {@link #members}, followed by number of objects.
+     */
+    private final int[] offsets;
+
+    /**
+     * Object indexes sorted by group, in original order within group.
+     */
+    private final int[] members;
+
+    private final boolean parallel;
+
+    Grouping( List< ? extends EObject > aObjects, EStructuralFeature aFeature )
+    {
+        feature = Preconditions.checkNotNull( aFeature, "Feature is missing." );
+        Preconditions.checkArgument( !aFeature.isMany(), "Feature %s is many-valued.", aFeature.getName() );
+        objects = aObjects.toArray( new EObject[ aObjects.size() ] );
+        final int size = objects.length;
+        parallel = size >= PARALLEL_THRESHOLD;
+        enumerated = aFeature.getEType() instanceof EEnum;
+        primitive = enumerated || isIntegral( aFeature );
+        groups = new int[ size ];
+        final List< Object > keys = new ArrayList<>();
+        if ( primitive )
+        {
+            final long[] values = new long[ size ];
+            range( size ).forEach( i -> values[ i ] = longKey( objects[ i ] ) );
+            longGroups = new LongIntHashMap( 16 );
+            objectGroups = null;
+            for ( int i = 0; i < size; i++ )
+            {
+                final int present = longGroups.putIfAbsent( values[ i ], keys.size() );
+                if ( present < 0 )
+                {
+                    groups[ i ] = keys.size();
+                    keys.add( objects[ i ].eGet( aFeature ) );
+                }
+                else
+                {
+                    groups[ i ] = present;
+                }
+            }
+        }
+        else
+        {
+            final Object[] values = new Object[ size ];
+            range( size ).forEach( i -> {
+                final Object value = objects[ i ].eGet( aFeature );
+                values[ i ] = value == null ? NULL : value;
+            } );
+            longGroups = null;
+            objectGroups = new HashMap<>();
+            for ( int i = 0; i < size; i++ )
+            {
+                final Integer present = objectGroups.putIfAbsent( values[ i ], keys.size() );
+                if ( present == null )
+                {
+                    groups[ i ] = keys.size();
+                    keys.add( values[ i ] == NULL ? null : values[ i ] );
+                }
+                else
+                {
+                    groups[ i ] = present;
+                }
+            }
+        }
+        this.keys = keys.toArray();
+        offsets = new int[ this.keys.length + 1 ];
+        for ( int group : groups )
+        {
+            offsets[ group + 1 ]++;
+        }
+        for ( int i = 0; i < this.keys.length; i++ )
+        {
+            offsets[ i + 1 ] += offsets[ i ];
+        }
+        members = new int[ size ];
+        final int[] next = offsets.clone();
+        for ( int i = 0; i < size; i++ )
+        {
+            members[ next[ groups[ i ] ]++ ] = i;
+        }
+    }
+
+    /**
+     * @return Grouping feature.
+     */
+    public EStructuralFeature getFeature()
+    {
+        return feature;
+    }
+
+    /**
+     * @return Number of groups.
+     */
+    public int size()
+    {
+        return keys.length;
+    }
+
+    /**
+     * @param aGroup
+     *            Group index.
+     * @return Key of group, i.e. feature value of its members.
+     */
+    public Object getKey( int aGroup )
+    {
+        return keys[ aGroup ];
+    }
+
+    /**
+     * Finds group of key.
+     *
+     * @param aKey
+     *            Feature value, {@link Number} for integral features, {@link Enumerator} or <code>null</code>
+     *            for enum features.
+     * @return Group index or <code>-1</code> if no object has given value.
+     */
+    public int indexOf( Object aKey )
+    {
+        if ( primitive )
+        {
+            if ( aKey == null && enumerated )
+            {
+                return longGroups.get( Long.MIN_VALUE );
+            }
+            if ( aKey instanceof Enumerator )
+            {
+                return longGroups.get( ( (Enumerator)aKey ).getValue() );
+            }
+            if ( aKey instanceof Number || aKey instanceof Character )
+            {
+                return longGroups.get( Primitives.toLong( aKey ) );
+            }
+            return -1;
+        }
+        final Integer result = objectGroups.get( aKey == null ? NULL : aKey );
+        return result == null ? -1 : result;
+    }
+
+    /**
+     * @param aIndex
+     *            Index of object in grouped list.
+     * @return Group of object.
+     */
+    public int groupOf( int aIndex )
+    {
+        return groups[ aIndex ];
+    }
+
+    /**
+     * @param aGroup
+     *            Group index.
+     * @return Number of members of group.
+     */
+    public int count( int aGroup )
+    {
+        return offsets[ aGroup + 1 ] - offsets[ aGroup ];
+    }
+
+    /**
+     * @return Number of members by group index.
+     */
+    public int[] counts()
+    {
+        final int[] result = new int[ keys.length ];
+        for ( int i = 0; i < result.length; i++ )
+        {
+            result[ i ] = offsets[ i + 1 ] - offsets[ i ];
+        }
+        return result;
+    }
+
+    /**
+     * @param aGroup
+     *            Group index.
+     * @return Unmodifiable view of members of group in original order.
+     */
+    public List< EObject > members( int aGroup )
+    {
+        final int from = offsets[ aGroup ];
+        final int size = offsets[ aGroup + 1 ] - from;
+        return new AbstractList< EObject >()
+        {
+
+            @Override
+            public EObject get( int aIndex )
+            {
+                Preconditions.checkElementIndex( aIndex, size );
+                return objects[ members[ from + aIndex ] ];
+            }
+
+            @Override
+            public int size()
+            {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Sums integral feature per group without materializing groups.
+     *
+     * @param aFeature
+     *            Integral attribute.
+     * @return Sums by group index.
+     */
+    public long[] sumLong( EStructuralFeature aFeature )
+    {
+        Preconditions.checkNotNull( aFeature, "Feature is missing." );
+        return sumLong( aObject -> Primitives.longValue( aObject, aFeature ) );
+    }
+
+    /**
+     * Sums function values per group without materializing groups.
+     *
+     * @param aFunction
+     *            Function, e.g. one of {@link E.Functions}.
+     * @return Sums by group index.
+     */
+    public long[] sumLong( ToLongFunction< ? super EObject > aFunction )
+    {
+        if ( !isParallel() )
+        {
+            return sumLong( aFunction, 0, objects.length );
+        }
+        return chunks().mapToObj( aChunk -> sumLong( aFunction, aChunk * CHUNK_SIZE,
+            Math.min( objects.length, ( aChunk + 1 ) * CHUNK_SIZE ) ) ).reduce( ( aLeft, aRight ) -> {
+                for ( int i = 0; i < aLeft.length; i++ )
+                {
+                    aLeft[ i ] += aRight[ i ];
+                }
+                return aLeft;
+            } ).orElseGet( () -> new long[ keys.length ] );
+    }
+
+    /**
+     * Sums numeric feature per group without materializing groups.
+     *
+     * @param aFeature
+     *            Numeric attribute.
+     * @return Sums by group index.
+     */
+    public double[] sumDouble( EStructuralFeature aFeature )
+    {
+        Preconditions.checkNotNull( aFeature, "Feature is missing." );
+        return sumDouble( aObject -> Primitives.doubleValue( aObject, aFeature ) );
+    }
+
+    /**
+     * Sums function values per group without materializing groups.
+     *
+     * @param aFunction
+     *            Function, e.g. one of {@link E.Functions}.
+     * @return Sums by group index.
+     */
+    public double[] sumDouble( ToDoubleFunction< ? super EObject > aFunction )
+    {
+        if ( !isParallel() )
+        {
+            return sumDouble( aFunction, 0, objects.length );
+        }
+        return chunks().mapToObj( aChunk -> sumDouble( aFunction, aChunk * CHUNK_SIZE,
+            Math.min( objects.length, ( aChunk + 1 ) * CHUNK_SIZE ) ) ).reduce( ( aLeft, aRight ) -> {
+                for ( int i = 0; i < aLeft.length; i++ )
+                {
+                    aLeft[ i ] += aRight[ i ];
+                }
+                return aLeft;
+            } ).orElseGet( () -> new double[ keys.length ] );
+    }
+
+    /**
+     * @return Members by key, in order of groups.
+     */
+    public Map< Object, List< EObject > > asMap()
+    {
+        final Map< Object, List< EObject > > result = new LinkedHashMap<>();
+        for ( int i = 0; i < keys.length; i++ )
+        {
+            result.put( keys[ i ], members( i ) );
+        }
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper( this ).add( "feature", feature.getName() )
+            .add( "groups", keys.length ).add( "objects", objects.length ).toString();
+    }
+
+    private long[] sumLong( ToLongFunction< ? super EObject > aFunction, int aFrom, int aTo )
+    {
+        final long[] result = new long[ keys.length ];
+        for ( int i = aFrom; i < aTo; i++ )
+        {
+            result[ groups[ i ] ] += aFunction.applyAsLong( objects[ i ] );
+        }
+        return result;
+    }
+
+    private double[] sumDouble( ToDoubleFunction< ? super EObject > aFunction, int aFrom, int aTo )
+    {
+        final double[] result = new double[ keys.length ];
+        for ( int i = aFrom; i < aTo; i++ )
+        {
+            result[ groups[ i ] ] += aFunction.applyAsDouble( objects[ i ] );
+        }
+        return result;
+    }
+
+    /**
+     * Aggregates in parallel only when partial results per chunk are small compared to chunk.
+     */
+    private boolean isParallel()
+    {
+        return parallel && keys.length <= CHUNK_SIZE / 16;
+    }
+
+    private IntStream chunks()
+    {
+        return IntStream.range( 0, ( objects.length + CHUNK_SIZE - 1 ) / CHUNK_SIZE ).parallel();
+    }
+
+    private IntStream range( int aSize )
+    {
+        final IntStream result = IntStream.range( 0, aSize );
+        return parallel ? result.parallel() : result;
+    }
+
+    private long longKey( EObject aObject )
+    {
+        if ( enumerated )
+        {
+            final Object value = aObject.eGet( feature );
+            return value == null ? Long.MIN_VALUE : ( (Enumerator)value ).getValue();
+        }
+        return Primitives.longValue( aObject, feature );
+    }
+
+    private static boolean isIntegral( EStructuralFeature aFeature )
+    {
+        final Class< ? > type = aFeature.getEType() == null ? null : aFeature.getEType().getInstanceClass();
+        return type == int.class || type == long.class || type == short.class || type == byte.class
+            || type == char.class;
+    }
+}
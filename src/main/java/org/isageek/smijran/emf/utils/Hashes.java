@@ -0,0 +1,284 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.eclipse.emf.common.util.Enumerator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import com.google.common.collect.MapMaker;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Hashing of {@link EObject} content. Object is hashed by its class name and values of its hashed features
+ * taken in order of feature names, so hash does not depend on order of features in metamodel. Hashed are
+ * all features which are not derived, transient, containment or container. Referenced objects are hashed by
+ * URI fragment, data type values without primitive representation by their literal.
+ */
+final class Hashes
+{
+    /**
+     * 128-bit hash function of object content.
+     */
+    static final HashFunction FUNCTION = Hashing.murmur3_128();
+
+    /**
+     * Number of contained objects from which their hashes are computed in parallel.
+     */
+    static final int PARALLEL_THRESHOLD = 32;
+
+    private static final byte NULL = 0;
+
+    private static final byte OBJECT = 1;
+
+    private static final byte TEXT = 2;
+
+    private static final byte INTEGRAL = 3;
+
+    private static final byte REAL = 4;
+
+    private static final byte BOOLEAN = 5;
+
+    private static final byte LITERAL = 6;
+
+    private static final byte LIST = 7;
+
+    /**
+     * IDs of hashed features by class. Values must not reference features, which would keep their class
+     * strongly reachable and so never collected.
+     */
+    private static final ConcurrentMap< EClass, int[] > PLANS = new MapMaker().weakKeys().makeMap();
+
+    private Hashes()
+    {
+        // Utility class
+    }
+
+    /**
+     * @param aObject
+     *            Object.
+     * @return 128-bit hash of object content.
+     */
+    static HashCode object( EObject aObject )
+    {
+        final Hasher hasher = FUNCTION.newHasher();
+        putObject( hasher, aObject );
+        return hasher.hash();
+    }
+
+    /**
+     * @param aObject
+     *            Root of containment subtree.
+     * @return 128-bit hash of content of object and all its contents.
+     */
+    static HashCode tree( EObject aObject )
+    {
+        return tree( object( aObject ), aObject.eContents(), Hashes::tree );
+    }
+
+    /**
+     * Combines hash of object with hashes of its contents in their order. Hashes of contents are computed in
+     * parallel when there is at least {@link #PARALLEL_THRESHOLD} of them.
+     *
+     * @param aObject
+     *            Hash of object content.
+     * @param aContents
+     *            Contents of object.
+     * @param aTree
+     *            Hash of containment subtree of content.
+     * @return 128-bit hash of containment subtree.
+     */
+    static HashCode tree( HashCode aObject, List< EObject > aContents, Function< EObject, HashCode > aTree )
+    {
+        final Hasher hasher = FUNCTION.newHasher().putBytes( aObject.asBytes() ).putInt( aContents.size() );
+        final Stream< EObject > contents = aContents.size() < PARALLEL_THRESHOLD ? aContents.stream()
+            : aContents.parallelStream();
+        contents.map( aTree ).forEachOrdered( aHash -> hasher.putBytes( aHash.asBytes() ) );
+        return hasher.hash();
+    }
+
+    /**
+     * Puts class name and values of hashed features of object.
+     *
+     * @param aHasher
+     *            Hasher.
+     * @param aObject
+     *            Object.
+     */
+    static void putObject( Hasher aHasher, EObject aObject )
+    {
+        putObject( aHasher, aObject, true );
+    }
+
+    /**
+     * @param aObject
+     *            Object.
+     * @return 128-bit hash of class name and values of hashed attributes of object, without references.
+     */
+    static HashCode attributes( EObject aObject )
+    {
+        final Hasher hasher = FUNCTION.newHasher();
+        putObject( hasher, aObject, false );
+        return hasher.hash();
+    }
+
+    /**
+     * @param aClass
+     *            Class.
+     * @return IDs of hashed features of class ordered by feature name. Array is shared, it must not be
+     *         modified.
+     */
+    static int[] featureIDs( EClass aClass )
+    {
+        int[] result = PLANS.get( aClass );
+        if ( result == null )
+        {
+            final List< EStructuralFeature > features = new ArrayList<>();
+            for ( EStructuralFeature feature : aClass.getEAllStructuralFeatures() )
+            {
+                if ( isHashed( feature ) )
+                {
+                    features.add( feature );
+                }
+            }
+            features.sort( Comparator.comparing( EStructuralFeature::getName ) );
+            result = features.stream().mapToInt( aClass::getFeatureID ).toArray();
+            PLANS.putIfAbsent( aClass, result );
+        }
+        return result;
+    }
+
+    /**
+     * @param aValue
+     *            Referenced object.
+     * @return Key of referenced object which does not depend on its identity.
+     */
+    static String reference( EObject aValue )
+    {
+        final URI uri = EcoreUtil.getURI( aValue );
+        return uri == null ? null : uri.fragment();
+    }
+
+    /**
+     * Puts value of feature. Values of many-valued features are put with their size.
+     *
+     * @param aHasher
+     *            Hasher.
+     * @param aFeature
+     *            Feature.
+     * @param aValue
+     *            Value of feature as returned by {@link EObject#eGet(EStructuralFeature, boolean)}.
+     */
+    static void putValue( Hasher aHasher, EStructuralFeature aFeature, Object aValue )
+    {
+        if ( aFeature.isMany() && aValue instanceof Collection )
+        {
+            final Collection< ? > values = (Collection< ? >)aValue;
+            aHasher.putByte( LIST ).putInt( values.size() );
+            for ( Object value : values )
+            {
+                putSingle( aHasher, aFeature, value );
+            }
+        }
+        else
+        {
+            putSingle( aHasher, aFeature, aValue );
+        }
+    }
+
+    private static void putObject( Hasher aHasher, EObject aObject, boolean aReferences )
+    {
+        final EClass eClass = aObject.eClass();
+        putText( aHasher, eClass.getName() );
+        for ( int featureID : featureIDs( eClass ) )
+        {
+            final EStructuralFeature feature = eClass.getEStructuralFeature( featureID );
+            if ( aReferences || feature instanceof EAttribute )
+            {
+                putValue( aHasher, feature, aObject.eGet( feature, false ) );
+            }
+        }
+    }
+
+    private static void putSingle( Hasher aHasher, EStructuralFeature aFeature, Object aValue )
+    {
+        if ( aValue == null )
+        {
+            aHasher.putByte( NULL );
+        }
+        else if ( aValue instanceof EObject )
+        {
+            aHasher.putByte( OBJECT );
+            putText( aHasher, reference( (EObject)aValue ) );
+        }
+        else if ( aValue instanceof String )
+        {
+            aHasher.putByte( TEXT );
+            putText( aHasher, (String)aValue );
+        }
+        else if ( aValue instanceof Integer || aValue instanceof Long || aValue instanceof Short
+            || aValue instanceof Byte )
+        {
+            aHasher.putByte( INTEGRAL ).putLong( ( (Number)aValue ).longValue() );
+        }
+        else if ( aValue instanceof Double || aValue instanceof Float )
+        {
+            aHasher.putByte( REAL ).putDouble( ( (Number)aValue ).doubleValue() );
+        }
+        else if ( aValue instanceof Boolean )
+        {
+            aHasher.putByte( BOOLEAN ).putBoolean( (Boolean)aValue );
+        }
+        else if ( aValue instanceof Character )
+        {
+            aHasher.putByte( INTEGRAL ).putLong( (Character)aValue );
+        }
+        else if ( aValue instanceof Enumerator )
+        {
+            aHasher.putByte( LITERAL ).putInt( ( (Enumerator)aValue ).getValue() );
+        }
+        else
+        {
+            aHasher.putByte( TEXT );
+            putText( aHasher, aFeature instanceof EAttribute
+                ? EcoreUtil.convertToString( ( (EAttribute)aFeature ).getEAttributeType(), aValue )
+                : aValue.toString() );
+        }
+    }
+
+    private static void putText( Hasher aHasher, String aValue )
+    {
+        if ( aValue == null )
+        {
+            aHasher.putInt( -1 );
+        }
+        else
+        {
+            aHasher.putInt( aValue.length() ).putUnencodedChars( aValue );
+        }
+    }
+
+    private static boolean isHashed( EStructuralFeature aFeature )
+    {
+        if ( aFeature.isDerived() || aFeature.isTransient() )
+        {
+            return false;
+        }
+        return !( aFeature instanceof EReference ) || !( (EReference)aFeature ).isContainment()
+            && !( (EReference)aFeature ).isContainer();
+    }
+}
@@ -0,0 +1,97 @@
+package org.isageek.smijran.emf.utils;
+
+/**
+ * HyperLogLog estimator of number of distinct values with 2^12 one-byte registers, standard error about
+ * 1.6%. Small cardinalities are estimated by linear counting. Estimators are merged by register maximum.
+ */
+final class HyperLogLog
+{
+    private static final int PRECISION = 12;
+
+    private static final int REGISTERS = 1 << PRECISION;
+
+    private static final double ALPHA = 0.7213 / ( 1 + 1.079 / REGISTERS );
+
+    private final byte[] registers = new byte[ REGISTERS ];
+
+    /**
+     * Adds value by its hash code.
+     *
+     * @param aValue
+     *            Value, not <code>null</code>.
+     */
+    void add( Object aValue )
+    {
+        addHash( hash( aValue.hashCode() ) );
+    }
+
+    /**
+     * Adds 64-bit hash.
+     *
+     * @param aHash
+     *            Well mixed hash.
+     */
+    void addHash( long aHash )
+    {
+        final int index = (int)( aHash >>> ( 64 - PRECISION ) );
+        final long rest = ( aHash << PRECISION ) | ( 1L << ( PRECISION - 1 ) );
+        final byte rank = (byte)( Long.numberOfLeadingZeros( rest ) + 1 );
+        if ( rank > registers[ index ] )
+        {
+            registers[ index ] = rank;
+        }
+    }
+
+    /**
+     * Merges other estimator into this one.
+     *
+     * @param aOther
+     *            Other estimator.
+     */
+    void merge( HyperLogLog aOther )
+    {
+        for ( int i = 0; i < REGISTERS; i++ )
+        {
+            if ( aOther.registers[ i ] > registers[ i ] )
+            {
+                registers[ i ] = aOther.registers[ i ];
+            }
+        }
+    }
+
+    /**
+     * @return Estimated number of distinct added values.
+     */
+    long estimate()
+    {
+        double sum = 0;
+        int zeros = 0;
+        for ( byte register : registers )
+        {
+            sum += 1.0 / ( 1L << register );
+            if ( register == 0 )
+            {
+                zeros++;
+            }
+        }
+        final double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if ( estimate <= 2.5 * REGISTERS && zeros > 0 )
+        {
+            return Math.round( REGISTERS * Math.log( (double)REGISTERS / zeros ) );
+        }
+        return Math.round( estimate );
+    }
+
+    /**
+     * Spreads 32-bit hash code to 64 bits, finalizer of MurmurHash3.
+     */
+    static long hash( int aHashCode )
+    {
+        long h = aHashCode;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ ( h >>> 33 );
+    }
+}
@@ -0,0 +1,102 @@
+package org.isageek.smijran.emf.utils;
+
+/**
+ * Open addressing map from objects compared by identity to non-negative int indexes. Uses linear probing over
+ * power of two table of keys with parallel table of indexes. Not thread safe for writes, safe for concurrent
+ * reads once filled.
+ */
+final class IdentityIndex
+{
+    private Object[] keys;
+
+    private int[] indexes;
+
+    private int mask;
+
+    private int size;
+
+    IdentityIndex( int aExpectedSize )
+    {
+        final int capacity = IntHashSet.tableSize( aExpectedSize );
+        keys = new Object[ capacity ];
+        indexes = new int[ capacity ];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Maps object to index unless it is already mapped.
+     *
+     * @param aKey
+     *            Object.
+     * @param aIndex
+     *            Index.
+     * @return <code>true</code> if object was not mapped.
+     */
+    boolean put( Object aKey, int aIndex )
+    {
+        int slot = IntHashSet.mix( System.identityHashCode( aKey ) ) & mask;
+        while ( keys[ slot ] != null )
+        {
+            if ( keys[ slot ] == aKey )
+            {
+                return false;
+            }
+            slot = ( slot + 1 ) & mask;
+        }
+        keys[ slot ] = aKey;
+        indexes[ slot ] = aIndex;
+        if ( ++size * 2 > keys.length )
+        {
+            rehash();
+        }
+        return true;
+    }
+
+    /**
+     * @param aKey
+     *            Object.
+     * @return Index of object or <code>-1</code> if object is not mapped.
+     */
+    int get( Object aKey )
+    {
+        final Object[] table = keys;
+        int slot = IntHashSet.mix( System.identityHashCode( aKey ) ) & mask;
+        Object key;
+        while ( ( key = table[ slot ] ) != null )
+        {
+            if ( key == aKey )
+            {
+                return indexes[ slot ];
+            }
+            slot = ( slot + 1 ) & mask;
+        }
+        return -1;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    private void rehash()
+    {
+        final Object[] oldKeys = keys;
+        final int[] oldIndexes = indexes;
+        keys = new Object[ oldKeys.length * 2 ];
+        indexes = new int[ keys.length ];
+        mask = keys.length - 1;
+        for ( int i = 0; i < oldKeys.length; i++ )
+        {
+            if ( oldKeys[ i ] != null )
+            {
+                int slot = IntHashSet.mix( System.identityHashCode( oldKeys[ i ] ) ) & mask;
+                while ( keys[ slot ] != null )
+                {
+                    slot = ( slot + 1 ) & mask;
+                }
+                keys[ slot ] = oldKeys[ i ];
+                indexes[ slot ] = oldIndexes[ i ];
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Open addressing hash set of int values. Uses linear probing over power of two table, <code>0</code> marks
+ * free slot and is tracked separately. Not thread safe for writes, safe for concurrent reads once filled.
+ */
+final class IntHashSet implements IntPredicate
+{
+    /**
+     * The largest power of two array length.
+     */
+    static final int MAX_TABLE_SIZE = 1 << 30;
+
+    private int[] keys;
+
+    private int mask;
+
+    private int size;
+
+    private boolean containsZero;
+
+    IntHashSet( int aExpectedSize )
+    {
+        final int capacity = tableSize( aExpectedSize );
+        keys = new int[ capacity ];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Creates set of given values.
+     * 
+     * @param aValues
+     *            Values.
+     * @return New set.
+     */
+    static IntHashSet of( int... aValues )
+    {
+        final IntHashSet set = new IntHashSet( aValues.length );
+        for ( final int value : aValues )
+        {
+            set.add( value );
+        }
+        return set;
+    }
+
+    /**
+     * Adds value to set.
+     * 
+     * @param aValue
+     *            Value.
+     * @return <code>true</code> if set did not contain value.
+     */
+    boolean add( int aValue )
+    {
+        if ( aValue == 0 )
+        {
+            final boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        int slot = mix( aValue ) & mask;
+        while ( keys[ slot ] != 0 )
+        {
+            if ( keys[ slot ] == aValue )
+            {
+                return false;
+            }
+            slot = ( slot + 1 ) & mask;
+        }
+        keys[ slot ] = aValue;
+        if ( ++size * 2 > keys.length )
+        {
+            rehash();
+        }
+        return true;
+    }
+
+    /**
+     * Tests whether value belongs to set.
+     * 
+     * @param aValue
+     *            Value.
+     * @return <code>true</code> if value is in set.
+     */
+    boolean contains( int aValue )
+    {
+        if ( aValue == 0 )
+        {
+            return containsZero;
+        }
+        final int[] table = keys;
+        int slot = mix( aValue ) & mask;
+        int key;
+        while ( ( key = table[ slot ] ) != 0 )
+        {
+            if ( key == aValue )
+            {
+                return true;
+            }
+            slot = ( slot + 1 ) & mask;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean test( int aValue )
+    {
+        return contains( aValue );
+    }
+
+    int size()
+    {
+        return containsZero ? size + 1 : size;
+    }
+
+    private void rehash()
+    {
+        final int[] old = keys;
+        keys = new int[ old.length * 2 ];
+        mask = keys.length - 1;
+        for ( final int key : old )
+        {
+            if ( key != 0 )
+            {
+                int slot = mix( key ) & mask;
+                while ( keys[ slot ] != 0 )
+                {
+                    slot = ( slot + 1 ) & mask;
+                }
+                keys[ slot ] = key;
+            }
+        }
+    }
+
+    static int mix( int aValue )
+    {
+        final int h = aValue * 0x9E3779B9;
+        return h ^ ( h >>> 16 );
+    }
+
+    /**
+     * @return Power of two table size for twice the expected size, at most {@link #MAX_TABLE_SIZE}.
+     */
+    static int tableSize( int aExpectedSize )
+    {
+        final long wanted = Math.min( 2L * aExpectedSize, MAX_TABLE_SIZE );
+        int capacity = 4;
+        while ( capacity < wanted )
+        {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,163 @@
+package org.isageek.smijran.emf.utils;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.emf.ecore.EAttribute;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Counts of values examined and replaced by {@link ValueInterner}, per attribute. Saved memory is estimated
+ * from shallow sizes of replaced values on 64-bit JVM with compressed references. Report can be filled by
+ * several threads.
+ */
+public final class InterningReport
+{
+    /**
+     * Counts of one attribute.
+     */
+    public static final class FeatureStats
+    {
+        private final long values;
+
+        private final long replaced;
+
+        private final long savedBytes;
+
+        FeatureStats( long aValues, long aReplaced, long aSavedBytes )
+        {
+            values = aValues;
+            replaced = aReplaced;
+            savedBytes = aSavedBytes;
+        }
+
+        /**
+         * @return Number of examined values.
+         */
+        public long getValues()
+        {
+            return values;
+        }
+
+        /**
+         * @return Number of values replaced by canonical instance.
+         */
+        public long getReplaced()
+        {
+            return replaced;
+        }
+
+        /**
+         * @return Estimated number of bytes which became garbage.
+         */
+        public long getSavedBytes()
+        {
+            return savedBytes;
+        }
+
+        @Override
+        public String toString()
+        {
+            return MoreObjects.toStringHelper( this ).add( "values", values ).add( "replaced", replaced )
+                .add( "savedBytes", savedBytes ).toString();
+        }
+    }
+
+    private static final class Counter
+    {
+        final LongAdder values = new LongAdder();
+
+        final LongAdder replaced = new LongAdder();
+
+        final LongAdder savedBytes = new LongAdder();
+    }
+
+    private final ConcurrentMap< EAttribute, Counter > counters = new ConcurrentHashMap<>();
+
+    /**
+     * @return Counts by attribute.
+     */
+    public Map< EAttribute, FeatureStats > getFeatures()
+    {
+        final Map< EAttribute, FeatureStats > result = new LinkedHashMap<>();
+        counters.forEach( ( aAttribute, aCounter ) -> result.put( aAttribute,
+            new FeatureStats( aCounter.values.sum(), aCounter.replaced.sum(), aCounter.savedBytes.sum() ) ) );
+        return result;
+    }
+
+    /**
+     * @return Number of examined values of all attributes.
+     */
+    public long getValues()
+    {
+        return counters.values().stream().mapToLong( aCounter -> aCounter.values.sum() ).sum();
+    }
+
+    /**
+     * @return Number of replaced values of all attributes.
+     */
+    public long getReplaced()
+    {
+        return counters.values().stream().mapToLong( aCounter -> aCounter.replaced.sum() ).sum();
+    }
+
+    /**
+     * @return Estimated number of bytes saved in all attributes.
+     */
+    public long getSavedBytes()
+    {
+        return counters.values().stream().mapToLong( aCounter -> aCounter.savedBytes.sum() ).sum();
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper( this ).add( "values", getValues() ).add( "replaced", getReplaced() )
+            .add( "savedBytes", getSavedBytes() ).toString();
+    }
+
+    /**
+     * Records examined value.
+     *
+     * @param aAttribute
+     *            Attribute of value.
+     * @param aReplaced
+     *            Replaced value or <code>null</code> if value was canonical.
+     */
+    void record( EAttribute aAttribute, Object aReplaced )
+    {
+        final Counter counter = counters.computeIfAbsent( aAttribute, aKey -> new Counter() );
+        counter.values.increment();
+        if ( aReplaced != null )
+        {
+            counter.replaced.increment();
+            counter.savedBytes.add( size( aReplaced ) );
+        }
+    }
+
+    /**
+     * @return Estimated shallow size of value including its internal arrays.
+     */
+    private static long size( Object aValue )
+    {
+        if ( aValue instanceof String )
+        {
+            return 24 + align( 16 + 2L * ( (String)aValue ).length() );
+        }
+        if ( aValue instanceof BigDecimal )
+        {
+            return 40;
+        }
+        return 24;
+    }
+
+    private static long align( long aSize )
+    {
+        return ( aSize + 7 ) & ~7L;
+    }
+}
@@ -0,0 +1,195 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+/**
+ * Keyset pagination of objects sorted by values of features, compared like
+ * {@link E.Comparators#properties(EStructuralFeature...)}. Objects are sorted once, cursor keeps key values
+ * of the last examined object and the next page is found by binary search, so it is resumed in logarithmic
+ * time. Objects with equal keys are ordered by original order.
+ * <p>
+ * Cursor stays valid for pager created later over changed objects: the next page starts after its key
+ * values. Objects with the same key as the last examined one are skipped unless it is among them, so keys
+ * should end with unique feature, e.g. ID, for exact resumption. Pager is a snapshot, it does not see later
+ * changes of objects and is immutable.
+ */
+public final class KeysetPager
+{
+    private final EStructuralFeature[] features;
+
+    private final EObject[] objects;
+
+    /**
+     * Key values of every object.
+     */
+    private final Object[][] keys;
+
+    private final Predicate< ? super EObject > filter;
+
+    KeysetPager( Collection< ? extends EObject > aObjects, EStructuralFeature... aFeatures )
+    {
+        Preconditions.checkNotNull( aObjects, "Objects are missing." );
+        Preconditions.checkArgument( aFeatures.length > 0, "Features are missing." );
+        features = aFeatures.clone();
+        final EObject[] source = aObjects.toArray( new EObject[ aObjects.size() ] );
+        final Object[][] sourceKeys = new Object[ source.length ][];
+        final Integer[] order = new Integer[ source.length ];
+        for ( int i = 0; i < source.length; i++ )
+        {
+            final Object[] key = new Object[ features.length ];
+            for ( int j = 0; j < key.length; j++ )
+            {
+                key[ j ] = source[ i ].eGet( features[ j ] );
+            }
+            sourceKeys[ i ] = key;
+            order[ i ] = i;
+        }
+        Arrays.sort( order, ( aLeft, aRight ) -> compare( sourceKeys[ aLeft ], sourceKeys[ aRight ] ) );
+        objects = new EObject[ source.length ];
+        keys = new Object[ source.length ][];
+        for ( int i = 0; i < order.length; i++ )
+        {
+            objects[ i ] = source[ order[ i ] ];
+            keys[ i ] = sourceKeys[ order[ i ] ];
+        }
+        filter = null;
+    }
+
+    private KeysetPager( KeysetPager aPager, Predicate< ? super EObject > aFilter )
+    {
+        features = aPager.features;
+        objects = aPager.objects;
+        keys = aPager.keys;
+        filter = aFilter;
+    }
+
+    /**
+     * Restricts pages to objects matching filter, sorting is shared.
+     *
+     * @param aFilter
+     *            Filter, e.g. one of {@link E.Predicates}.
+     * @return New pager.
+     */
+    public KeysetPager filter( Predicate< ? super EObject > aFilter )
+    {
+        Preconditions.checkNotNull( aFilter, "Filter is missing." );
+        return new KeysetPager( this, aFilter );
+    }
+
+    /**
+     * @return Number of sorted objects, before filtering.
+     */
+    public int size()
+    {
+        return objects.length;
+    }
+
+    /**
+     * @param aSize
+     *            Maximal number of objects of page.
+     * @return The first page.
+     */
+    public Page first( int aSize )
+    {
+        return page( 0, aSize );
+    }
+
+    /**
+     * @param aCursor
+     *            Cursor of page returned by pager with the same key features.
+     * @param aSize
+     *            Maximal number of objects of page.
+     * @return Page following cursor.
+     */
+    public Page next( Page.Cursor aCursor, int aSize )
+    {
+        Preconditions.checkNotNull( aCursor, "Cursor is missing." );
+        final Object[] key = aCursor.key();
+        Preconditions.checkArgument( key != null && key.length == features.length,
+            "Cursor is not keyset cursor of %s features.", features.length );
+        return page( resume( aCursor ), aSize );
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper( this ).add( "objects", objects.length )
+            .add( "filtered", filter != null ).toString();
+    }
+
+    private Page page( int aFrom, int aSize )
+    {
+        Preconditions.checkArgument( aSize > 0, "Page size is not positive." );
+        final List< EObject > result = new ArrayList<>( Math.min( aSize, objects.length - aFrom ) );
+        int index = aFrom;
+        while ( result.size() < aSize && index < objects.length )
+        {
+            final EObject object = objects[ index++ ];
+            if ( filter == null || filter.test( object ) )
+            {
+                result.add( object );
+            }
+        }
+        return new Page( result, index < objects.length
+            ? new Page.Cursor( index, objects[ index - 1 ], keys[ index - 1 ] ) : null );
+    }
+
+    /**
+     * @return Index of the first object after cursor.
+     */
+    private int resume( Page.Cursor aCursor )
+    {
+        final int position = aCursor.getPosition();
+        if ( position > 0 && position <= objects.length && objects[ position - 1 ] == aCursor.getLast() )
+        {
+            return position;
+        }
+        final Object[] key = aCursor.key();
+        int low = 0;
+        int high = objects.length;
+        while ( low < high )
+        {
+            final int middle = ( low + high ) >>> 1;
+            if ( compare( keys[ middle ], key ) <= 0 )
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        // Objects with equal key are resumed after the last examined one if it is still there
+        for ( int i = low - 1; i >= 0 && compare( keys[ i ], key ) == 0; i-- )
+        {
+            if ( objects[ i ] == aCursor.getLast() )
+            {
+                return i + 1;
+            }
+        }
+        return low;
+    }
+
+    private static int compare( Object[] aLeft, Object[] aRight )
+    {
+        for ( int i = 0; i < aLeft.length; i++ )
+        {
+            final int result = E.Comparators.compareValues( aLeft[ i ], aRight[ i ] );
+            if ( result != 0 )
+            {
+                return result;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,151 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+/**
+ * Pagination of containment list by index. Unlike <code>stream().skip(n).limit(m)</code> the next page is
+ * resumed from cursor in constant time, only objects of page and objects rejected by filter are examined.
+ * <p>
+ * List may change between pages. By default cursor keeps index, so objects inserted or removed before it
+ * shift following objects into or out of the next page. In tolerant mode cursor keeps also the last
+ * examined object and the next page resumes after it wherever it moved, after its former index if it was
+ * removed. Changes during reading of one page must be prevented by caller, e.g. by {@link ModelLocks}.
+ * Pager is immutable.
+ */
+public final class ListPager
+{
+    private final EObject owner;
+
+    private final EReference reference;
+
+    private final Predicate< ? super EObject > filter;
+
+    private final boolean tolerant;
+
+    ListPager( EObject aOwner, EReference aReference, Predicate< ? super EObject > aFilter, boolean aTolerant )
+    {
+        owner = Preconditions.checkNotNull( aOwner, "Owner is missing." );
+        reference = Preconditions.checkNotNull( aReference, "Reference is missing." );
+        Preconditions.checkArgument( aReference.isMany(), "Reference %s is single-valued.",
+            aReference.getName() );
+        filter = aFilter;
+        tolerant = aTolerant;
+    }
+
+    /**
+     * Restricts pages to objects matching filter.
+     *
+     * @param aFilter
+     *            Filter, e.g. one of {@link E.Predicates}.
+     * @return New pager.
+     */
+    public ListPager filter( Predicate< ? super EObject > aFilter )
+    {
+        Preconditions.checkNotNull( aFilter, "Filter is missing." );
+        return new ListPager( owner, reference, aFilter, tolerant );
+    }
+
+    /**
+     * Switches to mode which resumes after the last examined object even if list changed before it.
+     *
+     * @return New pager.
+     */
+    public ListPager tolerant()
+    {
+        return new ListPager( owner, reference, filter, true );
+    }
+
+    /**
+     * @return <code>true</code> in tolerant mode.
+     */
+    public boolean isTolerant()
+    {
+        return tolerant;
+    }
+
+    /**
+     * @param aSize
+     *            Maximal number of objects of page.
+     * @return The first page.
+     */
+    public Page first( int aSize )
+    {
+        return page( 0, aSize );
+    }
+
+    /**
+     * @param aCursor
+     *            Cursor of page returned by this or equal pager.
+     * @param aSize
+     *            Maximal number of objects of page.
+     * @return Page following cursor.
+     */
+    public Page next( Page.Cursor aCursor, int aSize )
+    {
+        Preconditions.checkNotNull( aCursor, "Cursor is missing." );
+        return page( tolerant ? resume( aCursor ) : aCursor.getPosition(), aSize );
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper( this ).add( "reference", reference.getName() )
+            .add( "filtered", filter != null ).add( "tolerant", tolerant ).toString();
+    }
+
+    private Page page( int aFrom, int aSize )
+    {
+        Preconditions.checkArgument( aSize > 0, "Page size is not positive." );
+        final List< ? > list = list();
+        final List< EObject > result =
+            new ArrayList<>( Math.min( aSize, Math.max( 0, list.size() - aFrom ) ) );
+        int index = aFrom;
+        EObject last = null;
+        while ( result.size() < aSize && index < list.size() )
+        {
+            last = (EObject)list.get( index++ );
+            if ( filter == null || filter.test( last ) )
+            {
+                result.add( last );
+            }
+        }
+        return new Page( result, index < list.size() ? new Page.Cursor( index, last, null ) : null );
+    }
+
+    /**
+     * @return Index after the last examined object.
+     */
+    private int resume( Page.Cursor aCursor )
+    {
+        final List< ? > list = list();
+        final int position = aCursor.getPosition();
+        final EObject last = aCursor.getLast();
+        if ( last == null || position - 1 < list.size() && list.get( position - 1 ) == last )
+        {
+            return position;
+        }
+        if ( !reference.isContainment()
+            || last.eContainer() == owner && last.eContainmentFeature() == reference )
+        {
+            final int index = list.indexOf( last );
+            if ( index >= 0 )
+            {
+                return index + 1;
+            }
+        }
+        return Math.max( 0, Math.min( position - 1, list.size() ) );
+    }
+
+    private List< ? > list()
+    {
+        return (List< ? >)owner.eGet( reference );
+    }
+}
@@ -0,0 +1,304 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Predicate;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Count, sum, minimum and maximum of numeric attribute over objects of containment tree matching filter,
+ * maintained incrementally. Change of aggregated attribute is applied from old and new value of its
+ * {@link Notification} in O(1), minimum and maximum are kept in {@link DoubleHeap}s of unboxed values in
+ * amortized O(log n). Objects whose attribute is <code>null</code> are not aggregated. Aggregate is updated
+ * in thread which modifies model, readers in other threads always see consistent values.
+ */
+public final class LiveAggregate implements AutoCloseable
+{
+    private final Notifier root;
+
+    private final EStructuralFeature feature;
+
+    private final Predicate< ? super EObject > filter;
+
+    private final Set< EObject > members = ConcurrentHashMap.newKeySet();
+
+    private final DoubleHeap least = new DoubleHeap( false );
+
+    private final DoubleHeap greatest = new DoubleHeap( true );
+
+    private final StampedLock lock = new StampedLock();
+
+    private long count;
+
+    private double sum;
+
+    /**
+     * Low-order part of values lost by {@link #sum}, summation is compensated (Neumaier) so that error does
+     * not accumulate over long-lived model, e.g. small values are not lost after large value is removed.
+     */
+    private double compensation;
+
+    private final ContentObserver observer = new ContentObserver()
+    {
+        @Override
+        protected void changed( Notification aNotification )
+        {
+            if ( aNotification.getNotifier() instanceof EObject )
+            {
+                update( (EObject)aNotification.getNotifier(), aNotification );
+            }
+        }
+
+        @Override
+        protected void added( EObject aObject )
+        {
+            if ( !members.contains( aObject ) && isAggregated( aObject ) )
+            {
+                members.add( aObject );
+                include( Primitives.doubleValue( aObject, feature ) );
+            }
+        }
+
+        @Override
+        protected void removed( EObject aObject )
+        {
+            if ( members.remove( aObject ) )
+            {
+                exclude( Primitives.doubleValue( aObject, feature ) );
+            }
+        }
+    };
+
+    /**
+     * Creates aggregate and computes it from current model.
+     * 
+     * @param aRoot
+     *            {@link EObject}, {@link org.eclipse.emf.ecore.resource.Resource} or
+     *            {@link org.eclipse.emf.ecore.resource.ResourceSet}.
+     * @param aFeature
+     *            Single-valued numeric attribute.
+     * @param aFilter
+     *            Filter of aggregated objects, e.g. one of {@link E.Predicates}.
+     */
+    LiveAggregate( Notifier aRoot, EStructuralFeature aFeature, Predicate< ? super EObject > aFilter )
+    {
+        root = Preconditions.checkNotNull( aRoot, "Root is missing." );
+        feature = Preconditions.checkNotNull( aFeature, "Feature is missing." );
+        filter = Preconditions.checkNotNull( aFilter, "Filter is missing." );
+        Preconditions.checkArgument( !aFeature.isMany(), "Feature is many-valued." );
+        ContentObserver.forEachObject( aRoot, observer::added );
+        observer.attach( aRoot );
+    }
+
+    /**
+     * @return Number of aggregated objects.
+     */
+    public long count()
+    {
+        long stamp = lock.tryOptimisticRead();
+        long result = count;
+        if ( !lock.validate( stamp ) )
+        {
+            stamp = lock.readLock();
+            result = count;
+            lock.unlockRead( stamp );
+        }
+        return result;
+    }
+
+    /**
+     * @return Sum of attribute values.
+     */
+    public double sum()
+    {
+        long stamp = lock.tryOptimisticRead();
+        double result = sum + compensation;
+        if ( !lock.validate( stamp ) )
+        {
+            stamp = lock.readLock();
+            result = sum + compensation;
+            lock.unlockRead( stamp );
+        }
+        return result;
+    }
+
+    /**
+     * @return Average of attribute values, empty if no object is aggregated.
+     */
+    public OptionalDouble average()
+    {
+        final long stamp = lock.readLock();
+        try
+        {
+            return count == 0 ? OptionalDouble.empty() : OptionalDouble.of( ( sum + compensation ) / count );
+        }
+        finally
+        {
+            lock.unlockRead( stamp );
+        }
+    }
+
+    /**
+     * @return The least attribute value, empty if no object is aggregated.
+     */
+    public OptionalDouble min()
+    {
+        final long stamp = lock.readLock();
+        try
+        {
+            return least.isEmpty() ? OptionalDouble.empty() : OptionalDouble.of( least.peek() );
+        }
+        finally
+        {
+            lock.unlockRead( stamp );
+        }
+    }
+
+    /**
+     * @return The greatest attribute value, empty if no object is aggregated.
+     */
+    public OptionalDouble max()
+    {
+        final long stamp = lock.readLock();
+        try
+        {
+            return greatest.isEmpty() ? OptionalDouble.empty() : OptionalDouble.of( greatest.peek() );
+        }
+        finally
+        {
+            lock.unlockRead( stamp );
+        }
+    }
+
+    /**
+     * Stops maintaining aggregate. Values stay as they were.
+     */
+    @Override
+    public void close()
+    {
+        observer.detach( root );
+    }
+
+    /**
+     * Applies change of object. Contribution of member before change is old value of notification when
+     * aggregated attribute changed, current value otherwise.
+     */
+    private void update( EObject aObject, Notification aNotification )
+    {
+        final boolean wasMember = members.contains( aObject );
+        final boolean isMember = isAggregated( aObject );
+        if ( !wasMember && !isMember )
+        {
+            return;
+        }
+        final boolean featureChanged = aNotification.getFeature() == feature;
+        final long stamp = lock.writeLock();
+        try
+        {
+            if ( wasMember )
+            {
+                remove( featureChanged ? Primitives.toDouble( aNotification.getOldValue() )
+                    : Primitives.doubleValue( aObject, feature ) );
+            }
+            if ( isMember )
+            {
+                add( Primitives.doubleValue( aObject, feature ) );
+            }
+        }
+        finally
+        {
+            lock.unlockWrite( stamp );
+        }
+        if ( !isMember )
+        {
+            members.remove( aObject );
+        }
+        else if ( !wasMember )
+        {
+            members.add( aObject );
+        }
+    }
+
+    private boolean isAggregated( EObject aObject )
+    {
+        return feature.getEContainingClass().isSuperTypeOf( aObject.eClass() )
+            && aObject.eGet( feature ) != null && filter.test( aObject );
+    }
+
+    private void include( double aValue )
+    {
+        final long stamp = lock.writeLock();
+        try
+        {
+            add( aValue );
+        }
+        finally
+        {
+            lock.unlockWrite( stamp );
+        }
+    }
+
+    private void exclude( double aValue )
+    {
+        final long stamp = lock.writeLock();
+        try
+        {
+            remove( aValue );
+        }
+        finally
+        {
+            lock.unlockWrite( stamp );
+        }
+    }
+
+    /**
+     * Adds value, called with write lock held.
+     */
+    private void add( double aValue )
+    {
+        count++;
+        accumulate( aValue );
+        least.add( aValue );
+        greatest.add( aValue );
+    }
+
+    /**
+     * Removes value, called with write lock held.
+     */
+    private void remove( double aValue )
+    {
+        if ( --count == 0 )
+        {
+            sum = 0;
+            compensation = 0;
+        }
+        else
+        {
+            accumulate( -aValue );
+        }
+        least.remove( aValue );
+        greatest.remove( aValue );
+    }
+
+    /**
+     * Adds value to compensated sum, called with write lock held.
+     */
+    private void accumulate( double aValue )
+    {
+        final double total = sum + aValue;
+        if ( Double.isFinite( total ) )
+        {
+            compensation +=
+                Math.abs( sum ) >= Math.abs( aValue ) ? sum - total + aValue : aValue - total + sum;
+        }
+        sum = total;
+    }
+}
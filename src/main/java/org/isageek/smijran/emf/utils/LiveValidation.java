@@ -0,0 +1,167 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.EObject;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+/**
+ * Incrementally maintained validation of containment tree by {@link ModelValidator}. Whole tree is validated
+ * once, afterwards changed objects and objects entering tree are only marked and {@link #revalidate()}
+ * validates marked objects again, violations of objects leaving tree are dropped. Therefore rules should
+ * depend only on features of validated object. Limit of validator does not apply, all violations are kept.
+ * Objects are marked in thread which modifies model, {@link #revalidate()} must not run concurrently with
+ * model modification.
+ */
+public final class LiveValidation implements AutoCloseable
+{
+    private final Notifier root;
+
+    private final ModelValidator validator;
+
+    private final Map< EObject, List< ValidationResult.Violation > > violations = new ConcurrentHashMap<>();
+
+    /**
+     * Objects changed since last validation.
+     */
+    private final Set< EObject > dirty = ConcurrentHashMap.newKeySet();
+
+    private volatile int validated;
+
+    private final ContentObserver observer = new ContentObserver()
+    {
+        @Override
+        protected void changed( Notification aNotification )
+        {
+            if ( aNotification.getNotifier() instanceof EObject )
+            {
+                dirty.add( (EObject)aNotification.getNotifier() );
+            }
+        }
+
+        @Override
+        protected void added( EObject aObject )
+        {
+            dirty.add( aObject );
+        }
+
+        @Override
+        protected void removed( EObject aObject )
+        {
+            dirty.remove( aObject );
+            violations.remove( aObject );
+        }
+    };
+
+    /**
+     * Creates validation and validates whole tree.
+     *
+     * @param aRoot
+     *            {@link EObject}, {@link org.eclipse.emf.ecore.resource.Resource} or
+     *            {@link org.eclipse.emf.ecore.resource.ResourceSet}.
+     * @param aValidator
+     *            Validator.
+     */
+    LiveValidation( Notifier aRoot, ModelValidator aValidator )
+    {
+        root = Preconditions.checkNotNull( aRoot, "Root is missing." );
+        validator = Preconditions.checkNotNull( aValidator, "Validator is missing." );
+        final List< EObject > objects = new ArrayList<>();
+        ContentObserver.forEachObject( aRoot, objects::add );
+        validate( objects );
+        observer.attach( aRoot );
+    }
+
+    /**
+     * @return Root of validated tree.
+     */
+    public Notifier getRoot()
+    {
+        return root;
+    }
+
+    /**
+     * @return Number of objects waiting for {@link #revalidate()}.
+     */
+    public int getPending()
+    {
+        return dirty.size();
+    }
+
+    /**
+     * Validates objects changed since last validation.
+     *
+     * @return Current violations, like {@link #getResult()}.
+     */
+    public ValidationResult revalidate()
+    {
+        final List< EObject > objects = new ArrayList<>( dirty );
+        dirty.removeAll( objects );
+        objects.removeIf( aObject -> !observer.isObserved( aObject ) );
+        validate( objects );
+        return getResult();
+    }
+
+    /**
+     * @return Violations found by last validation of every object, in no particular order, with number of
+     *         objects validated by last validation.
+     */
+    public ValidationResult getResult()
+    {
+        final List< ValidationResult.Violation > result = new ArrayList<>();
+        violations.values().forEach( result::addAll );
+        return new ValidationResult( result, validated, false );
+    }
+
+    /**
+     * @return <code>true</code> if no violation was found by last validation, objects changed since are not
+     *         validated.
+     */
+    public boolean isValid()
+    {
+        return violations.isEmpty();
+    }
+
+    /**
+     * Stops tracking changes.
+     */
+    @Override
+    public void close()
+    {
+        observer.detach( root );
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper( this ).add( "invalid", violations.size() )
+            .add( "pending", dirty.size() ).toString();
+    }
+
+    private void validate( List< EObject > aObjects )
+    {
+        validated = aObjects.size();
+        final Stream< EObject > stream = aObjects.stream();
+        ( aObjects.size() > ModelValidator.PARTITION_SIZE ? stream.parallel() : stream ).forEach( aObject -> {
+            final List< ValidationResult.Violation > found = validator.check( aObject );
+            if ( found.isEmpty() )
+            {
+                violations.remove( aObject );
+            }
+            else
+            {
+                violations.put( aObject, Collections.unmodifiableList( found ) );
+            }
+        } );
+    }
+}
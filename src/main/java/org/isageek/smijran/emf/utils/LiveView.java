@@ -0,0 +1,183 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.EObject;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Materialized set of objects of containment tree matching {@link Predicate}. Membership is maintained
+ * incrementally: when object changes only this object is tested again, objects entering containment tree are
+ * tested once and objects leaving it are dropped. Therefore predicate should depend only on tested object
+ * features. View is updated in thread which modifies model, {@link #size()}, {@link #contains(EObject)} and
+ * {@link #stream()} can be called from any thread.
+ */
+public final class LiveView implements AutoCloseable
+{
+    /**
+     * Listener of view membership changes. Called in thread which modified model.
+     */
+    public interface Listener
+    {
+        /**
+         * Called when object became member of view.
+         * 
+         * @param aObject
+         *            New member.
+         */
+        void added( EObject aObject );
+
+        /**
+         * Called when object stopped being member of view.
+         * 
+         * @param aObject
+         *            Former member.
+         */
+        void removed( EObject aObject );
+    }
+
+    private final Notifier root;
+
+    private final Predicate< ? super EObject > predicate;
+
+    private final Set< EObject > members = ConcurrentHashMap.newKeySet();
+
+    private final List< Listener > listeners = new CopyOnWriteArrayList<>();
+
+    private final ContentObserver observer = new ContentObserver()
+    {
+        @Override
+        protected void changed( Notification aNotification )
+        {
+            if ( aNotification.getNotifier() instanceof EObject )
+            {
+                final EObject object = (EObject)aNotification.getNotifier();
+                if ( members.contains( object ) || isObserved( object ) )
+                {
+                    evaluate( object );
+                }
+            }
+        }
+
+        @Override
+        protected void added( EObject aObject )
+        {
+            evaluate( aObject );
+        }
+
+        @Override
+        protected void removed( EObject aObject )
+        {
+            if ( members.remove( aObject ) )
+            {
+                listeners.forEach( aListener -> aListener.removed( aObject ) );
+            }
+        }
+    };
+
+    /**
+     * Creates view and fills it with current matching objects.
+     * 
+     * @param aRoot
+     *            {@link EObject}, {@link org.eclipse.emf.ecore.resource.Resource} or
+     *            {@link org.eclipse.emf.ecore.resource.ResourceSet}.
+     * @param aPredicate
+     *            Membership predicate, e.g. one of {@link E.Predicates}.
+     */
+    LiveView( Notifier aRoot, Predicate< ? super EObject > aPredicate )
+    {
+        root = Preconditions.checkNotNull( aRoot, "Root is missing." );
+        predicate = Preconditions.checkNotNull( aPredicate, "Predicate is missing." );
+        ContentObserver.forEachObject( aRoot, aObject -> {
+            if ( aPredicate.test( aObject ) )
+            {
+                members.add( aObject );
+            }
+        } );
+        observer.attach( aRoot );
+    }
+
+    /**
+     * Registers listener.
+     * 
+     * @param aListener
+     *            Listener.
+     * @return This view.
+     */
+    public LiveView addListener( Listener aListener )
+    {
+        listeners.add( Preconditions.checkNotNull( aListener, "Listener is missing." ) );
+        return this;
+    }
+
+    /**
+     * Unregisters listener.
+     * 
+     * @param aListener
+     *            Listener.
+     */
+    public void removeListener( Listener aListener )
+    {
+        listeners.remove( aListener );
+    }
+
+    /**
+     * @return Number of members.
+     */
+    public int size()
+    {
+        return members.size();
+    }
+
+    /**
+     * Tests membership.
+     * 
+     * @param aObject
+     *            Object.
+     * @return <code>true</code> if object is member of view.
+     */
+    public boolean contains( EObject aObject )
+    {
+        return members.contains( aObject );
+    }
+
+    /**
+     * @return {@link Stream} of current members, in no particular order.
+     */
+    public Stream< EObject > stream()
+    {
+        return members.stream();
+    }
+
+    /**
+     * Stops maintaining view. Members stay as they were.
+     */
+    @Override
+    public void close()
+    {
+        observer.detach( root );
+    }
+
+    private void evaluate( EObject aObject )
+    {
+        if ( predicate.test( aObject ) )
+        {
+            if ( members.add( aObject ) )
+            {
+                listeners.forEach( aListener -> aListener.added( aObject ) );
+            }
+        }
+        else if ( members.remove( aObject ) )
+        {
+            listeners.forEach( aListener -> aListener.removed( aObject ) );
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.function.Predicate;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+/**
+ * {@link Predicate} of {@link EObject} which tests unboxed value of long attribute. Besides testing single
+ * {@link EObject} it can be evaluated over object arrays and long columns without allocation.
+ */
+public interface LongAttributePredicate extends Predicate< EObject >
+{
+    /**
+     * @return Tested attribute.
+     */
+    EStructuralFeature getFeature();
+
+    /**
+     * Tests attribute value.
+     * 
+     * @param aValue
+     *            Value of attribute.
+     * @return <code>true</code> if value matches.
+     */
+    boolean testLong( long aValue );
+
+    @Override
+    default boolean test( EObject aObject )
+    {
+        return testLong( Primitives.longValue( aObject, getFeature() ) );
+    }
+
+    /**
+     * Evaluates predicate over range of column. Bit <code>i</code> of <code>aBitmap</code> is set when
+     * <code>aColumn[i]</code> matches, other bits are left untouched.
+     * 
+     * @param aColumn
+     *            Attribute values indexed like objects, e.g. projected by
+     *            {@link Primitives#project(EObject[], int, int, EStructuralFeature, long[])}.
+     * @param aFrom
+     *            First index, inclusive.
+     * @param aTo
+     *            Last index, exclusive.
+     * @param aBitmap
+     *            Selection bitmap.
+     * @return Number of matching values.
+     */
+    default int select( long[] aColumn, int aFrom, int aTo, long[] aBitmap )
+    {
+        int count = 0;
+        for ( int i = aFrom; i < aTo; i++ )
+        {
+            if ( testLong( aColumn[ i ] ) )
+            {
+                aBitmap[ i >>> 6 ] |= 1L << i;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Evaluates predicate over range of objects. Bit <code>i</code> of <code>aBitmap</code> is set when
+     * <code>aObjects[i]</code> matches, other bits are left untouched.
+     * 
+     * @param aObjects
+     *            Tested objects.
+     * @param aFrom
+     *            First index, inclusive.
+     * @param aTo
+     *            Last index, exclusive.
+     * @param aBitmap
+     *            Selection bitmap.
+     * @return Number of matching objects.
+     */
+    default int select( EObject[] aObjects, int aFrom, int aTo, long[] aBitmap )
+    {
+        final EStructuralFeature feature = getFeature();
+        int count = 0;
+        for ( int i = aFrom; i < aTo; i++ )
+        {
+            if ( testLong( Primitives.longValue( aObjects[ i ], feature ) ) )
+            {
+                aBitmap[ i >>> 6 ] |= 1L << i;
+                count++;
+            }
+        }
+        return count;
+    }
+}
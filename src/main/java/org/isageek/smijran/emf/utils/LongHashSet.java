@@ -0,0 +1,137 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.function.LongPredicate;
+
+/**
+ * Open addressing hash set of long values. Uses linear probing over power of two table, <code>0</code> marks
+ * free slot and is tracked separately. Not thread safe for writes, safe for concurrent reads once filled.
+ */
+final class LongHashSet implements LongPredicate
+{
+    private long[] keys;
+
+    private int mask;
+
+    private int size;
+
+    private boolean containsZero;
+
+    LongHashSet( int aExpectedSize )
+    {
+        final int capacity = IntHashSet.tableSize( aExpectedSize );
+        keys = new long[ capacity ];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Creates set of given values.
+     * 
+     * @param aValues
+     *            Values.
+     * @return New set.
+     */
+    static LongHashSet of( long... aValues )
+    {
+        final LongHashSet set = new LongHashSet( aValues.length );
+        for ( final long value : aValues )
+        {
+            set.add( value );
+        }
+        return set;
+    }
+
+    /**
+     * Adds value to set.
+     * 
+     * @param aValue
+     *            Value.
+     * @return <code>true</code> if set did not contain value.
+     */
+    boolean add( long aValue )
+    {
+        if ( aValue == 0 )
+        {
+            final boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        int slot = mix( aValue ) & mask;
+        while ( keys[ slot ] != 0 )
+        {
+            if ( keys[ slot ] == aValue )
+            {
+                return false;
+            }
+            slot = ( slot + 1 ) & mask;
+        }
+        keys[ slot ] = aValue;
+        if ( ++size * 2 > keys.length )
+        {
+            rehash();
+        }
+        return true;
+    }
+
+    /**
+     * Tests whether value belongs to set.
+     * 
+     * @param aValue
+     *            Value.
+     * @return <code>true</code> if value is in set.
+     */
+    boolean contains( long aValue )
+    {
+        if ( aValue == 0 )
+        {
+            return containsZero;
+        }
+        final long[] table = keys;
+        int slot = mix( aValue ) & mask;
+        long key;
+        while ( ( key = table[ slot ] ) != 0 )
+        {
+            if ( key == aValue )
+            {
+                return true;
+            }
+            slot = ( slot + 1 ) & mask;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean test( long aValue )
+    {
+        return contains( aValue );
+    }
+
+    int size()
+    {
+        return containsZero ? size + 1 : size;
+    }
+
+    private void rehash()
+    {
+        final long[] old = keys;
+        keys = new long[ old.length * 2 ];
+        mask = keys.length - 1;
+        for ( final long key : old )
+        {
+            if ( key != 0 )
+            {
+                int slot = mix( key ) & mask;
+                while ( keys[ slot ] != 0 )
+                {
+                    slot = ( slot + 1 ) & mask;
+                }
+                keys[ slot ] = key;
+            }
+        }
+    }
+
+    static int mix( long aValue )
+    {
+        final long h = aValue * 0x9E3779B97F4A7C15L;
+        return (int)( h ^ ( h >>> 32 ) );
+    }
+}
@@ -0,0 +1,120 @@
+package org.isageek.smijran.emf.utils;
+
+/**
+ * Open addressing hash map from long keys to non-negative int values. Uses linear probing over power of two
+ * table, <code>0</code> key marks free slot and is tracked separately. Not thread safe for writes, safe for
+ * concurrent reads once filled.
+ */
+final class LongIntHashMap
+{
+    private long[] keys;
+
+    private int[] values;
+
+    private int mask;
+
+    private int size;
+
+    private int zeroValue = -1;
+
+    LongIntHashMap( int aExpectedSize )
+    {
+        final int capacity = IntHashSet.tableSize( aExpectedSize );
+        keys = new long[ capacity ];
+        values = new int[ capacity ];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Finds value of key.
+     *
+     * @param aKey
+     *            Key.
+     * @return Value or <code>-1</code> if key is not in map.
+     */
+    int get( long aKey )
+    {
+        if ( aKey == 0 )
+        {
+            return zeroValue;
+        }
+        final long[] table = keys;
+        int slot = LongHashSet.mix( aKey ) & mask;
+        long key;
+        while ( ( key = table[ slot ] ) != 0 )
+        {
+            if ( key == aKey )
+            {
+                return values[ slot ];
+            }
+            slot = ( slot + 1 ) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Associates value with key if key is not in map yet.
+     *
+     * @param aKey
+     *            Key.
+     * @param aValue
+     *            Non-negative value.
+     * @return Present value or <code>-1</code> if value was added.
+     */
+    int putIfAbsent( long aKey, int aValue )
+    {
+        if ( aKey == 0 )
+        {
+            final int present = zeroValue;
+            if ( present < 0 )
+            {
+                zeroValue = aValue;
+            }
+            return present;
+        }
+        int slot = LongHashSet.mix( aKey ) & mask;
+        while ( keys[ slot ] != 0 )
+        {
+            if ( keys[ slot ] == aKey )
+            {
+                return values[ slot ];
+            }
+            slot = ( slot + 1 ) & mask;
+        }
+        keys[ slot ] = aKey;
+        values[ slot ] = aValue;
+        if ( ++size * 2 > keys.length )
+        {
+            rehash();
+        }
+        return -1;
+    }
+
+    int size()
+    {
+        return zeroValue < 0 ? size : size + 1;
+    }
+
+    private void rehash()
+    {
+        final long[] oldKeys = keys;
+        final int[] oldValues = values;
+        keys = new long[ oldKeys.length * 2 ];
+        values = new int[ keys.length ];
+        mask = keys.length - 1;
+        for ( int i = 0; i < oldKeys.length; i++ )
+        {
+            final long key = oldKeys[ i ];
+            if ( key != 0 )
+            {
+                int slot = LongHashSet.mix( key ) & mask;
+                while ( keys[ slot ] != 0 )
+                {
+                    slot = ( slot + 1 ) & mask;
+                }
+                keys[ slot ] = key;
+                values[ slot ] = oldValues[ i ];
+            }
+        }
+    }
+}
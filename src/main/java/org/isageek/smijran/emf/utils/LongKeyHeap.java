@@ -0,0 +1,116 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+
+/**
+ * Bounded min-heap of {@link EObject}s keyed by primitive long. Keeps {@link EObject}s with <code>k</code>
+ * greatest keys seen so far; keys and objects are stored in parallel arrays, so offering does not allocate.
+ * Not thread safe, partial heaps of parallel computations are combined with {@link #merge(LongKeyHeap)}.
+ */
+final class LongKeyHeap
+{
+    private final long[] keys;
+
+    private final EObject[] objects;
+
+    private int size;
+
+    LongKeyHeap( int aCapacity )
+    {
+        keys = new long[ aCapacity ];
+        objects = new EObject[ aCapacity ];
+    }
+
+    /**
+     * Offers object.
+     * 
+     * @param aKey
+     *            Key of object.
+     * @param aObject
+     *            Object.
+     */
+    void offer( long aKey, EObject aObject )
+    {
+        if ( size < keys.length )
+        {
+            int child = size++;
+            while ( child > 0 )
+            {
+                final int parent = ( child - 1 ) >>> 1;
+                if ( keys[ parent ] <= aKey )
+                {
+                    break;
+                }
+                keys[ child ] = keys[ parent ];
+                objects[ child ] = objects[ parent ];
+                child = parent;
+            }
+            keys[ child ] = aKey;
+            objects[ child ] = aObject;
+        }
+        else if ( size > 0 && aKey > keys[ 0 ] )
+        {
+            siftDown( aKey, aObject, size );
+        }
+    }
+
+    /**
+     * Offers all objects of other heap.
+     * 
+     * @param aOther
+     *            Other heap.
+     * @return This heap.
+     */
+    LongKeyHeap merge( LongKeyHeap aOther )
+    {
+        for ( int i = 0; i < aOther.size; i++ )
+        {
+            offer( aOther.keys[ i ], aOther.objects[ i ] );
+        }
+        return this;
+    }
+
+    /**
+     * Drains heap.
+     * 
+     * @return Objects ordered from the greatest key. Heap is empty afterwards.
+     */
+    List< EObject > drain()
+    {
+        final EObject[] sorted = new EObject[ size ];
+        while ( size > 0 )
+        {
+            sorted[ size - 1 ] = objects[ 0 ];
+            final int last = --size;
+            siftDown( keys[ last ], objects[ last ], last );
+            objects[ last ] = null;
+        }
+        return new ArrayList<>( Arrays.asList( sorted ) );
+    }
+
+    private void siftDown( long aKey, EObject aObject, int aSize )
+    {
+        int parent = 0;
+        int child;
+        while ( ( child = 2 * parent + 1 ) < aSize )
+        {
+            if ( child + 1 < aSize && keys[ child + 1 ] < keys[ child ] )
+            {
+                child++;
+            }
+            if ( aKey <= keys[ child ] )
+            {
+                break;
+            }
+            keys[ parent ] = keys[ child ];
+            objects[ parent ] = objects[ child ];
+            parent = child;
+        }
+        keys[ parent ] = aKey;
+        objects[ parent ] = aObject;
+    }
+}
@@ -0,0 +1,160 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.function.DoublePredicate;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+
+/**
+ * Factory of constant time membership tests for sets of primitive values. Values from small range are
+ * looked up in bitset, other values in open addressing hash sets.
+ */
+final class Membership
+{
+    /**
+     * Values are kept in bitset when their range is not wider than this number of bits or
+     * {@link #DENSE_BITS_PER_VALUE} bits per value.
+     */
+    private static final long MIN_DENSE_RANGE = 4096;
+
+    /**
+     * @see #MIN_DENSE_RANGE
+     */
+    private static final long DENSE_BITS_PER_VALUE = 64;
+
+    private Membership()
+    {
+        // Factory class
+    }
+
+    /**
+     * Creates membership test of int values.
+     * 
+     * @param aValues
+     *            Values of set.
+     * @return {@link IntPredicate} testing whether value belongs to <code>aValues</code>.
+     */
+    static IntPredicate ints( int... aValues )
+    {
+        if ( aValues.length == 0 )
+        {
+            return aValue -> false;
+        }
+        int min = aValues[ 0 ];
+        int max = aValues[ 0 ];
+        for ( final int value : aValues )
+        {
+            min = Math.min( min, value );
+            max = Math.max( max, value );
+        }
+        if ( isDense( (long)max - min + 1, aValues.length ) )
+        {
+            return new IntRange( aValues, min, max - min );
+        }
+        return IntHashSet.of( aValues );
+    }
+
+    /**
+     * Creates membership test of long values.
+     * 
+     * @param aValues
+     *            Values of set.
+     * @return {@link LongPredicate} testing whether value belongs to <code>aValues</code>.
+     */
+    static LongPredicate longs( long... aValues )
+    {
+        if ( aValues.length == 0 )
+        {
+            return aValue -> false;
+        }
+        long min = aValues[ 0 ];
+        long max = aValues[ 0 ];
+        for ( final long value : aValues )
+        {
+            min = Math.min( min, value );
+            max = Math.max( max, value );
+        }
+        if ( max - min >= 0 && isDense( max - min + 1, aValues.length ) )
+        {
+            final long base = min;
+            final IntRange range = new IntRange( shift( aValues, base ), 0, (int)( max - min ) );
+            return aValue -> {
+                final long offset = aValue - base;
+                return offset >= 0 && offset <= range.span && range.test( (int)offset );
+            };
+        }
+        return LongHashSet.of( aValues );
+    }
+
+    /**
+     * Creates membership test of double values consistent with <code>==</code>, i.e. <code>0.0</code> and
+     * <code>-0.0</code> are the same value and <code>NaN</code> is never member.
+     * 
+     * @param aValues
+     *            Values of set.
+     * @return {@link DoublePredicate} testing whether value belongs to <code>aValues</code>.
+     */
+    static DoublePredicate doubles( double... aValues )
+    {
+        final LongHashSet set = new LongHashSet( aValues.length );
+        for ( final double value : aValues )
+        {
+            if ( !Double.isNaN( value ) )
+            {
+                set.add( bits( value ) );
+            }
+        }
+        return aValue -> set.contains( bits( aValue ) );
+    }
+
+    private static long bits( double aValue )
+    {
+        return aValue == 0.0d ? 0L : Double.doubleToRawLongBits( aValue );
+    }
+
+    private static boolean isDense( long aRange, int aSize )
+    {
+        return aRange <= Math.max( MIN_DENSE_RANGE, DENSE_BITS_PER_VALUE * aSize );
+    }
+
+    private static int[] shift( long[] aValues, long aBase )
+    {
+        final int[] shifted = new int[ aValues.length ];
+        for ( int i = 0; i < aValues.length; i++ )
+        {
+            shifted[ i ] = (int)( aValues[ i ] - aBase );
+        }
+        return shifted;
+    }
+
+    /**
+     * Bitset of values from <code>[min, min + span]</code>.
+     */
+    private static final class IntRange implements IntPredicate
+    {
+        private final int min;
+
+        private final int span;
+
+        private final long[] bits;
+
+        IntRange( int[] aValues, int aMin, int aSpan )
+        {
+            min = aMin;
+            span = aSpan;
+            bits = new long[ ( aSpan >>> 6 ) + 1 ];
+            for ( final int value : aValues )
+            {
+                final int offset = value - aMin;
+                bits[ offset >>> 6 ] |= 1L << offset;
+            }
+        }
+
+        @Override
+        public boolean test( int aValue )
+        {
+            final int offset = aValue - min;
+            return Integer.compareUnsigned( offset, span ) <= 0
+                && ( bits[ offset >>> 6 ] & 1L << offset ) != 0;
+        }
+    }
+}
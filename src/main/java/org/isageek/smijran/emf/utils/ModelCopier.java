@@ -0,0 +1,392 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.IntStream;
+
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.FeatureMapUtil;
+import org.eclipse.emf.ecore.util.InternalEList;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Deep copier of containment subtrees, replacement of {@link EcoreUtil.Copier} for large models. Copied
+ * objects are numbered in containment order, mapping of original to copy is kept in identity indexed arrays.
+ * Copied features are resolved once per {@link EClass} and copier. Objects with their attributes and
+ * containments are copied in parallel, references are copied sequentially afterwards because of opposite
+ * references.
+ * References to objects which are not copied are kept to original objects, unless they have opposite.
+ * <p>
+ * In copy-on-write mode copies are {@link CopyOnWriteEObject}s which read attributes from originals until
+ * they are written. Originals must not change while copies read them. Objects of classes with instance class
+ * are copied eagerly, because their copies have to be instances of it. Feature maps are not supported.
+ * <p>
+ * Copier is not thread safe. Every call copies with its own mapping of originals to copies, so successive
+ * calls never share copies and references between objects copied by different calls are kept to originals.
+ * Mapping of the last call is available by {@link #get(EObject)}.
+ */
+public final class ModelCopier
+{
+    /**
+     * Copied features of class.
+     */
+    private static final class Plan
+    {
+        final EAttribute[] attributes;
+
+        final EReference[] containments;
+
+        final EReference[] references;
+
+        Plan( EClass aClass )
+        {
+            final List< EAttribute > attributes = new ArrayList<>();
+            final List< EReference > containments = new ArrayList<>();
+            final List< EReference > references = new ArrayList<>();
+            for ( EStructuralFeature feature : aClass.getEAllStructuralFeatures() )
+            {
+                if ( !feature.isChangeable() || feature.isDerived() )
+                {
+                    continue;
+                }
+                Preconditions.checkArgument( !FeatureMapUtil.isFeatureMap( feature ),
+                    "Feature map " + feature.getName() + " is not supported." );
+                if ( feature instanceof EAttribute )
+                {
+                    attributes.add( (EAttribute)feature );
+                }
+                else if ( ( (EReference)feature ).isContainment() )
+                {
+                    containments.add( (EReference)feature );
+                }
+                else if ( !( (EReference)feature ).isContainer() )
+                {
+                    references.add( (EReference)feature );
+                }
+            }
+            this.attributes = attributes.toArray( new EAttribute[ attributes.size() ] );
+            this.containments = containments.toArray( new EReference[ containments.size() ] );
+            this.references = references.toArray( new EReference[ references.size() ] );
+        }
+    }
+
+    /**
+     * Plans of copied classes, kept by copier only, so that static cache does not keep metamodels, which
+     * features of plans reference, loaded.
+     */
+    private final ConcurrentMap< EClass, Plan > plans = new ConcurrentHashMap<>();
+
+    private final boolean copyOnWrite;
+
+    private IdentityIndex index = new IdentityIndex( 1024 );
+
+    private EObject[] originals = new EObject[ 1024 ];
+
+    private EObject[] copies = new EObject[ 1024 ];
+
+    private int size;
+
+    /**
+     * @param aCopyOnWrite
+     *            Whether copies read attributes from originals until they are written.
+     */
+    ModelCopier( boolean aCopyOnWrite )
+    {
+        copyOnWrite = aCopyOnWrite;
+    }
+
+    /**
+     * Copies containment subtree.
+     *
+     * @param aRoot
+     *            Root of subtree.
+     * @return Copy of root.
+     */
+    @SuppressWarnings( "unchecked" )
+    public < T extends EObject >T copy( T aRoot )
+    {
+        return (T)copyAll( Collections.singletonList( aRoot ) ).get( 0 );
+    }
+
+    /**
+     * Copies containment subtrees. Subtree contained in another copied subtree is copied once. Objects
+     * copied by previous calls are copied again.
+     *
+     * @param aRoots
+     *            Roots of subtrees.
+     * @return Copies of roots in their order.
+     */
+    public List< EObject > copyAll( Collection< ? extends EObject > aRoots )
+    {
+        Preconditions.checkNotNull( aRoots, "Roots are missing." );
+        index = new IdentityIndex( 1024 );
+        originals = new EObject[ 1024 ];
+        copies = new EObject[ 1024 ];
+        size = 0;
+        for ( EObject root : aRoots )
+        {
+            enumerate( Preconditions.checkNotNull( root, "Root is missing." ) );
+        }
+        IntStream.range( 0, size ).parallel().forEach( this::copyObject );
+        IntStream.range( 0, size ).parallel().forEach( this::copyContainments );
+        for ( int i = 0; i < size; i++ )
+        {
+            copyReferences( i );
+        }
+        final List< EObject > result = new ArrayList<>( aRoots.size() );
+        for ( EObject root : aRoots )
+        {
+            result.add( get( root ) );
+        }
+        return result;
+    }
+
+    /**
+     * @param aOriginal
+     *            Original object.
+     * @return Copy of object made by the last call or <code>null</code> if object was not copied by it.
+     */
+    public EObject get( EObject aOriginal )
+    {
+        final int i = index.get( aOriginal );
+        return i < 0 ? null : copies[ i ];
+    }
+
+    /**
+     * @return Number of objects copied by the last call.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Numbers objects of subtree in containment order, skips already numbered subtrees.
+     */
+    private void enumerate( EObject aRoot )
+    {
+        if ( !add( aRoot ) )
+        {
+            return;
+        }
+        for ( TreeIterator< EObject > contents = aRoot.eAllContents(); contents.hasNext(); )
+        {
+            if ( !add( contents.next() ) )
+            {
+                contents.prune();
+            }
+        }
+    }
+
+    private boolean add( EObject aObject )
+    {
+        if ( !index.put( aObject, size ) )
+        {
+            return false;
+        }
+        if ( size == originals.length )
+        {
+            originals = Arrays.copyOf( originals, size * 2 );
+            copies = Arrays.copyOf( copies, size * 2 );
+        }
+        originals[ size++ ] = aObject;
+        return true;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private void copyObject( int aIndex )
+    {
+        final EObject original = originals[ aIndex ];
+        final EClass eClass = original.eClass();
+        final Plan plan = plan( eClass );
+        final boolean lazy = copyOnWrite && eClass.getInstanceClass() == null;
+        final EObject copy = lazy ? new CopyOnWriteEObject( eClass, original, plan.attributes )
+            : EcoreUtil.create( eClass );
+        if ( original.eIsProxy() )
+        {
+            ( (InternalEObject)copy ).eSetProxyURI( ( (InternalEObject)original ).eProxyURI() );
+        }
+        if ( !lazy )
+        {
+            for ( EAttribute attribute : plan.attributes )
+            {
+                if ( !original.eIsSet( attribute ) )
+                {
+                    continue;
+                }
+                if ( attribute.isMany() )
+                {
+                    ( (List< Object >)copy.eGet( attribute ) ).addAll( (List< ? >)original.eGet( attribute ) );
+                }
+                else
+                {
+                    copy.eSet( attribute, original.eGet( attribute ) );
+                }
+            }
+        }
+        copies[ aIndex ] = copy;
+    }
+
+    /**
+     * Sets containments of copy. Every copied object has one container, so containers can be set in parallel.
+     */
+    @SuppressWarnings( "unchecked" )
+    private void copyContainments( int aIndex )
+    {
+        final EObject original = originals[ aIndex ];
+        final EObject copy = copies[ aIndex ];
+        for ( EReference reference : plan( original.eClass() ).containments )
+        {
+            if ( !original.eIsSet( reference ) )
+            {
+                continue;
+            }
+            final Object value = original.eGet( reference, false );
+            if ( reference.isMany() )
+            {
+                final List< EObject > contents = (List< EObject >)value;
+                final List< EObject > copied = new ArrayList<>( contents.size() );
+                for ( EObject content : contents )
+                {
+                    copied.add( get( content ) );
+                }
+                ( (List< EObject >)copy.eGet( reference ) ).addAll( copied );
+            }
+            else
+            {
+                copy.eSet( reference, get( (EObject)value ) );
+            }
+        }
+    }
+
+    /**
+     * Sets non-containment references of copy, keeps order of opposite references set from other side.
+     * Targets set from other side which are not placed yet follow placed ones in order in which they were set,
+     * so their current positions are computed from their initial positions and counts of placed ones.
+     */
+    @SuppressWarnings( "unchecked" )
+    private void copyReferences( int aIndex )
+    {
+        final EObject original = originals[ aIndex ];
+        final EObject copy = copies[ aIndex ];
+        for ( EReference reference : plan( original.eClass() ).references )
+        {
+            if ( !original.eIsSet( reference ) )
+            {
+                continue;
+            }
+            final boolean bidirectional = reference.getEOpposite() != null;
+            final Object value = original.eGet( reference, false );
+            if ( !reference.isMany() )
+            {
+                final EObject target = get( (EObject)value );
+                if ( target != null )
+                {
+                    copy.eSet( reference, target );
+                }
+                else if ( !bidirectional )
+                {
+                    copy.eSet( reference, value );
+                }
+                continue;
+            }
+            final EList< EObject > targets = (EList< EObject >)copy.eGet( reference );
+            final Map< EObject, Integer > initial = bidirectional
+                ? positions( (InternalEList< EObject >)targets ) : Collections.< EObject, Integer >emptyMap();
+            final int[] placed = new int[ initial.size() + 1 ];
+            int position = 0;
+            for ( EObject element : (List< EObject >)value )
+            {
+                final EObject target = get( element );
+                if ( target == null )
+                {
+                    if ( !bidirectional )
+                    {
+                        targets.add( position++, element );
+                    }
+                    continue;
+                }
+                final Integer start = initial.get( target );
+                if ( start == null )
+                {
+                    targets.add( position, target );
+                }
+                else
+                {
+                    final int current = position + start - placedBefore( placed, start );
+                    if ( current != position )
+                    {
+                        targets.move( position, current );
+                    }
+                    place( placed, start );
+                }
+                position++;
+            }
+        }
+    }
+
+    /**
+     * @return Positions of targets in list, without resolving proxies.
+     */
+    private static Map< EObject, Integer > positions( InternalEList< EObject > aTargets )
+    {
+        final Map< EObject, Integer > result = new HashMap<>();
+        for ( Iterator< EObject > targets = aTargets.basicIterator(); targets.hasNext(); )
+        {
+            result.put( targets.next(), result.size() );
+        }
+        return result;
+    }
+
+    /**
+     * @return Number of placed targets with initial position less than given one, counted in Fenwick tree.
+     */
+    private static int placedBefore( int[] aPlaced, int aPosition )
+    {
+        int result = 0;
+        for ( int i = aPosition; i > 0; i -= i & -i )
+        {
+            result += aPlaced[ i ];
+        }
+        return result;
+    }
+
+    /**
+     * Counts target with given initial position as placed in Fenwick tree.
+     */
+    private static void place( int[] aPlaced, int aPosition )
+    {
+        for ( int i = aPosition + 1; i < aPlaced.length; i += i & -i )
+        {
+            aPlaced[ i ]++;
+        }
+    }
+
+    private Plan plan( EClass aClass )
+    {
+        Plan result = plans.get( aClass );
+        if ( result == null )
+        {
+            result = new Plan( aClass );
+            plans.putIfAbsent( aClass, result );
+        }
+        return result;
+    }
+}
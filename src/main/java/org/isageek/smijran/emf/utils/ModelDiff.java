@@ -0,0 +1,304 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+/**
+ * Difference of two versions of collection of {@link EObject}s. Objects are matched by key, attributes are
+ * compared only for objects with different hash of attributes by {@link Hashes}. References are compared
+ * for all matched objects: referenced object of compared version matches its counterpart of the same key,
+ * other referenced objects match by ID if they have one, by URI fragment otherwise. So objects inserted or
+ * removed before referenced sibling do not make references to it changed. Containment features are not
+ * compared, contained objects are expected in compared collections. When class of object changed, features
+ * of new class missing in old class and features of old class missing in new class are changed.
+ */
+public final class ModelDiff
+{
+    /**
+     * Object present in both versions with different content.
+     */
+    public static final class Modification
+    {
+        private final Object key;
+
+        private final EObject oldObject;
+
+        private final EObject newObject;
+
+        private final List< EStructuralFeature > features;
+
+        Modification( Object aKey, EObject aOldObject, EObject aNewObject,
+            List< EStructuralFeature > aFeatures )
+        {
+            key = aKey;
+            oldObject = aOldObject;
+            newObject = aNewObject;
+            features = Collections.unmodifiableList( aFeatures );
+        }
+
+        /**
+         * @return Key of object.
+         */
+        public Object getKey()
+        {
+            return key;
+        }
+
+        /**
+         * @return Old version of object.
+         */
+        public EObject getOldObject()
+        {
+            return oldObject;
+        }
+
+        /**
+         * @return New version of object.
+         */
+        public EObject getNewObject()
+        {
+            return newObject;
+        }
+
+        /**
+         * @return Changed features of new version of object, followed by features of old version missing in
+         *         class of new version.
+         */
+        public List< EStructuralFeature > getFeatures()
+        {
+            return features;
+        }
+
+        @Override
+        public String toString()
+        {
+            final List< String > names = features.stream().map( EStructuralFeature::getName )
+                .collect( Collectors.toList() );
+            return MoreObjects.toStringHelper( this ).add( "key", key ).add( "features", names ).toString();
+        }
+    }
+
+    private final List< EObject > added;
+
+    private final List< EObject > removed;
+
+    private final List< Modification > modified;
+
+    private ModelDiff( List< EObject > aAdded, List< EObject > aRemoved, List< Modification > aModified )
+    {
+        added = Collections.unmodifiableList( aAdded );
+        removed = Collections.unmodifiableList( aRemoved );
+        modified = Collections.unmodifiableList( aModified );
+    }
+
+    /**
+     * @return Objects of new version without object of same key in old version, in order of new version.
+     */
+    public List< EObject > getAdded()
+    {
+        return added;
+    }
+
+    /**
+     * @return Objects of old version without object of same key in new version, in order of old version.
+     */
+    public List< EObject > getRemoved()
+    {
+        return removed;
+    }
+
+    /**
+     * @return Changed objects, in order of new version.
+     */
+    public List< Modification > getModified()
+    {
+        return modified;
+    }
+
+    /**
+     * @return Whether versions do not differ.
+     */
+    public boolean isEmpty()
+    {
+        return added.isEmpty() && removed.isEmpty() && modified.isEmpty();
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper( this ).add( "added", added.size() ).add( "removed", removed.size() )
+            .add( "modified", modified.size() ).toString();
+    }
+
+    /**
+     * Computes difference in parallel.
+     *
+     * @param aOld
+     *            Old version.
+     * @param aNew
+     *            New version.
+     * @param aKey
+     *            Key of object, unique within version.
+     * @return Difference.
+     * @throws IllegalArgumentException
+     *             When key is not unique.
+     */
+    static ModelDiff compute( Collection< ? extends EObject > aOld, Collection< ? extends EObject > aNew,
+        Function< ? super EObject, ? > aKey )
+    {
+        Preconditions.checkNotNull( aOld, "Old is missing." );
+        Preconditions.checkNotNull( aNew, "New is missing." );
+        Preconditions.checkNotNull( aKey, "Key is missing." );
+        final Map< Object, EObject > olds = index( aOld, aKey );
+        final Map< Object, EObject > news = index( aNew, aKey );
+        final Map< EObject, Object > oldKeys = keys( aOld, aKey );
+        final Map< EObject, Object > newKeys = keys( aNew, aKey );
+        final List< EObject > removed = aOld.parallelStream()
+            .filter( aObject -> !news.containsKey( aKey.apply( aObject ) ) ).collect( Collectors.toList() );
+        final List< EObject > added = new ArrayList<>();
+        final List< Modification > modified = new ArrayList<>();
+        aNew.parallelStream().map( aObject ->
+        {
+            final Object key = aKey.apply( aObject );
+            final EObject old = olds.get( key );
+            return old == null ? aObject : compare( key, old, aObject, oldKeys, newKeys );
+        } ).filter( Objects::nonNull ).forEachOrdered( aResult ->
+        {
+            if ( aResult instanceof Modification )
+            {
+                modified.add( (Modification)aResult );
+            }
+            else
+            {
+                added.add( (EObject)aResult );
+            }
+        } );
+        return new ModelDiff( added, removed, modified );
+    }
+
+    private static Map< Object, EObject > index( Collection< ? extends EObject > aObjects,
+        Function< ? super EObject, ? > aKey )
+    {
+        return aObjects.parallelStream().collect( Collectors.toConcurrentMap( aKey, Function.identity(),
+            ( aFirst, aSecond ) ->
+            {
+                throw new IllegalArgumentException( "Duplicate key " + aKey.apply( aFirst ) + "." );
+            } ) );
+    }
+
+    /**
+     * @return Key of every object by object.
+     */
+    private static Map< EObject, Object > keys( Collection< ? extends EObject > aObjects,
+        Function< ? super EObject, ? > aKey )
+    {
+        return aObjects.parallelStream().collect( Collectors.toConcurrentMap( Function.identity(), aKey ) );
+    }
+
+    /**
+     * @return Modification of object or <code>null</code> if object did not change.
+     */
+    private static Modification compare( Object aKey, EObject aOld, EObject aNew,
+        Map< EObject, Object > aOldKeys, Map< EObject, Object > aNewKeys )
+    {
+        final boolean sameAttributes = Hashes.attributes( aOld ).equals( Hashes.attributes( aNew ) );
+        final List< EStructuralFeature > features = new ArrayList<>();
+        final boolean sameClass = aOld.eClass() == aNew.eClass();
+        for ( int featureID : Hashes.featureIDs( aNew.eClass() ) )
+        {
+            final EStructuralFeature feature = aNew.eClass().getEStructuralFeature( featureID );
+            final boolean attribute = feature instanceof EAttribute;
+            if ( sameAttributes && attribute )
+            {
+                continue;
+            }
+            final EStructuralFeature oldFeature = sameClass ? feature
+                : aOld.eClass().getEStructuralFeature( feature.getName() );
+            if ( oldFeature == null || attribute != oldFeature instanceof EAttribute || !same(
+                aOld.eGet( oldFeature, false ), aNew.eGet( feature, false ), aOldKeys, aNewKeys ) )
+            {
+                features.add( feature );
+            }
+        }
+        if ( !sameClass )
+        {
+            for ( int featureID : Hashes.featureIDs( aOld.eClass() ) )
+            {
+                final EStructuralFeature oldFeature = aOld.eClass().getEStructuralFeature( featureID );
+                if ( aNew.eClass().getEStructuralFeature( oldFeature.getName() ) == null )
+                {
+                    features.add( oldFeature );
+                }
+            }
+        }
+        final boolean renamed = !aOld.eClass().getName().equals( aNew.eClass().getName() );
+        return features.isEmpty() && !renamed ? null : new Modification( aKey, aOld, aNew, features );
+    }
+
+    private static boolean same( Object aOld, Object aNew, Map< EObject, Object > aOldKeys,
+        Map< EObject, Object > aNewKeys )
+    {
+        if ( aOld instanceof List && aNew instanceof List )
+        {
+            final List< ? > olds = (List< ? >)aOld;
+            final List< ? > news = (List< ? >)aNew;
+            if ( olds.size() != news.size() )
+            {
+                return false;
+            }
+            for ( int i = 0; i < olds.size(); i++ )
+            {
+                if ( !same( olds.get( i ), news.get( i ), aOldKeys, aNewKeys ) )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if ( aOld instanceof EObject && aNew instanceof EObject )
+        {
+            return same( (EObject)aOld, (EObject)aNew, aOldKeys, aNewKeys );
+        }
+        return Objects.equals( aOld, aNew );
+    }
+
+    /**
+     * @return <code>true</code> if referenced objects are counterparts of the same key, the same object
+     *         outside compared versions or objects with equal ID, or URI fragment if they have no ID.
+     */
+    private static boolean same( EObject aOld, EObject aNew, Map< EObject, Object > aOldKeys,
+        Map< EObject, Object > aNewKeys )
+    {
+        final Object oldKey = aOldKeys.get( aOld );
+        final Object newKey = aNewKeys.get( aNew );
+        if ( oldKey != null || newKey != null )
+        {
+            return Objects.equals( oldKey, newKey );
+        }
+        if ( aOld == aNew )
+        {
+            return true;
+        }
+        final String oldID = EcoreUtil.getID( aOld );
+        final String newID = EcoreUtil.getID( aNew );
+        if ( oldID != null || newID != null )
+        {
+            return Objects.equals( oldID, newID );
+        }
+        return Objects.equals( Hashes.reference( aOld ), Hashes.reference( aNew ) );
+    }
+}
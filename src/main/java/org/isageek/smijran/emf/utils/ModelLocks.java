@@ -0,0 +1,369 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Striped;
+
+/**
+ * Striped read/write locks of {@link EObject}s guarding whole containment trees, so that parallel streams
+ * can modify objects of different trees without single coarse lock. Object is guarded by lock of its root
+ * container or of its {@link Resource}, depending on {@link Scope}. Locks of several objects are acquired in
+ * stable order, so they do not deadlock. Lock is re-checked after acquisition and acquired again if object
+ * moved to another tree meanwhile. Acquisitions, contended acquisitions and waiting time are counted.
+ * <p>
+ * Locks are reentrant, but read lock can not be upgraded to write lock. Write under read lock of the same
+ * stripe, also of other tree whose root hashes to it, would wait for itself forever, so it fails with
+ * {@link IllegalStateException}. Nested locking of different stripes is not ordered and may deadlock with
+ * other thread nesting them in opposite order, locks needed together should be acquired by one
+ * {@link #write(Collection, Runnable)} or {@link #read(Collection, Supplier)}.
+ */
+public final class ModelLocks
+{
+    /**
+     * Unit guarded by one lock.
+     */
+    public enum Scope
+    {
+        /**
+         * Containment tree of root container.
+         */
+        ROOT,
+
+        /**
+         * Resource, or containment tree of root container for objects outside resource.
+         */
+        RESOURCE
+    }
+
+    private final Striped< ReadWriteLock > locks;
+
+    private final Scope scope;
+
+    private final LongAdder acquisitions = new LongAdder();
+
+    private final LongAdder contentions = new LongAdder();
+
+    private final LongAdder waitNanos = new LongAdder();
+
+    /**
+     * @param aStripes
+     *            Number of locks.
+     * @param aScope
+     *            Unit guarded by one lock.
+     */
+    ModelLocks( int aStripes, Scope aScope )
+    {
+        Preconditions.checkArgument( aStripes > 0, "Stripes must be positive." );
+        locks = Striped.readWriteLock( aStripes );
+        scope = Preconditions.checkNotNull( aScope, "Scope is missing." );
+    }
+
+    /**
+     * Wraps consumer, so that it modifies object under write lock.
+     *
+     * @param aConsumer
+     *            Consumer, e.g. one of {@link E.Consumers}.
+     * @return Locking {@link Consumer}.
+     */
+    public Consumer< EObject > writing( Consumer< ? super EObject > aConsumer )
+    {
+        Preconditions.checkNotNull( aConsumer, "Consumer is missing." );
+        return new Consumer< EObject >()
+        {
+
+            @Override
+            public void accept( EObject aObject )
+            {
+                final Lock lock = lock( aObject, true );
+                try
+                {
+                    aConsumer.accept( aObject );
+                }
+                finally
+                {
+                    lock.unlock();
+                }
+            }
+        };
+    }
+
+    /**
+     * Wraps predicate, so that it reads object under read lock.
+     *
+     * @param aPredicate
+     *            Predicate, e.g. one of {@link E.Predicates}.
+     * @return Locking {@link Predicate}.
+     */
+    public Predicate< EObject > reading( Predicate< ? super EObject > aPredicate )
+    {
+        Preconditions.checkNotNull( aPredicate, "Predicate is missing." );
+        return new Predicate< EObject >()
+        {
+
+            @Override
+            public boolean test( EObject aObject )
+            {
+                final Lock lock = lock( aObject, false );
+                try
+                {
+                    return aPredicate.test( aObject );
+                }
+                finally
+                {
+                    lock.unlock();
+                }
+            }
+        };
+    }
+
+    /**
+     * Wraps function, so that it reads object under read lock.
+     *
+     * @param aFunction
+     *            Function, e.g. one of {@link E.Functions}.
+     * @return Locking {@link Function}.
+     */
+    public < R >Function< EObject, R > reading( Function< ? super EObject, ? extends R > aFunction )
+    {
+        Preconditions.checkNotNull( aFunction, "Function is missing." );
+        return new Function< EObject, R >()
+        {
+
+            @Override
+            public R apply( EObject aObject )
+            {
+                final Lock lock = lock( aObject, false );
+                try
+                {
+                    return aFunction.apply( aObject );
+                }
+                finally
+                {
+                    lock.unlock();
+                }
+            }
+        };
+    }
+
+    /**
+     * Runs writer under write locks of all given objects, e.g. when object is moved between containment
+     * trees.
+     *
+     * @param aObjects
+     *            Objects modified by writer.
+     * @param aWriter
+     *            Code modifying objects.
+     */
+    public void write( Collection< ? extends EObject > aObjects, Runnable aWriter )
+    {
+        Preconditions.checkNotNull( aWriter, "Writer is missing." );
+        final List< Lock > acquired = acquireAll( aObjects, true );
+        try
+        {
+            aWriter.run();
+        }
+        finally
+        {
+            releaseAll( acquired );
+        }
+    }
+
+    /**
+     * Runs reader under read locks of all given objects.
+     *
+     * @param aObjects
+     *            Objects read by reader.
+     * @param aReader
+     *            Code reading objects.
+     * @return Result of reader.
+     */
+    public < R >R read( Collection< ? extends EObject > aObjects, Supplier< R > aReader )
+    {
+        Preconditions.checkNotNull( aReader, "Reader is missing." );
+        final List< Lock > acquired = acquireAll( aObjects, false );
+        try
+        {
+            return aReader.get();
+        }
+        finally
+        {
+            releaseAll( acquired );
+        }
+    }
+
+    /**
+     * @return Number of acquired locks.
+     */
+    public long getAcquisitions()
+    {
+        return acquisitions.sum();
+    }
+
+    /**
+     * @return Number of acquisitions which waited for lock.
+     */
+    public long getContentions()
+    {
+        return contentions.sum();
+    }
+
+    /**
+     * @param aUnit
+     *            Time unit.
+     * @return Total time of waiting for locks.
+     */
+    public long getWaitTime( TimeUnit aUnit )
+    {
+        return aUnit.convert( waitNanos.sum(), TimeUnit.NANOSECONDS );
+    }
+
+    /**
+     * Resets counters.
+     */
+    public void resetStatistics()
+    {
+        acquisitions.reset();
+        contentions.reset();
+        waitNanos.reset();
+    }
+
+    /**
+     * @return Root container or resource of object, depending on scope.
+     */
+    private Object key( EObject aObject )
+    {
+        final EObject root = EcoreUtil.getRootContainer( aObject );
+        if ( scope == Scope.RESOURCE )
+        {
+            final Resource resource = root.eResource();
+            if ( resource != null )
+            {
+                return resource;
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Acquires lock of object, again if its key changed before lock was acquired.
+     */
+    private Lock lock( EObject aObject, boolean aWrite )
+    {
+        while ( true )
+        {
+            final ReadWriteLock stripe = locks.get( key( aObject ) );
+            final Lock lock = acquire( stripe, aWrite );
+            if ( locks.get( key( aObject ) ) == stripe )
+            {
+                return lock;
+            }
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Acquires locks of distinct stripes in order given by {@link Striped#bulkGet(Iterable)}, again if key of
+     * any object changed to other stripe before locks were acquired.
+     */
+    private List< Lock > acquireAll( Collection< ? extends EObject > aObjects, boolean aWrite )
+    {
+        Preconditions.checkNotNull( aObjects, "Objects are missing." );
+        while ( true )
+        {
+            final List< Object > keys = new ArrayList<>( aObjects.size() );
+            for ( EObject object : aObjects )
+            {
+                keys.add( key( object ) );
+            }
+            final List< ReadWriteLock > stripes = new ArrayList<>();
+            final List< Lock > acquired = new ArrayList<>();
+            try
+            {
+                for ( ReadWriteLock stripe : locks.bulkGet( keys ) )
+                {
+                    if ( stripes.isEmpty() || stripes.get( stripes.size() - 1 ) != stripe )
+                    {
+                        acquired.add( acquire( stripe, aWrite ) );
+                        stripes.add( stripe );
+                    }
+                }
+                if ( guarded( aObjects, stripes ) )
+                {
+                    return acquired;
+                }
+            }
+            catch ( RuntimeException | Error e )
+            {
+                releaseAll( acquired );
+                throw e;
+            }
+            releaseAll( acquired );
+        }
+    }
+
+    /**
+     * @return <code>true</code> if every object is guarded by one of stripes.
+     */
+    private boolean guarded( Collection< ? extends EObject > aObjects, List< ReadWriteLock > aStripes )
+    {
+        for ( EObject object : aObjects )
+        {
+            if ( !aStripes.contains( locks.get( key( object ) ) ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void releaseAll( List< Lock > aLocks )
+    {
+        for ( int i = aLocks.size() - 1; i >= 0; i-- )
+        {
+            aLocks.get( i ).unlock();
+        }
+    }
+
+    private Lock acquire( ReadWriteLock aStripe, boolean aWrite )
+    {
+        if ( !aWrite )
+        {
+            return acquire( aStripe.readLock() );
+        }
+        if ( aStripe instanceof ReentrantReadWriteLock
+            && ( (ReentrantReadWriteLock)aStripe ).getReadHoldCount() > 0 )
+        {
+            throw new IllegalStateException( "Write lock is requested under read lock of the same stripe." );
+        }
+        return acquire( aStripe.writeLock() );
+    }
+
+    private Lock acquire( Lock aLock )
+    {
+        if ( !aLock.tryLock() )
+        {
+            contentions.increment();
+            final long start = System.nanoTime();
+            aLock.lock();
+            waitNanos.add( System.nanoTime() - start );
+        }
+        acquisitions.increment();
+        return aLock;
+    }
+}
@@ -0,0 +1,310 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+
+/**
+ * Conjunction of feature conditions executed by plan chosen by {@link QueryPlanner}. Planner picks
+ * sequential scan, parallel scan or lookup in {@link FeatureIndex} by estimated cost and evaluates clauses
+ * in order of their sampled selectivity. Query is immutable, {@link #and(EStructuralFeature, Object)} returns
+ * new query. Queries with the same clauses in any order are equal, e.g. as keys of {@link QueryCache}.
+ */
+public final class ModelQuery
+{
+    /**
+     * Kind of condition.
+     */
+    public enum Operator
+    {
+        /**
+         * Value equals to given value, many-valued feature contains it.
+         */
+        EQUAL,
+
+        /**
+         * Value is between lower bound, inclusive, and upper bound, exclusive.
+         */
+        RANGE
+    }
+
+    /**
+     * Condition on one feature.
+     */
+    public static final class Clause
+    {
+        private final EStructuralFeature feature;
+
+        private final Operator operator;
+
+        private final Object value;
+
+        private final Comparable< ? > upper;
+
+        Clause( EStructuralFeature aFeature, Operator aOperator, Object aValue, Comparable< ? > aUpper )
+        {
+            feature = aFeature;
+            operator = aOperator;
+            value = aValue;
+            upper = aUpper;
+        }
+
+        /**
+         * @return Tested feature.
+         */
+        public EStructuralFeature getFeature()
+        {
+            return feature;
+        }
+
+        /**
+         * @return Kind of condition.
+         */
+        public Operator getOperator()
+        {
+            return operator;
+        }
+
+        /**
+         * @return Compared value for {@link Operator#EQUAL}, lower bound or <code>null</code> for
+         *         {@link Operator#RANGE}.
+         */
+        public Object getValue()
+        {
+            return value;
+        }
+
+        /**
+         * @return Upper bound or <code>null</code> for {@link Operator#RANGE}.
+         */
+        public Comparable< ? > getUpper()
+        {
+            return upper;
+        }
+
+        /**
+         * Tests object.
+         *
+         * @param aObject
+         *            Object.
+         * @return <code>true</code> if object has feature and its value matches.
+         */
+        public boolean test( EObject aObject )
+        {
+            return aObject.eClass().getFeatureID( feature ) >= 0 && matches( aObject.eGet( feature ) );
+        }
+
+        @Override
+        public boolean equals( Object aObject )
+        {
+            if ( !( aObject instanceof Clause ) )
+            {
+                return false;
+            }
+            final Clause other = (Clause)aObject;
+            return feature == other.feature && operator == other.operator
+                && Objects.equal( value, other.value ) && Objects.equal( upper, other.upper );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hashCode( System.identityHashCode( feature ), operator, value, upper );
+        }
+
+        @Override
+        public String toString()
+        {
+            if ( operator == Operator.EQUAL )
+            {
+                return feature.getName() + " = " + value;
+            }
+            return feature.getName() + " in [" + ( value == null ? "" : value ) + ", "
+                + ( upper == null ? "" : upper ) + ")";
+        }
+
+        /**
+         * Tests value of feature.
+         */
+        boolean matches( Object aValue )
+        {
+            if ( feature.isMany() )
+            {
+                for ( Object element : (List< ? >)aValue )
+                {
+                    if ( matchesSingle( element ) )
+                    {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            return matchesSingle( aValue );
+        }
+
+        @SuppressWarnings( { "unchecked", "rawtypes" } )
+        private boolean matchesSingle( Object aValue )
+        {
+            if ( operator == Operator.EQUAL )
+            {
+                return Objects.equal( value, aValue );
+            }
+            if ( aValue == null )
+            {
+                return false;
+            }
+            return ( value == null || ( (Comparable)value ).compareTo( aValue ) <= 0 )
+                && ( upper == null || ( (Comparable)upper ).compareTo( aValue ) > 0 );
+        }
+    }
+
+    private final List< Clause > clauses;
+
+    /**
+     * Distinct clauses regardless of order, canonical form of conjunction.
+     */
+    private final Set< Clause > canonical;
+
+    ModelQuery( List< Clause > aClauses )
+    {
+        clauses = aClauses;
+        canonical = new HashSet<>( aClauses );
+    }
+
+    /**
+     * Adds equality condition.
+     *
+     * @param aFeature
+     *            Feature.
+     * @param aValue
+     *            Value, may be <code>null</code>.
+     * @return New query with all conditions of this one and given one.
+     */
+    public ModelQuery and( EStructuralFeature aFeature, Object aValue )
+    {
+        Preconditions.checkNotNull( aFeature, "Feature is missing." );
+        return with( new Clause( aFeature, Operator.EQUAL, aValue, null ) );
+    }
+
+    /**
+     * Adds range condition.
+     *
+     * @param aFeature
+     *            Feature with {@link Comparable} values.
+     * @param aLower
+     *            Lower bound, inclusive, <code>null</code> for no bound.
+     * @param aUpper
+     *            Upper bound, exclusive, <code>null</code> for no bound.
+     * @return New query with all conditions of this one and given one.
+     */
+    public ModelQuery andBetween( EStructuralFeature aFeature, Comparable< ? > aLower, Comparable< ? > aUpper )
+    {
+        Preconditions.checkNotNull( aFeature, "Feature is missing." );
+        return with( new Clause( aFeature, Operator.RANGE, aLower, aUpper ) );
+    }
+
+    /**
+     * @return Conditions in order of declaration.
+     */
+    public List< Clause > getClauses()
+    {
+        return clauses;
+    }
+
+    /**
+     * Plans query over collection. Indexes are not used for collections.
+     *
+     * @param aSource
+     *            Searched objects.
+     * @return Chosen plan.
+     */
+    public QueryPlan plan( Collection< ? extends EObject > aSource )
+    {
+        Preconditions.checkNotNull( aSource, "Source is missing." );
+        return QueryPlanner.plan( this, aSource );
+    }
+
+    /**
+     * Plans query over containment tree, {@link FeatureIndex}es of tree are considered.
+     *
+     * @param aRoot
+     *            {@link EObject}, {@link org.eclipse.emf.ecore.resource.Resource} or
+     *            {@link org.eclipse.emf.ecore.resource.ResourceSet}.
+     * @return Chosen plan.
+     */
+    public QueryPlan plan( Notifier aRoot )
+    {
+        Preconditions.checkNotNull( aRoot, "Root is missing." );
+        return QueryPlanner.plan( this, aRoot );
+    }
+
+    /**
+     * Executes query over collection.
+     *
+     * @param aSource
+     *            Searched objects.
+     * @return Matching objects in order of source.
+     */
+    public List< EObject > execute( Collection< ? extends EObject > aSource )
+    {
+        return plan( aSource ).execute();
+    }
+
+    /**
+     * Executes query over containment tree.
+     *
+     * @param aRoot
+     *            {@link EObject}, {@link org.eclipse.emf.ecore.resource.Resource} or
+     *            {@link org.eclipse.emf.ecore.resource.ResourceSet}.
+     * @return Matching objects, in tree order for scans.
+     */
+    public List< EObject > execute( Notifier aRoot )
+    {
+        return plan( aRoot ).execute();
+    }
+
+    /**
+     * Queries are equal if they have the same distinct clauses in any order, so equal queries match the same
+     * objects.
+     */
+    @Override
+    public boolean equals( Object aObject )
+    {
+        return aObject instanceof ModelQuery && canonical.equals( ( (ModelQuery)aObject ).canonical );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return canonical.hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder result = new StringBuilder();
+        for ( Clause clause : clauses )
+        {
+            result.append( result.length() == 0 ? "" : " and " ).append( clause );
+        }
+        return result.toString();
+    }
+
+    private ModelQuery with( Clause aClause )
+    {
+        final List< Clause > result = new ArrayList<>( clauses.size() + 1 );
+        result.addAll( clauses );
+        result.add( aClause );
+        return new ModelQuery( Collections.unmodifiableList( result ) );
+    }
+}
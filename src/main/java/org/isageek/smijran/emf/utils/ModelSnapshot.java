@@ -0,0 +1,166 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+/**
+ * Consistent immutable state of model in one version of {@link ModelVersions}. Snapshot reads only immutable
+ * rows, so it can be read by any number of threads while model is modified. Objects of snapshot are
+ * accessed through read-only views, which can be queried by {@link E.Predicates} and {@link E.Functions}.
+ * Referenced objects which are not in snapshot are returned as they are.
+ */
+public final class ModelSnapshot implements AutoCloseable
+{
+    private final ModelVersions versions;
+
+    private final long version;
+
+    private final Map< EObject, SnapshotEObject > views = new ConcurrentHashMap<>();
+
+    private volatile boolean closed;
+
+    ModelSnapshot( ModelVersions aVersions, long aVersion )
+    {
+        versions = aVersions;
+        version = aVersion;
+    }
+
+    /**
+     * @return Version of model.
+     */
+    public long getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * @param aObject
+     *            Live object or its view.
+     * @return <code>true</code> if object was in containment tree in this version.
+     */
+    public boolean contains( EObject aObject )
+    {
+        final ModelVersions.Row row = versions.row( original( aObject ), version );
+        return row != null && row.values != null;
+    }
+
+    /**
+     * Reads value of feature in this version. Objects in value are replaced by their views.
+     *
+     * @param aObject
+     *            Live object or its view.
+     * @param aFeature
+     *            Feature which is not derived.
+     * @return Value of feature, list of many-valued feature is unmodifiable.
+     * @throws IllegalArgumentException
+     *             When object is not in snapshot or feature is derived or does not belong to its class.
+     * @throws IllegalStateException
+     *             When snapshot is closed.
+     */
+    public Object get( EObject aObject, EStructuralFeature aFeature )
+    {
+        Preconditions.checkNotNull( aFeature, "Feature is missing." );
+        Preconditions.checkArgument( !aFeature.isDerived(), "Derived feature %s is not versioned.",
+            aFeature.getName() );
+        final EObject original = original( aObject );
+        final int id = original.eClass().getFeatureID( aFeature );
+        Preconditions.checkArgument( id >= 0, "Feature %s does not belong to object class.",
+            aFeature.getName() );
+        return wrap( row( original ).value( id ) );
+    }
+
+    /**
+     * @param aObject
+     *            Live object.
+     * @return Read-only view of object in this version or object itself if it is not in snapshot.
+     */
+    public EObject view( EObject aObject )
+    {
+        Preconditions.checkNotNull( aObject, "Object is missing." );
+        if ( aObject instanceof SnapshotEObject || !contains( aObject ) )
+        {
+            return aObject;
+        }
+        return views.computeIfAbsent( aObject, aKey -> new SnapshotEObject( this, aKey ) );
+    }
+
+    /**
+     * @return Views of all objects of snapshot in no particular order.
+     */
+    public Stream< EObject > objects()
+    {
+        checkOpen();
+        return versions.objects( version ).map( this::view );
+    }
+
+    /**
+     * Releases rows of this version. Snapshot must not be read after it is closed.
+     */
+    @Override
+    public void close()
+    {
+        if ( !closed )
+        {
+            closed = true;
+            versions.release( version );
+        }
+    }
+
+    /**
+     * @return View of container of object or <code>null</code> if object is root.
+     */
+    EObject container( EObject aObject )
+    {
+        final EObject container = row( aObject ).container;
+        return container == null ? null : view( container );
+    }
+
+    /**
+     * @return Containment feature of object or <code>null</code> if object is root.
+     */
+    EReference containment( EObject aObject )
+    {
+        return row( aObject ).containment;
+    }
+
+    private ModelVersions.Row row( EObject aObject )
+    {
+        checkOpen();
+        final ModelVersions.Row row = versions.row( aObject, version );
+        Preconditions.checkArgument( row != null && row.values != null, "Object is not in snapshot." );
+        return row;
+    }
+
+    private Object wrap( Object aValue )
+    {
+        if ( aValue instanceof EObject )
+        {
+            return view( (EObject)aValue );
+        }
+        if ( aValue instanceof List )
+        {
+            return Lists.transform( (List< ? >)aValue, this::wrap );
+        }
+        return aValue;
+    }
+
+    private void checkOpen()
+    {
+        Preconditions.checkState( !closed, "Snapshot is closed." );
+    }
+
+    private static EObject original( EObject aObject )
+    {
+        Preconditions.checkNotNull( aObject, "Object is missing." );
+        return aObject instanceof SnapshotEObject ? ( (SnapshotEObject)aObject ).getOriginal() : aObject;
+    }
+}
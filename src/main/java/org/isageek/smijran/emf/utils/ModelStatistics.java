@@ -0,0 +1,206 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collector;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Statistics of attribute values of objects, per {@link EClass} and attribute, collected in single pass by
+ * {@link E.Statistics}. Memory used during collection is bounded per class and attribute, independent of
+ * number of objects.
+ */
+public final class ModelStatistics
+{
+    /**
+     * Sketches of one part of objects, merged by parallel collection.
+     */
+    static final class Accumulator
+    {
+        private final int buckets;
+
+        private final int top;
+
+        private final Map< EClass, ClassSketch > classes = new HashMap<>();
+
+        Accumulator( int aBuckets, int aTop )
+        {
+            buckets = aBuckets;
+            top = aTop;
+        }
+
+        void add( EObject aObject )
+        {
+            final EClass eClass = aObject.eClass();
+            ClassSketch sketch = classes.get( eClass );
+            if ( sketch == null )
+            {
+                sketch = new ClassSketch( eClass, buckets, top );
+                classes.put( eClass, sketch );
+            }
+            sketch.add( aObject );
+        }
+
+        Accumulator merge( Accumulator aOther )
+        {
+            aOther.classes.forEach( ( aClass, aSketch ) -> {
+                final ClassSketch sketch = classes.putIfAbsent( aClass, aSketch );
+                if ( sketch != null )
+                {
+                    sketch.merge( aSketch );
+                }
+            } );
+            return this;
+        }
+
+        ModelStatistics finish()
+        {
+            final Map< EClass, Long > counts = new LinkedHashMap<>();
+            final Map< EClass, Map< EAttribute, FeatureStatistics > > features = new LinkedHashMap<>();
+            classes.forEach( ( aClass, aSketch ) -> {
+                counts.put( aClass, aSketch.count );
+                final Map< EAttribute, FeatureStatistics > statistics = new LinkedHashMap<>();
+                for ( int i = 0; i < aSketch.attributes.length; i++ )
+                {
+                    statistics.put( aSketch.attributes[ i ], aSketch.sketches[ i ].toStatistics() );
+                }
+                features.put( aClass, Collections.unmodifiableMap( statistics ) );
+            } );
+            return new ModelStatistics( counts, features );
+        }
+    }
+
+    private static final class ClassSketch
+    {
+        final EAttribute[] attributes;
+
+        final FeatureSketch[] sketches;
+
+        long count;
+
+        ClassSketch( EClass aClass, int aBuckets, int aTop )
+        {
+            attributes = aClass.getEAllAttributes().toArray( new EAttribute[ 0 ] );
+            sketches = new FeatureSketch[ attributes.length ];
+            for ( int i = 0; i < attributes.length; i++ )
+            {
+                sketches[ i ] = new FeatureSketch( attributes[ i ], aBuckets, aTop );
+            }
+        }
+
+        void add( EObject aObject )
+        {
+            count++;
+            for ( int i = 0; i < attributes.length; i++ )
+            {
+                final Object value = aObject.eGet( attributes[ i ] );
+                if ( !attributes[ i ].isMany() )
+                {
+                    sketches[ i ].add( value );
+                }
+                else if ( ( (List< ? >)value ).isEmpty() )
+                {
+                    sketches[ i ].addEmpty();
+                }
+                else
+                {
+                    for ( Object element : (List< ? >)value )
+                    {
+                        sketches[ i ].add( element );
+                    }
+                }
+            }
+        }
+
+        void merge( ClassSketch aOther )
+        {
+            count += aOther.count;
+            for ( int i = 0; i < sketches.length; i++ )
+            {
+                sketches[ i ].merge( aOther.sketches[ i ] );
+            }
+        }
+    }
+
+    private final Map< EClass, Long > counts;
+
+    private final Map< EClass, Map< EAttribute, FeatureStatistics > > features;
+
+    ModelStatistics( Map< EClass, Long > aCounts,
+        Map< EClass, Map< EAttribute, FeatureStatistics > > aFeatures )
+    {
+        counts = aCounts;
+        features = aFeatures;
+    }
+
+    /**
+     * @param aBuckets
+     *            Number of histogram buckets.
+     * @param aTop
+     *            Number of frequent values.
+     * @return {@link Collector} of statistics, objects can be collected in parallel.
+     */
+    static Collector< EObject, ?, ModelStatistics > collector( int aBuckets, int aTop )
+    {
+        return Collector.of( () -> new Accumulator( aBuckets, aTop ), Accumulator::add, Accumulator::merge,
+            Accumulator::finish );
+    }
+
+    /**
+     * @return Classes of collected objects.
+     */
+    public Set< EClass > getClasses()
+    {
+        return Collections.unmodifiableSet( counts.keySet() );
+    }
+
+    /**
+     * @param aClass
+     *            Class.
+     * @return Number of collected objects of class, subclasses are counted separately.
+     */
+    public long getCount( EClass aClass )
+    {
+        final Long result = counts.get( aClass );
+        return result == null ? 0 : result;
+    }
+
+    /**
+     * @param aClass
+     *            Class.
+     * @return Statistics by attribute of class, empty if no object of class was collected.
+     */
+    public Map< EAttribute, FeatureStatistics > getFeatures( EClass aClass )
+    {
+        final Map< EAttribute, FeatureStatistics > result = features.get( aClass );
+        return result == null ? Collections.emptyMap() : result;
+    }
+
+    /**
+     * @param aClass
+     *            Class.
+     * @param aAttribute
+     *            Attribute of class.
+     * @return Statistics or <code>null</code> if no object of class was collected.
+     */
+    public FeatureStatistics get( EClass aClass, EAttribute aAttribute )
+    {
+        return getFeatures( aClass ).get( aAttribute );
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper( this ).add( "counts", counts ).add( "features", features )
+            .toString();
+    }
+}
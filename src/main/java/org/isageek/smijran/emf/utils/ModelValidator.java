@@ -0,0 +1,305 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.MapMaker;
+
+/**
+ * Constraint engine, parallel replacement of {@link org.eclipse.emf.ecore.util.Diagnostician} for large
+ * models. Constraints are {@link Predicate}s, e.g. combinations of {@link E.Predicates}, which hold for valid
+ * instances of given {@link EClass} and its subclasses. Objects of containment tree are split into contiguous
+ * partitions in containment order which are validated in parallel, results of partitions are concatenated in
+ * the same order. Partition stops once violations found in it and in partitions before it reach given
+ * limit, so reported violations are always the first ones in containment order. Validator is immutable,
+ * {@link #rule(EClass, String, Predicate)} returns new validator.
+ */
+public final class ModelValidator
+{
+    /**
+     * Named constraint of one class.
+     */
+    public static final class Rule
+    {
+        private final int code;
+
+        private final EClass eClass;
+
+        private final String name;
+
+        private final Predicate< ? super EObject > predicate;
+
+        Rule( int aCode, EClass aClass, String aName, Predicate< ? super EObject > aPredicate )
+        {
+            code = aCode;
+            eClass = aClass;
+            name = aName;
+            predicate = aPredicate;
+        }
+
+        /**
+         * @return Position of rule in validator, used as diagnostic code.
+         */
+        public int getCode()
+        {
+            return code;
+        }
+
+        /**
+         * @return Constrained class, rule applies to its subclasses too.
+         */
+        public EClass getEClass()
+        {
+            return eClass;
+        }
+
+        /**
+         * @return Name of rule.
+         */
+        public String getName()
+        {
+            return name;
+        }
+
+        /**
+         * @param aObject
+         *            Instance of constrained class.
+         * @return <code>true</code> if object satisfies rule.
+         */
+        public boolean test( EObject aObject )
+        {
+            return predicate.test( aObject );
+        }
+
+        @Override
+        public String toString()
+        {
+            return eClass.getName() + "::" + name;
+        }
+    }
+
+    /**
+     * Number of objects validated by one task.
+     */
+    static final int PARTITION_SIZE = 1 << 10;
+
+    /**
+     * Number of objects between checks of violations found by preceding partitions.
+     */
+    private static final int CHECK_INTERVAL = 1 << 6;
+
+    private final List< Rule > rules;
+
+    private final int maxErrors;
+
+    /**
+     * Applicable rules by class of validated object.
+     */
+    private final ConcurrentMap< EClass, Rule[] > classRules = new MapMaker().weakKeys().makeMap();
+
+    ModelValidator( List< Rule > aRules, int aMaxErrors )
+    {
+        rules = aRules;
+        maxErrors = aMaxErrors;
+    }
+
+    /**
+     * Adds rule.
+     *
+     * @param aClass
+     *            Constrained class, rule applies to its subclasses too.
+     * @param aName
+     *            Name of rule.
+     * @param aPredicate
+     *            Predicate which holds for valid objects, e.g. one of {@link E.Predicates}.
+     * @return New validator.
+     */
+    public ModelValidator rule( EClass aClass, String aName, Predicate< ? super EObject > aPredicate )
+    {
+        Preconditions.checkNotNull( aClass, "Class is missing." );
+        Preconditions.checkNotNull( aName, "Name is missing." );
+        Preconditions.checkNotNull( aPredicate, "Predicate is missing." );
+        final List< Rule > result = new ArrayList<>( rules );
+        result.add( new Rule( rules.size(), aClass, aName, aPredicate ) );
+        return new ModelValidator( Collections.unmodifiableList( result ), maxErrors );
+    }
+
+    /**
+     * Limits number of reported violations, validation stops when the first violations up to limit in order
+     * of objects are found.
+     *
+     * @param aMaxErrors
+     *            Positive limit, {@link Integer#MAX_VALUE} for no limit.
+     * @return New validator.
+     */
+    public ModelValidator limit( int aMaxErrors )
+    {
+        Preconditions.checkArgument( aMaxErrors > 0, "Limit is not positive." );
+        return new ModelValidator( rules, aMaxErrors );
+    }
+
+    /**
+     * @return Rules in order of addition.
+     */
+    public List< Rule > getRules()
+    {
+        return rules;
+    }
+
+    /**
+     * @return Maximal number of reported violations.
+     */
+    public int getMaxErrors()
+    {
+        return maxErrors;
+    }
+
+    /**
+     * Validates all objects of containment tree.
+     *
+     * @param aRoot
+     *            {@link EObject}, {@link org.eclipse.emf.ecore.resource.Resource} or
+     *            {@link org.eclipse.emf.ecore.resource.ResourceSet}.
+     * @return Violations in containment order, at most {@link #getMaxErrors()}.
+     */
+    public ValidationResult validate( Notifier aRoot )
+    {
+        Preconditions.checkNotNull( aRoot, "Root is missing." );
+        final List< EObject > objects = new ArrayList<>();
+        ContentObserver.forEachObject( aRoot, objects::add );
+        return validate( objects );
+    }
+
+    /**
+     * Validates objects, not their contents.
+     *
+     * @param aObjects
+     *            Objects.
+     * @return Violations in order of objects, at most {@link #getMaxErrors()}.
+     */
+    public ValidationResult validate( Collection< ? extends EObject > aObjects )
+    {
+        final EObject[] objects = aObjects.toArray( new EObject[ aObjects.size() ] );
+        final int partitions = ( objects.length + PARTITION_SIZE - 1 ) / PARTITION_SIZE;
+        final AtomicIntegerArray found = new AtomicIntegerArray( partitions );
+        final AtomicBoolean truncated = new AtomicBoolean();
+        final IntStream range = IntStream.range( 0, partitions );
+        final List< ValidationResult.Violation > violations = ( partitions > 1 ? range.parallel() : range )
+            .mapToObj( aPartition -> validate( objects, aPartition, found, truncated ) )
+            .flatMap( List::stream ).collect( Collectors.toList() );
+        if ( violations.size() > maxErrors )
+        {
+            violations.subList( maxErrors, violations.size() ).clear();
+            truncated.set( true );
+        }
+        return new ValidationResult( violations, objects.length, truncated.get() );
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper( this ).add( "rules", rules ).add( "maxErrors", maxErrors )
+            .toString();
+    }
+
+    /**
+     * Validates one object by all applicable rules.
+     *
+     * @param aObject
+     *            Object.
+     * @return Violations, empty if object is valid.
+     */
+    List< ValidationResult.Violation > check( EObject aObject )
+    {
+        List< ValidationResult.Violation > result = Collections.emptyList();
+        for ( Rule rule : rulesOf( aObject.eClass() ) )
+        {
+            if ( !rule.test( aObject ) )
+            {
+                if ( result.isEmpty() )
+                {
+                    result = new ArrayList<>( 2 );
+                }
+                result.add( new ValidationResult.Violation( aObject, rule ) );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Validates partition until violations found in it and in preceding partitions reach limit. Counts of
+     * unfinished preceding partitions only grow, so the first violations up to limit are never skipped.
+     *
+     * @param aFound
+     *            Number of violations found by every partition so far.
+     */
+    private List< ValidationResult.Violation > validate( EObject[] aObjects, int aPartition,
+        AtomicIntegerArray aFound, AtomicBoolean aTruncated )
+    {
+        final int from = aPartition * PARTITION_SIZE;
+        final int to = Math.min( aObjects.length, from + PARTITION_SIZE );
+        final List< ValidationResult.Violation > result = new ArrayList<>();
+        boolean check = true;
+        for ( int i = from; i < to; i++ )
+        {
+            if ( ( check || ( i - from ) % CHECK_INTERVAL == 0 )
+                && result.size() + preceding( aFound, aPartition ) >= maxErrors )
+            {
+                aTruncated.set( true );
+                break;
+            }
+            final List< ValidationResult.Violation > violations = check( aObjects[ i ] );
+            check = !violations.isEmpty();
+            if ( check )
+            {
+                result.addAll( violations );
+                aFound.set( aPartition, result.size() );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return Number of violations found so far by partitions before given one.
+     */
+    private static int preceding( AtomicIntegerArray aFound, int aPartition )
+    {
+        long result = 0;
+        for ( int i = 0; i < aPartition; i++ )
+        {
+            result += aFound.get( i );
+        }
+        return (int)Math.min( Integer.MAX_VALUE, result );
+    }
+
+    private Rule[] rulesOf( EClass aClass )
+    {
+        Rule[] result = classRules.get( aClass );
+        if ( result == null )
+        {
+            result = rules.stream()
+                .filter( aRule -> aRule.eClass == aClass || aRule.eClass.isSuperTypeOf( aClass ) )
+                .toArray( Rule[]::new );
+            final Rule[] present = classRules.putIfAbsent( aClass, result );
+            if ( present != null )
+            {
+                result = present;
+            }
+        }
+        return result;
+    }
+}
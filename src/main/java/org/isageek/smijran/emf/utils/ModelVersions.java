@@ -0,0 +1,474 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Versioned immutable copies of feature values of all objects of containment tree, giving readers consistent
+ * {@link ModelSnapshot}s while model is modified. Every change creates new immutable row of changed object
+ * and publishes new version, readers of snapshot read rows of its version and never touch live objects, so
+ * they run in any thread without locking. Rows older than oldest open snapshot are pruned.
+ * <p>
+ * Change copies only the changed value: rows keep values in chunks and share unchanged chunks with previous
+ * row, values of many-valued features share storage with their previous versions when elements are added at
+ * the end, so adding elements one by one costs amortized constant time. Other list changes copy the changed
+ * list. Current values of all objects are copied once when versions are created, because readers never read
+ * live objects.
+ * <p>
+ * Model must be modified by one thread at a time. Changes made within {@link #write(Runnable)} are published
+ * as one version. Values of derived features are not versioned. Data values are shared with model, they are
+ * expected to be immutable.
+ */
+public final class ModelVersions implements AutoCloseable
+{
+    /**
+     * Feature values of object valid from version until version of next row.
+     */
+    static final class Row
+    {
+        final long version;
+
+        final EObject container;
+
+        final EReference containment;
+
+        /**
+         * Values by feature id in chunks of {@link ModelVersions#CHUNK} values, <code>null</code> if object
+         * left containment tree.
+         */
+        final Object[][] values;
+
+        volatile Row previous;
+
+        /**
+         * Minimum version when row was pushed, rows below it are already dropped up to it.
+         */
+        long floor = -1;
+
+        Row( long aVersion, EObject aContainer, EReference aContainment, Object[][] aValues, Row aPrevious )
+        {
+            version = aVersion;
+            container = aContainer;
+            containment = aContainment;
+            values = aValues;
+            previous = aPrevious;
+        }
+
+        /**
+         * @return Value of feature with given id.
+         */
+        Object value( int aFeatureID )
+        {
+            return values[ aFeatureID >>> SHIFT ][ aFeatureID & CHUNK - 1 ];
+        }
+    }
+
+    /**
+     * Immutable value of many-valued feature. Storage is shared by versions of list, version appended to the
+     * latest one writes after its elements, which are never overwritten, so older versions are not affected.
+     */
+    private static final class ValueList extends AbstractList< Object > implements RandomAccess
+    {
+        private static final class Storage
+        {
+            final Object[] elements;
+
+            /**
+             * Number of elements written, accessed by writer only.
+             */
+            int length;
+
+            Storage( Object[] aElements, int aLength )
+            {
+                elements = aElements;
+                length = aLength;
+            }
+        }
+
+        private final Storage storage;
+
+        private final int size;
+
+        private ValueList( Storage aStorage, int aSize )
+        {
+            storage = aStorage;
+            size = aSize;
+        }
+
+        static ValueList copyOf( List< ? > aList )
+        {
+            final Object[] elements = aList.toArray();
+            return new ValueList( new Storage( elements, elements.length ), elements.length );
+        }
+
+        /**
+         * @return New version with elements added at the end, in amortized constant time per element when this
+         *         is the latest version.
+         */
+        ValueList append( Collection< ? > aElements )
+        {
+            final int length = size + aElements.size();
+            Storage target = storage;
+            if ( target.length != size || length > target.elements.length )
+            {
+                final Object[] elements = new Object[ Math.max( length, size * 2 ) ];
+                System.arraycopy( storage.elements, 0, elements, 0, size );
+                target = new Storage( elements, size );
+            }
+            int i = size;
+            for ( Object element : aElements )
+            {
+                target.elements[ i++ ] = element;
+            }
+            target.length = length;
+            return new ValueList( target, length );
+        }
+
+        @Override
+        public Object get( int aIndex )
+        {
+            Preconditions.checkElementIndex( aIndex, size );
+            return storage.elements[ aIndex ];
+        }
+
+        @Override
+        public int size()
+        {
+            return size;
+        }
+    }
+
+    private static final int SHIFT = 3;
+
+    /**
+     * Number of values of row chunk, the least unit of copying.
+     */
+    private static final int CHUNK = 1 << SHIFT;
+
+    private final Notifier root;
+
+    private final Map< EObject, Row > heads = new ConcurrentHashMap<>();
+
+    /**
+     * Numbers of open snapshots by version, guarded by itself.
+     */
+    private final TreeMap< Long, Integer > snapshots = new TreeMap<>();
+
+    /**
+     * Objects which left tree with their last rows in order of removal, accessed by writer only.
+     */
+    private final ArrayDeque< Map.Entry< EObject, Row > > removals = new ArrayDeque<>();
+
+    private volatile long version;
+
+    private long minimum;
+
+    private int writes;
+
+    private boolean dirty;
+
+    private final ContentObserver observer = new ContentObserver()
+    {
+        @Override
+        public void notifyChanged( Notification aNotification )
+        {
+            beginWrite();
+            try
+            {
+                super.notifyChanged( aNotification );
+            }
+            finally
+            {
+                endWrite();
+            }
+        }
+
+        @Override
+        protected void changed( Notification aNotification )
+        {
+            if ( aNotification.getNotifier() instanceof EObject
+                && aNotification.getFeature() instanceof EStructuralFeature )
+            {
+                update( (EObject)aNotification.getNotifier(), (EStructuralFeature)aNotification.getFeature(),
+                    aNotification );
+            }
+        }
+
+        @Override
+        protected void added( EObject aObject )
+        {
+            capture( aObject );
+        }
+
+        @Override
+        protected void removed( EObject aObject )
+        {
+            final Row row = new Row( version + 1, null, null, null, heads.get( aObject ) );
+            push( aObject, row );
+            removals.add( new AbstractMap.SimpleImmutableEntry<>( aObject, row ) );
+        }
+    };
+
+    /**
+     * Creates versions of current model and starts observing it.
+     *
+     * @param aRoot
+     *            {@link EObject}, {@link org.eclipse.emf.ecore.resource.Resource} or
+     *            {@link org.eclipse.emf.ecore.resource.ResourceSet}.
+     */
+    ModelVersions( Notifier aRoot )
+    {
+        root = Preconditions.checkNotNull( aRoot, "Root is missing." );
+        ContentObserver.forEachObject( aRoot, this::capture );
+        dirty = false;
+        version++;
+        observer.attach( aRoot );
+    }
+
+    /**
+     * Opens snapshot of latest published version. Snapshot must be closed, otherwise rows of its version are
+     * kept.
+     *
+     * @return New snapshot.
+     */
+    public ModelSnapshot snapshot()
+    {
+        synchronized ( snapshots )
+        {
+            final long current = version;
+            snapshots.merge( current, 1, Integer::sum );
+            return new ModelSnapshot( this, current );
+        }
+    }
+
+    /**
+     * Runs writer and publishes all its changes as one version.
+     *
+     * @param aWriter
+     *            Code modifying model.
+     */
+    public void write( Runnable aWriter )
+    {
+        Preconditions.checkNotNull( aWriter, "Writer is missing." );
+        beginWrite();
+        try
+        {
+            aWriter.run();
+        }
+        finally
+        {
+            endWrite();
+        }
+    }
+
+    /**
+     * @return Latest published version.
+     */
+    public long getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Stops observing model. Open snapshots stay readable.
+     */
+    @Override
+    public void close()
+    {
+        observer.detach( root );
+    }
+
+    /**
+     * @return Stream of objects present in given version.
+     */
+    Stream< EObject > objects( long aVersion )
+    {
+        return heads.keySet().stream().filter( aObject ->
+        {
+            final Row row = row( aObject, aVersion );
+            return row != null && row.values != null;
+        } );
+    }
+
+    /**
+     * @return Row of object valid in given version or <code>null</code> if object was not observed then.
+     */
+    Row row( EObject aObject, long aVersion )
+    {
+        Row row = heads.get( aObject );
+        while ( row != null && row.version > aVersion )
+        {
+            row = row.previous;
+        }
+        return row;
+    }
+
+    /**
+     * Called by closed snapshot.
+     */
+    void release( long aVersion )
+    {
+        synchronized ( snapshots )
+        {
+            snapshots.computeIfPresent( aVersion, ( aKey, aCount ) -> aCount == 1 ? null : aCount - 1 );
+        }
+    }
+
+    private void beginWrite()
+    {
+        if ( writes++ == 0 )
+        {
+            updateMinimum();
+        }
+    }
+
+    private void endWrite()
+    {
+        if ( --writes > 0 || !dirty )
+        {
+            return;
+        }
+        dirty = false;
+        version++;
+        updateMinimum();
+        while ( !removals.isEmpty() && removals.peek().getValue().version <= minimum )
+        {
+            final Map.Entry< EObject, Row > removal = removals.poll();
+            heads.remove( removal.getKey(), removal.getValue() );
+        }
+    }
+
+    /**
+     * Finds oldest version which can be read, no snapshot of older version can be opened later.
+     */
+    private void updateMinimum()
+    {
+        synchronized ( snapshots )
+        {
+            minimum = snapshots.isEmpty() ? version : snapshots.firstKey();
+        }
+    }
+
+    /**
+     * Pushes row with changed value, sharing other chunks of values with head row.
+     */
+    private void update( EObject aObject, EStructuralFeature aFeature, Notification aNotification )
+    {
+        final Row head = heads.get( aObject );
+        if ( head == null || head.values == null || aFeature.isDerived() )
+        {
+            return;
+        }
+        final int id = aObject.eClass().getFeatureID( aFeature );
+        final Object[][] values = head.values.clone();
+        final Object[] chunk = values[ id >>> SHIFT ].clone();
+        chunk[ id & CHUNK - 1 ] = value( aObject, aFeature, aNotification, head.value( id ) );
+        values[ id >>> SHIFT ] = chunk;
+        push( aObject, new Row( version + 1, head.container, head.containment, values, head ) );
+    }
+
+    private void capture( EObject aObject )
+    {
+        final EClass eClass = aObject.eClass();
+        final int count = eClass.getFeatureCount();
+        final Object[][] values = new Object[ ( count + CHUNK - 1 ) >>> SHIFT ][];
+        for ( int i = 0; i < values.length; i++ )
+        {
+            values[ i ] = new Object[ Math.min( CHUNK, count - ( i << SHIFT ) ) ];
+        }
+        for ( EStructuralFeature feature : eClass.getEAllStructuralFeatures() )
+        {
+            if ( !feature.isDerived() )
+            {
+                final int id = eClass.getFeatureID( feature );
+                values[ id >>> SHIFT ][ id & CHUNK - 1 ] = value( aObject, feature );
+            }
+        }
+        push( aObject, new Row( version + 1, aObject.eContainer(), aObject.eContainmentFeature(), values,
+            heads.get( aObject ) ) );
+    }
+
+    /**
+     * Makes row head of object and drops rows which no open snapshot can read. Row replaces head of the same
+     * unpublished version.
+     */
+    private void push( EObject aObject, Row aRow )
+    {
+        final Row previous = aRow.previous;
+        if ( previous != null && previous.version == aRow.version )
+        {
+            aRow.previous = previous.previous;
+        }
+        if ( previous == null || previous.floor != minimum )
+        {
+            for ( Row row = aRow.previous; row != null; row = row.previous )
+            {
+                if ( row.version <= minimum )
+                {
+                    row.previous = null;
+                    break;
+                }
+            }
+        }
+        aRow.floor = minimum;
+        heads.put( aObject, aRow );
+        dirty = true;
+    }
+
+    private static Object value( EObject aObject, EStructuralFeature aFeature )
+    {
+        final Object value = aObject.eGet( aFeature, false );
+        if ( aFeature.isMany() && value instanceof List )
+        {
+            return ValueList.copyOf( (List< ? >)value );
+        }
+        return value;
+    }
+
+    /**
+     * @return Value after change, elements added at the end of list are appended to its previous version.
+     */
+    private static Object value( EObject aObject, EStructuralFeature aFeature, Notification aNotification,
+        Object aPrevious )
+    {
+        final Object value = aObject.eGet( aFeature, false );
+        if ( !aFeature.isMany() || !( value instanceof List ) )
+        {
+            return value;
+        }
+        final List< ? > list = (List< ? >)value;
+        final int position = aNotification.getPosition();
+        if ( aPrevious instanceof ValueList && position == ( (ValueList)aPrevious ).size() )
+        {
+            final ValueList previous = (ValueList)aPrevious;
+            if ( aNotification.getEventType() == Notification.ADD && list.size() == position + 1 )
+            {
+                return previous.append( Collections.singletonList( aNotification.getNewValue() ) );
+            }
+            if ( aNotification.getEventType() == Notification.ADD_MANY
+                && list.size() == position + ( (Collection< ? >)aNotification.getNewValue() ).size() )
+            {
+                return previous.append( (Collection< ? >)aNotification.getNewValue() );
+            }
+        }
+        return ValueList.copyOf( list );
+    }
+}
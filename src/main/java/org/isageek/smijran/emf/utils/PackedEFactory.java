@@ -0,0 +1,41 @@
+package org.isageek.smijran.emf.utils;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.impl.EFactoryImpl;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Factory of dynamic {@link EPackage} which creates {@link PackedEObject}s instead of
+ * {@link org.eclipse.emf.ecore.impl.DynamicEObjectImpl}s. Map entry classes are created as by default.
+ */
+public class PackedEFactory extends EFactoryImpl
+{
+    /**
+     * Installs new factory as factory instance of package, so that objects loaded or created for package are
+     * packed.
+     *
+     * @param aPackage
+     *            Dynamic package.
+     * @return Installed factory.
+     */
+    public static PackedEFactory install( EPackage aPackage )
+    {
+        Preconditions.checkNotNull( aPackage, "Package is missing." );
+        final PackedEFactory factory = new PackedEFactory();
+        aPackage.setEFactoryInstance( factory );
+        return factory;
+    }
+
+    @Override
+    protected EObject basicCreate( EClass aClass )
+    {
+        if ( "java.util.Map$Entry".equals( aClass.getInstanceClassName() ) )
+        {
+            return super.basicCreate( aClass );
+        }
+        return new PackedEObject( aClass );
+    }
+}
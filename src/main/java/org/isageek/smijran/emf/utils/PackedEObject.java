@@ -0,0 +1,351 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.impl.DynamicEObjectImpl;
+import org.eclipse.emf.ecore.impl.ENotificationImpl;
+
+import com.google.common.collect.MapMaker;
+
+/**
+ * Dynamic {@link org.eclipse.emf.ecore.EObject} which stores single-valued attributes of primitive types
+ * unboxed in one <code>long[]</code>, laid out once per {@link EClass}. Other features are stored by
+ * {@link DynamicEObjectImpl}. Primitive values are read without boxing by {@link PrimitiveEObject} accessors,
+ * they are boxed only by reflective {@link #eGet(EStructuralFeature)} and for notifications. Created by
+ * {@link PackedEFactory}.
+ */
+public class PackedEObject extends DynamicEObjectImpl implements PrimitiveEObject
+{
+    /**
+     * Slots of primitive attributes of class.
+     */
+    static final class Layout
+    {
+        static final byte OTHER = 0;
+
+        static final byte BOOLEAN = 1;
+
+        static final byte BYTE = 2;
+
+        static final byte CHAR = 3;
+
+        static final byte SHORT = 4;
+
+        static final byte INT = 5;
+
+        static final byte LONG = 6;
+
+        static final byte FLOAT = 7;
+
+        static final byte DOUBLE = 8;
+
+        /**
+         * Slot by feature id, <code>-1</code> for features stored by {@link DynamicEObjectImpl}.
+         */
+        final int[] slots;
+
+        /**
+         * Kind by feature id.
+         */
+        final byte[] kinds;
+
+        /**
+         * Whether attribute is unsettable, by feature id.
+         */
+        final boolean[] unsettable;
+
+        /**
+         * Encoded default values by slot.
+         */
+        final long[] defaults;
+
+        Layout( EClass aClass )
+        {
+            final int count = aClass.getFeatureCount();
+            slots = new int[ count ];
+            kinds = new byte[ count ];
+            unsettable = new boolean[ count ];
+            final long[] defaults = new long[ count ];
+            int size = 0;
+            for ( int id = 0; id < count; id++ )
+            {
+                final EStructuralFeature feature = aClass.getEStructuralFeature( id );
+                final byte kind = feature.isMany() || feature.getEType() == null ? OTHER
+                    : kind( feature.getEType().getInstanceClass() );
+                kinds[ id ] = kind;
+                unsettable[ id ] = feature.isUnsettable();
+                if ( kind == OTHER )
+                {
+                    slots[ id ] = -1;
+                }
+                else
+                {
+                    slots[ id ] = size;
+                    final Object value = feature.getDefaultValue();
+                    defaults[ size++ ] = value == null ? 0 : encode( kind, value );
+                }
+            }
+            this.defaults = Arrays.copyOf( defaults, size );
+        }
+
+        private static byte kind( Class< ? > aClass )
+        {
+            if ( aClass == int.class )
+            {
+                return INT;
+            }
+            if ( aClass == long.class )
+            {
+                return LONG;
+            }
+            if ( aClass == double.class )
+            {
+                return DOUBLE;
+            }
+            if ( aClass == boolean.class )
+            {
+                return BOOLEAN;
+            }
+            if ( aClass == float.class )
+            {
+                return FLOAT;
+            }
+            if ( aClass == short.class )
+            {
+                return SHORT;
+            }
+            if ( aClass == byte.class )
+            {
+                return BYTE;
+            }
+            if ( aClass == char.class )
+            {
+                return CHAR;
+            }
+            return OTHER;
+        }
+    }
+
+    private static final ConcurrentMap< EClass, Layout > LAYOUTS = new MapMaker().weakKeys().makeMap();
+
+    private Layout layout;
+
+    private long[] values;
+
+    /**
+     * Bits of unsettable attributes which are set, by slot.
+     */
+    private long[] set;
+
+    /**
+     * Creates object without class, class must be set by {@link #eSetClass(EClass)}.
+     */
+    public PackedEObject()
+    {
+        super();
+    }
+
+    /**
+     * Creates object of given class.
+     *
+     * @param aClass
+     *            Class of object.
+     */
+    public PackedEObject( EClass aClass )
+    {
+        super( aClass );
+        if ( layout == null )
+        {
+            initialize( aClass );
+        }
+    }
+
+    @Override
+    public void eSetClass( EClass aClass )
+    {
+        super.eSetClass( aClass );
+        initialize( aClass );
+    }
+
+    @Override
+    public Object eGet( int aFeatureID, boolean aResolve, boolean aCoreType )
+    {
+        final int slot = slot( aFeatureID );
+        if ( slot < 0 )
+        {
+            return super.eGet( aFeatureID, aResolve, aCoreType );
+        }
+        return decode( layout.kinds[ aFeatureID ], values[ slot ] );
+    }
+
+    @Override
+    public void eSet( int aFeatureID, Object aNewValue )
+    {
+        final int slot = slot( aFeatureID );
+        if ( slot < 0 )
+        {
+            super.eSet( aFeatureID, aNewValue );
+            return;
+        }
+        final byte kind = layout.kinds[ aFeatureID ];
+        final long old = values[ slot ];
+        final boolean wasSet = isSet( aFeatureID, slot );
+        values[ slot ] = aNewValue == null ? layout.defaults[ slot ] : encode( kind, aNewValue );
+        set[ slot >>> 6 ] |= 1L << slot;
+        if ( eNotificationRequired() )
+        {
+            final EStructuralFeature feature = eClass().getEStructuralFeature( aFeatureID );
+            eNotify( feature.isUnsettable()
+                ? new ENotificationImpl( this, Notification.SET, feature, decode( kind, old ),
+                    decode( kind, values[ slot ] ), !wasSet )
+                : new ENotificationImpl( this, Notification.SET, feature, decode( kind, old ),
+                    decode( kind, values[ slot ] ) ) );
+        }
+    }
+
+    @Override
+    public void eUnset( int aFeatureID )
+    {
+        final int slot = slot( aFeatureID );
+        if ( slot < 0 )
+        {
+            super.eUnset( aFeatureID );
+            return;
+        }
+        final byte kind = layout.kinds[ aFeatureID ];
+        final long old = values[ slot ];
+        final boolean wasSet = isSet( aFeatureID, slot );
+        values[ slot ] = layout.defaults[ slot ];
+        set[ slot >>> 6 ] &= ~( 1L << slot );
+        if ( eNotificationRequired() )
+        {
+            final EStructuralFeature feature = eClass().getEStructuralFeature( aFeatureID );
+            eNotify( new ENotificationImpl( this, Notification.UNSET, feature, decode( kind, old ),
+                decode( kind, values[ slot ] ), wasSet ) );
+        }
+    }
+
+    @Override
+    public boolean eIsSet( int aFeatureID )
+    {
+        final int slot = slot( aFeatureID );
+        return slot < 0 ? super.eIsSet( aFeatureID ) : isSet( aFeatureID, slot );
+    }
+
+    @Override
+    public int eGetInt( EStructuralFeature aFeature )
+    {
+        final int id = eClass().getFeatureID( aFeature );
+        final int slot = slot( id );
+        if ( slot >= 0 && layout.kinds[ id ] <= Layout.INT && layout.kinds[ id ] != Layout.BOOLEAN )
+        {
+            return (int)values[ slot ];
+        }
+        return Primitives.toInt( eGet( aFeature ) );
+    }
+
+    @Override
+    public long eGetLong( EStructuralFeature aFeature )
+    {
+        final int id = eClass().getFeatureID( aFeature );
+        final int slot = slot( id );
+        if ( slot >= 0 && layout.kinds[ id ] <= Layout.LONG && layout.kinds[ id ] != Layout.BOOLEAN )
+        {
+            return values[ slot ];
+        }
+        return Primitives.toLong( eGet( aFeature ) );
+    }
+
+    @Override
+    public double eGetDouble( EStructuralFeature aFeature )
+    {
+        final int id = eClass().getFeatureID( aFeature );
+        final int slot = slot( id );
+        if ( slot >= 0 && layout.kinds[ id ] != Layout.BOOLEAN )
+        {
+            final long value = values[ slot ];
+            return layout.kinds[ id ] >= Layout.FLOAT ? Double.longBitsToDouble( value ) : value;
+        }
+        return Primitives.toDouble( eGet( aFeature ) );
+    }
+
+    private void initialize( EClass aClass )
+    {
+        if ( aClass == null )
+        {
+            return;
+        }
+        Layout result = LAYOUTS.get( aClass );
+        if ( result == null )
+        {
+            result = new Layout( aClass );
+            LAYOUTS.putIfAbsent( aClass, result );
+        }
+        layout = result;
+        values = result.defaults.clone();
+        set = new long[ ( values.length + 63 ) >>> 6 ];
+    }
+
+    private int slot( int aFeatureID )
+    {
+        return aFeatureID < 0 || layout == null ? -1 : layout.slots[ aFeatureID ];
+    }
+
+    /**
+     * Unsettable attribute is set after set until unset, other attribute is set when it differs from default.
+     */
+    private boolean isSet( int aFeatureID, int aSlot )
+    {
+        if ( layout.unsettable[ aFeatureID ] )
+        {
+            return ( set[ aSlot >>> 6 ] & ( 1L << aSlot ) ) != 0;
+        }
+        return values[ aSlot ] != layout.defaults[ aSlot ];
+    }
+
+    /**
+     * Integral values are stored as long, floating point values as bits of double.
+     */
+    static long encode( byte aKind, Object aValue )
+    {
+        switch ( aKind )
+        {
+            case Layout.BOOLEAN:
+                return (Boolean)aValue ? 1 : 0;
+            case Layout.CHAR:
+                return (Character)aValue;
+            case Layout.FLOAT:
+            case Layout.DOUBLE:
+                return Double.doubleToRawLongBits( ( (Number)aValue ).doubleValue() );
+            default:
+                return ( (Number)aValue ).longValue();
+        }
+    }
+
+    static Object decode( byte aKind, long aValue )
+    {
+        switch ( aKind )
+        {
+            case Layout.BOOLEAN:
+                return aValue != 0;
+            case Layout.BYTE:
+                return (byte)aValue;
+            case Layout.CHAR:
+                return (char)aValue;
+            case Layout.SHORT:
+                return (short)aValue;
+            case Layout.INT:
+                return (int)aValue;
+            case Layout.LONG:
+                return aValue;
+            case Layout.FLOAT:
+                return (float)Double.longBitsToDouble( aValue );
+            default:
+                return Double.longBitsToDouble( aValue );
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * One page of objects returned by {@link ListPager} or {@link KeysetPager}, with cursor of the next page.
+ * Page is immutable.
+ */
+public final class Page
+{
+    /**
+     * Position after the last object examined for page, from which the next page is resumed. Cursor is
+     * immutable and can be kept between requests.
+     */
+    public static final class Cursor
+    {
+        private final int position;
+
+        private final EObject last;
+
+        private final Object[] key;
+
+        Cursor( int aPosition, EObject aLast, Object[] aKey )
+        {
+            position = aPosition;
+            last = aLast;
+            key = aKey;
+        }
+
+        /**
+         * @return Index of the next object to examine in paged list or sorted objects.
+         */
+        public int getPosition()
+        {
+            return position;
+        }
+
+        /**
+         * @return The last examined object.
+         */
+        public EObject getLast()
+        {
+            return last;
+        }
+
+        /**
+         * @return Key values of the last examined object, empty for {@link ListPager}.
+         */
+        public List< Object > getKey()
+        {
+            return key == null ? Collections.emptyList()
+                : Collections.unmodifiableList( Arrays.asList( key ) );
+        }
+
+        Object[] key()
+        {
+            return key;
+        }
+
+        @Override
+        public String toString()
+        {
+            return MoreObjects.toStringHelper( this ).add( "position", position ).add( "key", getKey() )
+                .toString();
+        }
+    }
+
+    private final List< EObject > objects;
+
+    private final Cursor next;
+
+    Page( List< EObject > aObjects, Cursor aNext )
+    {
+        objects = Collections.unmodifiableList( aObjects );
+        next = aNext;
+    }
+
+    /**
+     * @return Objects of page.
+     */
+    public List< EObject > getObjects()
+    {
+        return objects;
+    }
+
+    /**
+     * @return <code>true</code> if there can be more objects after this page.
+     */
+    public boolean hasNext()
+    {
+        return next != null;
+    }
+
+    /**
+     * @return Cursor of the next page or <code>null</code> if this page is the last one.
+     */
+    public Cursor getNext()
+    {
+        return next;
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper( this ).add( "objects", objects.size() ).add( "next", next )
+            .toString();
+    }
+}
@@ -0,0 +1,39 @@
+package org.isageek.smijran.emf.utils;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+/**
+ * {@link EObject} which is able to return values of its primitive attributes without boxing them.
+ * Implementations must support every single-valued numeric attribute of their {@link EObject#eClass()}
+ * and fall back to {@link EObject#eGet(EStructuralFeature)} internally if value is not stored unboxed.
+ */
+public interface PrimitiveEObject extends EObject
+{
+    /**
+     * Returns value of given attribute as int.
+     * 
+     * @param aFeature
+     *            Attribute of int, short, byte or char type.
+     * @return Unboxed value.
+     */
+    int eGetInt( EStructuralFeature aFeature );
+
+    /**
+     * Returns value of given attribute as long.
+     * 
+     * @param aFeature
+     *            Attribute of long or narrower integral type.
+     * @return Unboxed value.
+     */
+    long eGetLong( EStructuralFeature aFeature );
+
+    /**
+     * Returns value of given attribute as double.
+     * 
+     * @param aFeature
+     *            Attribute of double, float or integral type.
+     * @return Unboxed value.
+     */
+    double eGetDouble( EStructuralFeature aFeature );
+}
@@ -0,0 +1,218 @@
+package org.isageek.smijran.emf.utils;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Unboxed accessors of primitive {@link EObject} attributes. Values of {@link PrimitiveEObject}s are read
+ * directly, other {@link EObject}s are read with {@link EObject#eGet(EStructuralFeature)} and unboxed.
+ */
+public final class Primitives
+{
+    private Primitives()
+    {
+        // Utility class
+    }
+
+    /**
+     * Reads value of int, short, byte or char attribute.
+     * 
+     * @param aObject
+     *            Object to read value from.
+     * @param aFeature
+     *            Attribute.
+     * @return Value of attribute.
+     * @throws ClassCastException
+     *             When attribute is not of int compatible type.
+     */
+    public static int intValue( EObject aObject, EStructuralFeature aFeature )
+    {
+        if ( aObject instanceof PrimitiveEObject )
+        {
+            return ( (PrimitiveEObject)aObject ).eGetInt( aFeature );
+        }
+        return toInt( aObject.eGet( aFeature ) );
+    }
+
+    /**
+     * Reads value of long or narrower integral attribute.
+     * 
+     * @param aObject
+     *            Object to read value from.
+     * @param aFeature
+     *            Attribute.
+     * @return Value of attribute.
+     * @throws ClassCastException
+     *             When attribute is not of long compatible type.
+     */
+    public static long longValue( EObject aObject, EStructuralFeature aFeature )
+    {
+        if ( aObject instanceof PrimitiveEObject )
+        {
+            return ( (PrimitiveEObject)aObject ).eGetLong( aFeature );
+        }
+        return toLong( aObject.eGet( aFeature ) );
+    }
+
+    /**
+     * Reads value of double, float or integral attribute.
+     * 
+     * @param aObject
+     *            Object to read value from.
+     * @param aFeature
+     *            Attribute.
+     * @return Value of attribute.
+     * @throws ClassCastException
+     *             When attribute is not of double compatible type.
+     */
+    public static double doubleValue( EObject aObject, EStructuralFeature aFeature )
+    {
+        if ( aObject instanceof PrimitiveEObject )
+        {
+            return ( (PrimitiveEObject)aObject ).eGetDouble( aFeature );
+        }
+        return toDouble( aObject.eGet( aFeature ) );
+    }
+
+    /**
+     * Projects int attribute of given range of objects into column.
+     * 
+     * @param aObjects
+     *            Source objects.
+     * @param aFrom
+     *            First index, inclusive.
+     * @param aTo
+     *            Last index, exclusive.
+     * @param aFeature
+     *            Attribute to be projected.
+     * @param aColumn
+     *            Target column indexed like objects, value of <code>aObjects[i]</code> is stored at
+     *            <code>aColumn[i]</code>, so it can be passed to <code>select</code> of attribute predicates
+     *            with the same range.
+     * @return <code>aColumn</code>
+     */
+    public static int[] project( EObject[] aObjects, int aFrom, int aTo, EStructuralFeature aFeature,
+        int[] aColumn )
+    {
+        Preconditions.checkArgument( aColumn.length >= aTo, "Column is too short." );
+        for ( int i = aFrom; i < aTo; i++ )
+        {
+            aColumn[ i ] = intValue( aObjects[ i ], aFeature );
+        }
+        return aColumn;
+    }
+
+    /**
+     * Projects long attribute of given range of objects into column.
+     * 
+     * @param aObjects
+     *            Source objects.
+     * @param aFrom
+     *            First index, inclusive.
+     * @param aTo
+     *            Last index, exclusive.
+     * @param aFeature
+     *            Attribute to be projected.
+     * @param aColumn
+     *            Target column indexed like objects, value of <code>aObjects[i]</code> is stored at
+     *            <code>aColumn[i]</code>, so it can be passed to <code>select</code> of attribute predicates
+     *            with the same range.
+     * @return <code>aColumn</code>
+     */
+    public static long[] project( EObject[] aObjects, int aFrom, int aTo, EStructuralFeature aFeature,
+        long[] aColumn )
+    {
+        Preconditions.checkArgument( aColumn.length >= aTo, "Column is too short." );
+        for ( int i = aFrom; i < aTo; i++ )
+        {
+            aColumn[ i ] = longValue( aObjects[ i ], aFeature );
+        }
+        return aColumn;
+    }
+
+    /**
+     * Projects double attribute of given range of objects into column.
+     * 
+     * @param aObjects
+     *            Source objects.
+     * @param aFrom
+     *            First index, inclusive.
+     * @param aTo
+     *            Last index, exclusive.
+     * @param aFeature
+     *            Attribute to be projected.
+     * @param aColumn
+     *            Target column indexed like objects, value of <code>aObjects[i]</code> is stored at
+     *            <code>aColumn[i]</code>, so it can be passed to <code>select</code> of attribute predicates
+     *            with the same range.
+     * @return <code>aColumn</code>
+     */
+    public static double[] project( EObject[] aObjects, int aFrom, int aTo, EStructuralFeature aFeature,
+        double[] aColumn )
+    {
+        Preconditions.checkArgument( aColumn.length >= aTo, "Column is too short." );
+        for ( int i = aFrom; i < aTo; i++ )
+        {
+            aColumn[ i ] = doubleValue( aObjects[ i ], aFeature );
+        }
+        return aColumn;
+    }
+
+    /**
+     * Unboxes int compatible value.
+     * 
+     * @param aValue
+     *            {@link Integer}, {@link Short}, {@link Byte} or {@link Character}.
+     * @return Unboxed value.
+     */
+    static int toInt( Object aValue )
+    {
+        if ( aValue instanceof Short || aValue instanceof Byte )
+        {
+            return ( (Number)aValue ).intValue();
+        }
+        if ( aValue instanceof Character )
+        {
+            return (Character)aValue;
+        }
+        return (Integer)aValue;
+    }
+
+    /**
+     * Unboxes long compatible value.
+     * 
+     * @param aValue
+     *            {@link Long} or int compatible value.
+     * @return Unboxed value.
+     */
+    static long toLong( Object aValue )
+    {
+        if ( aValue instanceof Long )
+        {
+            return (Long)aValue;
+        }
+        return toInt( aValue );
+    }
+
+    /**
+     * Unboxes double compatible value.
+     * 
+     * @param aValue
+     *            {@link Double}, {@link Float} or long compatible value.
+     * @return Unboxed value.
+     */
+    static double toDouble( Object aValue )
+    {
+        if ( aValue instanceof Double )
+        {
+            return (Double)aValue;
+        }
+        if ( aValue instanceof Float )
+        {
+            return (Float)aValue;
+        }
+        return toLong( aValue );
+    }
+}
@@ -0,0 +1,375 @@
+package org.isageek.smijran.emf.utils;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.EObject;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.MapMaker;
+
+/**
+ * Size bounded cache of {@link ModelQuery} results, shared by all users of the same models. Results are keyed
+ * by root of containment tree and canonical form of query, so equal queries built in any clause order share
+ * result. Every root has modification counter, increased by every change of its tree, and result is reused
+ * only while counter has the value it was computed with, so repeated queries over unchanged model return
+ * without evaluation. Least recently used results are evicted when size is exceeded.
+ * <p>
+ * Counter of root is attached to its tree on first query and stays attached until the last result of root
+ * is evicted, root is invalidated or cache is closed. Counter of evicted root is referenced weakly, so root
+ * is not kept reachable by cache, and is detached from its tree by the next
+ * {@link #execute(ModelQuery, Notifier)} or {@link #invalidate(Notifier)} call in calling thread. First
+ * query of root must not run concurrently with its modification, like creation of {@link FeatureIndex}.
+ * Cached results keep their objects, and so their models, reachable until they are evicted or invalidated.
+ * <p>
+ * Cache shared by {@link E.Query#cache()} can not be closed, {@link #invalidate(Notifier)} stops tracking of
+ * tree by it.
+ */
+public final class QueryCache implements AutoCloseable
+{
+    /**
+     * Modification counter of one containment tree.
+     */
+    private static final class Counter extends ContentObserver
+    {
+        final QueryCache cache;
+
+        final Notifier root;
+
+        final AtomicLong version = new AtomicLong();
+
+        /**
+         * Number of cached results of root, increased before result is cached, {@link #RELEASED} or less when
+         * counter is detached.
+         */
+        final AtomicInteger results = new AtomicInteger();
+
+        Counter( QueryCache aCache, Notifier aRoot )
+        {
+            cache = aCache;
+            root = aRoot;
+        }
+
+        @Override
+        protected void changed( Notification aNotification )
+        {
+            version.incrementAndGet();
+        }
+
+        /**
+         * @return <code>true</code> if result was counted, <code>false</code> if counter is released.
+         */
+        boolean retain()
+        {
+            for ( int count = results.get(); count >= 0; count = results.get() )
+            {
+                if ( results.compareAndSet( count, count + 1 ) )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean isReleased()
+        {
+            return results.get() < 0;
+        }
+    }
+
+    private static final class Key
+    {
+        final Notifier root;
+
+        final ModelQuery query;
+
+        Key( Notifier aRoot, ModelQuery aQuery )
+        {
+            root = aRoot;
+            query = aQuery;
+        }
+
+        @Override
+        public boolean equals( Object aObject )
+        {
+            return aObject instanceof Key && ( (Key)aObject ).root == root
+                && ( (Key)aObject ).query.equals( query );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * System.identityHashCode( root ) + query.hashCode();
+        }
+    }
+
+    private static final class Result
+    {
+        final Counter counter;
+
+        final long version;
+
+        final List< EObject > objects;
+
+        Result( Counter aCounter, long aVersion, List< EObject > aObjects )
+        {
+            counter = aCounter;
+            version = aVersion;
+            objects = aObjects;
+        }
+    }
+
+    /**
+     * Result count of released counter, far enough from {@link Integer#MIN_VALUE} for removals of its results.
+     */
+    private static final int RELEASED = Integer.MIN_VALUE / 2;
+
+    private final Cache< Key, Result > results;
+
+    /**
+     * Counters of roots with cached results.
+     */
+    private final ConcurrentMap< Notifier, Counter > counters = new ConcurrentHashMap<>();
+
+    /**
+     * All attached counters, referenced weakly, so that counter without results is collected with its root.
+     */
+    private final Set< Counter > attached = Collections.newSetFromMap( new MapMaker().weakKeys().makeMap() );
+
+    /**
+     * Counters whose last result was removed, to be detached by calling thread.
+     */
+    private final Queue< WeakReference< Counter > > evicted = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder stale = new LongAdder();
+
+    private final boolean shared;
+
+    /**
+     * @param aMaximumSize
+     *            Maximal number of cached results.
+     * @param aShared
+     *            Whether cache is shared by application and can not be closed.
+     */
+    QueryCache( long aMaximumSize, boolean aShared )
+    {
+        Preconditions.checkArgument( aMaximumSize > 0, "Maximum size is not positive." );
+        results = CacheBuilder.newBuilder().maximumSize( aMaximumSize ).recordStats()
+            .removalListener( this::removed ).build();
+        shared = aShared;
+    }
+
+    /**
+     * Executes query over containment tree or returns its result cached since the last change of tree.
+     *
+     * @param aQuery
+     *            Query.
+     * @param aRoot
+     *            {@link EObject}, {@link org.eclipse.emf.ecore.resource.Resource} or
+     *            {@link org.eclipse.emf.ecore.resource.ResourceSet}.
+     * @return Unmodifiable list of matching objects, like {@link ModelQuery#execute(Notifier)}.
+     */
+    public List< EObject > execute( ModelQuery aQuery, Notifier aRoot )
+    {
+        Preconditions.checkNotNull( aQuery, "Query is missing." );
+        Preconditions.checkNotNull( aRoot, "Root is missing." );
+        release();
+        final Counter counter = counter( aRoot );
+        final long version = counter.version.get();
+        final Key key = new Key( aRoot, aQuery );
+        final Result cached = results.getIfPresent( key );
+        if ( cached != null )
+        {
+            if ( cached.counter == counter && cached.version == version )
+            {
+                return cached.objects;
+            }
+            stale.increment();
+        }
+        final List< EObject > objects = Collections.unmodifiableList( aQuery.execute( aRoot ) );
+        if ( counter.retain() )
+        {
+            results.put( key, new Result( counter, version, objects ) );
+        }
+        return objects;
+    }
+
+    /**
+     * @param aRoot
+     *            Root of containment tree.
+     * @return Number of changes of tree since its first query, <code>-1</code> if tree is not tracked.
+     */
+    public long getVersion( Notifier aRoot )
+    {
+        final Counter counter = find( aRoot );
+        return counter == null ? -1 : counter.version.get();
+    }
+
+    /**
+     * @return Hit, miss and eviction statistics. Results outdated by change are counted as hits of Guava
+     *         cache, use {@link #getStaleCount()} for them.
+     */
+    public CacheStats getStats()
+    {
+        return results.stats();
+    }
+
+    /**
+     * @return Number of cached results found outdated by change of their tree.
+     */
+    public long getStaleCount()
+    {
+        return stale.sum();
+    }
+
+    /**
+     * @return Approximate number of cached results.
+     */
+    public long size()
+    {
+        return results.size();
+    }
+
+    /**
+     * Drops results of containment tree and stops tracking its changes.
+     *
+     * @param aRoot
+     *            Root of containment tree.
+     */
+    public void invalidate( Notifier aRoot )
+    {
+        release();
+        final Counter counter = find( aRoot );
+        counters.remove( aRoot );
+        if ( counter != null )
+        {
+            counter.results.getAndSet( RELEASED );
+            attached.remove( counter );
+            counter.detach( aRoot );
+        }
+        results.asMap().keySet().removeIf( aKey -> aKey.root == aRoot );
+    }
+
+    /**
+     * Drops all results and stops tracking changes of all trees.
+     *
+     * @throws UnsupportedOperationException
+     *             for cache shared by {@link E.Query#cache()}.
+     */
+    @Override
+    public void close()
+    {
+        if ( shared )
+        {
+            throw new UnsupportedOperationException( "Shared cache can not be closed." );
+        }
+        attached.forEach( aCounter ->
+        {
+            aCounter.results.getAndSet( RELEASED );
+            aCounter.detach( aCounter.root );
+        } );
+        attached.clear();
+        evicted.clear();
+        counters.clear();
+        results.invalidateAll();
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper( this ).add( "size", results.size() ).add( "roots", counters.size() )
+            .add( "stats", results.stats() ).toString();
+    }
+
+    /**
+     * @return Counter of root, attached to its tree if it has none. Released counter is replaced.
+     */
+    private Counter counter( Notifier aRoot )
+    {
+        final Counter current = counters.get( aRoot );
+        if ( current != null && !current.isReleased() )
+        {
+            return current;
+        }
+        final Counter found = find( aRoot );
+        final Counter counter = found != null ? found : new Counter( this, aRoot );
+        final Counter result = counters.merge( aRoot, counter,
+            ( aOld, aNew ) -> aOld.isReleased() ? aNew : aOld );
+        if ( result == counter && found == null )
+        {
+            attached.add( counter );
+            counter.attach( aRoot );
+        }
+        return result;
+    }
+
+    /**
+     * @return Counter of root which is not released or <code>null</code> if it is not attached.
+     */
+    private Counter find( Notifier aRoot )
+    {
+        final Counter result = counters.get( aRoot );
+        if ( result != null && !result.isReleased() )
+        {
+            return result;
+        }
+        for ( Adapter adapter : aRoot.eAdapters() )
+        {
+            if ( adapter instanceof Counter && ( (Counter)adapter ).cache == this
+                && !( (Counter)adapter ).isReleased() )
+            {
+                return (Counter)adapter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Detaches counters whose last result was removed, unless root was queried again meanwhile.
+     */
+    private void release()
+    {
+        WeakReference< Counter > reference;
+        while ( ( reference = evicted.poll() ) != null )
+        {
+            final Counter counter = reference.get();
+            if ( counter != null && counter.results.compareAndSet( 0, RELEASED ) )
+            {
+                counters.remove( counter.root, counter );
+                attached.remove( counter );
+                counter.detach( counter.root );
+            }
+        }
+    }
+
+    /**
+     * Stops referencing counter of root strongly when its last result is removed and queues it for
+     * {@link #release()}, removal listener may run in thread which must not walk tree.
+     */
+    private void removed( RemovalNotification< Key, Result > aNotification )
+    {
+        final Result result = aNotification.getValue();
+        if ( result != null && result.counter.results.decrementAndGet() == 0 )
+        {
+            counters.remove( aNotification.getKey().root, result.counter );
+            evicted.add( new WeakReference<>( result.counter ) );
+        }
+    }
+}
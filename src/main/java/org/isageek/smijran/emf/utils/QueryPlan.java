@@ -0,0 +1,215 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.eclipse.emf.ecore.EObject;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Execution plan of {@link ModelQuery} chosen by {@link QueryPlanner}. Plan is bound to source it was
+ * created for, it can be executed repeatedly, but its estimates are not refreshed. Costs are expressed in
+ * number of clause evaluations.
+ */
+public final class QueryPlan
+{
+    /**
+     * Way of finding matching objects.
+     */
+    public enum Strategy
+    {
+        /**
+         * All objects are tested in calling thread.
+         */
+        SEQUENTIAL_SCAN,
+
+        /**
+         * All objects are tested by parallel stream.
+         */
+        PARALLEL_SCAN,
+
+        /**
+         * Objects with value of first clause are looked up in {@link FeatureIndex} and tested by other
+         * clauses.
+         */
+        INDEX_LOOKUP
+    }
+
+    private final ModelQuery query;
+
+    private final Strategy strategy;
+
+    private final List< ModelQuery.Clause > clauses;
+
+    private final double[] selectivities;
+
+    private final Map< Strategy, Double > costs;
+
+    private final double estimatedRows;
+
+    private final int sourceSize;
+
+    private final boolean sourceEstimated;
+
+    private final List< ? extends EObject > objects;
+
+    private final FeatureIndex index;
+
+    QueryPlan( ModelQuery aQuery, Strategy aStrategy, List< ModelQuery.Clause > aClauses,
+        double[] aSelectivities, Map< Strategy, Double > aCosts, int aSourceSize, boolean aSourceEstimated,
+        List< ? extends EObject > aObjects, FeatureIndex aIndex )
+    {
+        query = aQuery;
+        strategy = aStrategy;
+        clauses = Collections.unmodifiableList( aClauses );
+        selectivities = aSelectivities;
+        costs = Collections.unmodifiableMap( aCosts );
+        sourceSize = aSourceSize;
+        sourceEstimated = aSourceEstimated;
+        objects = aObjects;
+        index = aIndex;
+        double rows = aSourceSize;
+        for ( double selectivity : aSelectivities )
+        {
+            rows *= selectivity;
+        }
+        estimatedRows = rows;
+    }
+
+    /**
+     * @return Chosen strategy.
+     */
+    public Strategy getStrategy()
+    {
+        return strategy;
+    }
+
+    /**
+     * @return Clauses in order of evaluation, for {@link Strategy#INDEX_LOOKUP} the first one is looked up.
+     */
+    public List< ModelQuery.Clause > getClauses()
+    {
+        return clauses;
+    }
+
+    /**
+     * @return Estimated cost of chosen strategy.
+     */
+    public double getCost()
+    {
+        return costs.get( strategy );
+    }
+
+    /**
+     * @return Estimated costs of all considered strategies.
+     */
+    public Map< Strategy, Double > getCosts()
+    {
+        return costs;
+    }
+
+    /**
+     * @return Estimated number of matching objects.
+     */
+    public double getEstimatedRows()
+    {
+        return estimatedRows;
+    }
+
+    /**
+     * Executes plan.
+     *
+     * @return Matching objects, in order of source for scans.
+     */
+    public List< EObject > execute()
+    {
+        switch ( strategy )
+        {
+            case PARALLEL_SCAN:
+                return objects.parallelStream().filter( aObject -> test( aObject, 0 ) )
+                    .collect( Collectors.toList() );
+            case INDEX_LOOKUP:
+                final List< EObject > found = new ArrayList<>();
+                for ( EObject object : index.lookup( clauses.get( 0 ).getValue() ) )
+                {
+                    if ( test( object, 1 ) )
+                    {
+                        found.add( object );
+                    }
+                }
+                return found;
+            default:
+                final List< EObject > result = new ArrayList<>();
+                for ( int i = 0; i < objects.size(); i++ )
+                {
+                    final EObject object = objects.get( i );
+                    if ( test( object, 0 ) )
+                    {
+                        result.add( object );
+                    }
+                }
+                return result;
+        }
+    }
+
+    /**
+     * Describes plan, its clauses and costs of considered strategies.
+     *
+     * @return Multi-line description.
+     */
+    public String explain()
+    {
+        final StringBuilder result = new StringBuilder();
+        result.append( "Query: " ).append( query ).append( '\n' );
+        result.append( "Strategy: " ).append( strategy ).append( " (cost " ).append( format( getCost() ) )
+            .append( ", estimated rows " ).append( format( estimatedRows ) ).append( ")\n" );
+        for ( int i = 0; i < clauses.size(); i++ )
+        {
+            result.append( "  " ).append( i + 1 ).append( ". " ).append( clauses.get( i ) );
+            if ( i == 0 && strategy == Strategy.INDEX_LOOKUP )
+            {
+                result.append( " (index, " ).append( format( selectivities[ 0 ] * sourceSize ) )
+                    .append( " rows)\n" );
+            }
+            else
+            {
+                result.append( " (selectivity " ).append( format( selectivities[ i ] ) ).append( ")\n" );
+            }
+        }
+        result.append( "Considered:" );
+        costs.forEach( ( aStrategy, aCost ) -> result.append( ' ' ).append( aStrategy ).append( ' ' )
+            .append( format( aCost ) ) );
+        result.append( "\nSource: " ).append( sourceEstimated ? "~" : "" ).append( sourceSize )
+            .append( " objects, parallelism " ).append( QueryPlanner.parallelism() ).append( '\n' );
+        return result.toString();
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper( this ).add( "strategy", strategy ).add( "cost", getCost() )
+            .add( "estimatedRows", estimatedRows ).add( "clauses", clauses ).toString();
+    }
+
+    private boolean test( EObject aObject, int aFrom )
+    {
+        for ( int i = aFrom; i < clauses.size(); i++ )
+        {
+            if ( !clauses.get( i ).test( aObject ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String format( double aValue )
+    {
+        return String.format( Locale.ROOT, aValue < 1 ? "%.4f" : "%.1f", aValue );
+    }
+}
@@ -0,0 +1,284 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.MapMaker;
+
+/**
+ * Cost based planner of {@link ModelQuery}. Clauses are ordered by selectivity sampled by
+ * {@link FeatureHistogram}s, which are kept per source until its size changes by more than quarter. Cost of
+ * scan is visit of every object plus expected number of clause evaluations with short-circuiting, parallel
+ * scan divides evaluations by parallelism of common pool and pays fixed startup; index lookup pays bucket
+ * size times evaluations of remaining clauses. Containment trees are not traversed when index lookup is
+ * cheaper than scan of indexed objects, other clauses then use histograms of previous scans or default
+ * selectivity.
+ * <p>
+ * Indexes are registered weakly, they stay reachable from their root while attached. Histograms of source
+ * are softly referenced, since sampled values of references can reach the source, and so they do not keep
+ * it from collection once memory is needed.
+ */
+final class QueryPlanner
+{
+    /**
+     * Cost of fork/join startup and result merge of parallel scan, in clause evaluations.
+     */
+    static final double PARALLEL_STARTUP = 20000;
+
+    /**
+     * Cost of index lookup, in clause evaluations.
+     */
+    static final double LOOKUP = 10;
+
+    /**
+     * Cost of visiting object of scanned source, in clause evaluations.
+     */
+    static final double TRAVERSAL = 1;
+
+    /**
+     * Selectivity of clause without statistics.
+     */
+    static final double DEFAULT_SELECTIVITY = 0.1;
+
+    private static final ConcurrentMap< Notifier, Set< FeatureIndex > > INDEXES = new MapMaker().weakKeys()
+        .makeMap();
+
+    private static final ConcurrentMap< Object, ConcurrentMap< EStructuralFeature, FeatureHistogram > >
+        STATISTICS = CacheBuilder.newBuilder().weakKeys().softValues()
+            .< Object, ConcurrentMap< EStructuralFeature, FeatureHistogram > >build().asMap();
+
+    private QueryPlanner()
+    {
+        // Utility class
+    }
+
+    static int parallelism()
+    {
+        return ForkJoinPool.getCommonPoolParallelism();
+    }
+
+    static void register( FeatureIndex aIndex )
+    {
+        Set< FeatureIndex > indexes = INDEXES.get( aIndex.getRoot() );
+        if ( indexes == null )
+        {
+            final Set< FeatureIndex > created =
+                Collections.newSetFromMap( new MapMaker().weakKeys().< FeatureIndex, Boolean >makeMap() );
+            indexes = INDEXES.putIfAbsent( aIndex.getRoot(), created );
+            if ( indexes == null )
+            {
+                indexes = created;
+            }
+        }
+        indexes.add( aIndex );
+    }
+
+    static void unregister( FeatureIndex aIndex )
+    {
+        final Set< FeatureIndex > indexes = INDEXES.get( aIndex.getRoot() );
+        if ( indexes != null )
+        {
+            indexes.remove( aIndex );
+        }
+    }
+
+    static QueryPlan plan( ModelQuery aQuery, Collection< ? extends EObject > aSource )
+    {
+        final List< ? extends EObject > objects = aSource instanceof List && aSource instanceof RandomAccess
+            ? (List< ? extends EObject >)aSource : new ArrayList<>( aSource );
+        return scan( aQuery, aSource, objects, new EnumMap<>( QueryPlan.Strategy.class ) );
+    }
+
+    static QueryPlan plan( ModelQuery aQuery, Notifier aRoot )
+    {
+        final Map< QueryPlan.Strategy, Double > costs = new EnumMap<>( QueryPlan.Strategy.class );
+        final Set< FeatureIndex > indexes = INDEXES.getOrDefault( aRoot, Collections.emptySet() );
+        FeatureIndex best = null;
+        ModelQuery.Clause lookup = null;
+        int rows = Integer.MAX_VALUE;
+        int indexed = 0;
+        for ( FeatureIndex index : indexes )
+        {
+            indexed = Math.max( indexed, index.size() );
+            for ( ModelQuery.Clause clause : aQuery.getClauses() )
+            {
+                if ( clause.getOperator() == ModelQuery.Operator.EQUAL
+                    && clause.getFeature() == index.getFeature() )
+                {
+                    final int size = index.lookup( clause.getValue() ).size();
+                    if ( size < rows )
+                    {
+                        best = index;
+                        lookup = clause;
+                        rows = size;
+                    }
+                }
+            }
+        }
+        if ( best == null )
+        {
+            final List< EObject > objects = new ArrayList<>();
+            ContentObserver.forEachObject( aRoot, objects::add );
+            return scan( aQuery, aRoot, objects, costs );
+        }
+        final ConcurrentMap< EStructuralFeature, FeatureHistogram > statistics = STATISTICS.get( aRoot );
+        final List< ModelQuery.Clause > remaining = new ArrayList<>( aQuery.getClauses() );
+        remaining.remove( lookup );
+        final double[] selectivities = new double[ remaining.size() ];
+        for ( int i = 0; i < selectivities.length; i++ )
+        {
+            final FeatureHistogram histogram = statistics == null ? null
+                : statistics.get( remaining.get( i ).getFeature() );
+            selectivities[ i ] = histogram == null ? DEFAULT_SELECTIVITY
+                : histogram.selectivity( remaining.get( i ) );
+        }
+        sort( remaining, selectivities );
+        final int size = Math.max( indexed, rows );
+        final List< ModelQuery.Clause > clauses = new ArrayList<>( remaining.size() + 1 );
+        clauses.add( lookup );
+        clauses.addAll( remaining );
+        final double[] ordered = new double[ selectivities.length + 1 ];
+        ordered[ 0 ] = size == 0 ? 0 : rows / (double)size;
+        System.arraycopy( selectivities, 0, ordered, 1, selectivities.length );
+        final double[] scanned = ordered.clone();
+        Arrays.sort( scanned );
+        final double evaluations = evaluations( 1, scanned );
+        costs.put( QueryPlan.Strategy.SEQUENTIAL_SCAN, sequential( size, evaluations ) );
+        if ( parallelism() > 1 )
+        {
+            costs.put( QueryPlan.Strategy.PARALLEL_SCAN, parallel( size, evaluations ) );
+        }
+        final double lookupCost = LOOKUP + rows * evaluations( 1, selectivities );
+        costs.put( QueryPlan.Strategy.INDEX_LOOKUP, lookupCost );
+        if ( lookupCost <= Collections.min( costs.values() ) )
+        {
+            return new QueryPlan( aQuery, QueryPlan.Strategy.INDEX_LOOKUP, clauses, ordered, costs, size, true,
+                null, best );
+        }
+        final List< EObject > objects = new ArrayList<>();
+        ContentObserver.forEachObject( aRoot, objects::add );
+        costs.remove( QueryPlan.Strategy.SEQUENTIAL_SCAN );
+        costs.remove( QueryPlan.Strategy.PARALLEL_SCAN );
+        return scan( aQuery, aRoot, objects, costs );
+    }
+
+    /**
+     * Plans sequential or parallel scan, costs of other strategies are already in map.
+     */
+    private static QueryPlan scan( ModelQuery aQuery, Object aKey, List< ? extends EObject > aObjects,
+        Map< QueryPlan.Strategy, Double > aCosts )
+    {
+        final List< ModelQuery.Clause > clauses = new ArrayList<>( aQuery.getClauses() );
+        final double[] selectivities = new double[ clauses.size() ];
+        for ( int i = 0; i < selectivities.length; i++ )
+        {
+            selectivities[ i ] = histogram( aKey, aObjects, clauses.get( i ).getFeature() )
+                .selectivity( clauses.get( i ) );
+        }
+        sort( clauses, selectivities );
+        final int size = aObjects.size();
+        final double evaluations = evaluations( 1, selectivities );
+        final double sequential = sequential( size, evaluations );
+        aCosts.put( QueryPlan.Strategy.SEQUENTIAL_SCAN, sequential );
+        QueryPlan.Strategy strategy = QueryPlan.Strategy.SEQUENTIAL_SCAN;
+        if ( parallelism() > 1 )
+        {
+            final double parallel = parallel( size, evaluations );
+            aCosts.put( QueryPlan.Strategy.PARALLEL_SCAN, parallel );
+            if ( parallel < sequential )
+            {
+                strategy = QueryPlan.Strategy.PARALLEL_SCAN;
+            }
+        }
+        return new QueryPlan( aQuery, strategy, clauses, selectivities, aCosts, size, false, aObjects, null );
+    }
+
+    private static FeatureHistogram histogram( Object aKey, List< ? extends EObject > aObjects,
+        EStructuralFeature aFeature )
+    {
+        ConcurrentMap< EStructuralFeature, FeatureHistogram > statistics = STATISTICS.get( aKey );
+        if ( statistics == null )
+        {
+            final ConcurrentMap< EStructuralFeature, FeatureHistogram > created = new MapMaker().weakKeys()
+                .makeMap();
+            statistics = STATISTICS.putIfAbsent( aKey, created );
+            if ( statistics == null )
+            {
+                statistics = created;
+            }
+        }
+        FeatureHistogram result = statistics.get( aFeature );
+        if ( result == null || result.isStale( aObjects.size() ) )
+        {
+            result = new FeatureHistogram( aObjects, aFeature );
+            statistics.put( aFeature, result );
+        }
+        return result;
+    }
+
+    /**
+     * @return Cost of sequential scan of objects with given expected clause evaluations per object.
+     */
+    private static double sequential( int aSize, double aEvaluations )
+    {
+        return aSize * ( TRAVERSAL + aEvaluations );
+    }
+
+    /**
+     * @return Cost of parallel scan of objects with given expected clause evaluations per object.
+     */
+    private static double parallel( int aSize, double aEvaluations )
+    {
+        return aSize * ( TRAVERSAL + aEvaluations / parallelism() ) + PARALLEL_STARTUP;
+    }
+
+    /**
+     * @return Expected number of clause evaluations per object reaching clauses with given selectivities.
+     */
+    private static double evaluations( double aReaching, double[] aSelectivities )
+    {
+        double result = 0;
+        double reaching = aReaching;
+        for ( double selectivity : aSelectivities )
+        {
+            result += reaching;
+            reaching *= selectivity;
+        }
+        return result;
+    }
+
+    /**
+     * Sorts clauses by ascending selectivity, together with selectivities.
+     */
+    private static void sort( List< ModelQuery.Clause > aClauses, double[] aSelectivities )
+    {
+        for ( int i = 1; i < aSelectivities.length; i++ )
+        {
+            final double selectivity = aSelectivities[ i ];
+            final ModelQuery.Clause clause = aClauses.get( i );
+            int j = i - 1;
+            while ( j >= 0 && aSelectivities[ j ] > selectivity )
+            {
+                aSelectivities[ j + 1 ] = aSelectivities[ j ];
+                aClauses.set( j + 1, aClauses.get( j ) );
+                j--;
+            }
+            aSelectivities[ j + 1 ] = selectivity;
+            aClauses.set( j + 1, clause );
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * {@link Spliterator}s of primitive values pushed by sinks for every element of source {@link Spliterator},
+ * counterpart of <code>mapMulti</code> for Java 8. Bulk traversal pushes values directly into downstream
+ * consumer. Single-step traversal buffers values of one source element in reused array, so no object is
+ * allocated per element in either case. Spliterator does not split while values are buffered, they
+ * precede any prefix of source.
+ */
+final class SinkSpliterators
+{
+    private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.CONCURRENT
+        | Spliterator.IMMUTABLE;
+
+    private SinkSpliterators()
+    {
+        // Utility class
+    }
+
+    /**
+     * Values of one source element waiting for single-step traversal.
+     */
+    private abstract static class Base< T >
+    {
+        final Spliterator< T > source;
+
+        int head;
+
+        int tail;
+
+        Base( Spliterator< T > aSource )
+        {
+            source = aSource;
+        }
+
+        public long estimateSize()
+        {
+            return source.estimateSize();
+        }
+
+        public int characteristics()
+        {
+            return source.characteristics() & CHARACTERISTICS;
+        }
+    }
+
+    /**
+     * {@link Spliterator.OfInt} of values pushed by sink.
+     */
+    static final class OfInt< T > extends Base< T > implements Spliterator.OfInt
+    {
+        private final BiConsumer< ? super T, ? super IntConsumer > sink;
+
+        private int[] buffer = new int[ 8 ];
+
+        private final IntConsumer push = aValue -> {
+            if ( tail == buffer.length )
+            {
+                buffer = Arrays.copyOf( buffer, tail << 1 );
+            }
+            buffer[ tail++ ] = aValue;
+        };
+
+        private final Consumer< T > buffering;
+
+        OfInt( Spliterator< T > aSource, BiConsumer< ? super T, ? super IntConsumer > aSink )
+        {
+            super( aSource );
+            sink = aSink;
+            buffering = aElement -> aSink.accept( aElement, push );
+        }
+
+        @Override
+        public boolean tryAdvance( IntConsumer aAction )
+        {
+            while ( head == tail )
+            {
+                head = tail = 0;
+                if ( !source.tryAdvance( buffering ) )
+                {
+                    return false;
+                }
+            }
+            aAction.accept( buffer[ head++ ] );
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining( IntConsumer aAction )
+        {
+            while ( head < tail )
+            {
+                aAction.accept( buffer[ head++ ] );
+            }
+            source.forEachRemaining( aElement -> sink.accept( aElement, aAction ) );
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit()
+        {
+            final Spliterator< T > prefix = head < tail ? null : source.trySplit();
+            return prefix == null ? null : new SinkSpliterators.OfInt<>( prefix, sink );
+        }
+    }
+
+    /**
+     * {@link Spliterator.OfLong} of values pushed by sink.
+     */
+    static final class OfLong< T > extends Base< T > implements Spliterator.OfLong
+    {
+        private final BiConsumer< ? super T, ? super LongConsumer > sink;
+
+        private long[] buffer = new long[ 8 ];
+
+        private final LongConsumer push = aValue -> {
+            if ( tail == buffer.length )
+            {
+                buffer = Arrays.copyOf( buffer, tail << 1 );
+            }
+            buffer[ tail++ ] = aValue;
+        };
+
+        private final Consumer< T > buffering;
+
+        OfLong( Spliterator< T > aSource, BiConsumer< ? super T, ? super LongConsumer > aSink )
+        {
+            super( aSource );
+            sink = aSink;
+            buffering = aElement -> aSink.accept( aElement, push );
+        }
+
+        @Override
+        public boolean tryAdvance( LongConsumer aAction )
+        {
+            while ( head == tail )
+            {
+                head = tail = 0;
+                if ( !source.tryAdvance( buffering ) )
+                {
+                    return false;
+                }
+            }
+            aAction.accept( buffer[ head++ ] );
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining( LongConsumer aAction )
+        {
+            while ( head < tail )
+            {
+                aAction.accept( buffer[ head++ ] );
+            }
+            source.forEachRemaining( aElement -> sink.accept( aElement, aAction ) );
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit()
+        {
+            final Spliterator< T > prefix = head < tail ? null : source.trySplit();
+            return prefix == null ? null : new SinkSpliterators.OfLong<>( prefix, sink );
+        }
+    }
+
+    /**
+     * {@link Spliterator.OfDouble} of values pushed by sink.
+     */
+    static final class OfDouble< T > extends Base< T > implements Spliterator.OfDouble
+    {
+        private final BiConsumer< ? super T, ? super DoubleConsumer > sink;
+
+        private double[] buffer = new double[ 8 ];
+
+        private final DoubleConsumer push = aValue -> {
+            if ( tail == buffer.length )
+            {
+                buffer = Arrays.copyOf( buffer, tail << 1 );
+            }
+            buffer[ tail++ ] = aValue;
+        };
+
+        private final Consumer< T > buffering;
+
+        OfDouble( Spliterator< T > aSource, BiConsumer< ? super T, ? super DoubleConsumer > aSink )
+        {
+            super( aSource );
+            sink = aSink;
+            buffering = aElement -> aSink.accept( aElement, push );
+        }
+
+        @Override
+        public boolean tryAdvance( DoubleConsumer aAction )
+        {
+            while ( head == tail )
+            {
+                head = tail = 0;
+                if ( !source.tryAdvance( buffering ) )
+                {
+                    return false;
+                }
+            }
+            aAction.accept( buffer[ head++ ] );
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining( DoubleConsumer aAction )
+        {
+            while ( head < tail )
+            {
+                aAction.accept( buffer[ head++ ] );
+            }
+            source.forEachRemaining( aElement -> sink.accept( aElement, aAction ) );
+        }
+
+        @Override
+        public Spliterator.OfDouble trySplit()
+        {
+            final Spliterator< T > prefix = head < tail ? null : source.trySplit();
+            return prefix == null ? null : new SinkSpliterators.OfDouble<>( prefix, sink );
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.Collection;
+
+import org.eclipse.emf.common.util.BasicEList;
+import org.eclipse.emf.common.util.ECollections;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.impl.BasicEObjectImpl;
+import org.eclipse.emf.ecore.resource.Resource;
+
+/**
+ * Read-only view of {@link EObject} in {@link ModelSnapshot}. Reads feature values, container and contents
+ * from snapshot, modifications are not supported.
+ */
+final class SnapshotEObject extends BasicEObjectImpl
+{
+    private final ModelSnapshot snapshot;
+
+    private final EObject original;
+
+    SnapshotEObject( ModelSnapshot aSnapshot, EObject aOriginal )
+    {
+        snapshot = aSnapshot;
+        original = aOriginal;
+    }
+
+    /**
+     * @return Live object.
+     */
+    EObject getOriginal()
+    {
+        return original;
+    }
+
+    @Override
+    public EClass eClass()
+    {
+        return original.eClass();
+    }
+
+    /**
+     * @return <code>null</code>, snapshot is not part of resource.
+     */
+    @Override
+    public Resource eResource()
+    {
+        return null;
+    }
+
+    @Override
+    public EObject eContainer()
+    {
+        return snapshot.container( original );
+    }
+
+    @Override
+    public EReference eContainmentFeature()
+    {
+        return snapshot.containment( original );
+    }
+
+    @Override
+    public EStructuralFeature eContainingFeature()
+    {
+        return snapshot.containment( original );
+    }
+
+    @Override
+    public EList< EObject > eContents()
+    {
+        final EList< EObject > contents = new BasicEList<>();
+        for ( EReference containment : eClass().getEAllContainments() )
+        {
+            final Object value = snapshot.get( original, containment );
+            if ( value instanceof Collection )
+            {
+                for ( Object content : (Collection< ? >)value )
+                {
+                    contents.add( (EObject)content );
+                }
+            }
+            else if ( value != null )
+            {
+                contents.add( (EObject)value );
+            }
+        }
+        return ECollections.unmodifiableEList( contents );
+    }
+
+    @Override
+    public boolean eIsProxy()
+    {
+        return false;
+    }
+
+    @Override
+    public Object eGet( EStructuralFeature aFeature )
+    {
+        return snapshot.get( original, aFeature );
+    }
+
+    @Override
+    public Object eGet( EStructuralFeature aFeature, boolean aResolve )
+    {
+        return snapshot.get( original, aFeature );
+    }
+
+    @Override
+    public Object eGet( EStructuralFeature aFeature, boolean aResolve, boolean aCoreType )
+    {
+        return snapshot.get( original, aFeature );
+    }
+
+    @Override
+    public boolean eIsSet( EStructuralFeature aFeature )
+    {
+        final Object value = snapshot.get( original, aFeature );
+        if ( aFeature.isMany() )
+        {
+            return !( (Collection< ? >)value ).isEmpty();
+        }
+        return value != null && !value.equals( aFeature.getDefaultValue() );
+    }
+
+    @Override
+    public void eSet( EStructuralFeature aFeature, Object aNewValue )
+    {
+        throw new UnsupportedOperationException( "Snapshot is read-only." );
+    }
+
+    @Override
+    public void eUnset( EStructuralFeature aFeature )
+    {
+        throw new UnsupportedOperationException( "Snapshot is read-only." );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Snapshot " + snapshot.getVersion() + " of " + original;
+    }
+}
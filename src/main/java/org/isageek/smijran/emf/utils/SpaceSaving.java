@@ -0,0 +1,108 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving summary of most frequent values with fixed number of counters. Value without counter takes
+ * over counter with least count and inherits it as overestimation, so count of every value is overestimated
+ * by at most least count. Summaries are merged by adding counts and keeping greatest ones.
+ */
+final class SpaceSaving
+{
+    private final int capacity;
+
+    /**
+     * Count by value.
+     */
+    private final Map< Object, long[] > counters;
+
+    SpaceSaving( int aCapacity )
+    {
+        capacity = aCapacity;
+        counters = new HashMap<>( aCapacity * 2 );
+    }
+
+    void add( Object aValue )
+    {
+        final long[] counter = counters.get( aValue );
+        if ( counter != null )
+        {
+            counter[ 0 ]++;
+        }
+        else if ( counters.size() < capacity )
+        {
+            counters.put( aValue, new long[] { 1 } );
+        }
+        else
+        {
+            Object least = null;
+            long[] leastCounter = null;
+            for ( Map.Entry< Object, long[] > entry : counters.entrySet() )
+            {
+                if ( leastCounter == null || entry.getValue()[ 0 ] < leastCounter[ 0 ] )
+                {
+                    least = entry.getKey();
+                    leastCounter = entry.getValue();
+                }
+            }
+            counters.remove( least );
+            leastCounter[ 0 ]++;
+            counters.put( aValue, leastCounter );
+        }
+    }
+
+    void merge( SpaceSaving aOther )
+    {
+        aOther.counters.forEach( ( aValue, aCounter ) -> {
+            final long[] counter = counters.get( aValue );
+            if ( counter == null )
+            {
+                counters.put( aValue, aCounter.clone() );
+            }
+            else
+            {
+                counter[ 0 ] += aCounter[ 0 ];
+            }
+        } );
+        if ( counters.size() > capacity )
+        {
+            final Map< Object, long[] > kept = new HashMap<>( capacity * 2 );
+            for ( Map.Entry< Object, long[] > entry : sorted().subList( 0, capacity ) )
+            {
+                kept.put( entry.getKey(), entry.getValue() );
+            }
+            counters.clear();
+            counters.putAll( kept );
+        }
+    }
+
+    /**
+     * @param aLimit
+     *            Maximal number of values.
+     * @return Most frequent values with their estimated counts, ordered from most frequent.
+     */
+    Map< Object, Long > top( int aLimit )
+    {
+        final Map< Object, Long > result = new LinkedHashMap<>();
+        for ( Map.Entry< Object, long[] > entry : sorted() )
+        {
+            if ( result.size() == aLimit )
+            {
+                break;
+            }
+            result.put( entry.getKey(), entry.getValue()[ 0 ] );
+        }
+        return result;
+    }
+
+    private List< Map.Entry< Object, long[] > > sorted()
+    {
+        final List< Map.Entry< Object, long[] > > result = new ArrayList<>( counters.entrySet() );
+        result.sort( ( aLeft, aRight ) -> Long.compare( aRight.getValue()[ 0 ], aLeft.getValue()[ 0 ] ) );
+        return result;
+    }
+}
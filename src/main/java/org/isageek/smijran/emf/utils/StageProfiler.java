@@ -0,0 +1,425 @@
+package org.isageek.smijran.emf.utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import org.eclipse.emf.ecore.EObject;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+/**
+ * Profiler of stream pipeline stages. Wrapped predicates, functions and consumers count calls, elapsed time
+ * and bytes allocated by calling thread, as reported by {@link com.sun.management.ThreadMXBean}. When
+ * allocation counting is not supported by JVM, only time is measured. Time and allocations of stage include
+ * nested profiled stages. Disabled profiler passes calls through with one volatile read.
+ */
+public final class StageProfiler
+{
+    /**
+     * Measurements of one stage.
+     */
+    public static final class StageStats
+    {
+        private final long calls;
+
+        private final long nanos;
+
+        private final long bytes;
+
+        StageStats( long aCalls, long aNanos, long aBytes )
+        {
+            calls = aCalls;
+            nanos = aNanos;
+            bytes = aBytes;
+        }
+
+        /**
+         * @return Number of calls.
+         */
+        public long getCalls()
+        {
+            return calls;
+        }
+
+        /**
+         * @param aUnit
+         *            Time unit.
+         * @return Total time spent in stage.
+         */
+        public long getTime( TimeUnit aUnit )
+        {
+            return aUnit.convert( nanos, TimeUnit.NANOSECONDS );
+        }
+
+        /**
+         * @return Total bytes allocated in stage, <code>0</code> if not supported.
+         */
+        public long getAllocatedBytes()
+        {
+            return bytes;
+        }
+
+        /**
+         * @return Average bytes allocated per call.
+         */
+        public double getBytesPerCall()
+        {
+            return calls == 0 ? 0 : (double)bytes / calls;
+        }
+
+        @Override
+        public String toString()
+        {
+            return MoreObjects.toStringHelper( this ).add( "calls", calls ).add( "nanos", nanos )
+                .add( "bytes", bytes ).toString();
+        }
+    }
+
+    private static final class Stage
+    {
+        final LongAdder calls = new LongAdder();
+
+        final LongAdder nanos = new LongAdder();
+
+        final LongAdder bytes = new LongAdder();
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    /**
+     * Stages in order of creation, guarded by itself. Stages are looked up only when wrapping.
+     */
+    private final Map< String, Stage > stages = new LinkedHashMap<>();
+
+    private volatile boolean enabled = true;
+
+    StageProfiler()
+    {
+        // Created by E.Profiling
+    }
+
+    /**
+     * @return <code>true</code> if allocated bytes are measured.
+     */
+    public static boolean isAllocationSupported()
+    {
+        return THREADS != null;
+    }
+
+    /**
+     * Switches profiling on or off, wrapped stages keep working.
+     *
+     * @param aEnabled
+     *            Whether stages are measured.
+     */
+    public void setEnabled( boolean aEnabled )
+    {
+        enabled = aEnabled;
+    }
+
+    /**
+     * @return <code>true</code> if stages are measured.
+     */
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * @param aStage
+     *            Name of stage.
+     * @param aPredicate
+     *            Predicate, e.g. one of {@link E.Predicates}.
+     * @return Profiled {@link Predicate}.
+     */
+    public Predicate< EObject > predicate( String aStage, Predicate< ? super EObject > aPredicate )
+    {
+        Preconditions.checkNotNull( aPredicate, "Predicate is missing." );
+        final Stage stage = stage( aStage );
+        return new Predicate< EObject >()
+        {
+
+            @Override
+            public boolean test( EObject aObject )
+            {
+                if ( !enabled )
+                {
+                    return aPredicate.test( aObject );
+                }
+                final long bytes = allocatedBytes();
+                final long start = System.nanoTime();
+                try
+                {
+                    return aPredicate.test( aObject );
+                }
+                finally
+                {
+                    record( stage, start, bytes );
+                }
+            }
+        };
+    }
+
+    /**
+     * @param aStage
+     *            Name of stage.
+     * @param aFunction
+     *            Function, e.g. one of {@link E.Functions}.
+     * @return Profiled {@link Function}.
+     */
+    public < R >Function< EObject, R > function( String aStage,
+        Function< ? super EObject, ? extends R > aFunction )
+    {
+        Preconditions.checkNotNull( aFunction, "Function is missing." );
+        final Stage stage = stage( aStage );
+        return new Function< EObject, R >()
+        {
+
+            @Override
+            public R apply( EObject aObject )
+            {
+                if ( !enabled )
+                {
+                    return aFunction.apply( aObject );
+                }
+                final long bytes = allocatedBytes();
+                final long start = System.nanoTime();
+                try
+                {
+                    return aFunction.apply( aObject );
+                }
+                finally
+                {
+                    record( stage, start, bytes );
+                }
+            }
+        };
+    }
+
+    /**
+     * @param aStage
+     *            Name of stage.
+     * @param aFunction
+     *            Function, e.g. one of {@link E.Functions}.
+     * @return Profiled {@link ToIntFunction}.
+     */
+    public ToIntFunction< EObject > toInt( String aStage, ToIntFunction< ? super EObject > aFunction )
+    {
+        Preconditions.checkNotNull( aFunction, "Function is missing." );
+        final Stage stage = stage( aStage );
+        return new ToIntFunction< EObject >()
+        {
+
+            @Override
+            public int applyAsInt( EObject aObject )
+            {
+                if ( !enabled )
+                {
+                    return aFunction.applyAsInt( aObject );
+                }
+                final long bytes = allocatedBytes();
+                final long start = System.nanoTime();
+                try
+                {
+                    return aFunction.applyAsInt( aObject );
+                }
+                finally
+                {
+                    record( stage, start, bytes );
+                }
+            }
+        };
+    }
+
+    /**
+     * @param aStage
+     *            Name of stage.
+     * @param aFunction
+     *            Function, e.g. one of {@link E.Functions}.
+     * @return Profiled {@link ToLongFunction}.
+     */
+    public ToLongFunction< EObject > toLong( String aStage, ToLongFunction< ? super EObject > aFunction )
+    {
+        Preconditions.checkNotNull( aFunction, "Function is missing." );
+        final Stage stage = stage( aStage );
+        return new ToLongFunction< EObject >()
+        {
+
+            @Override
+            public long applyAsLong( EObject aObject )
+            {
+                if ( !enabled )
+                {
+                    return aFunction.applyAsLong( aObject );
+                }
+                final long bytes = allocatedBytes();
+                final long start = System.nanoTime();
+                try
+                {
+                    return aFunction.applyAsLong( aObject );
+                }
+                finally
+                {
+                    record( stage, start, bytes );
+                }
+            }
+        };
+    }
+
+    /**
+     * @param aStage
+     *            Name of stage.
+     * @param aFunction
+     *            Function, e.g. one of {@link E.Functions}.
+     * @return Profiled {@link ToDoubleFunction}.
+     */
+    public ToDoubleFunction< EObject > toDouble( String aStage, ToDoubleFunction< ? super EObject > aFunction )
+    {
+        Preconditions.checkNotNull( aFunction, "Function is missing." );
+        final Stage stage = stage( aStage );
+        return new ToDoubleFunction< EObject >()
+        {
+
+            @Override
+            public double applyAsDouble( EObject aObject )
+            {
+                if ( !enabled )
+                {
+                    return aFunction.applyAsDouble( aObject );
+                }
+                final long bytes = allocatedBytes();
+                final long start = System.nanoTime();
+                try
+                {
+                    return aFunction.applyAsDouble( aObject );
+                }
+                finally
+                {
+                    record( stage, start, bytes );
+                }
+            }
+        };
+    }
+
+    /**
+     * @param aStage
+     *            Name of stage.
+     * @param aConsumer
+     *            Consumer, e.g. one of {@link E.Consumers}.
+     * @return Profiled {@link Consumer}.
+     */
+    public Consumer< EObject > consumer( String aStage, Consumer< ? super EObject > aConsumer )
+    {
+        Preconditions.checkNotNull( aConsumer, "Consumer is missing." );
+        final Stage stage = stage( aStage );
+        return new Consumer< EObject >()
+        {
+
+            @Override
+            public void accept( EObject aObject )
+            {
+                if ( !enabled )
+                {
+                    aConsumer.accept( aObject );
+                    return;
+                }
+                final long bytes = allocatedBytes();
+                final long start = System.nanoTime();
+                try
+                {
+                    aConsumer.accept( aObject );
+                }
+                finally
+                {
+                    record( stage, start, bytes );
+                }
+            }
+        };
+    }
+
+    /**
+     * @return Measurements by stage name in order of stage creation.
+     */
+    public Map< String, StageStats > getStages()
+    {
+        final Map< String, StageStats > result = new LinkedHashMap<>();
+        synchronized ( stages )
+        {
+            stages.forEach( ( aName, aStage ) -> result.put( aName,
+                new StageStats( aStage.calls.sum(), aStage.nanos.sum(), aStage.bytes.sum() ) ) );
+        }
+        return result;
+    }
+
+    /**
+     * Resets measurements of all stages.
+     */
+    public void reset()
+    {
+        synchronized ( stages )
+        {
+            for ( Stage stage : stages.values() )
+            {
+                stage.calls.reset();
+                stage.nanos.reset();
+                stage.bytes.reset();
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper( this ).add( "stages", getStages() ).toString();
+    }
+
+    private Stage stage( String aStage )
+    {
+        Preconditions.checkNotNull( aStage, "Stage is missing." );
+        synchronized ( stages )
+        {
+            return stages.computeIfAbsent( aStage, aKey -> new Stage() );
+        }
+    }
+
+    private static void record( Stage aStage, long aStart, long aBytes )
+    {
+        aStage.nanos.add( System.nanoTime() - aStart );
+        aStage.bytes.add( allocatedBytes() - aBytes );
+        aStage.calls.increment();
+    }
+
+    private static long allocatedBytes()
+    {
+        return THREADS == null ? 0 : THREADS.getThreadAllocatedBytes( Thread.currentThread().getId() );
+    }
+
+    private static com.sun.management.ThreadMXBean threads()
+    {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if ( !( bean instanceof com.sun.management.ThreadMXBean ) )
+        {
+            return null;
+        }
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)bean;
+        if ( !threads.isThreadAllocatedMemorySupported() )
+        {
+            return null;
+        }
+        if ( !threads.isThreadAllocatedMemoryEnabled() )
+        {
+            threads.setThreadAllocatedMemoryEnabled( true );
+        }
+        return threads;
+    }
+}
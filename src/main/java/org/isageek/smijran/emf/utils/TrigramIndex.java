@@ -0,0 +1,205 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Index of trigrams of {@link String} property values of {@link EObject} collection. Accelerates
+ * <code>contains</code> lookups by intersecting posting lists of needle trigrams and verifying only
+ * remaining candidates. Index is snapshot of values at time of {@link #build(Collection, EStructuralFeature,
+ * boolean)}, it is not updated when model changes. Instances are immutable and thread safe.
+ */
+public final class TrigramIndex
+{
+    private static final int[] NO_POSTINGS = new int[ 0 ];
+
+    private final EObject[] objects;
+
+    private final String[] values;
+
+    private final Map< Long, int[] > postings;
+
+    private final boolean ignoreCase;
+
+    private TrigramIndex( EObject[] aObjects, String[] aValues, Map< Long, int[] > aPostings,
+        boolean aIgnoreCase )
+    {
+        objects = aObjects;
+        values = aValues;
+        postings = aPostings;
+        ignoreCase = aIgnoreCase;
+    }
+
+    /**
+     * Builds index.
+     * 
+     * @param aObjects
+     *            Indexed objects.
+     * @param aProperty
+     *            {@link String} property.
+     * @param aIgnoreCase
+     *            Whether lookups should ignore case of characters.
+     * @return New index.
+     */
+    public static TrigramIndex build( Collection< ? extends EObject > aObjects, EStructuralFeature aProperty,
+        boolean aIgnoreCase )
+    {
+        Preconditions.checkNotNull( aProperty, "Property is missing." );
+        final EObject[] objects = aObjects.toArray( new EObject[ aObjects.size() ] );
+        final String[] values = new String[ objects.length ];
+        final Map< Long, Postings > postings = new HashMap<>();
+        for ( int i = 0; i < objects.length; i++ )
+        {
+            final String value = (String)objects[ i ].eGet( aProperty );
+            if ( value == null )
+            {
+                continue;
+            }
+            values[ i ] = aIgnoreCase ? fold( value ) : value;
+            for ( int c = 0; c + 3 <= values[ i ].length(); c++ )
+            {
+                postings.computeIfAbsent( trigram( values[ i ], c ), k -> new Postings() ).add( i );
+            }
+        }
+        final Map< Long, int[] > compacted = new HashMap<>( postings.size() * 4 / 3 + 1 );
+        postings.forEach( ( trigram, list ) -> compacted.put( trigram, list.toArray() ) );
+        return new TrigramIndex( objects, values, compacted, aIgnoreCase );
+    }
+
+    /**
+     * Finds objects whose property value contains given text.
+     * 
+     * @param aText
+     *            Searched text.
+     * @return {@link Stream} of matching objects in indexing order.
+     */
+    public Stream< EObject > contains( String aText )
+    {
+        final String needle = ignoreCase ? fold( aText ) : aText;
+        return candidates( needle ).filter( i -> values[ i ] != null && values[ i ].contains( needle ) )
+            .mapToObj( i -> objects[ i ] );
+    }
+
+    /**
+     * Creates {@link Predicate} which is <code>true</code> for indexed objects whose property value contained
+     * given text at indexing time.
+     * 
+     * @param aText
+     *            Searched text.
+     * @return {@link Predicate} backed by result of {@link #contains(String)}.
+     */
+    public Predicate< EObject > containsPredicate( String aText )
+    {
+        final Set< EObject > matching = Collections.newSetFromMap( new IdentityHashMap<>() );
+        contains( aText ).forEach( matching::add );
+        return matching::contains;
+    }
+
+    /**
+     * @return Number of indexed objects.
+     */
+    public int size()
+    {
+        return objects.length;
+    }
+
+    private IntStream candidates( String aNeedle )
+    {
+        if ( aNeedle.length() < 3 )
+        {
+            return IntStream.range( 0, objects.length );
+        }
+        int[] candidates = null;
+        for ( int c = 0; c + 3 <= aNeedle.length(); c++ )
+        {
+            final int[] list = postings.getOrDefault( trigram( aNeedle, c ), NO_POSTINGS );
+            candidates = candidates == null ? list : intersect( candidates, list );
+            if ( candidates.length == 0 )
+            {
+                break;
+            }
+        }
+        return IntStream.of( candidates );
+    }
+
+    private static int[] intersect( int[] aLeft, int[] aRight )
+    {
+        final int[] result = new int[ Math.min( aLeft.length, aRight.length ) ];
+        int size = 0;
+        for ( int l = 0, r = 0; l < aLeft.length && r < aRight.length; )
+        {
+            if ( aLeft[ l ] < aRight[ r ] )
+            {
+                l++;
+            }
+            else if ( aLeft[ l ] > aRight[ r ] )
+            {
+                r++;
+            }
+            else
+            {
+                result[ size++ ] = aLeft[ l ];
+                l++;
+                r++;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf( result, size );
+    }
+
+    private static long trigram( String aValue, int aStart )
+    {
+        return (long)aValue.charAt( aStart ) << 32 | (long)aValue.charAt( aStart + 1 ) << 16
+            | aValue.charAt( aStart + 2 );
+    }
+
+    private static String fold( String aValue )
+    {
+        final char[] chars = aValue.toCharArray();
+        for ( int i = 0; i < chars.length; i++ )
+        {
+            chars[ i ] = Character.toLowerCase( Character.toUpperCase( chars[ i ] ) );
+        }
+        return new String( chars );
+    }
+
+    /**
+     * Growable sorted list of object indices.
+     */
+    private static final class Postings
+    {
+        private int[] ids = new int[ 4 ];
+
+        private int size;
+
+        void add( int aId )
+        {
+            if ( size > 0 && ids[ size - 1 ] == aId )
+            {
+                return;
+            }
+            if ( size == ids.length )
+            {
+                ids = Arrays.copyOf( ids, size * 2 );
+            }
+            ids[ size++ ] = aId;
+        }
+
+        int[] toArray()
+        {
+            return Arrays.copyOf( ids, size );
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.eclipse.emf.common.util.BasicDiagnostic;
+import org.eclipse.emf.common.util.Diagnostic;
+import org.eclipse.emf.ecore.EObject;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Violations found by {@link ModelValidator}. Result is immutable.
+ */
+public final class ValidationResult
+{
+    /**
+     * Source of diagnostics created by {@link #toDiagnostic()}.
+     */
+    public static final String DIAGNOSTIC_SOURCE = "org.isageek.smijran.emf.utils";
+
+    /**
+     * Object which does not satisfy rule.
+     */
+    public static final class Violation
+    {
+        private final EObject object;
+
+        private final ModelValidator.Rule rule;
+
+        Violation( EObject aObject, ModelValidator.Rule aRule )
+        {
+            object = aObject;
+            rule = aRule;
+        }
+
+        /**
+         * @return Invalid object.
+         */
+        public EObject getObject()
+        {
+            return object;
+        }
+
+        /**
+         * @return Violated rule.
+         */
+        public ModelValidator.Rule getRule()
+        {
+            return rule;
+        }
+
+        /**
+         * @return Error diagnostic with object as data.
+         */
+        public Diagnostic toDiagnostic()
+        {
+            return new BasicDiagnostic( Diagnostic.ERROR, DIAGNOSTIC_SOURCE, rule.getCode(),
+                "The '" + rule.getName() + "' constraint is violated on '" + object + "'", new Object[]
+                { object } );
+        }
+
+        @Override
+        public String toString()
+        {
+            return rule + " violated by " + object;
+        }
+    }
+
+    private final List< Violation > violations;
+
+    private final int validated;
+
+    private final boolean truncated;
+
+    ValidationResult( List< Violation > aViolations, int aValidated, boolean aTruncated )
+    {
+        violations = Collections.unmodifiableList( aViolations );
+        validated = aValidated;
+        truncated = aTruncated;
+    }
+
+    /**
+     * @return <code>true</code> if no violation was found.
+     */
+    public boolean isValid()
+    {
+        return violations.isEmpty();
+    }
+
+    /**
+     * @return <code>true</code> if validation stopped on limit of violations, before all objects were
+     *         validated or with more violations found than reported.
+     */
+    public boolean isTruncated()
+    {
+        return truncated;
+    }
+
+    /**
+     * @return Number of validated objects.
+     */
+    public int getValidated()
+    {
+        return validated;
+    }
+
+    /**
+     * @return Reported violations.
+     */
+    public List< Violation > getViolations()
+    {
+        return violations;
+    }
+
+    /**
+     * @param aObject
+     *            Object.
+     * @return Reported violations of object.
+     */
+    public List< Violation > getViolations( EObject aObject )
+    {
+        return violations.stream().filter( aViolation -> aViolation.object == aObject )
+            .collect( Collectors.toList() );
+    }
+
+    /**
+     * @return Number of reported violations by rule, in order of first violation.
+     */
+    public Map< ModelValidator.Rule, Integer > countByRule()
+    {
+        final Map< ModelValidator.Rule, Integer > result = new LinkedHashMap<>();
+        violations.forEach( aViolation -> result.merge( aViolation.rule, 1, Integer::sum ) );
+        return result;
+    }
+
+    /**
+     * @return Diagnostic with child per violation, compatible with
+     *         {@link org.eclipse.emf.ecore.util.Diagnostician} results.
+     */
+    public Diagnostic toDiagnostic()
+    {
+        final BasicDiagnostic result = new BasicDiagnostic( DIAGNOSTIC_SOURCE, 0,
+            "Diagnosis of " + validated + " objects", null );
+        violations.forEach( aViolation -> result.add( aViolation.toDiagnostic() ) );
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper( this ).add( "validated", validated )
+            .add( "violations", violations.size() ).add( "truncated", truncated ).toString();
+    }
+}
@@ -0,0 +1,302 @@
+package org.isageek.smijran.emf.utils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.MapMaker;
+
+/**
+ * Deduplication of {@link String}, {@link BigDecimal} and {@link Date} attribute values through weak
+ * {@link Interner}s. Value equal to already interned one is replaced by interned instance with notifications
+ * disabled, because replacement does not change value. Model must not be modified during interning.
+ * Interned {@link Date}s are shared, they must not be modified.
+ */
+public final class ValueInterner
+{
+    /**
+     * Adapter of {@link ResourceSet} which interns values of every resource when it is loaded.
+     */
+    public final class LoadHook extends AdapterImpl
+    {
+        private final ResourceSet resourceSet;
+
+        private final InterningReport report = new InterningReport();
+
+        LoadHook( ResourceSet aResourceSet )
+        {
+            resourceSet = aResourceSet;
+        }
+
+        /**
+         * @return Counts of all resources interned by hook.
+         */
+        public InterningReport getReport()
+        {
+            return report;
+        }
+
+        /**
+         * Removes hook from resource set and its resources.
+         */
+        public void remove()
+        {
+            resourceSet.eAdapters().remove( this );
+            for ( Resource resource : resourceSet.getResources() )
+            {
+                resource.eAdapters().remove( this );
+            }
+        }
+
+        @Override
+        public void notifyChanged( Notification aNotification )
+        {
+            final Object notifier = aNotification.getNotifier();
+            if ( notifier instanceof ResourceSet
+                && aNotification.getFeatureID( ResourceSet.class ) == ResourceSet.RESOURCE_SET__RESOURCES )
+            {
+                switch ( aNotification.getEventType() )
+                {
+                    case Notification.ADD:
+                        watch( (Resource)aNotification.getNewValue() );
+                        break;
+                    case Notification.ADD_MANY:
+                        for ( Object resource : (Collection< ? >)aNotification.getNewValue() )
+                        {
+                            watch( (Resource)resource );
+                        }
+                        break;
+                    case Notification.REMOVE:
+                        ( (Resource)aNotification.getOldValue() ).eAdapters().remove( this );
+                        break;
+                    case Notification.REMOVE_MANY:
+                        for ( Object resource : (Collection< ? >)aNotification.getOldValue() )
+                        {
+                            ( (Resource)resource ).eAdapters().remove( this );
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            else if ( notifier instanceof Resource
+                && aNotification.getFeatureID( Resource.class ) == Resource.RESOURCE__IS_LOADED
+                && aNotification.getNewBooleanValue() )
+            {
+                internParallel( (Resource)notifier, report );
+            }
+        }
+
+        void watch( Resource aResource )
+        {
+            if ( !aResource.eAdapters().contains( this ) )
+            {
+                aResource.eAdapters().add( this );
+            }
+            if ( aResource.isLoaded() )
+            {
+                internParallel( aResource, report );
+            }
+        }
+    }
+
+    /**
+     * Feature IDs of interned attributes by class. IDs do not reference metamodel, so values do not keep
+     * weakly referenced classes reachable.
+     */
+    private static final ConcurrentMap< EClass, int[] > ATTRIBUTES = new MapMaker().weakKeys().makeMap();
+
+    private final Interner< String > strings = Interners.newWeakInterner();
+
+    private final Interner< BigDecimal > decimals = Interners.newWeakInterner();
+
+    private final Interner< Date > dates = Interners.newWeakInterner();
+
+    ValueInterner()
+    {
+        // Created by E.Interning
+    }
+
+    /**
+     * Returns canonical instance of value.
+     *
+     * @param aValue
+     *            Value.
+     * @return Interned instance equal to {@link String}, {@link BigDecimal} or {@link Date} value, other
+     *         values as they are.
+     */
+    public Object intern( Object aValue )
+    {
+        if ( aValue instanceof String )
+        {
+            return strings.intern( (String)aValue );
+        }
+        if ( aValue instanceof BigDecimal )
+        {
+            return decimals.intern( (BigDecimal)aValue );
+        }
+        if ( aValue instanceof Date )
+        {
+            return dates.intern( (Date)aValue );
+        }
+        return aValue;
+    }
+
+    /**
+     * Interns attribute values of all objects of containment tree.
+     *
+     * @param aRoot
+     *            {@link EObject}, {@link Resource} or {@link ResourceSet}.
+     * @return Counts per attribute.
+     */
+    public InterningReport intern( Notifier aRoot )
+    {
+        Preconditions.checkNotNull( aRoot, "Root is missing." );
+        final InterningReport report = new InterningReport();
+        ContentObserver.forEachObject( aRoot, aObject -> intern( aObject, report ) );
+        return report;
+    }
+
+    /**
+     * Interns attribute values of all objects of containment tree in parallel.
+     *
+     * @param aRoot
+     *            {@link EObject}, {@link Resource} or {@link ResourceSet}.
+     * @return Counts per attribute.
+     */
+    public InterningReport internParallel( Notifier aRoot )
+    {
+        Preconditions.checkNotNull( aRoot, "Root is missing." );
+        final InterningReport report = new InterningReport();
+        internParallel( aRoot, report );
+        return report;
+    }
+
+    /**
+     * Installs hook which interns values of resources of resource set when they are loaded. Already loaded
+     * resources are interned immediately.
+     *
+     * @param aResourceSet
+     *            Resource set.
+     * @return Installed hook.
+     */
+    public LoadHook installLoadHook( ResourceSet aResourceSet )
+    {
+        Preconditions.checkNotNull( aResourceSet, "Resource set is missing." );
+        final LoadHook hook = new LoadHook( aResourceSet );
+        aResourceSet.eAdapters().add( hook );
+        for ( Resource resource : aResourceSet.getResources() )
+        {
+            hook.watch( resource );
+        }
+        return hook;
+    }
+
+    private void internParallel( Notifier aRoot, InterningReport aReport )
+    {
+        final List< EObject > objects = new ArrayList<>();
+        ContentObserver.forEachObject( aRoot, objects::add );
+        objects.parallelStream().forEach( aObject -> intern( aObject, aReport ) );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private void intern( EObject aObject, InterningReport aReport )
+    {
+        boolean deliver = false;
+        boolean silenced = false;
+        try
+        {
+            final EClass eClass = aObject.eClass();
+            for ( int featureID : attributeIDs( eClass ) )
+            {
+                final EAttribute attribute = (EAttribute)eClass.getEStructuralFeature( featureID );
+                if ( !aObject.eIsSet( attribute ) )
+                {
+                    continue;
+                }
+                final Object value = aObject.eGet( attribute );
+                if ( attribute.isMany() )
+                {
+                    final List< Object > values = (List< Object >)value;
+                    for ( int i = 0; i < values.size(); i++ )
+                    {
+                        final Object element = values.get( i );
+                        final Object canonical = intern( element );
+                        aReport.record( attribute, canonical == element ? null : element );
+                        if ( canonical != element )
+                        {
+                            if ( !silenced )
+                            {
+                                deliver = aObject.eDeliver();
+                                aObject.eSetDeliver( false );
+                                silenced = true;
+                            }
+                            values.set( i, canonical );
+                        }
+                    }
+                    continue;
+                }
+                final Object canonical = intern( value );
+                aReport.record( attribute, canonical == value ? null : value );
+                if ( canonical != value )
+                {
+                    if ( !silenced )
+                    {
+                        deliver = aObject.eDeliver();
+                        aObject.eSetDeliver( false );
+                        silenced = true;
+                    }
+                    aObject.eSet( attribute, canonical );
+                }
+            }
+        }
+        finally
+        {
+            if ( silenced )
+            {
+                aObject.eSetDeliver( deliver );
+            }
+        }
+    }
+
+    /**
+     * @return IDs of changeable attributes of class with {@link String}, {@link BigDecimal} or {@link Date}
+     *         values.
+     */
+    private static int[] attributeIDs( EClass aClass )
+    {
+        int[] result = ATTRIBUTES.get( aClass );
+        if ( result == null )
+        {
+            final List< EAttribute > attributes = new ArrayList<>();
+            for ( EAttribute attribute : aClass.getEAllAttributes() )
+            {
+                final Class< ? > type = attribute.getEAttributeType() == null ? null
+                    : attribute.getEAttributeType().getInstanceClass();
+                if ( attribute.isChangeable() && !attribute.isDerived()
+                    && ( type == String.class || type == BigDecimal.class || type == Date.class ) )
+                {
+                    attributes.add( attribute );
+                }
+            }
+            result = attributes.stream().mapToInt( aClass::getFeatureID ).toArray();
+            ATTRIBUTES.putIfAbsent( aClass, result );
+        }
+        return result;
+    }
+}
@@ -0,0 +1,196 @@
+package org.isageek.smijran.emf.utils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EDataType;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests {@link E.Diff#compare(java.util.Collection, java.util.Collection)} over small catalogs of items and
+ * notes matched by id.
+ */
+public class ModelDiffTest extends TestCase
+{
+    private EClass catalog;
+
+    private EReference entries;
+
+    private EClass entry;
+
+    private EAttribute id;
+
+    private EClass item;
+
+    private EAttribute name;
+
+    private EAttribute price;
+
+    private EReference related;
+
+    private EClass note;
+
+    private EAttribute noteName;
+
+    private EAttribute text;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        final EPackage ePackage = EcoreFactory.eINSTANCE.createEPackage();
+        ePackage.setName( "diff" );
+        ePackage.setNsURI( "http://isageek.org/smijran/emf/utils/diff" );
+        entry = eClass( ePackage, "Entry" );
+        entry.setAbstract( true );
+        id = attribute( entry, "id", EcorePackage.eINSTANCE.getEString() );
+        id.setID( true );
+        item = eClass( ePackage, "Item" );
+        item.getESuperTypes().add( entry );
+        name = attribute( item, "name", EcorePackage.eINSTANCE.getEString() );
+        price = attribute( item, "price", EcorePackage.eINSTANCE.getEDouble() );
+        related = reference( item, "related", entry );
+        note = eClass( ePackage, "Note" );
+        note.getESuperTypes().add( entry );
+        noteName = attribute( note, "name", EcorePackage.eINSTANCE.getEString() );
+        text = attribute( note, "text", EcorePackage.eINSTANCE.getEString() );
+        catalog = eClass( ePackage, "Catalog" );
+        entries = reference( catalog, "entries", entry );
+        entries.setContainment( true );
+        entries.setUpperBound( -1 );
+    }
+
+    public void testUnchanged()
+    {
+        final EObject oldCatalog = catalog( item( "a", "A", 1 ), item( "b", "B", 2 ) );
+        final EObject newCatalog = EcoreUtil.copy( oldCatalog );
+
+        assertTrue( E.Diff.compare( entries( oldCatalog ), entries( newCatalog ) ).isEmpty() );
+    }
+
+    public void testAddedRemovedAndChanged()
+    {
+        final EObject oldCatalog = catalog( item( "a", "A", 1 ), item( "b", "B", 2 ), item( "c", "C", 3 ) );
+        final EObject newCatalog = EcoreUtil.copy( oldCatalog );
+        final EObject added = item( "d", "D", 4 );
+        entries( newCatalog ).remove( 2 );
+        entries( newCatalog ).add( added );
+        entries( newCatalog ).get( 1 ).eSet( price, 2.5 );
+
+        final ModelDiff diff = E.Diff.compare( entries( oldCatalog ), entries( newCatalog ) );
+
+        assertEquals( Arrays.asList( added ), diff.getAdded() );
+        assertEquals( Arrays.asList( entries( oldCatalog ).get( 2 ) ), diff.getRemoved() );
+        assertEquals( 1, diff.getModified().size() );
+        final ModelDiff.Modification modification = diff.getModified().get( 0 );
+        assertEquals( "b", modification.getKey() );
+        assertSame( entries( oldCatalog ).get( 1 ), modification.getOldObject() );
+        assertSame( entries( newCatalog ).get( 1 ), modification.getNewObject() );
+        assertEquals( Arrays.asList( price ), modification.getFeatures() );
+    }
+
+    public void testInsertedSiblingKeepsReferences()
+    {
+        final EObject first = item( "a", "A", 1 );
+        final EObject target = item( "c", "C", 3 );
+        first.eSet( related, target );
+        final EObject oldCatalog = catalog( first, item( "b", "B", 2 ), target );
+        final EObject newCatalog = EcoreUtil.copy( oldCatalog );
+        entries( newCatalog ).add( 0, item( "x", "X", 0 ) );
+
+        final ModelDiff diff = E.Diff.compare( entries( oldCatalog ), entries( newCatalog ) );
+
+        assertEquals( 1, diff.getAdded().size() );
+        assertTrue( diff.getRemoved().isEmpty() );
+        assertTrue( diff.getModified().isEmpty() );
+    }
+
+    public void testRetargetedReference()
+    {
+        final EObject first = item( "a", "A", 1 );
+        first.eSet( related, first );
+        final EObject oldCatalog = catalog( first, item( "b", "B", 2 ) );
+        final EObject newCatalog = EcoreUtil.copy( oldCatalog );
+        entries( newCatalog ).get( 0 ).eSet( related, entries( newCatalog ).get( 1 ) );
+
+        final ModelDiff diff = E.Diff.compare( entries( oldCatalog ), entries( newCatalog ) );
+
+        assertEquals( 1, diff.getModified().size() );
+        assertEquals( Arrays.asList( related ), diff.getModified().get( 0 ).getFeatures() );
+    }
+
+    public void testChangedClass()
+    {
+        final EObject oldCatalog = catalog( item( "a", "A", 1 ), item( "b", "B", 2 ) );
+        final EObject replacement = EcoreUtil.create( note );
+        replacement.eSet( id, "a" );
+        replacement.eSet( noteName, "A" );
+        replacement.eSet( text, "Text" );
+        final EObject newCatalog = catalog( replacement, item( "b", "B", 2 ) );
+
+        final ModelDiff diff = E.Diff.compare( entries( oldCatalog ), entries( newCatalog ) );
+
+        assertTrue( diff.getAdded().isEmpty() );
+        assertTrue( diff.getRemoved().isEmpty() );
+        assertEquals( 1, diff.getModified().size() );
+        final List< EStructuralFeature > features = diff.getModified().get( 0 ).getFeatures();
+        assertEquals( Arrays.asList( text, price, related ), features );
+    }
+
+    private EObject catalog( EObject... aEntries )
+    {
+        final EObject result = EcoreUtil.create( catalog );
+        entries( result ).addAll( Arrays.asList( aEntries ) );
+        return result;
+    }
+
+    private EObject item( String aId, String aName, double aPrice )
+    {
+        final EObject result = EcoreUtil.create( item );
+        result.eSet( id, aId );
+        result.eSet( name, aName );
+        result.eSet( price, aPrice );
+        return result;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private List< EObject > entries( EObject aCatalog )
+    {
+        return (List< EObject >)aCatalog.eGet( entries );
+    }
+
+    private static EClass eClass( EPackage aPackage, String aName )
+    {
+        final EClass result = EcoreFactory.eINSTANCE.createEClass();
+        result.setName( aName );
+        aPackage.getEClassifiers().add( result );
+        return result;
+    }
+
+    private static EAttribute attribute( EClass aClass, String aName, EDataType aType )
+    {
+        final EAttribute result = EcoreFactory.eINSTANCE.createEAttribute();
+        result.setName( aName );
+        result.setEType( aType );
+        aClass.getEStructuralFeatures().add( result );
+        return result;
+    }
+
+    private static EReference reference( EClass aClass, String aName, EClass aType )
+    {
+        final EReference result = EcoreFactory.eINSTANCE.createEReference();
+        result.setName( aName );
+        result.setEType( aType );
+        aClass.getEStructuralFeatures().add( result );
+        return result;
+    }
+}